@@ -2,42 +2,29 @@ package biblioteca;
 
 import biblioteca.controller.LoginController;
 import biblioteca.dao.AutorDAO;
-import biblioteca.dao.AutorDAOImpl;
 import biblioteca.dao.CategoriaDAO;
-import biblioteca.dao.CategoriaDAOImpl;
+import biblioteca.dao.CorreoSalienteDAOImpl;
 import biblioteca.dao.EjemplarDAO;
-import biblioteca.dao.EjemplarDAOImpl;
+import biblioteca.dao.FabricaDAO;
 import biblioteca.dao.MaterialDAO;
-import biblioteca.dao.MaterialDAOImpl;
 import biblioteca.dao.PersonaDAO;
-import biblioteca.dao.PersonaDAOImpl;
 import biblioteca.dao.PrestamoDAO;
-import biblioteca.dao.PrestamoDAOImpl;
 import biblioteca.util.InitBD;
+import biblioteca.util.DespachadorCorreo;
+import biblioteca.util.EjecutorAsincrono;
+import biblioteca.util.TareaCheckpoint;
+import biblioteca.util.TareaVencimientos;
 import biblioteca.view.LoginView;
-import java.nio.file.*;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
 public class Main {
     public static void main(String[] args) {
 
-        // 1) Antes de arrancar Swing, asegurar BD creada SOLO si no existe
-        try {
-            Path dbPath = Paths.get(
-                System.getProperty("user.dir"),
-                "db",
-                "biblioteca.db"
-            );
-
-            if (!Files.exists(dbPath)) {
-                System.out.println("BD no existe, creando estructura inicial...");
-                InitBD.crearTablasDesdeScript();
-            } else {
-                System.out.println("BD ya existe, no se ejecuta el script.");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        // 1) Antes de arrancar Swing, aplicar las migraciones pendientes
+        //    (en una BD nueva, la primera crea la estructura inicial)
+        if (!InitBD.migrar()) {
+            System.err.println("La base de datos no está al día; revisa los errores de migración.");
         }
 
         // 2) Luego ya lanzas la UI en el EDT
@@ -49,13 +36,26 @@ public class Main {
                 System.err.println("Advertencia: no se pudo aplicar el tema del sistema.");
             }
 
-            // DAOs
-            CategoriaDAO categoriaDAO = new CategoriaDAOImpl();
-            AutorDAO autorDAO = new AutorDAOImpl();
-            PersonaDAO personaDAO = new PersonaDAOImpl();
-            MaterialDAO materialDAO = new MaterialDAOImpl(categoriaDAO, autorDAO);
-            EjemplarDAO ejemplarDAO = new EjemplarDAOImpl(materialDAO);
-            PrestamoDAO prestamoDAO = new PrestamoDAOImpl(personaDAO, materialDAO, ejemplarDAO);
+            // DAOs compartidos (categorías, autores y personas con caché de buscarPorId)
+            FabricaDAO dao = FabricaDAO.getInstancia();
+            CategoriaDAO categoriaDAO = dao.getCategoriaDAO();
+            AutorDAO autorDAO = dao.getAutorDAO();
+            PersonaDAO personaDAO = dao.getPersonaDAO();
+            MaterialDAO materialDAO = dao.getMaterialDAO();
+            EjemplarDAO ejemplarDAO = dao.getEjemplarDAO();
+            PrestamoDAO prestamoDAO = dao.getPrestamoDAO();
+
+            // Mapa de códigos de barras para el modo de escaneo de préstamos
+            EjecutorAsincrono.enSegundoPlano(dao::precargarCodigosBarra);
+
+            // Barrido de préstamos vencidos en segundo plano (arranque + medianoche)
+            TareaVencimientos.iniciar(prestamoDAO);
+
+            // Checkpoint periódico del WAL según el perfil de almacenamiento
+            TareaCheckpoint.iniciar();
+
+            // Bandeja de salida: envía lo pendiente (también lo que quedó de la última sesión)
+            DespachadorCorreo.iniciar(new CorreoSalienteDAOImpl());
 
             // Login
             LoginView loginView = new LoginView();
@@ -1,45 +1,107 @@
 package biblioteca.config;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
+import java.util.logging.Logger;
 
 public class Conexion {
 
-    private static final String URL =
-        // Poner la ruta .db
-        "jdbc:sqlite:C:";
+    // Valores por defecto dentro del jar; un db.properties junto al ejecutable los sobreescribe
+    private static final String RECURSO_CONFIG = "/biblioteca/config/db.properties";
+    private static final String ARCHIVO_CONFIG = "db.properties";
 
-    
-    // imprime solo la primera conexión
-    private static boolean mensajeMostrado = false;
+    private static final Logger LOG = Logger.getLogger(Conexion.class.getName());
 
-    public static Connection getConnection() {
-        Connection conn = null;
-        try {
-            Class.forName("org.sqlite.JDBC");
-            conn = DriverManager.getConnection(URL);
-
-            if (!mensajeMostrado) {
-                System.out.println("Conexión exitosa a SQLite");
-                mensajeMostrado = true;
-                //System.out.println("Ruta real BD: " + new java.io.File("db/biblioteca.db").getAbsolutePath());
-
-            }
+    private static volatile PoolConexiones pool;
 
+    /**
+     * Presta una conexión del pool. Si no hay ninguna libre en
+     * pool.esperaMaximaMs lanza SQLException, que los DAO tratan como
+     * cualquier otro error de la base; nunca devuelve null.
+     */
+    public static Connection getConnection() throws SQLException {
+        try {
+            return obtenerPool().obtener();
         } catch (ClassNotFoundException e) {
-            System.err.println("Driver SQLite no encontrado: " + e.getMessage());
-        } catch (SQLException e) {
-            System.err.println("Error de conexión SQLite: " + e.getMessage());
+            throw new SQLException("Driver SQLite no encontrado: " + e.getMessage(), e);
         }
-        return conn;
     }
-}
-
 
+    /**
+     * Métricas actuales del pool (espera, activas, libres...).
+     */
+    public static PoolConexiones.Estadisticas getEstadisticasPool() {
+        PoolConexiones p = pool;
+        return p != null ? p.getEstadisticas() : null;
+    }
 
+    /**
+     * Perfil de almacenamiento con el que se abren las conexiones (db.perfil).
+     */
+    public static PerfilAlmacenamiento getPerfilAlmacenamiento() {
+        try {
+            return obtenerPool().getPerfil();
+        } catch (ClassNotFoundException | SQLException e) {
+            System.err.println("Error de conexión SQLite: " + e.getMessage());
+            return PerfilAlmacenamiento.desde(cargarPropiedades());
+        }
+    }
 
+    /**
+     * Cierra las conexiones abiertas. Se llama al salir de la aplicación.
+     */
+    public static synchronized void cerrarPool() {
+        if (pool != null) {
+            PoolConexiones cerrando = pool;
+            LOG.info(() -> "Cerrando pool: " + cerrando.getEstadisticas());
+            pool.cerrar();
+            pool = null;
+        }
+    }
 
+    private static PoolConexiones obtenerPool() throws ClassNotFoundException, SQLException {
+        PoolConexiones p = pool;
+        if (p == null) {
+            synchronized (Conexion.class) {
+                p = pool;
+                if (p == null) {
+                    Class.forName("org.sqlite.JDBC");
+                    p = new PoolConexiones(cargarPropiedades());
+                    p.precalentar();
+                    pool = p;
+                    Runtime.getRuntime().addShutdownHook(new Thread(Conexion::cerrarPool));
+                    System.out.println("Conexión exitosa a SQLite (perfil " + p.getPerfil() + ")");
+                }
+            }
+        }
+        return p;
+    }
 
+    static Properties cargarPropiedades() {
+        Properties props = new Properties();
 
+        try (InputStream in = Conexion.class.getResourceAsStream(RECURSO_CONFIG)) {
+            if (in != null) {
+                props.load(in);
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudo leer " + RECURSO_CONFIG + ": " + e.getMessage());
+        }
 
+        Path externo = Paths.get(System.getProperty("user.dir"), ARCHIVO_CONFIG);
+        if (Files.exists(externo)) {
+            try (InputStream in = Files.newInputStream(externo)) {
+                props.load(in);
+            } catch (IOException e) {
+                System.err.println("No se pudo leer " + externo + ": " + e.getMessage());
+            }
+        }
+        return props;
+    }
+}
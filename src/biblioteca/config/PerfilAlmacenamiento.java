@@ -0,0 +1,132 @@
+package biblioteca.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Ajustes de SQLite según el tipo de instalación. Se aplican a cada conexión
+ * física al abrirla (db.perfil en db.properties).
+ *
+ * Todos usan WAL: los lectores (informes, listados) ya no bloquean al que
+ * registra un préstamo ni al revés. Con WAL, synchronous=NORMAL no corrompe
+ * la base ante un corte de luz; como mucho se pierden las últimas
+ * transacciones aún no volcadas por el checkpoint.
+ *
+ * Cualquier pragma se puede cambiar suelto con db.pragma.&lt;nombre&gt;.
+ */
+public enum PerfilAlmacenamiento {
+
+    /** Puesto de mostrador: una persona, varias pantallas y informes a la vez. */
+    ESCRITORIO("escritorio", 5000, -16000, 64L * 1024 * 1024, 1000, 5, false),
+
+    /** Terminal de autoservicio: poca memoria, consultas cortas, checkpoints frecuentes. */
+    KIOSCO("kiosco", 3000, -4000, 0, 500, 1, false),
+
+    /**
+     * Cargas masivas: caché grande, espera larga por el bloqueo y sin
+     * checkpoints automáticos entre lotes; el checkpoint periódico trunca el WAL.
+     */
+    IMPORTACION("importacion", 30000, -64000, 256L * 1024 * 1024, 0, 2, true);
+
+    private final String nombre;
+    private final int busyTimeoutMs;
+    private final int cacheSize;              // negativo = KiB
+    private final long mmapSize;
+    private final int walAutocheckpoint;      // páginas; 0 = desactivado
+    private final int minutosCheckpoint;
+    private final boolean truncarWal;
+
+    PerfilAlmacenamiento(String nombre, int busyTimeoutMs, int cacheSize, long mmapSize,
+                         int walAutocheckpoint, int minutosCheckpoint, boolean truncarWal) {
+        this.nombre = nombre;
+        this.busyTimeoutMs = busyTimeoutMs;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.walAutocheckpoint = walAutocheckpoint;
+        this.minutosCheckpoint = minutosCheckpoint;
+        this.truncarWal = truncarWal;
+    }
+
+    /**
+     * Perfil indicado en db.perfil. Acepta también los nombres en inglés
+     * (desk, kiosk, batch-import); si falta o no se reconoce, ESCRITORIO.
+     */
+    public static PerfilAlmacenamiento desde(Properties props) {
+        String valor = props.getProperty("db.perfil");
+        if (valor == null || valor.isBlank()) {
+            return ESCRITORIO;
+        }
+        switch (valor.trim().toLowerCase(Locale.ROOT)) {
+            case "escritorio":
+            case "desk":
+                return ESCRITORIO;
+            case "kiosco":
+            case "kiosk":
+                return KIOSCO;
+            case "importacion":
+            case "importación":
+            case "batch-import":
+                return IMPORTACION;
+            default:
+                System.err.println("Perfil de almacenamiento desconocido: " + valor + " (se usa escritorio)");
+                return ESCRITORIO;
+        }
+    }
+
+    /**
+     * Pragmas a ejecutar en orden: los del perfil con los db.pragma.* encima.
+     * journal_mode va primero porque no se puede cambiar dentro de una transacción.
+     */
+    public Map<String, String> pragmas(Properties props) {
+        Map<String, String> pragmas = new LinkedHashMap<>();
+        pragmas.put("journal_mode", "WAL");
+        pragmas.put("synchronous", "NORMAL");
+        pragmas.put("busy_timeout", String.valueOf(busyTimeoutMs));
+        pragmas.put("cache_size", String.valueOf(cacheSize));
+        pragmas.put("mmap_size", String.valueOf(mmapSize));
+        pragmas.put("temp_store", "MEMORY");
+        pragmas.put("wal_autocheckpoint", String.valueOf(walAutocheckpoint));
+
+        for (String clave : props.stringPropertyNames()) {
+            if (clave.startsWith("db.pragma.")) {
+                String pragma = clave.substring("db.pragma.".length());
+                String valor = props.getProperty(clave).trim();
+                if (pragma.matches("[a-z_]+") && valor.matches("-?[A-Za-z0-9_]+")) {
+                    pragmas.put(pragma, valor);
+                } else {
+                    System.err.println("Pragma inválido en " + clave + " (se ignora)");
+                }
+            }
+        }
+        return pragmas;
+    }
+
+    /**
+     * Ejecuta los pragmas sobre una conexión recién abierta.
+     */
+    public static void aplicar(Connection conn, Map<String, String> pragmas) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (Map.Entry<String, String> p : pragmas.entrySet()) {
+                // journal_mode y mmap_size devuelven una fila; execute() la acepta
+                stmt.execute("PRAGMA " + p.getKey() + " = " + p.getValue());
+            }
+        }
+    }
+
+    public String getNombre() { return nombre; }
+    public int getMinutosCheckpoint() { return minutosCheckpoint; }
+
+    /**
+     * Modo del checkpoint periódico: TRUNCATE deja el WAL a cero bytes,
+     * PASSIVE no espera a los lectores.
+     */
+    public String getModoCheckpoint() { return truncarWal ? "TRUNCATE" : "PASSIVE"; }
+
+    @Override
+    public String toString() { return nombre; }
+}
@@ -0,0 +1,517 @@
+package biblioteca.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones SQLite.
+ *
+ * Las conexiones se abren al arrancar (pre-calentado), se prestan con
+ * {@link #obtener()} y vuelven al pool cuando el DAO llama a close(),
+ * así que los try-with-resources existentes siguen funcionando igual.
+ * Cada conexión física mantiene su propia caché de PreparedStatement.
+ */
+public class PoolConexiones {
+
+    private final String url;
+    private final int tamanoMinimo;
+    private final int tamanoMaximo;
+    private final long esperaMaximaMs;
+    private final long validarTrasInactividadMs;
+    private final int statementsPorConexion;
+    private final PerfilAlmacenamiento perfil;
+    private final Map<String, String> pragmas;
+
+    // LIFO: se reutiliza primero la conexión más "caliente"
+    private final BlockingDeque<ConexionFisica> libres = new LinkedBlockingDeque<>();
+    private final Semaphore permisos;
+
+    // ===== Métricas =====
+    private final AtomicInteger creadas = new AtomicInteger();
+    private final AtomicInteger activas = new AtomicInteger();
+    private final AtomicLong totalPrestamos = new AtomicLong();
+    private final AtomicLong esperaTotalNanos = new AtomicLong();
+    private final AtomicLong esperaMaximaNanos = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong tiemposAgotados = new AtomicLong();
+    private final AtomicLong aciertosStatement = new AtomicLong();
+    private final AtomicLong fallosStatement = new AtomicLong();
+
+    private volatile boolean cerrado = false;
+
+    public PoolConexiones(Properties props) {
+        this.url = props.getProperty("db.url", "jdbc:sqlite:db/biblioteca.db");
+        this.tamanoMaximo = Math.max(1, leerEntero(props, "pool.maximo", 10));
+        this.tamanoMinimo = Math.min(tamanoMaximo, Math.max(0, leerEntero(props, "pool.minimo", 2)));
+        this.esperaMaximaMs = leerEntero(props, "pool.esperaMaximaMs", 10000);
+        this.validarTrasInactividadMs = leerEntero(props, "pool.validarTrasInactividadMs", 30000);
+        this.statementsPorConexion = Math.max(0, leerEntero(props, "pool.statementsPorConexion", 50));
+        this.perfil = PerfilAlmacenamiento.desde(props);
+        this.pragmas = perfil.pragmas(props);
+        this.permisos = new Semaphore(tamanoMaximo, true);
+    }
+
+    /**
+     * Abre las conexiones mínimas para que la primera pantalla no pague
+     * el coste de apertura.
+     */
+    public void precalentar() throws SQLException {
+        for (int i = 0; i < tamanoMinimo; i++) {
+            libres.offerLast(crearConexionFisica());
+        }
+    }
+
+    /**
+     * Presta una conexión del pool. Espera como máximo pool.esperaMaximaMs
+     * si todas están en uso.
+     */
+    public Connection obtener() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            if (!permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                tiemposAgotados.incrementAndGet();
+                throw new SQLException("Tiempo de espera agotado al obtener conexión ("
+                        + esperaMaximaMs + " ms, activas=" + activas.get() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando una conexión", e);
+        }
+
+        try {
+            ConexionFisica fisica = tomarLibreValida();
+            if (fisica == null) {
+                fisica = crearConexionFisica();
+            }
+            registrarEspera(System.nanoTime() - inicio);
+            activas.incrementAndGet();
+            totalPrestamos.incrementAndGet();
+            return fisica.prestar();
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones libres. Las prestadas se cierran al devolverse.
+     */
+    public void cerrar() {
+        cerrado = true;
+        ConexionFisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            fisica.cerrarFisica();
+        }
+    }
+
+    public Estadisticas getEstadisticas() {
+        long prestamos = totalPrestamos.get();
+        return new Estadisticas(
+                activas.get(),
+                libres.size(),
+                creadas.get(),
+                descartadas.get(),
+                prestamos,
+                prestamos == 0 ? 0 : esperaTotalNanos.get() / prestamos / 1000,
+                esperaMaximaNanos.get() / 1000,
+                tiemposAgotados.get(),
+                aciertosStatement.get(),
+                fallosStatement.get()
+        );
+    }
+
+    // ===== Ciclo de vida de las conexiones físicas =====
+
+    private ConexionFisica tomarLibreValida() {
+        ConexionFisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            if (fisica.esValida()) {
+                return fisica;
+            }
+            descartar(fisica);
+        }
+        return null;
+    }
+
+    protected Connection abrirConexion() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try {
+            PerfilAlmacenamiento.aplicar(conn, pragmas);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    public PerfilAlmacenamiento getPerfil() {
+        return perfil;
+    }
+
+    private ConexionFisica crearConexionFisica() throws SQLException {
+        ConexionFisica fisica = new ConexionFisica(abrirConexion());
+        creadas.incrementAndGet();
+        return fisica;
+    }
+
+    private void devolver(ConexionFisica fisica) {
+        activas.decrementAndGet();
+        try {
+            if (cerrado || !fisica.reiniciar()) {
+                descartar(fisica);
+            } else {
+                libres.offerFirst(fisica);
+            }
+        } finally {
+            permisos.release();
+        }
+    }
+
+    private void descartar(ConexionFisica fisica) {
+        descartadas.incrementAndGet();
+        fisica.cerrarFisica();
+    }
+
+    private void registrarEspera(long nanos) {
+        esperaTotalNanos.addAndGet(nanos);
+        esperaMaximaNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static int leerEntero(Properties props, String clave, int porDefecto) {
+        String valor = props.getProperty(clave);
+        if (valor == null || valor.isBlank()) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Valor inválido para " + clave + ": " + valor + " (se usa " + porDefecto + ")");
+            return porDefecto;
+        }
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ===== Conexión física + caché de statements =====
+
+    private final class ConexionFisica {
+
+        private final Connection real;
+        private final Map<String, SentenciaCacheada> cache;
+        private final List<Statement> sinCache = new ArrayList<>();
+        private long ultimoUso = System.nanoTime();
+
+        ConexionFisica(Connection real) {
+            this.real = real;
+            this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SentenciaCacheada> mayor) {
+                    if (size() > statementsPorConexion) {
+                        mayor.getValue().expulsar();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Connection prestar() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ManejadorConexion(this)
+            );
+        }
+
+        boolean esValida() {
+            long inactivoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ultimoUso);
+            try {
+                if (real.isClosed()) {
+                    return false;
+                }
+                return inactivoMs < validarTrasInactividadMs || real.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Deja la conexión como nueva para el siguiente préstamo.
+         * Devuelve false si no se puede reutilizar.
+         */
+        boolean reiniciar() {
+            ultimoUso = System.nanoTime();
+            for (Statement st : sinCache) {
+                try {
+                    st.close();
+                } catch (SQLException ignored) {
+                    // ya estaba cerrado o la conexión murió; se valida abajo
+                }
+            }
+            sinCache.clear();
+
+            Iterator<SentenciaCacheada> it = cache.values().iterator();
+            while (it.hasNext()) {
+                SentenciaCacheada sc = it.next();
+                if (sc.enUso) {
+                    // El DAO no la cerró: no sabemos en qué estado quedó
+                    sc.expulsar();
+                    it.remove();
+                }
+            }
+
+            try {
+                if (real.isClosed()) {
+                    return false;
+                }
+                if (!real.getAutoCommit()) {
+                    real.rollback();
+                    real.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException e) {
+                System.err.println("Conexión descartada al devolverla al pool: " + e.getMessage());
+                return false;
+            }
+        }
+
+        PreparedStatement prepararCacheada(String sql, Connection proxyConexion) throws SQLException {
+            if (statementsPorConexion == 0) {
+                return registrarSinCache(real.prepareStatement(sql));
+            }
+            SentenciaCacheada sc = cache.get(sql);
+            if (sc != null && !sc.enUso) {
+                aciertosStatement.incrementAndGet();
+            } else if (sc != null) {
+                // Misma SQL abierta dos veces en la misma conexión: la segunda no se cachea
+                fallosStatement.incrementAndGet();
+                return registrarSinCache(real.prepareStatement(sql));
+            } else {
+                fallosStatement.incrementAndGet();
+                sc = new SentenciaCacheada(real.prepareStatement(sql));
+                cache.put(sql, sc);
+            }
+            sc.enUso = true;
+            return sc.prestar(proxyConexion);
+        }
+
+        <T extends Statement> T registrarSinCache(T st) {
+            sinCache.add(st);
+            return st;
+        }
+
+        void cerrarFisica() {
+            for (SentenciaCacheada sc : cache.values()) {
+                sc.expulsar();
+            }
+            cache.clear();
+            try {
+                real.close();
+            } catch (SQLException e) {
+                System.err.println("Error al cerrar conexión física: " + e.getMessage());
+            }
+        }
+    }
+
+    private final class SentenciaCacheada {
+
+        private final PreparedStatement real;
+        private final Set<ResultSet> resultados = java.util.Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean enUso = false;
+        private boolean expulsada = false;
+
+        SentenciaCacheada(PreparedStatement real) {
+            this.real = real;
+        }
+
+        PreparedStatement prestar(Connection proxyConexion) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new ManejadorSentencia(this, proxyConexion)
+            );
+        }
+
+        /** Equivale al close() del DAO: deja la sentencia lista para reutilizar. */
+        void liberar() throws SQLException {
+            cerrarResultados();
+            enUso = false;
+            if (expulsada) {
+                real.close();
+            } else {
+                real.clearParameters();
+            }
+        }
+
+        void expulsar() {
+            expulsada = true;
+            if (!enUso) {
+                try {
+                    cerrarResultados();
+                    real.close();
+                } catch (SQLException ignored) {
+                    // la conexión física se va a cerrar igualmente
+                }
+            }
+        }
+
+        private void cerrarResultados() throws SQLException {
+            for (ResultSet rs : resultados) {
+                rs.close();
+            }
+            resultados.clear();
+        }
+    }
+
+    // ===== Proxies devueltos a los DAOs =====
+
+    private final class ManejadorConexion implements InvocationHandler {
+
+        private final ConexionFisica fisica;
+        private boolean devuelta = false;
+
+        ManejadorConexion(ConexionFisica fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            switch (nombre) {
+                case "close":
+                    if (!devuelta) {
+                        devuelta = true;
+                        devolver(fisica);
+                    }
+                    return null;
+                case "isClosed":
+                    return devuelta || fisica.real.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPool@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+
+            if (devuelta) {
+                throw new SQLException("La conexión ya fue devuelta al pool");
+            }
+
+            if ("prepareStatement".equals(nombre) && args != null && args.length == 1) {
+                return fisica.prepararCacheada((String) args[0], (Connection) proxy);
+            }
+
+            Object resultado = invocar(fisica.real, metodo, args);
+            if (resultado instanceof Statement st) {
+                fisica.registrarSinCache(st);
+            }
+            return resultado;
+        }
+    }
+
+    private static final class ManejadorSentencia implements InvocationHandler {
+
+        private final SentenciaCacheada sentencia;
+        private final Connection proxyConexion;
+        private boolean cerrada = false;
+
+        ManejadorSentencia(SentenciaCacheada sentencia, Connection proxyConexion) {
+            this.sentencia = sentencia;
+            this.proxyConexion = proxyConexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    if (!cerrada) {
+                        cerrada = true;
+                        sentencia.liberar();
+                    }
+                    return null;
+                case "isClosed":
+                    return cerrada;
+                case "getConnection":
+                    return proxyConexion;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return sentencia.real.toString();
+                default:
+                    break;
+            }
+
+            if (cerrada) {
+                throw new SQLException("La sentencia ya está cerrada");
+            }
+
+            Object resultado = invocar(sentencia.real, metodo, args);
+            if (resultado instanceof ResultSet rs) {
+                sentencia.resultados.add(rs);
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Foto de las métricas del pool. Los tiempos de espera van en microsegundos.
+     */
+    public record Estadisticas(int activas,
+                               int libres,
+                               int creadas,
+                               long descartadas,
+                               long totalPrestamos,
+                               long esperaMediaMicros,
+                               long esperaMaximaMicros,
+                               long tiemposAgotados,
+                               long aciertosStatement,
+                               long fallosStatement) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Pool[activas=%d, libres=%d, creadas=%d, descartadas=%d, préstamos=%d, "
+                    + "espera media=%d µs, espera máx=%d µs, agotados=%d, statements hit/miss=%d/%d]",
+                    activas, libres, creadas, descartadas, totalPrestamos,
+                    esperaMediaMicros, esperaMaximaMicros, tiemposAgotados,
+                    aciertosStatement, fallosStatement);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- Índices de las consultas frecuentes.
+-- Sin ellos cada listado, barrido de vencidos o login recorría la tabla entera.
+
+-- Barrido de vencidos y listados por estado ordenados por fecha esperada
+CREATE INDEX IF NOT EXISTS idx_prestamos_estado_fecha
+    ON Prestamos(estado, fecha_devolucion_esperada);
+
+-- Préstamos de una persona (historial, bloqueo por multas)
+CREATE INDEX IF NOT EXISTS idx_prestamos_persona
+    ON Prestamos(id_persona);
+
+-- Préstamos de un ejemplar (disponibilidad, devolución)
+CREATE INDEX IF NOT EXISTS idx_prestamos_ejemplar
+    ON Prestamos(id_ejemplar);
+
+-- Ejemplares disponibles de un material
+CREATE INDEX IF NOT EXISTS idx_ejemplares_material_estado
+    ON Ejemplares(id_material, estado);
+
+-- Multas de un préstamo
+CREATE INDEX IF NOT EXISTS idx_multas_prestamo
+    ON Multas(id_prestamo);
+
+-- Multas pendientes de pago
+CREATE INDEX IF NOT EXISTS idx_multas_pagada
+    ON Multas(pagada);
+
+-- Autores de un material (hidratación por lotes)
+CREATE INDEX IF NOT EXISTS idx_material_autores_material
+    ON Material_Autores(id_material);
+
+-- Login
+CREATE INDEX IF NOT EXISTS idx_credenciales_username
+    ON Credenciales(username);
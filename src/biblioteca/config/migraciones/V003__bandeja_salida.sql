@@ -0,0 +1,21 @@
+-- Bandeja de salida de correo (ver DespachadorCorreo).
+-- Las fechas van en hora local 'YYYY-MM-DD HH:MM:SS' para poder compararlas como texto.
+
+CREATE TABLE IF NOT EXISTS Bandeja_Salida (
+    id_correo           INTEGER PRIMARY KEY AUTOINCREMENT,
+    destinatario        TEXT NOT NULL,
+    nombre_destinatario TEXT,
+    asunto              TEXT NOT NULL,
+    cuerpo              TEXT NOT NULL,
+    adjunto             BLOB,
+    nombre_adjunto      TEXT,
+    estado              TEXT NOT NULL DEFAULT 'Pendiente',
+    intentos            INTEGER NOT NULL DEFAULT 0,
+    proximo_intento     TEXT NOT NULL,
+    ultimo_error        TEXT,
+    fecha_creacion      TEXT NOT NULL,
+    fecha_envio         TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_bandeja_estado_proximo
+    ON Bandeja_Salida(estado, proximo_intento);
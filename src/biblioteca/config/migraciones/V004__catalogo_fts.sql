@@ -0,0 +1,147 @@
+-- Índice de texto completo del catálogo (FTS5) para la búsqueda general.
+--
+-- Una fila por material (rowid = id_material). unicode61 con
+-- remove_diacritics hace que "cancion" encuentre "Canción"; el índice de
+-- prefijos acelera las búsquedas mientras se escribe. Los triggers lo
+-- mantienen al día: cada cambio vuelve a generar la fila del material
+-- afectado a partir de la vista Materiales_FTS_Origen.
+
+CREATE VIRTUAL TABLE IF NOT EXISTS Materiales_FTS USING fts5(
+    titulo,
+    codigo,
+    categoria,
+    autores,
+    editorial,
+    universidad,
+    periodicidad,
+    tokenize = 'unicode61 remove_diacritics 2',
+    prefix = '2 3'
+);
+
+CREATE VIEW IF NOT EXISTS Materiales_FTS_Origen AS
+SELECT m.id_material,
+       m.titulo,
+       m.codigo_identificador,
+       c.nombre_categoria,
+       (SELECT group_concat(a.nombre || ' ' || a.apellido, ' ')
+          FROM Material_Autores ma
+          JOIN Autores a ON a.id_autor = ma.id_autor
+         WHERE ma.id_material = m.id_material),
+       l.editorial,
+       t.universidad_tesis,
+       r.periodicidad
+FROM Materiales m
+LEFT JOIN Categorias c ON c.id_categoria = m.id_categoria
+LEFT JOIN Libros l ON l.id_material = m.id_material
+LEFT JOIN Revistas r ON r.id_material = m.id_material
+LEFT JOIN Tesis t ON t.id_material = m.id_material;
+
+-- Carga inicial
+DELETE FROM Materiales_FTS;
+INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+SELECT * FROM Materiales_FTS_Origen;
+
+-- ===== Materiales =====
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_materiales_ai AFTER INSERT ON Materiales BEGIN
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_materiales_au AFTER UPDATE ON Materiales BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = OLD.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_materiales_ad AFTER DELETE ON Materiales BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = OLD.id_material;
+END;
+
+-- ===== Subtipos: editorial, periodicidad, universidad =====
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_libros_ai AFTER INSERT ON Libros BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = NEW.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_libros_au AFTER UPDATE ON Libros BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = NEW.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_libros_ad AFTER DELETE ON Libros BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = OLD.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = OLD.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_revistas_ai AFTER INSERT ON Revistas BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = NEW.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_revistas_au AFTER UPDATE ON Revistas BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = NEW.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_revistas_ad AFTER DELETE ON Revistas BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = OLD.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = OLD.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_tesis_ai AFTER INSERT ON Tesis BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = NEW.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_tesis_au AFTER UPDATE ON Tesis BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = NEW.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_tesis_ad AFTER DELETE ON Tesis BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = OLD.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = OLD.id_material;
+END;
+
+-- ===== Autores de cada material =====
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_material_autores_ai AFTER INSERT ON Material_Autores BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = NEW.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = NEW.id_material;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_material_autores_ad AFTER DELETE ON Material_Autores BEGIN
+    DELETE FROM Materiales_FTS WHERE rowid = OLD.id_material;
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen WHERE id_material = OLD.id_material;
+END;
+
+-- ===== Nombres de autores y categorías (afectan a varios materiales) =====
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_autores_au AFTER UPDATE OF nombre, apellido ON Autores BEGIN
+    DELETE FROM Materiales_FTS
+     WHERE rowid IN (SELECT id_material FROM Material_Autores WHERE id_autor = NEW.id_autor);
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen
+     WHERE id_material IN (SELECT id_material FROM Material_Autores WHERE id_autor = NEW.id_autor);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_fts_categorias_au AFTER UPDATE OF nombre_categoria ON Categorias BEGIN
+    DELETE FROM Materiales_FTS
+     WHERE rowid IN (SELECT id_material FROM Materiales WHERE id_categoria = NEW.id_categoria);
+    INSERT INTO Materiales_FTS (rowid, titulo, codigo, categoria, autores, editorial, universidad, periodicidad)
+    SELECT * FROM Materiales_FTS_Origen
+     WHERE id_material IN (SELECT id_material FROM Materiales WHERE id_categoria = NEW.id_categoria);
+END;
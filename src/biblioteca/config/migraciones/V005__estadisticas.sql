@@ -0,0 +1,165 @@
+-- Estadísticas del panel de inicio mantenidas por triggers.
+--
+-- El panel ya no cuenta filas: lee estos resúmenes, que ocupan lo mismo
+-- con 100 que con 100.000 materiales (ver EstadisticasDAOImpl).
+--
+-- Estadisticas_Contadores: totales por clave ('materiales', 'personas',
+--   'prestamos.<estado>', 'multas.pendientes', 'multas.pagadas' y los
+--   importes 'multas.monto_pendiente' / 'multas.monto_pagado').
+-- Estadisticas_Prestamos_Mes: préstamos por mes de fecha_prestamo ('YYYY-MM').
+-- Estadisticas_Activos_Vencimiento: préstamos en estado 'Activo' por fecha
+--   de devolución esperada ('' si no tiene). Un 'Activo' pasa a contar como
+--   vencido al cambiar el día sin que nadie escriba, así que el reparto
+--   activos/vencidos se hace al leer, sumando las fechas anteriores a hoy.
+-- Las filas que llegan a 0 se borran para que las tablas no crezcan.
+
+CREATE TABLE IF NOT EXISTS Estadisticas_Contadores (
+    clave TEXT PRIMARY KEY,
+    valor NUMERIC NOT NULL DEFAULT 0
+) WITHOUT ROWID;
+
+CREATE TABLE IF NOT EXISTS Estadisticas_Prestamos_Mes (
+    mes   TEXT PRIMARY KEY,
+    total INTEGER NOT NULL
+) WITHOUT ROWID;
+
+CREATE TABLE IF NOT EXISTS Estadisticas_Activos_Vencimiento (
+    fecha TEXT PRIMARY KEY,
+    total INTEGER NOT NULL
+) WITHOUT ROWID;
+
+-- Carga inicial
+DELETE FROM Estadisticas_Contadores;
+DELETE FROM Estadisticas_Prestamos_Mes;
+DELETE FROM Estadisticas_Activos_Vencimiento;
+
+INSERT INTO Estadisticas_Contadores (clave, valor)
+SELECT 'materiales', COUNT(*) FROM Materiales;
+
+INSERT INTO Estadisticas_Contadores (clave, valor)
+SELECT 'personas', COUNT(*) FROM Personas;
+
+INSERT INTO Estadisticas_Contadores (clave, valor)
+SELECT 'prestamos.' || IFNULL(estado, ''), COUNT(*) FROM Prestamos GROUP BY IFNULL(estado, '');
+
+INSERT INTO Estadisticas_Contadores (clave, valor)
+SELECT 'multas.pendientes', COUNT(*) FROM Multas WHERE NOT IFNULL(pagada, 0);
+
+INSERT INTO Estadisticas_Contadores (clave, valor)
+SELECT 'multas.pagadas', COUNT(*) FROM Multas WHERE IFNULL(pagada, 0);
+
+INSERT INTO Estadisticas_Contadores (clave, valor)
+SELECT 'multas.monto_pendiente', IFNULL(SUM(monto), 0) FROM Multas WHERE NOT IFNULL(pagada, 0);
+
+INSERT INTO Estadisticas_Contadores (clave, valor)
+SELECT 'multas.monto_pagado', IFNULL(SUM(monto), 0) FROM Multas WHERE IFNULL(pagada, 0);
+
+INSERT INTO Estadisticas_Prestamos_Mes (mes, total)
+SELECT strftime('%Y-%m', fecha_prestamo), COUNT(*) FROM Prestamos
+WHERE strftime('%Y-%m', fecha_prestamo) IS NOT NULL
+GROUP BY strftime('%Y-%m', fecha_prestamo);
+
+INSERT INTO Estadisticas_Activos_Vencimiento (fecha, total)
+SELECT IFNULL(fecha_devolucion_esperada, ''), COUNT(*) FROM Prestamos
+WHERE estado = 'Activo'
+GROUP BY IFNULL(fecha_devolucion_esperada, '');
+
+-- ===== Materiales y personas =====
+
+CREATE TRIGGER IF NOT EXISTS trg_est_materiales_ai AFTER INSERT ON Materiales BEGIN
+    INSERT INTO Estadisticas_Contadores (clave, valor) VALUES ('materiales', 1)
+        ON CONFLICT (clave) DO UPDATE SET valor = valor + excluded.valor;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_est_materiales_ad AFTER DELETE ON Materiales BEGIN
+    UPDATE Estadisticas_Contadores SET valor = valor - 1 WHERE clave = 'materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_est_personas_ai AFTER INSERT ON Personas BEGIN
+    INSERT INTO Estadisticas_Contadores (clave, valor) VALUES ('personas', 1)
+        ON CONFLICT (clave) DO UPDATE SET valor = valor + excluded.valor;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_est_personas_ad AFTER DELETE ON Personas BEGIN
+    UPDATE Estadisticas_Contadores SET valor = valor - 1 WHERE clave = 'personas';
+END;
+
+-- ===== Préstamos =====
+-- Una actualización resta la fila vieja y suma la nueva, en ese orden.
+
+CREATE TRIGGER IF NOT EXISTS trg_est_prestamos_ai AFTER INSERT ON Prestamos BEGIN
+    INSERT INTO Estadisticas_Contadores (clave, valor) VALUES ('prestamos.' || IFNULL(NEW.estado, ''), 1)
+        ON CONFLICT (clave) DO UPDATE SET valor = valor + excluded.valor;
+
+    INSERT INTO Estadisticas_Prestamos_Mes (mes, total)
+    SELECT strftime('%Y-%m', NEW.fecha_prestamo), 1 WHERE strftime('%Y-%m', NEW.fecha_prestamo) IS NOT NULL
+        ON CONFLICT (mes) DO UPDATE SET total = total + 1;
+
+    INSERT INTO Estadisticas_Activos_Vencimiento (fecha, total)
+    SELECT IFNULL(NEW.fecha_devolucion_esperada, ''), 1 WHERE NEW.estado = 'Activo'
+        ON CONFLICT (fecha) DO UPDATE SET total = total + 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_est_prestamos_ad AFTER DELETE ON Prestamos BEGIN
+    UPDATE Estadisticas_Contadores SET valor = valor - 1
+     WHERE clave = 'prestamos.' || IFNULL(OLD.estado, '');
+
+    UPDATE Estadisticas_Prestamos_Mes SET total = total - 1
+     WHERE mes = strftime('%Y-%m', OLD.fecha_prestamo);
+    DELETE FROM Estadisticas_Prestamos_Mes WHERE total <= 0;
+
+    UPDATE Estadisticas_Activos_Vencimiento SET total = total - 1
+     WHERE OLD.estado = 'Activo' AND fecha = IFNULL(OLD.fecha_devolucion_esperada, '');
+    DELETE FROM Estadisticas_Activos_Vencimiento WHERE total <= 0;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_est_prestamos_au
+AFTER UPDATE OF estado, fecha_prestamo, fecha_devolucion_esperada ON Prestamos BEGIN
+    UPDATE Estadisticas_Contadores SET valor = valor - 1
+     WHERE clave = 'prestamos.' || IFNULL(OLD.estado, '');
+    INSERT INTO Estadisticas_Contadores (clave, valor) VALUES ('prestamos.' || IFNULL(NEW.estado, ''), 1)
+        ON CONFLICT (clave) DO UPDATE SET valor = valor + excluded.valor;
+
+    UPDATE Estadisticas_Prestamos_Mes SET total = total - 1
+     WHERE mes = strftime('%Y-%m', OLD.fecha_prestamo);
+    INSERT INTO Estadisticas_Prestamos_Mes (mes, total)
+    SELECT strftime('%Y-%m', NEW.fecha_prestamo), 1 WHERE strftime('%Y-%m', NEW.fecha_prestamo) IS NOT NULL
+        ON CONFLICT (mes) DO UPDATE SET total = total + 1;
+    DELETE FROM Estadisticas_Prestamos_Mes WHERE total <= 0;
+
+    UPDATE Estadisticas_Activos_Vencimiento SET total = total - 1
+     WHERE OLD.estado = 'Activo' AND fecha = IFNULL(OLD.fecha_devolucion_esperada, '');
+    INSERT INTO Estadisticas_Activos_Vencimiento (fecha, total)
+    SELECT IFNULL(NEW.fecha_devolucion_esperada, ''), 1 WHERE NEW.estado = 'Activo'
+        ON CONFLICT (fecha) DO UPDATE SET total = total + 1;
+    DELETE FROM Estadisticas_Activos_Vencimiento WHERE total <= 0;
+END;
+
+-- ===== Multas =====
+
+CREATE TRIGGER IF NOT EXISTS trg_est_multas_ai AFTER INSERT ON Multas BEGIN
+    INSERT INTO Estadisticas_Contadores (clave, valor)
+    VALUES (CASE WHEN IFNULL(NEW.pagada, 0) THEN 'multas.pagadas' ELSE 'multas.pendientes' END, 1),
+           (CASE WHEN IFNULL(NEW.pagada, 0) THEN 'multas.monto_pagado' ELSE 'multas.monto_pendiente' END,
+            IFNULL(NEW.monto, 0))
+        ON CONFLICT (clave) DO UPDATE SET valor = valor + excluded.valor;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_est_multas_ad AFTER DELETE ON Multas BEGIN
+    UPDATE Estadisticas_Contadores SET valor = valor - 1
+     WHERE clave = CASE WHEN IFNULL(OLD.pagada, 0) THEN 'multas.pagadas' ELSE 'multas.pendientes' END;
+    UPDATE Estadisticas_Contadores SET valor = valor - IFNULL(OLD.monto, 0)
+     WHERE clave = CASE WHEN IFNULL(OLD.pagada, 0) THEN 'multas.monto_pagado' ELSE 'multas.monto_pendiente' END;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_est_multas_au AFTER UPDATE OF pagada, monto ON Multas BEGIN
+    UPDATE Estadisticas_Contadores SET valor = valor - 1
+     WHERE clave = CASE WHEN IFNULL(OLD.pagada, 0) THEN 'multas.pagadas' ELSE 'multas.pendientes' END;
+    UPDATE Estadisticas_Contadores SET valor = valor - IFNULL(OLD.monto, 0)
+     WHERE clave = CASE WHEN IFNULL(OLD.pagada, 0) THEN 'multas.monto_pagado' ELSE 'multas.monto_pendiente' END;
+    INSERT INTO Estadisticas_Contadores (clave, valor)
+    VALUES (CASE WHEN IFNULL(NEW.pagada, 0) THEN 'multas.pagadas' ELSE 'multas.pendientes' END, 1),
+           (CASE WHEN IFNULL(NEW.pagada, 0) THEN 'multas.monto_pagado' ELSE 'multas.monto_pendiente' END,
+            IFNULL(NEW.monto, 0))
+        ON CONFLICT (clave) DO UPDATE SET valor = valor + excluded.valor;
+END;
@@ -0,0 +1,183 @@
+-- Versión de datos por tabla, para refrescar pantallas solo si algo cambió.
+--
+-- Cada escritura en una tabla vigilada suma 1 a su fila de Versiones_Datos.
+-- MenuPrincipal guarda las versiones que vio cada pantalla al mostrarla y,
+-- al volver a ella, solo recarga si alguna de las que usa ha cambiado. Los
+-- triggers cubren cualquier camino de escritura (DAO, tareas en segundo plano,
+-- otra instancia sobre la misma BD). Las tablas de detalle de un material
+-- (Libros, Revistas, Tesis, Material_Autores) cuentan como 'Materiales'.
+
+CREATE TABLE IF NOT EXISTS Versiones_Datos (
+    tabla   TEXT PRIMARY KEY,
+    version INTEGER NOT NULL DEFAULT 0
+) WITHOUT ROWID;
+
+INSERT OR IGNORE INTO Versiones_Datos (tabla) VALUES
+    ('Categorias'),
+    ('Autores'),
+    ('Materiales'),
+    ('Ejemplares'),
+    ('Personas'),
+    ('Prestamos'),
+    ('Multas'),
+    ('Configuracion');
+
+-- ===== Categorias =====
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_categorias_ai AFTER INSERT ON Categorias BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Categorias';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_categorias_au AFTER UPDATE ON Categorias BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Categorias';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_categorias_ad AFTER DELETE ON Categorias BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Categorias';
+END;
+
+-- ===== Autores =====
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_autores_ai AFTER INSERT ON Autores BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Autores';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_autores_au AFTER UPDATE ON Autores BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Autores';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_autores_ad AFTER DELETE ON Autores BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Autores';
+END;
+
+-- ===== Materiales =====
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_materiales_ai AFTER INSERT ON Materiales BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_materiales_au AFTER UPDATE ON Materiales BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_materiales_ad AFTER DELETE ON Materiales BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_libros_ai AFTER INSERT ON Libros BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_libros_au AFTER UPDATE ON Libros BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_libros_ad AFTER DELETE ON Libros BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_revistas_ai AFTER INSERT ON Revistas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_revistas_au AFTER UPDATE ON Revistas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_revistas_ad AFTER DELETE ON Revistas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_tesis_ai AFTER INSERT ON Tesis BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_tesis_au AFTER UPDATE ON Tesis BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_tesis_ad AFTER DELETE ON Tesis BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_material_autores_ai AFTER INSERT ON Material_Autores BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_material_autores_au AFTER UPDATE ON Material_Autores BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_material_autores_ad AFTER DELETE ON Material_Autores BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Materiales';
+END;
+
+-- ===== Ejemplares =====
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_ejemplares_ai AFTER INSERT ON Ejemplares BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Ejemplares';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_ejemplares_au AFTER UPDATE ON Ejemplares BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Ejemplares';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_ejemplares_ad AFTER DELETE ON Ejemplares BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Ejemplares';
+END;
+
+-- ===== Personas =====
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_personas_ai AFTER INSERT ON Personas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Personas';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_personas_au AFTER UPDATE ON Personas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Personas';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_personas_ad AFTER DELETE ON Personas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Personas';
+END;
+
+-- ===== Prestamos =====
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_prestamos_ai AFTER INSERT ON Prestamos BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Prestamos';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_prestamos_au AFTER UPDATE ON Prestamos BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Prestamos';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_prestamos_ad AFTER DELETE ON Prestamos BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Prestamos';
+END;
+
+-- ===== Multas =====
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_multas_ai AFTER INSERT ON Multas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Multas';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_multas_au AFTER UPDATE ON Multas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Multas';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_multas_ad AFTER DELETE ON Multas BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Multas';
+END;
+
+-- ===== Configuracion =====
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_configuracion_ai AFTER INSERT ON Configuracion BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Configuracion';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_configuracion_au AFTER UPDATE ON Configuracion BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Configuracion';
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_ver_configuracion_ad AFTER DELETE ON Configuracion BEGIN
+    UPDATE Versiones_Datos SET version = version + 1 WHERE tabla = 'Configuracion';
+END;
@@ -0,0 +1,12 @@
+-- Préstamos abiertos de una persona: la regla de un préstamo activo por
+-- usuario se comprueba en cada préstamo y en cada lote (PrestamoDAOImpl).
+--
+-- Con el índice solo por id_persona la consulta recorría todo el historial
+-- de la persona; con (id_persona, estado) va directa a los abiertos. El
+-- índice nuevo cubre también las búsquedas por id_persona, así que el
+-- anterior sobra.
+--
+CREATE INDEX IF NOT EXISTS idx_prestamos_persona_estado
+    ON Prestamos(id_persona, estado);
+
+DROP INDEX IF EXISTS idx_prestamos_persona;
@@ -0,0 +1,74 @@
+-- Códigos de barra únicos por ejemplar, para el modo de escaneo del
+-- mostrador de préstamos (EjemplarDAO.buscarPorCodigoBarra).
+--
+-- Los ejemplares se creaban sin código: se les da uno por defecto,
+-- 'EJ' + id con 8 dígitos (EjemplarDAOImpl.codigoPorDefecto), que es lo
+-- que hay que imprimir en la etiqueta. Si había códigos repetidos se
+-- conserva el del ejemplar más antiguo y los demás pasan al código por defecto.
+--
+-- Un código real puede coincidir con el código por defecto de otro
+-- ejemplar. En ese caso el ejemplar recibe 'EJ' + id + '-' + n, con el
+-- menor n libre. Lo que va antes del guion identifica al ejemplar, así que
+-- dos ejemplares nunca generan el mismo código y el índice único no falla.
+--
+-- Los códigos que se pierden (vacíos o repetidos) quedan en
+-- Codigos_Barra_Reemplazados junto al que los sustituye, para poder
+-- reetiquetar esos ejemplares.
+--
+
+CREATE TABLE IF NOT EXISTS Codigos_Barra_Reemplazados (
+    id_ejemplar     INTEGER NOT NULL,
+    codigo_anterior TEXT NOT NULL,
+    codigo_nuevo    TEXT,
+    fecha           TEXT NOT NULL DEFAULT (datetime('now'))
+);
+
+-- Índice provisional para comprobar si un código ya está en uso
+CREATE INDEX IF NOT EXISTS idx_ejemplares_codigo_tmp ON Ejemplares(codigo_barra);
+
+-- Quedan sin código los vacíos y los repetidos (salvo el más antiguo)
+INSERT INTO Codigos_Barra_Reemplazados (id_ejemplar, codigo_anterior)
+SELECT id_ejemplar, codigo_barra FROM Ejemplares
+WHERE codigo_barra IS NOT NULL
+  AND (trim(codigo_barra) = ''
+       OR id_ejemplar NOT IN (SELECT MIN(id_ejemplar) FROM Ejemplares
+                              WHERE codigo_barra IS NOT NULL
+                              GROUP BY codigo_barra));
+
+UPDATE Ejemplares SET codigo_barra = NULL
+WHERE id_ejemplar IN (SELECT id_ejemplar FROM Codigos_Barra_Reemplazados);
+
+UPDATE Ejemplares SET codigo_barra = 'EJ' || printf('%08d', id_ejemplar)
+WHERE codigo_barra IS NULL
+  AND NOT EXISTS (SELECT 1 FROM Ejemplares o
+                  WHERE o.codigo_barra = 'EJ' || printf('%08d', Ejemplares.id_ejemplar));
+
+-- Entre 1 y COUNT(*) + 1 siempre hay un n libre
+UPDATE Ejemplares SET codigo_barra = (
+    WITH RECURSIVE n(k) AS (
+        SELECT 1
+        UNION ALL
+        SELECT k + 1 FROM n WHERE k <= (SELECT COUNT(*) FROM Ejemplares)
+    )
+    SELECT 'EJ' || printf('%08d', Ejemplares.id_ejemplar) || '-' || k FROM n
+    WHERE NOT EXISTS (SELECT 1 FROM Ejemplares o
+                      WHERE o.codigo_barra = 'EJ' || printf('%08d', Ejemplares.id_ejemplar) || '-' || k)
+    LIMIT 1)
+WHERE codigo_barra IS NULL;
+
+UPDATE Codigos_Barra_Reemplazados SET codigo_nuevo = (
+    SELECT e.codigo_barra FROM Ejemplares e
+    WHERE e.id_ejemplar = Codigos_Barra_Reemplazados.id_ejemplar)
+WHERE codigo_nuevo IS NULL;
+
+DROP INDEX IF EXISTS idx_ejemplares_codigo_tmp;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_ejemplares_codigo_barra
+    ON Ejemplares(codigo_barra);
+
+-- Los ejemplares nuevos sin código reciben el suyo al insertarse
+CREATE TRIGGER IF NOT EXISTS trg_ejemplares_codigo_ai AFTER INSERT ON Ejemplares
+WHEN NEW.codigo_barra IS NULL OR trim(NEW.codigo_barra) = '' BEGIN
+    UPDATE Ejemplares SET codigo_barra = 'EJ' || printf('%08d', NEW.id_ejemplar)
+     WHERE id_ejemplar = NEW.id_ejemplar;
+END;
@@ -5,7 +5,9 @@ import biblioteca.dao.CategoriaDAO;
 import biblioteca.dao.EjemplarDAO;
 import biblioteca.dao.MaterialDAO;
 import biblioteca.model.*;
+import biblioteca.util.ModeloTablaPerezoso;
 import java.util.List;
+import java.util.function.Function;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import javax.swing.table.DefaultTableModel;
@@ -428,35 +430,32 @@ public class MaterialController {
         return false;
     }
 
+    // Columnas de la vista TODOS -> clave de orden de MaterialDAO.listarBloque
+    private static final String[] ORDEN_COLUMNAS_GENERAL = {
+        "id", "titulo", "tipo", "categoria", "identificador", null, "disponibles"
+    };
+
+    // Modelo de la vista TODOS; el buscador lo reutiliza para que cada búsqueda
+    // sustituya (y cancele) a la anterior en vez de crear otra tabla
+    private ModeloTablaPerezoso<MaterialBibliografico> modeloGeneral;
+
     /**
      * Cargar todos los materiales en una tabla
      */
     public void cargarTabla(JTable tabla) {
-        DefaultTableModel modelo = new DefaultTableModel(
-                new Object[]{"ID", "Título", "Tipo", "Categoría", "Identificador", "Detalles", "Disponibles"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-
-        List<MaterialBibliografico> lista = materialDAO.listarTodos();
-
-        for (MaterialBibliografico material : lista) {
-            String detalles = obtenerDetalles(material);
-            modelo.addRow(new Object[]{
+        modeloGeneral = crearModeloMateriales(null,
+                new String[]{"ID", "Título", "Tipo", "Categoría", "Identificador", "Detalles", "Disponibles"},
+                ORDEN_COLUMNAS_GENERAL,
+                material -> new Object[]{
                     material.getId(),
                     material.getTitulo(),
                     material.getTipoMaterial(),
                     material.getCategoria().getNombreCategoria(),
                     material.getCodigoIdentificador(),
-                    detalles,
+                    obtenerDetalles(material),
                     material.getCantidadDisponible()
-            });
-        }
-
-        tabla.setModel(modelo);
+                });
+        modeloGeneral.instalarEn(tabla);
         ajustarAnchoColumnas(tabla);
     }
     
@@ -464,34 +463,25 @@ public class MaterialController {
     * Cargar tabla dinámica según el tipo de material
     */
     public void cargarTablaPorTipo(JTable tabla, String tipoMaterial) {
-        DefaultTableModel modelo;
-        List<MaterialBibliografico> materiales = materialDAO.listarTodos();
-
         switch (tipoMaterial) {
             case "LIBRO" -> {
                 String[] columnasLibro = {"ID", "Título", "Autor", "Categoría", 
                                           "Identificador", "Editorial", "Año", "Disponibles"};
-                modelo = new DefaultTableModel(columnasLibro, 0) {
-                    @Override
-                    public boolean isCellEditable(int row, int column) { return false; }
-                };
-
-                for (MaterialBibliografico m : materiales) {
-                    if (m instanceof Libro lib) {
-                        modelo.addRow(new Object[]{
-                            lib.getId(),
-                            lib.getTitulo(),
-                            lib.getAutor() != null ? lib.getAutor().toString() : "Sin autor",
-                            lib.getCategoria() != null ? lib.getCategoria().getNombreCategoria() : "",
-                            lib.getCodigoIdentificador(),
-                            lib.getEditorial(),
-                            lib.getAnioPublicacion(),
-                            lib.getCantidadDisponible()
-                        });
-                    }
-                }
-
-                tabla.setModel(modelo);
+                String[] ordenLibro = {"id", "titulo", null, "categoria",
+                                       "identificador", "editorial", "anio", "disponibles"};
+                crearModeloMateriales("LIBRO", columnasLibro, ordenLibro, m -> {
+                    Libro lib = (Libro) m;
+                    return new Object[]{
+                        lib.getId(),
+                        lib.getTitulo(),
+                        lib.getAutor() != null ? lib.getAutor().toString() : "Sin autor",
+                        lib.getCategoria() != null ? lib.getCategoria().getNombreCategoria() : "",
+                        lib.getCodigoIdentificador(),
+                        lib.getEditorial(),
+                        lib.getAnioPublicacion(),
+                        lib.getCantidadDisponible()
+                    };
+                }).instalarEn(tabla);
                 if (tabla.getColumnModel().getColumnCount() > 0) {
                     tabla.getColumnModel().getColumn(0).setPreferredWidth(50);   // ID
                     tabla.getColumnModel().getColumn(1).setPreferredWidth(250);  // Título
@@ -507,27 +497,21 @@ public class MaterialController {
             case "REVISTA" -> {
                 String[] columnasRevista = {"ID", "Título", "Autor", "Categoría", 
                                             "Identificador", "Número", "Periodicidad", "Disponibles"};
-                modelo = new DefaultTableModel(columnasRevista, 0) {
-                    @Override
-                    public boolean isCellEditable(int row, int column) { return false; }
-                };
-
-                for (MaterialBibliografico m : materiales) {
-                    if (m instanceof Revista rev) {
-                        modelo.addRow(new Object[]{
-                            rev.getId(),
-                            rev.getTitulo(),
-                            rev.getAutor() != null ? rev.getAutor().toString() : "Sin autor",
-                            rev.getCategoria() != null ? rev.getCategoria().getNombreCategoria() : "",
-                            rev.getCodigoIdentificador(),
-                            rev.getNumero(),
-                            rev.getPeriodicidad(),
-                            rev.getCantidadDisponible()
-                        });
-                    }
-                }
-
-                tabla.setModel(modelo);
+                String[] ordenRevista = {"id", "titulo", null, "categoria",
+                                         "identificador", "numero", "periodicidad", "disponibles"};
+                crearModeloMateriales("REVISTA", columnasRevista, ordenRevista, m -> {
+                    Revista rev = (Revista) m;
+                    return new Object[]{
+                        rev.getId(),
+                        rev.getTitulo(),
+                        rev.getAutor() != null ? rev.getAutor().toString() : "Sin autor",
+                        rev.getCategoria() != null ? rev.getCategoria().getNombreCategoria() : "",
+                        rev.getCodigoIdentificador(),
+                        rev.getNumero(),
+                        rev.getPeriodicidad(),
+                        rev.getCantidadDisponible()
+                    };
+                }).instalarEn(tabla);
                 if (tabla.getColumnModel().getColumnCount() > 0) {
                     tabla.getColumnModel().getColumn(0).setPreferredWidth(50);   // ID
                     tabla.getColumnModel().getColumn(1).setPreferredWidth(250);  // Título
@@ -543,27 +527,21 @@ public class MaterialController {
             case "TESIS" -> {
                 String[] columnasTesis = {"ID", "Título", "Autor", "Categoría", 
                                           "Identificador", "Universidad", "Grado Académico", "Disponibles"};
-                modelo = new DefaultTableModel(columnasTesis, 0) {
-                    @Override
-                    public boolean isCellEditable(int row, int column) { return false; }
-                };
-
-                for (MaterialBibliografico m : materiales) {
-                    if (m instanceof Tesis tes) {
-                        modelo.addRow(new Object[]{
-                            tes.getId(),
-                            tes.getTitulo(),
-                            tes.getAutor() != null ? tes.getAutor().toString() : "Sin autor",
-                            tes.getCategoria() != null ? tes.getCategoria().getNombreCategoria() : "",
-                            tes.getCodigoIdentificador(),
-                            tes.getUniversidad(),
-                            tes.getGradoAcademico(),
-                            tes.getCantidadDisponible()
-                        });
-                    }
-                }
-
-                tabla.setModel(modelo);
+                String[] ordenTesis = {"id", "titulo", null, "categoria",
+                                       "identificador", "universidad", "grado", "disponibles"};
+                crearModeloMateriales("TESIS", columnasTesis, ordenTesis, m -> {
+                    Tesis tes = (Tesis) m;
+                    return new Object[]{
+                        tes.getId(),
+                        tes.getTitulo(),
+                        tes.getAutor() != null ? tes.getAutor().toString() : "Sin autor",
+                        tes.getCategoria() != null ? tes.getCategoria().getNombreCategoria() : "",
+                        tes.getCodigoIdentificador(),
+                        tes.getUniversidad(),
+                        tes.getGradoAcademico(),
+                        tes.getCantidadDisponible()
+                    };
+                }).instalarEn(tabla);
                 if (tabla.getColumnModel().getColumnCount() > 0) {
                     tabla.getColumnModel().getColumn(0).setPreferredWidth(50);   // ID
                     tabla.getColumnModel().getColumn(1).setPreferredWidth(250);  // Título
@@ -583,6 +561,34 @@ public class MaterialController {
         }
     }
 
+    /**
+     * Modelo perezoso sobre MaterialDAO.listarBloque: las filas se piden por
+     * bloques al hacer scroll y el orden por columna se resuelve en SQL.
+     *
+     * @param ordenColumnas clave de orden de cada columna (null = no ordenable, se usa el título)
+     */
+    private ModeloTablaPerezoso<MaterialBibliografico> crearModeloMateriales(
+            String tipo, String[] columnas, String[] ordenColumnas,
+            Function<MaterialBibliografico, Object[]> convertidor) {
+
+        ModeloTablaPerezoso.FuenteDatos<MaterialBibliografico> fuente = new ModeloTablaPerezoso.FuenteDatos<>() {
+            @Override
+            public int contar(String texto) {
+                return materialDAO.contarBloque(tipo, texto);
+            }
+
+            @Override
+            public List<MaterialBibliografico> cargar(String texto, int columnaOrden, boolean descendente,
+                                                      int desde, int tamano) {
+                String orden = columnaOrden >= 0 && columnaOrden < ordenColumnas.length
+                        ? ordenColumnas[columnaOrden]
+                        : null;
+                return materialDAO.listarBloque(tipo, texto, orden, descendente, desde, tamano);
+            }
+        };
+        return new ModeloTablaPerezoso<>(columnas, fuente, convertidor);
+    }
+
     /**
      * Cargar solo materiales con ejemplares disponibles
      */
@@ -624,35 +630,10 @@ public class MaterialController {
     * Búsqueda dinámica para PanelBuscador: título, identificador, categoría o tipo
     */
     public void buscarPorTexto(JTable tabla, String busqueda) {
-        DefaultTableModel modelo = new DefaultTableModel(
-                new Object[]{"ID", "Título", "Tipo", "Categoría", "Identificador", "Detalles", "Disponibles"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
-
-        List<MaterialBibliografico> lista;
-        if (busqueda == null || busqueda.trim().isEmpty()) {
-            lista = materialDAO.listarTodos();  // Muestra todos si vacío
-        } else {
-            lista = materialDAO.buscarPorTextoGeneral(busqueda.trim().toLowerCase());  // Nuevo método DAO
-        }
-
-        for (MaterialBibliografico material : lista) {
-            String detalles = obtenerDetalles(material);
-            modelo.addRow(new Object[]{
-                    material.getId(),
-                    material.getTitulo(),
-                    material.getTipoMaterial(),
-                    material.getCategoria().getNombreCategoria(),
-                    material.getCodigoIdentificador(),
-                    detalles,
-                    material.getCantidadDisponible()
-            });
+        if (modeloGeneral == null || tabla.getModel() != modeloGeneral) {
+            cargarTabla(tabla);
         }
-
-        tabla.setModel(modelo);
-        ajustarAnchoColumnas(tabla);
+        modeloGeneral.filtrar(busqueda != null ? busqueda.toLowerCase() : null);
     }
 
     // === MÉTODOS AUXILIARES ===
@@ -740,4 +721,8 @@ public class MaterialController {
     public List<MaterialBibliografico> obtenerMateriales() {
         return materialDAO.listarTodos();
     }
+
+    public List<MaterialBibliografico> obtenerMaterialesDisponibles() {
+        return materialDAO.listarDisponibles();
+    }
 }
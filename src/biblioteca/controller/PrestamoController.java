@@ -5,13 +5,25 @@ import biblioteca.dao.MaterialDAO;
 import biblioteca.dao.MultaDAO;
 import biblioteca.dao.PersonaDAO;
 import biblioteca.dao.PrestamoDAO;
+import biblioteca.dao.ResultadoPrestamo;
+import biblioteca.dao.ResultadoEscaneo;
 import biblioteca.model.Multa;
+import biblioteca.model.Persona;
 import biblioteca.model.Prestamo;
+import biblioteca.util.EjecutorAsincrono;
 import biblioteca.util.EnviadorCorreo; 
 import biblioteca.util.GeneradorPrestamoPDF;
+import biblioteca.util.ModeloTablaPerezoso;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import javax.swing.table.DefaultTableModel;
@@ -24,6 +36,11 @@ public class PrestamoController {
     private final MultaDAO multaDAO;
     private final ConfigDAO configDAO;
 
+    // Cargas de las tablas de préstamos perdidos y de multas: la última pedida
+    // reemplaza a la anterior para que un resultado tardío no pise al nuevo
+    private final EjecutorAsincrono.Canal canalPrestamos = new EjecutorAsincrono.Canal();
+    private final EjecutorAsincrono.Canal canalMultas = new EjecutorAsincrono.Canal();
+
     // Tarifa por día de retraso 
     private double TARIFA_DIA_RETRASO;
 
@@ -51,114 +68,147 @@ public class PrestamoController {
     
     // ================== REGISTRO DE NUEVO PRÉSTAMO ==================
 
-    public boolean registrarPrestamo(int idPersona,
-                                     int idMaterial,
-                                     LocalDate fechaPrestamo,
-                                     LocalDate fechaDevolucionEsperada,
-                                     boolean enviarCorreo) {
+    /**
+     * Las validaciones sin base de datos se hacen aquí mismo (EDT); la búsqueda,
+     * el INSERT y el comprobante por correo van en segundo plano. El resultado
+     * se completa en cuanto el préstamo queda guardado, sin esperar al correo.
+     */
+    public CompletableFuture<Boolean> registrarPrestamo(int idPersona,
+                                                        int idMaterial,
+                                                        LocalDate fechaPrestamo,
+                                                        LocalDate fechaDevolucionEsperada,
+                                                        boolean enviarCorreo) {
 
         if (idPersona <= 0) {
             JOptionPane.showMessageDialog(null, "Debe seleccionar un usuario",
                     "Error de Validación", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         if (idMaterial <= 0) {
             JOptionPane.showMessageDialog(null, "Debe seleccionar un material",
                     "Error de Validación", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         if (fechaPrestamo == null) {
             JOptionPane.showMessageDialog(null, "Debe ingresar la fecha de préstamo",
                     "Error de Validación", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         if (fechaDevolucionEsperada == null) {
             JOptionPane.showMessageDialog(null, "Debe ingresar la fecha de devolución esperada",
                     "Error de Validación", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         if (fechaDevolucionEsperada.isBefore(fechaPrestamo)) {
             JOptionPane.showMessageDialog(null,
                     "La fecha de devolución no puede ser anterior a la fecha de préstamo",
                     "Error de Validación", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        // Obtener objetos completos
-        var persona = personaDAO.buscarPorId(idPersona);
-        var material = materialDAO.buscarPorId(idMaterial);
+        return EjecutorAsincrono.enSegundoPlano(() -> {
+            // Obtener objetos completos
+            var persona = personaDAO.buscarPorId(idPersona);
+            var material = materialDAO.buscarPorId(idMaterial);
 
-        if (persona == null) {
-            JOptionPane.showMessageDialog(null, "Usuario no encontrado",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+            if (persona == null) {
+                EjecutorAsincrono.mostrarMensaje("Usuario no encontrado",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-        if (material == null) {
-            JOptionPane.showMessageDialog(null, "Material no encontrado",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+            if (material == null) {
+                EjecutorAsincrono.mostrarMensaje("Material no encontrado",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-        if ("ADMIN".equalsIgnoreCase(persona.getRol())) {
-            JOptionPane.showMessageDialog(null, "Solo los usuarios pueden registrar préstamos",
-                    "Error de Validación", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+            if ("ADMIN".equalsIgnoreCase(persona.getRol())) {
+                EjecutorAsincrono.mostrarMensaje("Solo los usuarios pueden registrar préstamos",
+                        "Error de Validación", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-        if (material.getCantidadDisponible() <= 0) {
-            JOptionPane.showMessageDialog(null,
-                    "No hay ejemplares disponibles del material seleccionado",
-                    "Error de Validación", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+            if (tienePrestamoActivo(idPersona)) {
+                avisarPrestamoActivo(persona.getNombre());
+                return false;
+            }
 
-        // Crear préstamo
-        Prestamo prestamo = new Prestamo();
-        prestamo.setPersona(persona);
-        prestamo.setMaterial(material);
-        prestamo.setFechaPrestamo(fechaPrestamo);
-        prestamo.setFechaDevolucionEsperada(fechaDevolucionEsperada);
-        prestamo.setEstado("Activo");
+            if (material.getCantidadDisponible() <= 0) {
+                EjecutorAsincrono.mostrarMensaje(
+                        "No hay ejemplares disponibles del material seleccionado",
+                        "Error de Validación", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-        boolean resultado = prestamoDAO.insertar(prestamo);
+            // Crear préstamo
+            Prestamo prestamo = new Prestamo();
+            prestamo.setPersona(persona);
+            prestamo.setMaterial(material);
+            prestamo.setFechaPrestamo(fechaPrestamo);
+            prestamo.setFechaDevolucionEsperada(fechaDevolucionEsperada);
+            prestamo.setEstado("Activo");
+
+            // El DAO repite la comprobación dentro de la transacción: otro puesto
+            // pudo prestarle algo a este usuario después de la de arriba
+            ResultadoPrestamo insertado = prestamoDAO.insertar(prestamo);
+            if (insertado == ResultadoPrestamo.PRESTAMO_ABIERTO) {
+                avisarPrestamoActivo(persona.getNombre());
+            }
+            boolean resultado = insertado.exito();
 
-        if (resultado) {
             // ✅ SOLO ENVIAR CORREO SI EL USUARIO LO SOLICITÓ
-            if (enviarCorreo) {
-                try {
-                    String correo = persona.getEmail();
-                    if (correo != null && !correo.isBlank()) {
-                        // Generar el PDF real con iText 7
-                        byte[] pdfBytes = GeneradorPrestamoPDF.generarPDF(prestamo);
-                        String nombreArchivo = "Comprobante_prestamo_" + prestamo.getIdPrestamo() + ".pdf";
-
-                        EnviadorCorreo.enviarCorreoConPDF(
-                                correo,
-                                persona.getNombre(),
-                                pdfBytes,
-                                nombreArchivo
-                        );
-                    }
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                    JOptionPane.showMessageDialog(null,
-                            "Préstamo registrado, pero ocurrió un error al generar/enviar el comprobante.",
-                            "Advertencia", JOptionPane.WARNING_MESSAGE);
-                }
+            if (resultado && enviarCorreo) {
+                enviarComprobante(persona.getEmail(), persona.getNombre(),
+                        () -> GeneradorPrestamoPDF.generarPDF(prestamo),
+                        "Comprobante_prestamo_" + prestamo.getIdPrestamo() + ".pdf",
+                        "Préstamo registrado, pero ocurrió un error al generar/enviar el comprobante.");
             }
-        }
 
-        return resultado;
+            return resultado;
+        });
+    }
+
+    private void avisarPrestamoActivo(String nombre) {
+        EjecutorAsincrono.mostrarMensaje(
+                "El usuario ya tiene un préstamo activo.\n\n" +
+                "Usuario: " + nombre + "\n\n" +
+                "Por favor, primero debe devolver el material prestado\n" +
+                "antes de poder realizar un nuevo préstamo.",
+                "Préstamo Activo Existente", JOptionPane.WARNING_MESSAGE);
+    }
+
+    // ================== MODO ESCANEO (LECTOR DE CÓDIGO DE BARRAS) ==================
+
+    /**
+     * Un escaneo en el mostrador: si el ejemplar está prestado se registra su
+     * devolución (con la multa por retraso a la tarifa configurada) y si no, se
+     * le presta al usuario indicado (0 = solo devoluciones). Sin diálogos ni
+     * correo para poder encadenar escaneos: la vista muestra el resultado.
+     */
+    public CompletableFuture<ResultadoEscaneo> escanear(String codigoBarra, int idUsuario,
+                                                        LocalDate fechaPrestamo,
+                                                        LocalDate fechaDevolucionEsperada) {
+        return EjecutorAsincrono.enSegundoPlano(() -> {
+            Prestamo nuevo = null;
+            Persona persona = idUsuario > 0 ? personaDAO.buscarPorId(idUsuario) : null;
+            if (persona != null) {
+                nuevo = new Prestamo();
+                nuevo.setPersona(persona);
+                nuevo.setFechaPrestamo(fechaPrestamo);
+                nuevo.setFechaDevolucionEsperada(fechaDevolucionEsperada);
+                nuevo.setEstado("Activo");
+            }
+            return prestamoDAO.circularPorCodigoBarra(codigoBarra, nuevo, LocalDate.now(), TARIFA_DIA_RETRASO);
+        });
     }
-    
 
     // registrar devolución con tarifa personalizada
-    public boolean registrarDevolucion(int idPrestamo, double tarifaPorDia, boolean enviarCorreo) {
+    public CompletableFuture<Boolean> registrarDevolucion(int idPrestamo, double tarifaPorDia, boolean enviarCorreo) {
         int confirmacion = JOptionPane.showConfirmDialog(null,
                 "¿Confirmar la devolución de este préstamo?",
                 "Confirmar Devolución",
@@ -166,106 +216,90 @@ public class PrestamoController {
                 JOptionPane.QUESTION_MESSAGE);
 
         if (confirmacion != JOptionPane.YES_OPTION) {
-            return false;
-        }
-
-        Prestamo prestamo = prestamoDAO.buscarPorId(idPrestamo);
-        if (prestamo == null) {
-            JOptionPane.showMessageDialog(null,
-                    "Préstamo no encontrado",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        LocalDate hoy = LocalDate.now();
-        LocalDate fechaEsperada = prestamo.getFechaDevolucionEsperada();
-
-        long diasRetraso = 0;
-        double montoMulta = 0.0;
-        Multa multaCreada = null;
-
-        if (fechaEsperada != null && hoy.isAfter(fechaEsperada)) {
-            diasRetraso = ChronoUnit.DAYS.between(fechaEsperada, hoy);
-            montoMulta = diasRetraso * tarifaPorDia;
-        }
-
-        boolean resultado = prestamoDAO.registrarDevolucion(idPrestamo, hoy);
+        return EjecutorAsincrono.enSegundoPlano(() -> {
+            Prestamo prestamo = prestamoDAO.buscarPorId(idPrestamo);
+            if (prestamo == null) {
+                EjecutorAsincrono.mostrarMensaje(
+                        "Préstamo no encontrado",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-        if (!resultado) {
-            JOptionPane.showMessageDialog(null,
-                    "Error al registrar la devolución",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+            LocalDate hoy = LocalDate.now();
+            LocalDate fechaEsperada = prestamo.getFechaDevolucionEsperada();
 
-        // Crear multa si hay retraso
-        if (montoMulta > 0) {
-            Multa multa = new Multa(
-                    prestamo.getIdPrestamo(),
-                    prestamo.getPersona().getId(),
-                    "Retraso",
-                    montoMulta,
-                    "Devolución tardía (" + diasRetraso + " días de retraso)"
-            );
-            multaDAO.crear(multa);
-            multaCreada = multa;
+            long diasRetraso = 0;
+            double montoMulta = 0.0;
+            Multa multaCreada = null;
 
-            JOptionPane.showMessageDialog(null,
-                    "Devolución registrada.\n" +
-                    " Se generó una multa de $" + String.format("%.2f", montoMulta) + 
-                    " por " + diasRetraso + " días de retraso.\n\n" +
-                    "El usuario debe pagar en la pestaña de Multas.",
-                    "Multa Generada",
-                    JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null,
-                    "Devolución registrada exitosamente.\n Sin multas - Devolución a tiempo",
-                    "Éxito",
-                    JOptionPane.INFORMATION_MESSAGE);
-        }
+            if (fechaEsperada != null && hoy.isAfter(fechaEsperada)) {
+                diasRetraso = ChronoUnit.DAYS.between(fechaEsperada, hoy);
+                montoMulta = diasRetraso * tarifaPorDia;
+            }
 
-        // ✅ ENVIAR CORREO SI SE SOLICITÓ
-        if (enviarCorreo) {
-            try {
-                String correo = prestamo.getPersona().getEmail();
-                if (correo != null && !correo.isBlank()) {
-                    byte[] pdfBytes;
-                    String nombreArchivo;
+            boolean resultado = prestamoDAO.registrarDevolucion(idPrestamo, hoy);
 
-                    if (multaCreada != null) {
-                        // HAY MULTA - Usar PDF con cálculo de multa
-                        pdfBytes = GeneradorPrestamoPDF.generarPDFPagoMulta(
-                            prestamo, 
-                            multaCreada, 
-                            tarifaPorDia, 
-                            diasRetraso
-                        );
-                        nombreArchivo = "Comprobante_devolucion_con_multa_" + prestamo.getIdPrestamo() + ".pdf";
-                    } else {
-                        // SIN MULTA - Usar PDF de devolución exitosa
-                        pdfBytes = GeneradorPrestamoPDF.generarPDFDevolucionExitosa(prestamo);
-                        nombreArchivo = "Comprobante_devolucion_exitosa_" + prestamo.getIdPrestamo() + ".pdf";
-                    }
+            if (!resultado) {
+                EjecutorAsincrono.mostrarMensaje(
+                        "Error al registrar la devolución",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-                    EnviadorCorreo.enviarCorreoConPDF(
-                            correo,
-                            prestamo.getPersona().getNombre(),
-                            pdfBytes,
-                            nombreArchivo
-                    );
+            // Crear multa si hay retraso
+            if (montoMulta > 0) {
+                Multa multa = new Multa(
+                        prestamo.getIdPrestamo(),
+                        prestamo.getPersona().getId(),
+                        "Retraso",
+                        montoMulta,
+                        "Devolución tardía (" + diasRetraso + " días de retraso)"
+                );
+                multaDAO.crear(multa);
+                multaCreada = multa;
+
+                EjecutorAsincrono.mostrarMensaje(
+                        "Devolución registrada.\n" +
+                        " Se generó una multa de $" + String.format("%.2f", montoMulta) + 
+                        " por " + diasRetraso + " días de retraso.\n\n" +
+                        "El usuario debe pagar en la pestaña de Multas.",
+                        "Multa Generada",
+                        JOptionPane.WARNING_MESSAGE);
+            } else {
+                EjecutorAsincrono.mostrarMensaje(
+                        "Devolución registrada exitosamente.\n Sin multas - Devolución a tiempo",
+                        "Éxito",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
 
-                    System.out.println("Correo de devolución enviado a: " + correo);
+            // ✅ ENVIAR CORREO SI SE SOLICITÓ
+            if (enviarCorreo) {
+                final Multa multa = multaCreada;
+                final long dias = diasRetraso;
+                if (multa != null) {
+                    // HAY MULTA - Usar PDF con cálculo de multa
+                    enviarComprobante(prestamo.getPersona().getEmail(), prestamo.getPersona().getNombre(),
+                            () -> GeneradorPrestamoPDF.generarPDFPagoMulta(prestamo, multa, tarifaPorDia, dias),
+                            "Comprobante_devolucion_con_multa_" + prestamo.getIdPrestamo() + ".pdf",
+                            null);
+                } else {
+                    // SIN MULTA - Usar PDF de devolución exitosa
+                    enviarComprobante(prestamo.getPersona().getEmail(), prestamo.getPersona().getNombre(),
+                            () -> GeneradorPrestamoPDF.generarPDFDevolucionExitosa(prestamo),
+                            "Comprobante_devolucion_exitosa_" + prestamo.getIdPrestamo() + ".pdf",
+                            null);
                 }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                System.err.println("Error al enviar correo de devolución: " + ex.getMessage());
             }
-        }
 
-        return true;
+            return true;
+        });
     }
 
-    public boolean marcarPrestamoComoPerdido(int idPrestamo, double multaPorPerdida, boolean enviarCorreo) {
+    public CompletableFuture<Boolean> marcarPrestamoComoPerdido(int idPrestamo, double multaPorPerdida,
+                                                                boolean enviarCorreo) {
         int confirmacion = JOptionPane.showConfirmDialog(null,
                 "¿Marcar este préstamo como PERDIDO?\n" +
                 "Se generará una multa por pérdida de $" + String.format("%.2f", multaPorPerdida) + ".",
@@ -274,210 +308,211 @@ public class PrestamoController {
                 JOptionPane.WARNING_MESSAGE);
 
         if (confirmacion != JOptionPane.YES_OPTION) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        Prestamo prestamo = prestamoDAO.buscarPorId(idPrestamo);
-        if (prestamo == null) {
-            JOptionPane.showMessageDialog(null,
-                    "Préstamo no encontrado",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+        return EjecutorAsincrono.enSegundoPlano(() -> {
+            Prestamo prestamo = prestamoDAO.buscarPorId(idPrestamo);
+            if (prestamo == null) {
+                EjecutorAsincrono.mostrarMensaje(
+                        "Préstamo no encontrado",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-        LocalDate hoy = LocalDate.now();
+            LocalDate hoy = LocalDate.now();
 
-        boolean ok = prestamoDAO.marcarComoPerdido(idPrestamo, hoy);
-        if (!ok) {
-            JOptionPane.showMessageDialog(null,
-                    "Error al marcar el préstamo como perdido",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return false;
-        }
+            boolean ok = prestamoDAO.marcarComoPerdido(idPrestamo, hoy);
+            if (!ok) {
+                EjecutorAsincrono.mostrarMensaje(
+                        "Error al marcar el préstamo como perdido",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-        Multa multa = new Multa(
-                prestamo.getIdPrestamo(),
-                prestamo.getPersona().getId(),
-                "Perdido",
-                multaPorPerdida,
-                "Ejemplar perdido"
-        );
-        multaDAO.crear(multa);
-
-        // ENVIAR CORREO SI EL USUARIO LO SOLICITÓ
-        if (enviarCorreo) {
+            Multa multa = new Multa(
+                    prestamo.getIdPrestamo(),
+                    prestamo.getPersona().getId(),
+                    "Perdido",
+                    multaPorPerdida,
+                    "Ejemplar perdido"
+            );
+            multaDAO.crear(multa);
+
+            // ENVIAR CORREO SI EL USUARIO LO SOLICITÓ
+            if (enviarCorreo) {
+                enviarComprobante(prestamo.getPersona().getEmail(), prestamo.getPersona().getNombre(),
+                        // Obtener la multa recién creada para el PDF
+                        () -> GeneradorPrestamoPDF.generarPDFPagoPerdida(prestamo,
+                                multaDAO.obtenerPorId(multa.getIdMulta())),
+                        "Multa_perdida_" + prestamo.getIdPrestamo() + ".pdf",
+                        null);
+            }
+
+            return true;
+        });
+    }
+
+    /**
+     * Genera el PDF en segundo plano y lo deja en la bandeja de salida; el
+     * envío y sus reintentos los hace DespachadorCorreo. Si no se pudo
+     * encolar y hay aviso, se muestra al usuario.
+     */
+    private void enviarComprobante(String correo, String nombre, Callable<byte[]> generadorPDF,
+                                   String nombreArchivo, String avisoSiFalla) {
+        if (correo == null || correo.isBlank()) {
+            return;
+        }
+        EjecutorAsincrono.enSegundoPlano(() -> {
+            boolean enviado = false;
             try {
-                String correo = prestamo.getPersona().getEmail();
-                if (correo != null && !correo.isBlank()) {
-                    // Obtener la multa recién creada para el PDF
-                    Multa multaCompleta = multaDAO.obtenerPorId(multa.getIdMulta());
-                    byte[] pdfBytes = GeneradorPrestamoPDF.generarPDFPagoPerdida(prestamo, multaCompleta);
-                    String nombreArchivo = "Multa_perdida_" + prestamo.getIdPrestamo() + ".pdf";
-
-                    EnviadorCorreo.enviarCorreoConPDF(
-                            correo,
-                            prestamo.getPersona().getNombre(),
-                            pdfBytes,
-                            nombreArchivo
-                    );
-                }
+                enviado = EnviadorCorreo.encolarCorreoConPDF(correo, nombre, generadorPDF.call(), nombreArchivo);
             } catch (Exception ex) {
                 ex.printStackTrace();
             }
-        }
-
-        return true;
+            if (enviado) {
+                System.out.println("Comprobante " + nombreArchivo + " en cola para: " + correo);
+            } else {
+                System.err.println("Error al generar/enviar el comprobante " + nombreArchivo);
+                if (avisoSiFalla != null) {
+                    EjecutorAsincrono.mostrarMensaje(avisoSiFalla, "Advertencia", JOptionPane.WARNING_MESSAGE);
+                }
+            }
+        });
     }
     
     // ================== CARGA DE TABLAS PRÉSTAMOS ==================
 
-    public void cargarTabla(JTable tabla) {
-        DefaultTableModel modelo = new DefaultTableModel(
-                new Object[]{"ID", "Usuario", "Material", "Tipo", "Fecha Préstamo",
-                    "Fecha Devolución Esperada", "Estado"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-
-        List<Prestamo> lista = prestamoDAO.listarTodos();
+    // Columna de la tabla -> clave de orden de PrestamoDAO.listarBloque
+    private static final String[] ORDEN_COLUMNAS_PRESTAMO = {
+        "id", "usuario", "material", "tipo", "fecha_prestamo", "fecha_devolucion", "estado"
+    };
 
-        for (Prestamo prestamo : lista) {
-            modelo.addRow(new Object[]{
-                prestamo.getIdPrestamo(),
-                prestamo.getNombreUsuario(),
-                prestamo.getTituloMaterial(),
-                prestamo.getMaterial().getTipoMaterial(),
-                prestamo.getFechaPrestamo(),
-                prestamo.getFechaDevolucionEsperada(),
-                prestamo.getEstado()
-            });
-        }
-
-        tabla.setModel(modelo);
+    public void cargarTabla(JTable tabla) {
+        canalPrestamos.cancelar();
+        crearModeloPrestamos("TODOS", new String[]{"ID", "Usuario", "Material", "Tipo",
+                "Fecha Préstamo", "Fecha Devolución Esperada", "Estado"}).instalarEn(tabla);
         ajustarAnchoColumnasPrincipal(tabla);
     }
 
     public void cargarTablaActivos(JTable tabla) {
-        DefaultTableModel modelo = new DefaultTableModel(
-                new Object[]{"ID", "Usuario", "Material", "Tipo", "Fecha Préstamo",
-                    "Fecha Devolución Esperada", "Estado"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-
-        List<Prestamo> lista = prestamoDAO.listarActivos();
+        canalPrestamos.cancelar();
+        crearModeloPrestamos("ACTIVOS", new String[]{"ID", "Usuario", "Material", "Tipo",
+                "Fecha Préstamo", "Fecha Devolución Esperada", "Estado"}).instalarEn(tabla);
+        ajustarAnchoColumnasPrincipal(tabla);
+    }
 
-        for (Prestamo prestamo : lista) {
-            modelo.addRow(new Object[]{
-                prestamo.getIdPrestamo(),
-                prestamo.getNombreUsuario(),
-                prestamo.getTituloMaterial(),
-                prestamo.getMaterial().getTipoMaterial(),
-                prestamo.getFechaPrestamo(),
-                prestamo.getFechaDevolucionEsperada(),
-                prestamo.getEstado()
-            });
-        }
+    public void cargarTablaVencidos(JTable tabla) {
+        canalPrestamos.cancelar();
+        crearModeloPrestamos("VENCIDOS", new String[]{"ID", "Usuario", "Material", "Tipo",
+                "Fecha Préstamo", "Fecha Devolución", "Estado", "Días Retraso"}).instalarEn(tabla);
+    }
 
-        tabla.setModel(modelo);
+    /**
+     * Modelo perezoso: solo se leen de la base los bloques que se ven en
+     * pantalla. La columna extra "Días Retraso" (vencidos) se calcula al convertir.
+     */
+    private ModeloTablaPerezoso<Prestamo> crearModeloPrestamos(String estado, String[] columnas) {
+        boolean conRetraso = columnas.length > ORDEN_COLUMNAS_PRESTAMO.length;
 
-        if (tabla.getColumnModel().getColumnCount() > 0) {
-            tabla.getColumnModel().getColumn(0).setPreferredWidth(50);   // ID
-            tabla.getColumnModel().getColumn(1).setPreferredWidth(150);  // Usuario
-            tabla.getColumnModel().getColumn(2).setPreferredWidth(200);  // Material
-            tabla.getColumnModel().getColumn(3).setPreferredWidth(80);   // Tipo
-            tabla.getColumnModel().getColumn(4).setPreferredWidth(100);  // Fecha Préstamo
-            tabla.getColumnModel().getColumn(5).setPreferredWidth(100);  // Fecha Devolución
-            tabla.getColumnModel().getColumn(6).setPreferredWidth(80);   // Estado
-        }
-    }
+        ModeloTablaPerezoso.FuenteDatos<Prestamo> fuente = new ModeloTablaPerezoso.FuenteDatos<>() {
+            @Override
+            public int contar(String texto) {
+                return prestamoDAO.contarBloque(estado, texto);
+            }
 
-    public void cargarTablaVencidos(JTable tabla) {
-        DefaultTableModel modelo = new DefaultTableModel(
-            new Object[]{"ID","Usuario","Material","Tipo","Fecha Préstamo",
-                         "Fecha Devolución","Estado","Días Retraso"}, 0
-        ) {
-            public boolean isCellEditable(int r, int c) { return false; }
+            @Override
+            public List<Prestamo> cargar(String texto, int columnaOrden, boolean descendente,
+                                         int desde, int tamano) {
+                String orden = columnaOrden >= 0 && columnaOrden < ORDEN_COLUMNAS_PRESTAMO.length
+                        ? ORDEN_COLUMNAS_PRESTAMO[columnaOrden]
+                        : null;
+                // Ordenar por retraso es ordenar por fecha esperada al revés
+                if (conRetraso && columnaOrden == ORDEN_COLUMNAS_PRESTAMO.length) {
+                    orden = "fecha_devolucion";
+                    descendente = !descendente;
+                }
+                return prestamoDAO.listarBloque(estado, texto, orden, descendente, desde, tamano);
+            }
         };
-        List<Prestamo> lista = prestamoDAO.listarVencidos();
-        for (Prestamo p : lista) {
-            long diasRetraso = ChronoUnit.DAYS.between(
-                    p.getFechaDevolucionEsperada(),
-                    LocalDate.now()
-            );
-            modelo.addRow(new Object[]{
+
+        return new ModeloTablaPerezoso<>(columnas, fuente, p -> {
+            Object[] fila = Arrays.copyOf(new Object[]{
                 p.getIdPrestamo(),
                 p.getNombreUsuario(),
                 p.getTituloMaterial(),
                 p.getMaterial().getTipoMaterial(),
                 p.getFechaPrestamo(),
                 p.getFechaDevolucionEsperada(),
-                p.getEstado(),
-                diasRetraso > 0 ? diasRetraso : 0
-            });
-        }
-        tabla.setModel(modelo);
+                p.getEstado()
+            }, columnas.length);
+            if (conRetraso) {
+                long diasRetraso = ChronoUnit.DAYS.between(p.getFechaDevolucionEsperada(), LocalDate.now());
+                fila[7] = diasRetraso > 0 ? diasRetraso : 0;
+            }
+            return fila;
+        });
     }
     
-    public void cargarTablaPerdidos(JTable tabla) {
-        DefaultTableModel modelo = new DefaultTableModel(
-            new Object[]{"ID", "Usuario", "Material", "Tipo", "Fecha Préstamo",
-                         "Fecha Pérdida", "Multa", "Estado Multa"}, 0
-        ) {
-            public boolean isCellEditable(int r, int c) { return false; }
-        };
-
-        List<Prestamo> lista = prestamoDAO.listarPerdidos();
-
-        for (Prestamo p : lista) {
-            // Obtener la multa asociada al préstamo perdido
-            String montoMulta = "Sin multa";
-            String estadoMulta = "N/A";
-            LocalDate fechaPerdida = LocalDate.now();
-
-            try {
-                List<Multa> multas = multaDAO.listarPorPrestamo(p.getIdPrestamo());
-                for (Multa m : multas) {
-                    if ("Perdido".equals(m.getTipoMulta())) {
-                        montoMulta = String.format("$%.2f", m.getMonto());
-
-                        if (!m.isPagada()) {
-                            estadoMulta = "Pendiente";
-                        } else if (m.getObservacion() != null && m.getObservacion().contains("[CONDONADA]")) {
-                            estadoMulta = "Condonada";
-                        } else {
-                            estadoMulta = "Pagada";
-                        }
+    /**
+     * Préstamos perdidos con su multa por pérdida. Los préstamos y todas las
+     * multas "Perdido" se leen en segundo plano (dos consultas); alCargar se
+     * ejecuta en el EDT después de instalar el modelo.
+     */
+    public void cargarTablaPerdidos(JTable tabla, Runnable alCargar) {
+        canalPrestamos.ejecutar(() -> {
+            // Primera multa "Perdido" de cada préstamo, la más reciente
+            Map<Integer, Multa> multaPorPrestamo = new HashMap<>();
+            for (Multa m : multaDAO.listarPorTipo("Perdido")) {
+                multaPorPrestamo.putIfAbsent(m.getIdPrestamo(), m);
+            }
 
+            List<Object[]> filas = new ArrayList<>();
+            for (Prestamo p : prestamoDAO.listarPerdidos()) {
+                String montoMulta = "Sin multa";
+                String estadoMulta = "N/A";
+                LocalDate fechaPerdida = LocalDate.now();
+
+                Multa m = multaPorPrestamo.get(p.getIdPrestamo());
+                if (m != null) {
+                    montoMulta = String.format("$%.2f", m.getMonto());
+                    estadoMulta = obtenerEstadoMulta(m);
+                    try {
                         if (m.getFechaMulta() != null) {
                             fechaPerdida = LocalDate.parse(m.getFechaMulta());
                         }
-                        break;
+                    } catch (Exception e) {
+                        e.printStackTrace();
                     }
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-
-            modelo.addRow(new Object[]{
-                p.getIdPrestamo(),
-                p.getNombreUsuario(),
-                p.getTituloMaterial(),
-                p.getMaterial().getTipoMaterial(),
-                p.getFechaPrestamo(),
-                fechaPerdida,
-                montoMulta,
-                estadoMulta
-            });
-        }
 
-        tabla.setModel(modelo);
+                filas.add(new Object[]{
+                    p.getIdPrestamo(),
+                    p.getNombreUsuario(),
+                    p.getTituloMaterial(),
+                    p.getMaterial().getTipoMaterial(),
+                    p.getFechaPrestamo(),
+                    fechaPerdida,
+                    montoMulta,
+                    estadoMulta
+                });
+            }
+            return filas;
+        }, filas -> {
+            DefaultTableModel modelo = new DefaultTableModel(
+                new Object[]{"ID", "Usuario", "Material", "Tipo", "Fecha Préstamo",
+                             "Fecha Pérdida", "Multa", "Estado Multa"}, 0
+            ) {
+                public boolean isCellEditable(int r, int c) { return false; }
+            };
+            for (Object[] fila : filas) {
+                modelo.addRow(fila);
+            }
+            tabla.setModel(modelo);
+            if (alCargar != null) {
+                alCargar.run();
+            }
+        });
     }
     
     public void buscarPorUsuario(JTable tabla, int idUsuario) {
@@ -600,120 +635,79 @@ public class PrestamoController {
     /**
      * Carga todas las multas en la tabla
      */
-    public void cargarTablaMultas(JTable tabla) {
-        DefaultTableModel modelo = new DefaultTableModel(
-                new Object[]{"ID", "Usuario", "Material", "Tipo", 
-                    "Monto", "Estado", "Fecha"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-
-        List<Multa> lista = multaDAO.listarTodas();
-        if (lista == null) {
-            lista = java.util.Collections.emptyList();
-        }
-
-        for (Multa multa : lista) {
-            String estado = obtenerEstadoMulta(multa);
-
-            modelo.addRow(new Object[]{
-                multa.getIdMulta(),
-                multa.getNombreUsuario() != null ? multa.getNombreUsuario() : "Usuario #" + multa.getIdPersona(),
-                multa.getNombreMaterial() != null ? multa.getNombreMaterial() : "Material (Préstamo #" + multa.getIdPrestamo() + ")",
-                multa.getTipoMulta(),
-                String.format("$%.2f", multa.getMonto()),
-                estado,
-                multa.getFechaMulta()
-            });
-        }
-
-        tabla.setModel(modelo);
-        ajustarColumnasMultas(tabla);
+    public void cargarTablaMultas(JTable tabla, Runnable alCargar) {
+        cargarMultasEn(tabla, multaDAO::listarTodas, alCargar);
     }
 
     /**
      * Carga solo las multas pendientes
      */
-    public void cargarTablaMultasPendientes(JTable tabla) {
-        DefaultTableModel modelo = new DefaultTableModel(
-                new Object[]{"ID", "Usuario", "Material", "Tipo", 
-                    "Monto", "Estado", "Fecha"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-
-        List<Multa> lista = multaDAO.listarPendientes();
-        if (lista == null) {
-            lista = java.util.Collections.emptyList();
-        }
-
-        for (Multa multa : lista) {
-            modelo.addRow(new Object[]{
-                multa.getIdMulta(),
-                multa.getNombreUsuario() != null ? multa.getNombreUsuario() : "Usuario #" + multa.getIdPersona(),
-                multa.getNombreMaterial() != null ? multa.getNombreMaterial() : "Material (Préstamo #" + multa.getIdPrestamo() + ")",
-                multa.getTipoMulta(),
-                String.format("$%.2f", multa.getMonto()),
-                "Pendiente",
-                multa.getFechaMulta()
-            });
-        }
-
-        tabla.setModel(modelo);
-        ajustarColumnasMultas(tabla);
+    public void cargarTablaMultasPendientes(JTable tabla, Runnable alCargar) {
+        cargarMultasEn(tabla, multaDAO::listarPendientes, alCargar);
     }
 
     /**
      * Carga solo las multas pagadas
      */
-    public void cargarTablaMultasPagadas(JTable tabla) {
-        DefaultTableModel modelo = new DefaultTableModel(
-                new Object[]{"ID", "Usuario", "Material", "Tipo", 
-                    "Monto", "Estado", "Fecha"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+    public void cargarTablaMultasPagadas(JTable tabla, Runnable alCargar) {
+        cargarMultasEn(tabla, multaDAO::listarPagadas, alCargar);
+    }
 
-        List<Multa> lista = multaDAO.listarPagadas();
-        if (lista == null) {
-            lista = java.util.Collections.emptyList();
-        }
+    /**
+     * La consulta corre en segundo plano; el modelo se instala en el EDT y
+     * después se ejecuta alCargar (estilos y buscador de la vista).
+     */
+    private void cargarMultasEn(JTable tabla, Supplier<List<Multa>> consulta, Runnable alCargar) {
+        canalMultas.ejecutar(consulta, lista -> {
+            DefaultTableModel modelo = new DefaultTableModel(
+                    new Object[]{"ID", "Usuario", "Material", "Tipo", 
+                        "Monto", "Estado", "Fecha"}, 0
+            ) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false;
+                }
+            };
 
-        for (Multa multa : lista) {
-            // Determinar si fue condonada
-            String estado = "Pagada";
-            if (multa.getObservacion() != null && multa.getObservacion().contains("[CONDONADA]")) {
-                estado = "Condonada";
+            if (lista != null) {
+                for (Multa multa : lista) {
+                    modelo.addRow(filaMulta(multa));
+                }
             }
 
-            modelo.addRow(new Object[]{
-                multa.getIdMulta(),
-                multa.getNombreUsuario() != null ? multa.getNombreUsuario() : "Usuario #" + multa.getIdPersona(),
-                multa.getNombreMaterial() != null ? multa.getNombreMaterial() : "Material (Préstamo #" + multa.getIdPrestamo() + ")",
-                multa.getTipoMulta(),
-                String.format("$%.2f", multa.getMonto()),
-                estado,
-                multa.getFechaMulta()
-            });
-        }
+            tabla.setModel(modelo);
+            ajustarColumnasMultas(tabla);
+            if (alCargar != null) {
+                alCargar.run();
+            }
+        });
+    }
 
-        tabla.setModel(modelo);
-        ajustarColumnasMultas(tabla);
+    /**
+     * Fila de las tablas de multas. Las cargas completas y la actualización
+     * de una sola fila (PrestamoView, al recibir un evento) usan la misma.
+     */
+    public Object[] filaMulta(Multa multa) {
+        return new Object[]{
+            multa.getIdMulta(),
+            multa.getNombreUsuario() != null ? multa.getNombreUsuario() : "Usuario #" + multa.getIdPersona(),
+            multa.getNombreMaterial() != null ? multa.getNombreMaterial() : "Material (Préstamo #" + multa.getIdPrestamo() + ")",
+            multa.getTipoMulta(),
+            String.format("$%.2f", multa.getMonto()),
+            obtenerEstadoMulta(multa),
+            multa.getFechaMulta()
+        };
+    }
+
+    public Multa obtenerMulta(int idMulta) {
+        return multaDAO.obtenerPorId(idMulta);
     }
 
     /**
-     * Marca una multa como pagada
+     * Marca una multa como pagada. La confirmación se pide aquí (EDT); la
+     * actualización, la búsqueda del préstamo y el recibo van en segundo plano.
      */
-    public boolean marcarMultaPagada(int idMulta) {
+    public CompletableFuture<Boolean> marcarMultaPagada(int idMulta) {
         int confirmacion = JOptionPane.showConfirmDialog(null,
                 "¿Confirmar que esta multa ha sido pagada?\n\n" +
                 "Se enviará automáticamente el recibo por correo.",
@@ -722,27 +716,34 @@ public class PrestamoController {
                 JOptionPane.QUESTION_MESSAGE);
 
         if (confirmacion != JOptionPane.YES_OPTION) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        boolean resultado = multaDAO.marcarComoPagada(idMulta, LocalDate.now());
+        return EjecutorAsincrono.enSegundoPlano(() -> {
+            boolean resultado = multaDAO.marcarComoPagada(idMulta, LocalDate.now());
+
+            if (!resultado) {
+                EjecutorAsincrono.mostrarMensaje(
+                        "Error al marcar la multa como pagada",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
 
-        if (resultado) {
             try {
                 Multa multa = multaDAO.obtenerPorId(idMulta);
                 Prestamo prestamo = prestamoDAO.buscarPorId(multa.getIdPrestamo());
                 String correo = prestamo.getPersona().getEmail();
 
                 if (correo != null && !correo.isBlank()) {
-                    byte[] pdfBytes;
+                    Callable<byte[]> generadorPDF;
                     String nombreArchivo;
 
                     if ("Perdido".equalsIgnoreCase(multa.getTipoMulta())) {
-                        pdfBytes = GeneradorPrestamoPDF.generarPDFPagoPerdida(prestamo, multa);
+                        generadorPDF = () -> GeneradorPrestamoPDF.generarPDFPagoPerdida(prestamo, multa);
                         nombreArchivo = "Recibo_pago_perdida_" + multa.getIdMulta() + ".pdf";
                     } else {
                         long diasRetraso = (long) (multa.getMonto() / TARIFA_DIA_RETRASO);
-                        pdfBytes = GeneradorPrestamoPDF.generarPDFPagoMulta(
+                        generadorPDF = () -> GeneradorPrestamoPDF.generarPDFPagoMulta(
                             prestamo, 
                             multa, 
                             TARIFA_DIA_RETRASO, 
@@ -751,22 +752,17 @@ public class PrestamoController {
                         nombreArchivo = "Recibo_pago_retraso_" + multa.getIdMulta() + ".pdf";
                     }
 
-                    EnviadorCorreo.enviarCorreoConPDF(
-                            correo,
-                            prestamo.getPersona().getNombre(),
-                            pdfBytes,
-                            nombreArchivo
-                    );
-
-                    System.out.println("Recibo de pago enviado a: " + correo);
+                    enviarComprobante(correo, prestamo.getPersona().getNombre(), generadorPDF, nombreArchivo,
+                            "Multa marcada como pagada\n" +
+                            "No se pudo generar o encolar el recibo para: " + correo);
 
-                    JOptionPane.showMessageDialog(null,
+                    EjecutorAsincrono.mostrarMensaje(
                             "Multa marcada como pagada\n" +
-                            "Recibo enviado por correo a: " + correo,
+                            "El recibo se enviará por correo a: " + correo,
                             "Pago Registrado",
                             JOptionPane.INFORMATION_MESSAGE);
                 } else {
-                    JOptionPane.showMessageDialog(null,
+                    EjecutorAsincrono.mostrarMensaje(
                             "Multa marcada como pagada\n" +
                             "No se pudo enviar correo (usuario sin email)",
                             "Pago Registrado",
@@ -775,27 +771,21 @@ public class PrestamoController {
 
             } catch (Exception e) {
                 e.printStackTrace();
-                JOptionPane.showMessageDialog(null,
+                EjecutorAsincrono.mostrarMensaje(
                         "Multa marcada como pagada\n" +
                         "Error al enviar correo: " + e.getMessage(),
                         "Advertencia",
                         JOptionPane.WARNING_MESSAGE);
             }
 
-        } else {
-            JOptionPane.showMessageDialog(null,
-                    "Error al marcar la multa como pagada",
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
-
-        return resultado;
+            return true;
+        });
     }
 
     /**
-     * Condona una multa (la marca como condonada)
+     * Condona una multa (la marca como condonada). La actualización va en segundo plano.
      */
-    public boolean condonarMulta(int idMulta) {
+    public CompletableFuture<Boolean> condonarMulta(int idMulta) {
         int confirmacion = JOptionPane.showConfirmDialog(null,
                 "¿Está seguro de que desea condonar esta multa?\n" +
                 "Esta acción no se puede deshacer.",
@@ -804,24 +794,26 @@ public class PrestamoController {
                 JOptionPane.WARNING_MESSAGE);
 
         if (confirmacion != JOptionPane.YES_OPTION) {
-            return false;
-        }
-
-        boolean resultado = multaDAO.condonar(idMulta, LocalDate.now());
-
-        if (resultado) {
-            JOptionPane.showMessageDialog(null,
-                    "Multa condonada exitosamente",
-                    "Éxito",
-                    JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null,
-                    "Error al condonar la multa",
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return EjecutorAsincrono.enSegundoPlano(() -> {
+            boolean resultado = multaDAO.condonar(idMulta, LocalDate.now());
+
+            if (resultado) {
+                EjecutorAsincrono.mostrarMensaje(
+                        "Multa condonada exitosamente",
+                        "Éxito",
+                        JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                EjecutorAsincrono.mostrarMensaje(
+                        "Error al condonar la multa",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            }
 
-        return resultado;
+            return resultado;
+        });
     }
 
     // ================== MÉTODOS PARA ESTADÍSTICAS / OTROS ==================
@@ -898,81 +890,11 @@ public class PrestamoController {
         }
     }
     
-    /**
-     * Verifica si un préstamo tiene multas pendientes
-     */
-    public boolean tieneMultasPendientes(int idPrestamo) {
-        try {
-            List<Multa> multas = multaDAO.listarPorPrestamo(idPrestamo);
-            for (Multa m : multas) {
-                if (!m.isPagada()) {
-                    return true;
-                }
-            }
-            return false;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
-    public boolean tieneMultasPagadas(int idPrestamo) {
-        try {
-            List<Multa> multas = multaDAO.listarPorPrestamo(idPrestamo);
-
-            boolean tienePagadas = false;
-            boolean tienePendientes = false;
-
-            for (Multa m : multas) {
-                if (m.isPagada()) {
-                    tienePagadas = true;
-                } else {
-                    tienePendientes = true;
-                }
-            }
-
-            // Solo retornar true si tiene pagadas Y NO tiene pendientes
-            return tienePagadas && !tienePendientes;
-
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     /**
      * Carga las multas de un préstamo específico
      */
     public void cargarTablaMultasPorPrestamo(JTable tabla, int idPrestamo) {
-        DefaultTableModel modelo = new DefaultTableModel(
-                new Object[]{"ID", "Usuario", "Material", "Tipo", 
-                    "Monto", "Estado", "Fecha"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-
-        List<Multa> lista = multaDAO.listarPorPrestamo(idPrestamo);
-        if (lista == null) {
-            lista = java.util.Collections.emptyList();
-        }
-
-        for (Multa multa : lista) {
-            String estado = obtenerEstadoMulta(multa);
-
-            modelo.addRow(new Object[]{
-                multa.getIdMulta(),
-                multa.getNombreUsuario() != null ? multa.getNombreUsuario() : "Usuario #" + multa.getIdPersona(),
-                multa.getNombreMaterial() != null ? multa.getNombreMaterial() : "Material (Préstamo #" + multa.getIdPrestamo() + ")",
-                multa.getTipoMulta(),
-                String.format("$%.2f", multa.getMonto()),
-                estado,
-                multa.getFechaMulta()
-            });
-        }
-
-        tabla.setModel(modelo);
-        ajustarColumnasMultas(tabla);
+        cargarMultasEn(tabla, () -> multaDAO.listarPorPrestamo(idPrestamo), null);
     }
     
     private void ajustarColumnasMultas(JTable tabla) {
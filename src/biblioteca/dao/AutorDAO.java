@@ -7,6 +7,9 @@ import java.util.List;
 public interface AutorDAO {
     boolean insertar(Autor autor);
     List<Autor> listarTodos();
+    // Igual que listarTodos pero por páginas (desde = null para la primera)
+    Pagina<Autor> listarPagina(ClavePagina desde, int tamano);
+    int contarTodos();
     Autor buscarPorId(int id);
     boolean actualizar(Autor autor);
     boolean eliminar(int id);
@@ -0,0 +1,83 @@
+package biblioteca.dao;
+
+import biblioteca.model.Autor;
+import java.util.List;
+
+/**
+ * AutorDAO con caché de buscarPorId, que piden MaterialController al guardar
+ * materiales y AutorController al editar (mismo esquema que {@link CategoriaDAOCache}).
+ */
+public class AutorDAOCache implements AutorDAO {
+
+    public static final int CAPACIDAD_POR_DEFECTO = 1024;
+
+    private final AutorDAO delegado;
+    private final CacheEntidades<Integer, Autor> cache;
+
+    public AutorDAOCache(AutorDAO delegado) {
+        this(delegado, CAPACIDAD_POR_DEFECTO);
+    }
+
+    public AutorDAOCache(AutorDAO delegado, int capacidad) {
+        this.delegado = delegado;
+        this.cache = new CacheEntidades<>("autores", capacidad);
+    }
+
+    @Override
+    public Autor buscarPorId(int id) {
+        return cache.obtener(id, delegado::buscarPorId);
+    }
+
+    @Override
+    public boolean insertar(Autor autor) {
+        boolean ok = delegado.insertar(autor);
+        cache.invalidar(autor.getIdAutor());
+        return ok;
+    }
+
+    @Override
+    public boolean actualizar(Autor autor) {
+        try {
+            return delegado.actualizar(autor);
+        } finally {
+            cache.invalidar(autor.getIdAutor());
+        }
+    }
+
+    @Override
+    public boolean eliminar(int id) {
+        try {
+            return delegado.eliminar(id);
+        } finally {
+            cache.invalidar(id);
+        }
+    }
+
+    @Override
+    public List<Autor> listarTodos() {
+        return delegado.listarTodos();
+    }
+
+    @Override
+    public Pagina<Autor> listarPagina(ClavePagina desde, int tamano) {
+        return delegado.listarPagina(desde, tamano);
+    }
+
+    @Override
+    public int contarTodos() {
+        return delegado.contarTodos();
+    }
+
+    @Override
+    public List<Autor> buscarPorNombre(String busqueda) {
+        return delegado.buscarPorNombre(busqueda);
+    }
+
+    public CacheEntidades.Estadisticas getEstadisticas() {
+        return cache.getEstadisticas();
+    }
+
+    public void vaciar() {
+        cache.vaciar();
+    }
+}
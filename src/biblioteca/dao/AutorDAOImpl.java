@@ -70,6 +70,58 @@ public class AutorDAOImpl implements AutorDAO {
         return lista;
     }
 
+    @Override
+    public Pagina<Autor> listarPagina(ClavePagina desde, int tamano) {
+        List<Autor> lista = new ArrayList<>();
+        ClavePagina siguiente = null;
+        String sql = "SELECT * FROM Autores " +
+                     (desde != null ? "WHERE " + ClavePagina.condicion(false, "apellido", "nombre", "id_autor") : "") +
+                     ClavePagina.orden(false, "apellido", "nombre", "id_autor") +
+                     "LIMIT ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int i = desde != null ? desde.enlazar(ps, 1) : 1;
+            ps.setInt(i, tamano + 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (lista.size() == tamano) {
+                        Autor ultimo = lista.get(tamano - 1);
+                        siguiente = new ClavePagina(ultimo.getApellido(), ultimo.getNombre(), ultimo.getIdAutor());
+                        break;
+                    }
+                    lista.add(mapearAutor(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al listar página de autores: " + e.getMessage());
+        }
+
+        return new Pagina<>(lista, siguiente);
+    }
+
+    @Override
+    public int contarTodos() {
+        String sql = "SELECT COUNT(*) AS total FROM Autores";
+
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                return rs.getInt("total");
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al contar autores: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
     @Override
     public Autor buscarPorId(int id) {
         String sql = "SELECT * FROM Autores WHERE id_autor = ?";
@@ -170,7 +222,7 @@ public class AutorDAOImpl implements AutorDAO {
     }
 
     // ===== auxiliar =====
-    private Autor mapearAutor(ResultSet rs) throws SQLException {
+    static Autor mapearAutor(ResultSet rs) throws SQLException {
         Autor autor = new Autor();
         autor.setIdAutor(rs.getInt("id_autor"));
         autor.setNombre(rs.getString("nombre"));
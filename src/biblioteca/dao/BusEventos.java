@@ -0,0 +1,75 @@
+package biblioteca.dao;
+
+import biblioteca.model.EventoDominio;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bus de eventos en memoria: los DAO publican lo que cambiaron tras
+ * confirmar la escritura y las vistas se suscriben para tocar solo las filas
+ * afectadas.
+ *
+ * La entrega es síncrona en el hilo que publica (normalmente uno en segundo
+ * plano), así que un suscriptor que toque Swing debe pasar al EDT por su
+ * cuenta. El fallo de un suscriptor se registra y no llega al DAO ni a los demás.
+ */
+public final class BusEventos {
+
+    private static final Logger LOG = Logger.getLogger(BusEventos.class.getName());
+
+    private static final List<Suscripcion> SUSCRIPCIONES = new CopyOnWriteArrayList<>();
+
+    // ===== Métricas =====
+    private static final AtomicLong publicados = new AtomicLong();
+    private static final AtomicLong fallos = new AtomicLong();
+
+    private BusEventos() {}
+
+    /**
+     * Recibe los eventos del tipo indicado o de sus subtipos (p. ej.
+     * {@code EventoDominio.class} para todos).
+     */
+    public static <E extends EventoDominio> Suscripcion suscribir(Class<E> tipo, Consumer<? super E> accion) {
+        Suscripcion s = new Suscripcion(evento -> {
+            if (tipo.isInstance(evento)) {
+                accion.accept(tipo.cast(evento));
+            }
+        });
+        SUSCRIPCIONES.add(s);
+        return s;
+    }
+
+    public static void publicar(EventoDominio evento) {
+        publicados.incrementAndGet();
+        for (Suscripcion s : SUSCRIPCIONES) {
+            try {
+                s.entregar.accept(evento);
+            } catch (RuntimeException e) {
+                fallos.incrementAndGet();
+                LOG.log(Level.WARNING, "Error en un suscriptor de " + evento, e);
+            }
+        }
+    }
+
+    public static long getPublicados() { return publicados.get(); }
+    public static long getFallos() { return fallos.get(); }
+    public static int getSuscripciones() { return SUSCRIPCIONES.size(); }
+
+    /** Alta en el bus; {@link #cancelar()} deja de recibir eventos. */
+    public static final class Suscripcion {
+
+        private final Consumer<EventoDominio> entregar;
+
+        private Suscripcion(Consumer<EventoDominio> entregar) {
+            this.entregar = entregar;
+        }
+
+        public void cancelar() {
+            SUSCRIPCIONES.remove(this);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package biblioteca.dao;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Caché LRU acotada de entidades por id, para los DAO decoradores.
+ *
+ * Solo guarda lo que devuelve el DAO real; un null (no existe o error de BD)
+ * no se guarda, así que la siguiente llamada vuelve a consultar. Los
+ * contadores son aproximados: sirven para vigilar, no para facturar.
+ */
+public final class CacheEntidades<K, V> {
+
+    private final String nombre;
+    private final int capacidad;
+    private final LinkedHashMap<K, V> entradas;
+
+    // Cargas en curso, con el turno de la última que empezó para cada clave.
+    // invalidar() las retira: una carga que termine después puede traer el
+    // valor anterior a la escritura y no debe guardarlo.
+    private final Map<K, Object> cargando = new HashMap<>();
+
+    // ===== Métricas (protegidas por el monitor de la caché) =====
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+    private long invalidaciones;
+
+    public CacheEntidades(String nombre, int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("capacidad debe ser > 0");
+        }
+        this.nombre = nombre;
+        this.capacidad = capacidad;
+        // accessOrder = true: get() mueve la entrada al final y se expulsa la más antigua
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> mayor) {
+                if (size() > CacheEntidades.this.capacidad) {
+                    expulsiones++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Valor en caché o, si no está, el que devuelva {@code cargar}. La carga
+     * va fuera del candado: dos hilos pueden consultar a la vez el mismo id,
+     * pero ninguno espera a la BD del otro. Solo se guarda el resultado si
+     * nadie invalidó la clave mientras tanto.
+     */
+    public V obtener(K clave, Function<K, V> cargar) {
+        Object turno = new Object();
+        synchronized (this) {
+            V valor = entradas.get(clave);
+            if (valor != null) {
+                aciertos++;
+                return valor;
+            }
+            fallos++;
+            cargando.put(clave, turno);
+        }
+        V valor = null;
+        try {
+            valor = cargar.apply(clave);
+        } finally {
+            synchronized (this) {
+                if (cargando.remove(clave, turno) && valor != null) {
+                    entradas.put(clave, valor);
+                }
+            }
+        }
+        return valor;
+    }
+
+    public synchronized void invalidar(K clave) {
+        cargando.remove(clave);
+        if (entradas.remove(clave) != null) {
+            invalidaciones++;
+        }
+    }
+
+    public synchronized void vaciar() {
+        cargando.clear();
+        invalidaciones += entradas.size();
+        entradas.clear();
+    }
+
+    public synchronized Estadisticas getEstadisticas() {
+        return new Estadisticas(nombre, entradas.size(), capacidad,
+                aciertos, fallos, expulsiones, invalidaciones);
+    }
+
+    /** Foto de los contadores en un momento dado. */
+    public record Estadisticas(String nombre, int tamano, int capacidad, long aciertos,
+                               long fallos, long expulsiones, long invalidaciones) {
+
+        public double tasaAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0 : (double) aciertos / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d/%d entradas, %d aciertos, %d fallos (%.0f%%), %d expulsiones, %d invalidaciones",
+                    nombre, tamano, capacidad, aciertos, fallos, tasaAciertos() * 100,
+                    expulsiones, invalidaciones);
+        }
+    }
+}
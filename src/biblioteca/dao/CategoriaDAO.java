@@ -8,6 +8,9 @@ public interface CategoriaDAO {
     List<Categoria> listarTodas();
     List<Categoria> listarPorTipo(String tipoMaterial); // 'L','R','T'
     List<Categoria> buscarPorNombre(String busqueda);
+    // Igual que listarTodas pero por páginas (desde = null para la primera)
+    Pagina<Categoria> listarPagina(ClavePagina desde, int tamano);
+    int contarTodas();
     Categoria buscarPorId(int id);
     boolean actualizar(Categoria categoria);
     boolean eliminar(int id);
@@ -0,0 +1,92 @@
+package biblioteca.dao;
+
+import biblioteca.model.Categoria;
+import java.util.List;
+
+/**
+ * CategoriaDAO con caché de buscarPorId, que MaterialController pide al
+ * guardar o editar cada material (casi siempre las mismas pocas categorías).
+ * Los listados, búsquedas e HidratadorMateriales van siempre a la BD.
+ *
+ * Quien edita una categoría la pide, la modifica y llama a actualizar(); por
+ * eso se invalida siempre tras escribir, aunque la escritura falle.
+ */
+public class CategoriaDAOCache implements CategoriaDAO {
+
+    public static final int CAPACIDAD_POR_DEFECTO = 256;
+
+    private final CategoriaDAO delegado;
+    private final CacheEntidades<Integer, Categoria> cache;
+
+    public CategoriaDAOCache(CategoriaDAO delegado) {
+        this(delegado, CAPACIDAD_POR_DEFECTO);
+    }
+
+    public CategoriaDAOCache(CategoriaDAO delegado, int capacidad) {
+        this.delegado = delegado;
+        this.cache = new CacheEntidades<>("categorias", capacidad);
+    }
+
+    @Override
+    public Categoria buscarPorId(int id) {
+        return cache.obtener(id, delegado::buscarPorId);
+    }
+
+    @Override
+    public boolean insertar(Categoria categoria) {
+        boolean ok = delegado.insertar(categoria);
+        cache.invalidar(categoria.getIdCategoria());
+        return ok;
+    }
+
+    @Override
+    public boolean actualizar(Categoria categoria) {
+        try {
+            return delegado.actualizar(categoria);
+        } finally {
+            cache.invalidar(categoria.getIdCategoria());
+        }
+    }
+
+    @Override
+    public boolean eliminar(int id) {
+        try {
+            return delegado.eliminar(id);
+        } finally {
+            cache.invalidar(id);
+        }
+    }
+
+    @Override
+    public List<Categoria> listarTodas() {
+        return delegado.listarTodas();
+    }
+
+    @Override
+    public List<Categoria> listarPorTipo(String tipoMaterial) {
+        return delegado.listarPorTipo(tipoMaterial);
+    }
+
+    @Override
+    public List<Categoria> buscarPorNombre(String busqueda) {
+        return delegado.buscarPorNombre(busqueda);
+    }
+
+    @Override
+    public Pagina<Categoria> listarPagina(ClavePagina desde, int tamano) {
+        return delegado.listarPagina(desde, tamano);
+    }
+
+    @Override
+    public int contarTodas() {
+        return delegado.contarTodas();
+    }
+
+    public CacheEntidades.Estadisticas getEstadisticas() {
+        return cache.getEstadisticas();
+    }
+
+    public void vaciar() {
+        cache.vaciar();
+    }
+}
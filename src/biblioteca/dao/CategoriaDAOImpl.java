@@ -49,6 +49,58 @@ public class CategoriaDAOImpl implements CategoriaDAO {
         return lista;
     }
 
+    @Override
+    public Pagina<Categoria> listarPagina(ClavePagina desde, int tamano) {
+        List<Categoria> lista = new ArrayList<>();
+        ClavePagina siguiente = null;
+        String sql = "SELECT * FROM Categorias " +
+                     (desde != null ? "WHERE " + ClavePagina.condicion(false, "nombre_categoria", "id_categoria") : "") +
+                     ClavePagina.orden(false, "nombre_categoria", "id_categoria") +
+                     "LIMIT ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int i = desde != null ? desde.enlazar(ps, 1) : 1;
+            ps.setInt(i, tamano + 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (lista.size() == tamano) {
+                        Categoria ultima = lista.get(tamano - 1);
+                        siguiente = new ClavePagina(ultima.getNombreCategoria(), ultima.getIdCategoria());
+                        break;
+                    }
+                    lista.add(mapearCategoria(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al listar página de categorías: " + e.getMessage());
+        }
+
+        return new Pagina<>(lista, siguiente);
+    }
+
+    @Override
+    public int contarTodas() {
+        String sql = "SELECT COUNT(*) AS total FROM Categorias";
+
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                return rs.getInt("total");
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al contar categorías: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
     @Override
     public List<Categoria> listarPorTipo(String tipoMaterial) {
         List<Categoria> lista = new ArrayList<>();
@@ -169,7 +221,7 @@ public class CategoriaDAOImpl implements CategoriaDAO {
     }
 
     // ===== auxiliar =====
-    private Categoria mapearCategoria(ResultSet rs) throws SQLException {
+    static Categoria mapearCategoria(ResultSet rs) throws SQLException {
         Categoria cat = new Categoria();
         cat.setIdCategoria(rs.getInt("id_categoria"));
         cat.setNombreCategoria(rs.getString("nombre_categoria"));
@@ -0,0 +1,89 @@
+package biblioteca.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Posición dentro de un listado ordenado: los valores de las columnas de orden
+ * (con el id como desempate) de la última fila entregada. Fuera del paquete dao
+ * es opaca; solo se guarda y se devuelve al DAO para pedir la página siguiente.
+ */
+public final class ClavePagina {
+
+    private final Object[] valores;
+
+    ClavePagina(Object... valores) {
+        this.valores = valores;
+    }
+
+    /**
+     * Condición keyset sobre las columnas de orden, p. ej.
+     * "(COALESCE(m.titulo, ''), m.id_material) > (?, ?)". Usa "<" si el orden es descendente.
+     *
+     * Todas las columnas menos la última (el id, que nunca es NULL) se comparan
+     * como COALESCE(col, ''): con un NULL la comparación de filas da NULL y esas
+     * filas desaparecerían de las páginas siguientes. El ORDER BY debe salir de
+     * {@link #orden} para ordenar por las mismas expresiones.
+     */
+    static String condicion(boolean descendente, String... columnas) {
+        StringBuilder sb = new StringBuilder("(");
+        sb.append(String.join(", ", expresiones(columnas)));
+        sb.append(descendente ? ") < (" : ") > (");
+        for (int i = 0; i < columnas.length; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.append(") ").toString();
+    }
+
+    /**
+     * ORDER BY que corresponde a {@link #condicion}, p. ej.
+     * "COALESCE(m.titulo, ''), m.id_material".
+     */
+    static String orden(boolean descendente, String... columnas) {
+        String sentido = descendente ? " DESC" : "";
+        StringBuilder sb = new StringBuilder("ORDER BY ");
+        String[] expresiones = expresiones(columnas);
+        for (int i = 0; i < expresiones.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(expresiones[i]).append(sentido);
+        }
+        return sb.append(' ').toString();
+    }
+
+    private static String[] expresiones(String[] columnas) {
+        String[] expresiones = new String[columnas.length];
+        for (int i = 0; i < columnas.length; i++) {
+            expresiones[i] = i < columnas.length - 1 ? "COALESCE(" + columnas[i] + ", '')" : columnas[i];
+        }
+        return expresiones;
+    }
+
+    /**
+     * Enlaza los valores a partir del parámetro indicado y devuelve el siguiente libre.
+     * Un valor NULL se enlaza como '', igual que lo compara {@link #condicion}.
+     */
+    int enlazar(PreparedStatement ps, int primerParametro) throws SQLException {
+        int i = primerParametro;
+        for (Object v : parametros()) {
+            ps.setObject(i++, v);
+        }
+        return i;
+    }
+
+    /**
+     * Los mismos valores que {@link #enlazar}, para quien recibe los parámetros
+     * de la consulta como Object... (HidratadorMateriales).
+     */
+    Object[] parametros() {
+        Object[] parametros = new Object[valores.length];
+        for (int i = 0; i < valores.length; i++) {
+            parametros[i] = valores[i] != null ? valores[i] : "";
+        }
+        return parametros;
+    }
+
+    @Override
+    public String toString() {
+        return "ClavePagina" + Arrays.toString(valores);
+    }
+}
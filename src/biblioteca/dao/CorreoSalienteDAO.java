@@ -0,0 +1,30 @@
+package biblioteca.dao;
+
+import biblioteca.model.CorreoSaliente;
+import java.util.List;
+
+public interface CorreoSalienteDAO {
+
+    /**
+     * Guarda el correo como 'Pendiente', listo para enviarse ya.
+     * Devuelve false si no se pudo guardar.
+     */
+    boolean encolar(CorreoSaliente correo);
+
+    CorreoSaliente buscarPorId(int idCorreo);
+
+    /**
+     * Pendientes cuyo próximo intento ya llegó, los más antiguos primero
+     */
+    List<CorreoSaliente> listarListosParaEnviar(int limite);
+
+    boolean marcarEnviado(int idCorreo);
+
+    /**
+     * Suma un intento y guarda el error. Con proximoIntento = null el correo
+     * pasa a 'Fallido' y no se vuelve a intentar.
+     */
+    boolean registrarFallo(int idCorreo, String error, String proximoIntento);
+
+    int contarPorEstado(String estado);
+}
@@ -0,0 +1,166 @@
+package biblioteca.dao;
+
+import biblioteca.config.Conexion;
+import biblioteca.model.CorreoSaliente;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CorreoSalienteDAOImpl implements CorreoSalienteDAO {
+
+    // Las fechas van en hora local 'YYYY-MM-DD HH:MM:SS' para poder compararlas como texto
+    private static final String AHORA = "datetime('now', 'localtime')";
+
+    @Override
+    public boolean encolar(CorreoSaliente correo) {
+        String sql = "INSERT INTO Bandeja_Salida " +
+                     "(destinatario, nombre_destinatario, asunto, cuerpo, adjunto, nombre_adjunto, " +
+                     " estado, intentos, proximo_intento, fecha_creacion) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, 'Pendiente', 0, " + AHORA + ", " + AHORA + ")";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            ps.setString(1, correo.getDestinatario());
+            ps.setString(2, correo.getNombreDestinatario());
+            ps.setString(3, correo.getAsunto());
+            ps.setString(4, correo.getCuerpo());
+            ps.setBytes(5, correo.getAdjunto());
+            ps.setString(6, correo.getNombreAdjunto());
+
+            if (ps.executeUpdate() > 0) {
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        correo.setIdCorreo(rs.getInt(1));
+                    }
+                }
+                correo.setEstado(CorreoSaliente.PENDIENTE);
+                return true;
+            }
+            return false;
+
+        } catch (SQLException e) {
+            System.err.println("Error al encolar correo: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public CorreoSaliente buscarPorId(int idCorreo) {
+        String sql = "SELECT * FROM Bandeja_Salida WHERE id_correo = ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, idCorreo);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapearCorreo(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al buscar correo: " + e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public List<CorreoSaliente> listarListosParaEnviar(int limite) {
+        List<CorreoSaliente> lista = new ArrayList<>();
+        String sql = "SELECT * FROM Bandeja_Salida " +
+                     "WHERE estado = 'Pendiente' AND proximo_intento <= " + AHORA + " " +
+                     "ORDER BY proximo_intento, id_correo " +
+                     "LIMIT ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, limite);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearCorreo(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar correos pendientes: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    @Override
+    public boolean marcarEnviado(int idCorreo) {
+        String sql = "UPDATE Bandeja_Salida " +
+                     "SET estado = 'Enviado', intentos = intentos + 1, ultimo_error = NULL, " +
+                     "    fecha_envio = " + AHORA + " " +
+                     "WHERE id_correo = ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, idCorreo);
+            return ps.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error al marcar correo enviado: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean registrarFallo(int idCorreo, String error, String proximoIntento) {
+        String sql = "UPDATE Bandeja_Salida " +
+                     "SET intentos = intentos + 1, ultimo_error = ?, " +
+                     "    estado = CASE WHEN ? IS NULL THEN 'Fallido' ELSE 'Pendiente' END, " +
+                     "    proximo_intento = COALESCE(?, proximo_intento) " +
+                     "WHERE id_correo = ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, error);
+            ps.setString(2, proximoIntento);
+            ps.setString(3, proximoIntento);
+            ps.setInt(4, idCorreo);
+            return ps.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error al registrar fallo de correo: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public int contarPorEstado(String estado) {
+        String sql = "SELECT COUNT(*) AS total FROM Bandeja_Salida WHERE estado = ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, estado);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return rs.getInt("total");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar correos: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    private CorreoSaliente mapearCorreo(ResultSet rs) throws SQLException {
+        CorreoSaliente c = new CorreoSaliente();
+        c.setIdCorreo(rs.getInt("id_correo"));
+        c.setDestinatario(rs.getString("destinatario"));
+        c.setNombreDestinatario(rs.getString("nombre_destinatario"));
+        c.setAsunto(rs.getString("asunto"));
+        c.setCuerpo(rs.getString("cuerpo"));
+        c.setAdjunto(rs.getBytes("adjunto"));
+        c.setNombreAdjunto(rs.getString("nombre_adjunto"));
+        c.setEstado(rs.getString("estado"));
+        c.setIntentos(rs.getInt("intentos"));
+        c.setProximoIntento(rs.getString("proximo_intento"));
+        c.setUltimoError(rs.getString("ultimo_error"));
+        c.setFechaCreacion(rs.getString("fecha_creacion"));
+        c.setFechaEnvio(rs.getString("fecha_envio"));
+        return c;
+    }
+}
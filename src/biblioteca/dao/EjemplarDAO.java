@@ -1,6 +1,7 @@
 package biblioteca.dao;
 import biblioteca.model.Ejemplar;
 import java.util.List;
+import java.util.Map;
 
 public interface EjemplarDAO {
     boolean insertar(Ejemplar ejemplar);
@@ -9,4 +10,9 @@ public interface EjemplarDAO {
     Ejemplar buscarPrimerDisponiblePorMaterial(int idMaterial);
     boolean cambiarEstado(int idEjemplar, String nuevoEstado);
     boolean eliminar(int idEjemplar);
+
+    // Lector de código de barras (índice único de la migración V008)
+    Ejemplar buscarPorCodigoBarra(String codigoBarra);
+    int buscarIdPorCodigoBarra(String codigoBarra);   // 0 si no existe o es vacío
+    Map<String, Integer> listarCodigosBarra();        // código -> id_ejemplar
 }
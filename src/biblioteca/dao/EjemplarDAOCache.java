@@ -0,0 +1,104 @@
+package biblioteca.dao;
+
+import biblioteca.model.Ejemplar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * EjemplarDAO con el mapa código de barras -> id_ejemplar en memoria, para
+ * que cada escaneo del mostrador no empiece con una consulta.
+ *
+ * El mapa se llena con {@link #precargar()} (al arrancar, en segundo plano) y
+ * se mantiene con insertar/eliminar, que son las únicas escrituras que tocan
+ * códigos. Es solo un acelerador: un código que no está se busca en la BD, así
+ * que una precarga aún en curso o fallida no da falsos "no existe". Una entrada
+ * de un ejemplar borrado con su material (MaterialDAOImpl.eliminar) solo lleva
+ * a que la transacción del escaneo no lo encuentre.
+ */
+public class EjemplarDAOCache implements EjemplarDAO {
+
+    private static final Logger LOG = Logger.getLogger(EjemplarDAOCache.class.getName());
+
+    private final EjemplarDAO delegado;
+    private final Map<String, Integer> idPorCodigo = new ConcurrentHashMap<>();
+
+    public EjemplarDAOCache(EjemplarDAO delegado) {
+        this.delegado = delegado;
+    }
+
+    public void precargar() {
+        long inicio = System.nanoTime();
+        Map<String, Integer> codigos = delegado.listarCodigosBarra();
+        idPorCodigo.putAll(codigos);
+        LOG.info(() -> "Códigos de barras precargados: " + codigos.size() + " en "
+                + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+    }
+
+    @Override
+    public int buscarIdPorCodigoBarra(String codigoBarra) {
+        if (codigoBarra == null || codigoBarra.isBlank()) {
+            return 0;
+        }
+        String codigo = codigoBarra.trim();
+        Integer id = idPorCodigo.get(codigo);
+        if (id != null) {
+            return id;
+        }
+        int encontrado = delegado.buscarIdPorCodigoBarra(codigo);
+        if (encontrado > 0) {
+            idPorCodigo.put(codigo, encontrado);
+        }
+        return encontrado;
+    }
+
+    @Override
+    public Ejemplar buscarPorCodigoBarra(String codigoBarra) {
+        int id = buscarIdPorCodigoBarra(codigoBarra);
+        return id > 0 ? delegado.buscarPorId(id) : null;
+    }
+
+    @Override
+    public Map<String, Integer> listarCodigosBarra() {
+        return delegado.listarCodigosBarra();
+    }
+
+    @Override
+    public boolean insertar(Ejemplar ejemplar) {
+        boolean ok = delegado.insertar(ejemplar);
+        if (ok && ejemplar.getCodigoBarra() != null) {
+            idPorCodigo.put(ejemplar.getCodigoBarra(), ejemplar.getId());
+        }
+        return ok;
+    }
+
+    @Override
+    public boolean eliminar(int idEjemplar) {
+        boolean ok = delegado.eliminar(idEjemplar);
+        if (ok) {
+            idPorCodigo.values().remove(idEjemplar);
+        }
+        return ok;
+    }
+
+    @Override
+    public Ejemplar buscarPorId(int id) {
+        return delegado.buscarPorId(id);
+    }
+
+    @Override
+    public List<Ejemplar> listarPorMaterial(int idMaterial) {
+        return delegado.listarPorMaterial(idMaterial);
+    }
+
+    @Override
+    public Ejemplar buscarPrimerDisponiblePorMaterial(int idMaterial) {
+        return delegado.buscarPrimerDisponiblePorMaterial(idMaterial);
+    }
+
+    @Override
+    public boolean cambiarEstado(int idEjemplar, String nuevoEstado) {
+        return delegado.cambiarEstado(idEjemplar, nuevoEstado);
+    }
+}
@@ -2,10 +2,13 @@ package biblioteca.dao;
 
 import biblioteca.config.Conexion;
 import biblioteca.model.Ejemplar;
+import biblioteca.model.EventoDominio;
 import biblioteca.model.MaterialBibliografico;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class EjemplarDAOImpl implements EjemplarDAO {
 
@@ -33,6 +36,10 @@ public class EjemplarDAOImpl implements EjemplarDAO {
                         ejemplar.setId(rs.getInt(1));
                     }
                 }
+                // Sin código, el trigger de V008 le pone el de por defecto
+                if (ejemplar.getCodigoBarra() == null || ejemplar.getCodigoBarra().isBlank()) {
+                    ejemplar.setCodigoBarra(codigoPorDefecto(ejemplar.getId()));
+                }
                 return true;
             }
         } catch (SQLException e) {
@@ -102,13 +109,21 @@ public class EjemplarDAOImpl implements EjemplarDAO {
 
     @Override
     public boolean cambiarEstado(int idEjemplar, String nuevoEstado) {
-        String sql = "UPDATE Ejemplares SET estado = ? WHERE id_ejemplar = ?";
+        // RETURNING da el material para el evento sin otra consulta
+        String sql = "UPDATE Ejemplares SET estado = ? WHERE id_ejemplar = ? RETURNING id_material";
         try (Connection conn = Conexion.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, nuevoEstado);
             ps.setInt(2, idEjemplar);
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                BusEventos.publicar(new EventoDominio.EjemplarCambiado(idEjemplar,
+                        rs.getInt("id_material"), nuevoEstado));
+                return true;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error al cambiar estado de ejemplar: " + e.getMessage());
@@ -133,6 +148,70 @@ public class EjemplarDAOImpl implements EjemplarDAO {
         }
     }
 
+    @Override
+    public Ejemplar buscarPorCodigoBarra(String codigoBarra) {
+        if (codigoBarra == null || codigoBarra.isBlank()) {
+            return null;
+        }
+        String sql = "SELECT * FROM Ejemplares WHERE codigo_barra = ?";
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, codigoBarra.trim());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapearEjemplar(conn, rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al buscar ejemplar por código de barras: " + e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public int buscarIdPorCodigoBarra(String codigoBarra) {
+        if (codigoBarra == null || codigoBarra.isBlank()) {
+            return 0;
+        }
+        String sql = "SELECT id_ejemplar FROM Ejemplares WHERE codigo_barra = ?";
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, codigoBarra.trim());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al buscar ejemplar por código de barras: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    @Override
+    public Map<String, Integer> listarCodigosBarra() {
+        Map<String, Integer> codigos = new HashMap<>();
+        String sql = "SELECT codigo_barra, id_ejemplar FROM Ejemplares WHERE codigo_barra IS NOT NULL";
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                codigos.put(rs.getString(1), rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar códigos de barras: " + e.getMessage());
+        }
+        return codigos;
+    }
+
+    /** Código que reciben los ejemplares creados sin uno (trigger de la migración V008). */
+    public static String codigoPorDefecto(int idEjemplar) {
+        return String.format("EJ%08d", idEjemplar);
+    }
+
     // ===== auxiliar =====
     private Ejemplar mapearEjemplar(Connection conn, ResultSet rs) throws SQLException {
         int id = rs.getInt("id_ejemplar");
@@ -0,0 +1,12 @@
+package biblioteca.dao;
+
+import biblioteca.model.ResumenEstadisticas;
+
+public interface EstadisticasDAO {
+
+    /**
+     * Todas las cifras del panel en una sola consulta. El coste no depende
+     * del tamaño del catálogo ni del número de préstamos.
+     */
+    ResumenEstadisticas obtenerResumen();
+}
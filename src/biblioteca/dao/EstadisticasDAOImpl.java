@@ -0,0 +1,86 @@
+package biblioteca.dao;
+
+import biblioteca.config.Conexion;
+import biblioteca.model.ResumenEstadisticas;
+import java.sql.*;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lee los resúmenes de la migración V005 (Estadisticas_*): una fila por
+ * contador, por mes con préstamos y por fecha de vencimiento de los
+ * préstamos activos, todas en un mismo UNION ALL.
+ */
+public class EstadisticasDAOImpl implements EstadisticasDAO {
+
+    // Los 'Activo' con fecha esperada anterior a hoy cuentan como vencidos,
+    // igual que en PrestamoDAOImpl (FILTRO_ACTIVOS / FILTRO_VENCIDOS)
+    private static final String SQL_RESUMEN =
+        "SELECT clave, valor FROM Estadisticas_Contadores " +
+        "UNION ALL " +
+        "SELECT 'mes.' || mes, total FROM Estadisticas_Prestamos_Mes WHERE mes >= ? " +
+        "UNION ALL " +
+        "SELECT 'activos.vencidos', IFNULL(SUM(total), 0) FROM Estadisticas_Activos_Vencimiento " +
+        " WHERE fecha <> '' AND fecha < date('now') " +
+        "UNION ALL " +
+        "SELECT 'activos.vigentes', IFNULL(SUM(total), 0) FROM Estadisticas_Activos_Vencimiento " +
+        " WHERE fecha = '' OR fecha >= date('now')";
+
+    @Override
+    public ResumenEstadisticas obtenerResumen() {
+        YearMonth actual = YearMonth.now();
+        YearMonth inicio = actual.minusMonths(11);
+        Map<String, Number> valores = new HashMap<>();
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_RESUMEN)) {
+
+            ps.setString(1, inicio.toString());   // 'YYYY-MM'
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    valores.put(rs.getString("clave"), (Number) rs.getObject("valor"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al leer estadísticas: " + e.getMessage());
+            return ResumenEstadisticas.vacio();
+        }
+
+        int[] porMes = new int[12];
+        for (Map.Entry<String, Number> e : valores.entrySet()) {
+            if (e.getKey().startsWith("mes.")) {
+                YearMonth mes = YearMonth.parse(e.getKey().substring(4));
+                int i = (int) ChronoUnit.MONTHS.between(inicio, mes);
+                if (i >= 0 && i < 12) {
+                    porMes[i] = e.getValue().intValue();
+                }
+            }
+        }
+
+        return new ResumenEstadisticas(
+            entero(valores, "materiales"),
+            entero(valores, "personas"),
+            entero(valores, "activos.vigentes"),
+            entero(valores, "prestamos.Vencido") + entero(valores, "activos.vencidos"),
+            entero(valores, "prestamos.Devuelto"),
+            entero(valores, "prestamos.Perdido"),
+            entero(valores, "multas.pendientes"),
+            entero(valores, "multas.pagadas"),
+            decimal(valores, "multas.monto_pendiente"),
+            decimal(valores, "multas.monto_pagado"),
+            porMes
+        );
+    }
+
+    private static int entero(Map<String, Number> valores, String clave) {
+        Number n = valores.get(clave);
+        return n != null ? n.intValue() : 0;
+    }
+
+    private static double decimal(Map<String, Number> valores, String clave) {
+        Number n = valores.get(clave);
+        return n != null ? n.doubleValue() : 0;
+    }
+}
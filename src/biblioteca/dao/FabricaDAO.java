@@ -0,0 +1,68 @@
+package biblioteca.dao;
+
+/**
+ * DAOs compartidos por toda la aplicación. Se construyen una sola vez, al
+ * primer uso, para que las cachés de lectura sobrevivan al cierre de sesión:
+ * volver al login reutiliza las mismas instancias en vez de montarlas de nuevo.
+ */
+public class FabricaDAO {
+
+    private static FabricaDAO instancia;
+
+    private final CategoriaDAO categoriaDAO;
+    private final AutorDAO autorDAO;
+    private final PersonaDAO personaDAO;
+    private final MaterialDAO materialDAO;
+    private final EjemplarDAOCache ejemplarDAO;
+    private final PrestamoDAO prestamoDAO;
+
+    private FabricaDAO() {
+        // Categorías, autores y personas con caché de buscarPorId;
+        // ejemplares con los códigos de barras en memoria
+        categoriaDAO = new CategoriaDAOCache(new CategoriaDAOImpl());
+        autorDAO = new AutorDAOCache(new AutorDAOImpl());
+        personaDAO = new PersonaDAOCache(new PersonaDAOImpl());
+        materialDAO = new MaterialDAOImpl();
+        ejemplarDAO = new EjemplarDAOCache(new EjemplarDAOImpl(materialDAO));
+        prestamoDAO = new PrestamoDAOImpl(ejemplarDAO);
+    }
+
+    public static synchronized FabricaDAO getInstancia() {
+        if (instancia == null) {
+            instancia = new FabricaDAO();
+        }
+        return instancia;
+    }
+
+    /**
+     * Carga el mapa de códigos de barras del modo de escaneo. Se lanza una vez
+     * al arrancar; cerrar sesión no lo repite.
+     */
+    public void precargarCodigosBarra() {
+        ejemplarDAO.precargar();
+    }
+
+    public CategoriaDAO getCategoriaDAO() {
+        return categoriaDAO;
+    }
+
+    public AutorDAO getAutorDAO() {
+        return autorDAO;
+    }
+
+    public PersonaDAO getPersonaDAO() {
+        return personaDAO;
+    }
+
+    public MaterialDAO getMaterialDAO() {
+        return materialDAO;
+    }
+
+    public EjemplarDAO getEjemplarDAO() {
+        return ejemplarDAO;
+    }
+
+    public PrestamoDAO getPrestamoDAO() {
+        return prestamoDAO;
+    }
+}
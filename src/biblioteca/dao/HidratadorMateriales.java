@@ -0,0 +1,296 @@
+package biblioteca.dao;
+
+import biblioteca.model.*;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Carga materiales por lotes en vez de fila a fila.
+ *
+ * Una consulta trae Materiales + Libros/Revistas/Tesis + ejemplares disponibles
+ * (COUNT por material, con idx_ejemplares_material_estado) y después se piden categorías y autores de todo el lote
+ * con IN (...). Son 3 consultas sin importar cuántos materiales haya.
+ */
+final class HidratadorMateriales {
+
+    // SQLite antiguo admite 999 parámetros por sentencia
+    private static final int TAMANO_LOTE_IN = 500;
+
+    /**
+     * Columnas que lee {@link FilaMaterial}, sobre los alias m, l, r, t.
+     * Otras consultas (préstamos) las añaden a su SELECT junto con {@link #JOINS_SUBTIPO}.
+     */
+    static final String COLUMNAS =
+        "m.id_material, m.titulo, m.codigo_identificador, m.id_categoria, m.tipo_material, " +
+        "l.id_material AS id_libro, l.editorial, l.anio_publicacion, " +
+        "r.id_material AS id_revista, r.numero_revista, r.periodicidad, " +
+        "t.id_material AS id_tesis, t.universidad_tesis, t.grado_academico, " +
+        "(SELECT COUNT(*) FROM Ejemplares ed " +
+        "  WHERE ed.id_material = m.id_material AND ed.estado = 'Disponible') AS disponibles ";
+
+    /** Tabla hija del material m. */
+    static final String JOINS_SUBTIPO =
+        "LEFT JOIN Libros l ON l.id_material = m.id_material " +
+        "LEFT JOIN Revistas r ON r.id_material = m.id_material " +
+        "LEFT JOIN Tesis t ON t.id_material = m.id_material ";
+
+    /**
+     * Base de la consulta. La categoría se une con alias c solo para poder
+     * filtrar por su nombre; sus datos se cargan aparte.
+     */
+    private static final String DESDE_MATERIALES =
+        "FROM Materiales m " +
+        "LEFT JOIN Categorias c ON c.id_categoria = m.id_categoria " +
+        JOINS_SUBTIPO;
+
+    private static final String SELECT_BASE = "SELECT " + COLUMNAS + DESDE_MATERIALES;
+
+    private HidratadorMateriales() {}
+
+    /**
+     * @param condicion WHERE / ORDER BY / LIMIT sobre los alias m, c, l, r, t y la columna disponibles (puede ser vacío)
+     * @param parametros valores para los ? de la condición, en orden
+     */
+    static List<MaterialBibliografico> cargar(Connection conn, String condicion,
+                                              Object... parametros) throws SQLException {
+        return construir(conn, leerFilas(conn, condicion, parametros));
+    }
+
+    /**
+     * COUNT(*) con la misma condición (alias m, c, l, r, t) que se usaría en {@link #cargar}.
+     */
+    static int contar(Connection conn, String condicion, Object... parametros) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) AS total " + DESDE_MATERIALES + condicion)) {
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setObject(i + 1, parametros[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("total") : 0;
+            }
+        }
+    }
+
+    /**
+     * Página de materiales ordenada por título (keyset sobre titulo, id_material).
+     */
+    static Pagina<MaterialBibliografico> cargarPagina(Connection conn, ClavePagina desde,
+                                                      int tamano) throws SQLException {
+        String condicion =
+            (desde != null ? "WHERE " + ClavePagina.condicion(false, "m.titulo", "m.id_material") : "") +
+            ClavePagina.orden(false, "m.titulo", "m.id_material") + "LIMIT " + (tamano + 1);
+
+        List<FilaMaterial> filas = leerFilas(conn, condicion,
+            desde != null ? desde.parametros() : new Object[0]);
+
+        ClavePagina siguiente = null;
+        if (filas.size() > tamano) {
+            filas = filas.subList(0, tamano);
+            FilaMaterial ultima = filas.get(tamano - 1);
+            siguiente = new ClavePagina(ultima.titulo, ultima.id);
+        }
+        return new Pagina<>(construir(conn, filas), siguiente);
+    }
+
+    private static List<FilaMaterial> leerFilas(Connection conn, String condicion,
+                                                Object... parametros) throws SQLException {
+        List<FilaMaterial> filas = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_BASE + condicion)) {
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setObject(i + 1, parametros[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    filas.add(new FilaMaterial(rs));
+                }
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Materiales de filas leídas con {@link #COLUMNAS} dentro de otra consulta,
+     * por id. Las filas repetidas se construyen una vez; las incompletas no aparecen.
+     */
+    static Map<Integer, MaterialBibliografico> construirPorId(Connection conn,
+                                                              List<FilaMaterial> filas) throws SQLException {
+        Map<Integer, FilaMaterial> unicas = new LinkedHashMap<>();
+        for (FilaMaterial f : filas) {
+            unicas.putIfAbsent(f.id, f);
+        }
+        Map<Integer, MaterialBibliografico> mapa = new HashMap<>();
+        for (MaterialBibliografico m : construir(conn, new ArrayList<>(unicas.values()))) {
+            mapa.put(m.getId(), m);
+        }
+        return mapa;
+    }
+
+    private static List<MaterialBibliografico> construir(Connection conn,
+                                                         List<FilaMaterial> filas) throws SQLException {
+        if (filas.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> idsCategoria = new LinkedHashSet<>();
+        List<Integer> idsMaterial = new ArrayList<>(filas.size());
+        for (FilaMaterial f : filas) {
+            idsCategoria.add(f.idCategoria);
+            idsMaterial.add(f.id);
+        }
+
+        Map<Integer, Categoria> categorias = cargarCategorias(conn, idsCategoria);
+        Map<Integer, Autor> autores = cargarPrimerAutor(conn, idsMaterial);
+
+        List<MaterialBibliografico> lista = new ArrayList<>(filas.size());
+        for (FilaMaterial f : filas) {
+            Categoria categoria = categorias.get(f.idCategoria);
+            if (categoria == null) {
+                categoria = new Categoria();
+                categoria.setIdCategoria(f.idCategoria);
+            }
+            MaterialBibliografico m = f.construir(categoria, autores.get(f.id));
+            if (m != null) {
+                lista.add(m);
+            }
+        }
+        return lista;
+    }
+
+    private static Map<Integer, Categoria> cargarCategorias(Connection conn,
+                                                            Set<Integer> ids) throws SQLException {
+        Map<Integer, Categoria> mapa = new HashMap<>();
+        for (List<Integer> lote : partir(new ArrayList<>(ids))) {
+            String sql = "SELECT * FROM Categorias WHERE id_categoria IN (" + marcadores(lote.size()) + ")";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                enlazar(ps, lote);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Categoria c = CategoriaDAOImpl.mapearCategoria(rs);
+                        mapa.put(c.getIdCategoria(), c);
+                    }
+                }
+            }
+        }
+        return mapa;
+    }
+
+    /**
+     * Igual que antes, cada material se queda con el primer autor de Material_Autores
+     * (el primero insertado: ORDER BY rowid, para no depender del plan de la consulta).
+     */
+    private static Map<Integer, Autor> cargarPrimerAutor(Connection conn,
+                                                         List<Integer> idsMaterial) throws SQLException {
+        Map<Integer, Autor> mapa = new HashMap<>();
+        Map<Integer, Autor> autoresLeidos = new HashMap<>();
+        for (List<Integer> lote : partir(idsMaterial)) {
+            String sql = "SELECT ma.id_material, a.* " +
+                         "FROM Material_Autores ma " +
+                         "JOIN Autores a ON a.id_autor = ma.id_autor " +
+                         "WHERE ma.id_material IN (" + marcadores(lote.size()) + ") " +
+                         "ORDER BY ma.id_material, ma.rowid";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                enlazar(ps, lote);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int idMaterial = rs.getInt("id_material");
+                        if (mapa.containsKey(idMaterial)) {
+                            continue;
+                        }
+                        int idAutor = rs.getInt("id_autor");
+                        Autor autor = autoresLeidos.get(idAutor);
+                        if (autor == null) {
+                            autor = AutorDAOImpl.mapearAutor(rs);
+                            autoresLeidos.put(idAutor, autor);
+                        }
+                        mapa.put(idMaterial, autor);
+                    }
+                }
+            }
+        }
+        return mapa;
+    }
+
+    private static List<List<Integer>> partir(List<Integer> ids) {
+        List<List<Integer>> lotes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += TAMANO_LOTE_IN) {
+            lotes.add(ids.subList(i, Math.min(ids.size(), i + TAMANO_LOTE_IN)));
+        }
+        return lotes;
+    }
+
+    private static String marcadores(int n) {
+        StringBuilder sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) {
+            sb.append(i == 0 ? "?" : ",?");
+        }
+        return sb.toString();
+    }
+
+    private static void enlazar(PreparedStatement ps, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            ps.setInt(i + 1, ids.get(i));
+        }
+    }
+
+    /**
+     * Fila leída con {@link #COLUMNAS}, a la espera de categoría y autor.
+     */
+    static final class FilaMaterial {
+        final int id;
+        final String titulo;
+        final String codigo;
+        final int idCategoria;
+        final String tipo;
+        final int disponibles;
+        final boolean hayLibro, hayRevista, hayTesis;
+        final String editorial;
+        final int anio;
+        final int numero;
+        final String periodicidad;
+        final String universidad;
+        final String grado;
+
+        FilaMaterial(ResultSet rs) throws SQLException {
+            id = rs.getInt("id_material");
+            titulo = rs.getString("titulo");
+            codigo = rs.getString("codigo_identificador");
+            idCategoria = rs.getInt("id_categoria");
+            tipo = rs.getString("tipo_material"); // 'L','R','T'
+            disponibles = rs.getInt("disponibles");
+            hayLibro = rs.getObject("id_libro") != null;
+            hayRevista = rs.getObject("id_revista") != null;
+            hayTesis = rs.getObject("id_tesis") != null;
+            editorial = rs.getString("editorial");
+            anio = rs.getInt("anio_publicacion");
+            numero = rs.getInt("numero_revista");
+            periodicidad = rs.getString("periodicidad");
+            universidad = rs.getString("universidad_tesis");
+            grado = rs.getString("grado_academico");
+        }
+
+        MaterialBibliografico construir(Categoria categoria, Autor autor) {
+            switch (tipo != null ? tipo : "") {
+                case "L":
+                    return hayLibro
+                        ? new Libro(id, titulo, codigo, categoria, autor, editorial, anio, disponibles)
+                        : null;
+                case "R":
+                    return hayRevista
+                        ? new Revista(id, titulo, codigo, categoria, autor, numero, periodicidad, disponibles)
+                        : null;
+                case "T":
+                    return hayTesis
+                        ? new Tesis(id, titulo, codigo, categoria, autor, universidad, grado, disponibles)
+                        : null;
+                default:
+                    System.err.println("Tipo de material desconocido: " + tipo);
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package biblioteca.dao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Agregados para los informes (Excel, PDF) y los gráficos del panel de
+ * inicio. Todo se cuenta en la BD con GROUP BY: nada de cargar e hidratar
+ * tablas enteras para contarlas en Java.
+ *
+ * Los listados devuelven filas {etiqueta (String), total (Integer)}, como
+ * PrestamoDAO.obtenerTopUsuariosConMasPrestamos().
+ */
+public interface InformeDAO {
+
+    /**
+     * Préstamos por mes de fecha_prestamo en los últimos {@code meses}
+     * meses, el más antiguo primero y el actual al final.
+     */
+    int[] contarPrestamosPorMes(int meses);
+
+    /**
+     * Personas con más préstamos: {nombre completo, total}, de más a menos.
+     */
+    List<Object[]> obtenerTopUsuarios(int limite);
+
+    /**
+     * Materiales por categoría: {nombre categoría, total}, de más a menos.
+     * Los que no tienen categoría van en "Sin categoría".
+     */
+    List<Object[]> contarMaterialesPorCategoria();
+
+    /**
+     * Materiales por tipo, siempre en este orden: Libros, Tesis, Revistas.
+     */
+    List<Object[]> contarMaterialesPorTipo();
+
+    /**
+     * Multas por estado: {"Pendientes" | "Pagadas", cantidad (Integer), monto (Double)}.
+     * Siempre dos filas, aunque alguna tenga cantidad 0.
+     */
+    List<Object[]> contarMultasPorEstado();
+
+    /**
+     * Préstamos de cada persona (id_persona -> total). Las que no tienen
+     * préstamos no aparecen.
+     */
+    Map<Integer, Integer> contarPrestamosPorPersona();
+
+    /**
+     * Entrega los préstamos uno a uno según se leen del ResultSet, sin
+     * cargarlos en una lista; es lo que usa el Excel para exportar tablas
+     * de cualquier tamaño. Mismo orden y filas que PrestamoDAO.listarTodos().
+     * Devuelve cuántas filas se entregaron.
+     */
+    int recorrerPrestamos(Consumer<FilaPrestamo> destino);
+
+    /**
+     * Igual para las multas, en el orden de MultaDAO.listarTodas().
+     */
+    int recorrerMultas(Consumer<FilaMulta> destino);
+
+    /** Préstamo ya listo para el informe. Las fechas van como en la BD ('YYYY-MM-DD'). */
+    record FilaPrestamo(int idPrestamo, String usuario, String material, String fechaPrestamo,
+                        String fechaEsperada, String fechaDevolucion, String estado) {}
+
+    /** Multa ya lista para el informe. */
+    record FilaMulta(int idMulta, String usuario, String material, String fechaMulta,
+                     double monto, boolean pagada) {}
+}
@@ -0,0 +1,232 @@
+package biblioteca.dao;
+
+import biblioteca.config.Conexion;
+import java.sql.*;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class InformeDAOImpl implements InformeDAO {
+
+    @Override
+    public int[] contarPrestamosPorMes(int meses) {
+        int[] resultado = new int[Math.max(meses, 0)];
+        if (meses <= 0) {
+            return resultado;
+        }
+        YearMonth inicio = YearMonth.now().minusMonths(meses - 1);
+
+        // Comparar por fecha (no por strftime) deja usar el índice de fecha_prestamo
+        String sql =
+            "SELECT strftime('%Y-%m', fecha_prestamo) AS mes, COUNT(*) AS total " +
+            "FROM Prestamos " +
+            "WHERE fecha_prestamo >= ? " +
+            "GROUP BY mes";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, inicio.atDay(1).toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String mes = rs.getString("mes");
+                    if (mes == null) {
+                        continue;
+                    }
+                    int i = (int) ChronoUnit.MONTHS.between(inicio, YearMonth.parse(mes));
+                    if (i >= 0 && i < meses) {
+                        resultado[i] = rs.getInt("total");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar préstamos por mes: " + e.getMessage());
+        }
+        return resultado;
+    }
+
+    @Override
+    public List<Object[]> obtenerTopUsuarios(int limite) {
+        String sql =
+            "SELECT p.nombre || ' ' || p.apellido AS etiqueta, COUNT(*) AS total " +
+            "FROM Prestamos pr " +
+            "JOIN Personas p ON p.id_persona = pr.id_persona " +
+            "GROUP BY p.id_persona " +
+            "ORDER BY total DESC, etiqueta " +
+            "LIMIT ?";
+        return listar(sql, "top de usuarios", limite);
+    }
+
+    @Override
+    public List<Object[]> contarMaterialesPorCategoria() {
+        String sql =
+            "SELECT IFNULL(NULLIF(TRIM(c.nombre_categoria), ''), 'Sin categoría') AS etiqueta, " +
+            "       COUNT(*) AS total " +
+            "FROM Materiales m " +
+            "LEFT JOIN Categorias c ON c.id_categoria = m.id_categoria " +
+            "GROUP BY etiqueta " +
+            "ORDER BY total DESC, etiqueta";
+        return listar(sql, "materiales por categoría");
+    }
+
+    @Override
+    public List<Object[]> contarMaterialesPorTipo() {
+        String sql =
+            "SELECT tipo_material AS etiqueta, COUNT(*) AS total " +
+            "FROM Materiales " +
+            "GROUP BY tipo_material";
+
+        Map<String, Integer> porTipo = new HashMap<>();
+        for (Object[] fila : listar(sql, "materiales por tipo")) {
+            porTipo.put((String) fila[0], (Integer) fila[1]);
+        }
+
+        List<Object[]> resultado = new ArrayList<>();
+        resultado.add(new Object[]{"Libros", porTipo.getOrDefault("L", 0)});
+        resultado.add(new Object[]{"Tesis", porTipo.getOrDefault("T", 0)});
+        resultado.add(new Object[]{"Revistas", porTipo.getOrDefault("R", 0)});
+        return resultado;
+    }
+
+    @Override
+    public List<Object[]> contarMultasPorEstado() {
+        String sql =
+            "SELECT IFNULL(pagada, 0) <> 0 AS pagada, COUNT(*) AS cantidad, " +
+            "       IFNULL(SUM(monto), 0) AS monto " +
+            "FROM Multas " +
+            "GROUP BY 1";
+
+        Object[] pendientes = {"Pendientes", 0, 0.0};
+        Object[] pagadas = {"Pagadas", 0, 0.0};
+
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                Object[] fila = rs.getBoolean("pagada") ? pagadas : pendientes;
+                fila[1] = rs.getInt("cantidad");
+                fila[2] = rs.getDouble("monto");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar multas por estado: " + e.getMessage());
+        }
+
+        List<Object[]> resultado = new ArrayList<>();
+        resultado.add(pendientes);
+        resultado.add(pagadas);
+        return resultado;
+    }
+
+    @Override
+    public Map<Integer, Integer> contarPrestamosPorPersona() {
+        Map<Integer, Integer> resultado = new HashMap<>();
+        String sql = "SELECT id_persona, COUNT(*) AS total FROM Prestamos GROUP BY id_persona";
+
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                resultado.put(rs.getInt("id_persona"), rs.getInt("total"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar préstamos por persona: " + e.getMessage());
+        }
+        return resultado;
+    }
+
+    @Override
+    public int recorrerPrestamos(Consumer<FilaPrestamo> destino) {
+        // Mismas filas que PrestamoDAOImpl.listarTodos(), que descarta los
+        // préstamos sin persona o sin ejemplar
+        String sql =
+            "SELECT pr.id_prestamo, per.nombre || ' ' || per.apellido AS usuario, m.titulo, " +
+            "       pr.fecha_prestamo, pr.fecha_devolucion_esperada, pr.fecha_devolucion_real, " +
+            "       " + PrestamoDAOImpl.ESTADO_CALCULADO + " AS estado " +
+            "FROM Prestamos pr " +
+            "JOIN Personas per ON per.id_persona = pr.id_persona " +
+            "JOIN Ejemplares e ON e.id_ejemplar = pr.id_ejemplar " +
+            "JOIN Materiales m ON m.id_material = e.id_material " +
+            "ORDER BY pr.fecha_prestamo DESC";
+        int filas = 0;
+
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                destino.accept(new FilaPrestamo(
+                    rs.getInt("id_prestamo"),
+                    rs.getString("usuario"),
+                    rs.getString("titulo"),
+                    rs.getString("fecha_prestamo"),
+                    rs.getString("fecha_devolucion_esperada"),
+                    rs.getString("fecha_devolucion_real"),
+                    rs.getString("estado")));
+                filas++;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al recorrer préstamos: " + e.getMessage());
+        }
+        return filas;
+    }
+
+    @Override
+    public int recorrerMultas(Consumer<FilaMulta> destino) {
+        String sql =
+            "SELECT mu.id_multa, p.nombre || ' ' || p.apellido AS usuario, mat.titulo, " +
+            "       mu.fecha_multa, mu.monto, mu.pagada " +
+            "FROM Multas mu " +
+            "INNER JOIN Personas p ON mu.id_persona = p.id_persona " +
+            "LEFT JOIN Prestamos pr ON mu.id_prestamo = pr.id_prestamo " +
+            "LEFT JOIN Ejemplares e ON pr.id_ejemplar = e.id_ejemplar " +
+            "LEFT JOIN Materiales mat ON e.id_material = mat.id_material " +
+            "ORDER BY mu.fecha_multa DESC";
+        int filas = 0;
+
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                destino.accept(new FilaMulta(
+                    rs.getInt("id_multa"),
+                    rs.getString("usuario"),
+                    rs.getString("titulo"),
+                    rs.getString("fecha_multa"),
+                    rs.getDouble("monto"),
+                    rs.getBoolean("pagada")));
+                filas++;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al recorrer multas: " + e.getMessage());
+        }
+        return filas;
+    }
+
+    // Filas {etiqueta, total} de una consulta con esas dos columnas
+    private List<Object[]> listar(String sql, String descripcion, Object... params) {
+        List<Object[]> resultado = new ArrayList<>();
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    resultado.add(new Object[]{rs.getString("etiqueta"), rs.getInt("total")});
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar " + descripcion + ": " + e.getMessage());
+        }
+        return resultado;
+    }
+}
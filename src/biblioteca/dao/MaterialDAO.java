@@ -6,7 +6,20 @@ import java.util.List;
 public interface MaterialDAO {
     MaterialBibliografico buscarPorId(int id);
     List<MaterialBibliografico> listarTodos();
+    // Solo los que tienen algún ejemplar 'Disponible' (combo de préstamo), por título.
+    List<MaterialBibliografico> listarDisponibles();
     List<MaterialBibliografico> buscarPorTextoGeneral(String texto);
+    // Igual que listarTodos pero por páginas (desde = null para la primera).
+    Pagina<MaterialBibliografico> listarPagina(ClavePagina desde, int tamano);
+    int contarTodos();
+    // Bloques por posición para las tablas perezosas (ModeloTablaPerezoso).
+    // tipo: "LIBRO", "REVISTA", "TESIS" o null; texto filtra por título, identificador
+    // o categoría; orden: "id", "titulo", "tipo", "categoria", "identificador",
+    // "disponibles", "editorial", "anio", "numero", "periodicidad", "universidad"
+    // o "grado" (null = por título).
+    List<MaterialBibliografico> listarBloque(String tipo, String texto, String orden,
+                                             boolean descendente, int desde, int tamano);
+    int contarBloque(String tipo, String texto);
     boolean insertar(MaterialBibliografico material);
     boolean actualizar(MaterialBibliografico material);
     boolean eliminar(int id);
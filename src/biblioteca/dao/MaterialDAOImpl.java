@@ -5,28 +5,33 @@ import biblioteca.model.*;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class MaterialDAOImpl implements MaterialDAO {
 
-    private final CategoriaDAO categoriaDAO;
-    private final AutorDAO autorDAO;
-
-    public MaterialDAOImpl(CategoriaDAO categoriaDAO, AutorDAO autorDAO) {
-        this.categoriaDAO = categoriaDAO;
-        this.autorDAO = autorDAO;
-    }
+    // Columnas por las que se puede ordenar un bloque (clave lógica -> expresión SQL)
+    private static final Map<String, String> ORDEN_BLOQUE = Map.ofEntries(
+        Map.entry("id", "m.id_material"),
+        Map.entry("titulo", "m.titulo"),
+        Map.entry("tipo", "m.tipo_material"),
+        Map.entry("categoria", "c.nombre_categoria"),
+        Map.entry("identificador", "m.codigo_identificador"),
+        Map.entry("disponibles", "disponibles"),
+        Map.entry("editorial", "l.editorial"),
+        Map.entry("anio", "l.anio_publicacion"),
+        Map.entry("numero", "r.numero_revista"),
+        Map.entry("periodicidad", "r.periodicidad"),
+        Map.entry("universidad", "t.universidad_tesis"),
+        Map.entry("grado", "t.grado_academico")
+    );
 
     @Override
     public MaterialBibliografico buscarPorId(int id) {
-        String sql = "SELECT * FROM Materiales WHERE id_material = ?";
-        try (Connection conn = Conexion.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return mapearMaterial(conn, rs);
-                }
+        try (Connection conn = Conexion.getConnection()) {
+            List<MaterialBibliografico> lista =
+                HidratadorMateriales.cargar(conn, "WHERE m.id_material = ?", id);
+            if (!lista.isEmpty()) {
+                return lista.get(0);
             }
         } catch (SQLException e) {
             System.err.println("Error al buscar material: " + e.getMessage());
@@ -36,65 +41,158 @@ public class MaterialDAOImpl implements MaterialDAO {
 
     @Override
     public List<MaterialBibliografico> listarTodos() {
-        List<MaterialBibliografico> lista = new ArrayList<>();
-        String sql = "SELECT * FROM Materiales ORDER BY titulo";
+        try (Connection conn = Conexion.getConnection()) {
+            return HidratadorMateriales.cargar(conn, "ORDER BY m.titulo");
+        } catch (SQLException e) {
+            System.err.println("Error al listar materiales: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<MaterialBibliografico> listarDisponibles() {
+        try (Connection conn = Conexion.getConnection()) {
+            return HidratadorMateriales.cargar(conn,
+                "WHERE EXISTS (SELECT 1 FROM Ejemplares ex " +
+                "              WHERE ex.id_material = m.id_material AND ex.estado = 'Disponible') " +
+                "ORDER BY m.titulo");
+        } catch (SQLException e) {
+            System.err.println("Error al listar materiales disponibles: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+    
+    @Override
+    public Pagina<MaterialBibliografico> listarPagina(ClavePagina desde, int tamano) {
+        try (Connection conn = Conexion.getConnection()) {
+            return HidratadorMateriales.cargarPagina(conn, desde, tamano);
+        } catch (SQLException e) {
+            System.err.println("Error al listar página de materiales: " + e.getMessage());
+        }
+        return new Pagina<>(new ArrayList<>(), null);
+    }
+
+    @Override
+    public int contarTodos() {
+        String sql = "SELECT COUNT(*) AS total FROM Materiales";
         try (Connection conn = Conexion.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                MaterialBibliografico m = mapearMaterial(conn, rs);
-                if (m != null) {
-                    lista.add(m);
-                }
-            }
+            if (rs.next()) return rs.getInt("total");
         } catch (SQLException e) {
-            System.err.println("Error al listar materiales: " + e.getMessage());
+            System.err.println("Error al contar materiales: " + e.getMessage());
         }
-        return lista;
+        return 0;
     }
     
     @Override
-    public List<MaterialBibliografico> buscarPorTextoGeneral(String texto) {
-        List<MaterialBibliografico> resultados = new ArrayList<>();
+    public List<MaterialBibliografico> listarBloque(String tipo, String texto, String orden,
+                                                    boolean descendente, int desde, int tamano) {
+        List<Object> parametros = new ArrayList<>();
+        String columna = orden != null ? ORDEN_BLOQUE.getOrDefault(orden, "m.titulo") : "m.titulo";
+        String sentido = descendente ? " DESC" : " ASC";
+
+        String condicion = condicionBloque(tipo, texto, parametros) +
+                           "ORDER BY " + columna + sentido + ", m.id_material" + sentido + " " +
+                           "LIMIT ? OFFSET ?";
+        parametros.add(tamano);
+        parametros.add(desde);
+
+        try (Connection conn = Conexion.getConnection()) {
+            return HidratadorMateriales.cargar(conn, condicion, parametros.toArray());
+        } catch (SQLException e) {
+            System.err.println("Error al listar bloque de materiales: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public int contarBloque(String tipo, String texto) {
+        List<Object> parametros = new ArrayList<>();
+        try (Connection conn = Conexion.getConnection()) {
+            return HidratadorMateriales.contar(conn, condicionBloque(tipo, texto, parametros),
+                                               parametros.toArray());
+        } catch (SQLException e) {
+            System.err.println("Error al contar bloque de materiales: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * WHERE común a listarBloque y contarBloque. Exige la fila del subtipo,
+     * igual que el hidratador, para que el total coincida con lo que se lista.
+     */
+    private String condicionBloque(String tipo, String texto, List<Object> parametros) {
+        StringBuilder sb = new StringBuilder(
+            "WHERE ((m.tipo_material = 'L' AND l.id_material IS NOT NULL) " +
+            "    OR (m.tipo_material = 'R' AND r.id_material IS NOT NULL) " +
+            "    OR (m.tipo_material = 'T' AND t.id_material IS NOT NULL)) ");
+
+        if (tipo != null) {
+            sb.append("AND m.tipo_material = ? ");
+            parametros.add(mapearTipoMaterialChar(tipo));
+        }
+        String consulta = consultaTextoCompleto(texto);
+        if (consulta != null) {
+            sb.append("AND c.id_categoria IS NOT NULL " +
+                      "AND m.id_material IN (SELECT rowid FROM Materiales_FTS WHERE Materiales_FTS MATCH ?) ");
+            parametros.add(consulta);
+        }
+        return sb.toString();
+    }
 
+    /**
+     * Convierte lo que escribe el usuario en una consulta FTS5: cada palabra
+     * como prefijo ("canc" encuentra "Canción") y todas obligatorias.
+     * Las palabras van entre comillas para que guiones, asteriscos u
+     * operadores (AND, NOT...) se busquen como texto. Null si no hay palabras.
+     */
+    static String consultaTextoCompleto(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String palabra : texto.split("[^\\p{L}\\p{N}]+")) {
+            if (!palabra.isEmpty()) {
+                if (sb.length() > 0) sb.append(' ');
+                sb.append('"').append(palabra).append("\"*");
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    @Override
+    public List<MaterialBibliografico> buscarPorTextoGeneral(String texto) {
         // Si el texto está vacío, devolver todos
         if (texto == null || texto.trim().isEmpty()) {
             return listarTodos(); 
         }
 
-        String sql = """
-            SELECT m.*, c.nombre_categoria 
-            FROM materiales m 
-            JOIN categorias c ON m.id_categoria = c.id_categoria 
-            WHERE LOWER(m.titulo) LIKE ? 
-               OR LOWER(m.codigo_identificador) LIKE ? 
-               OR LOWER(c.nombre_categoria) LIKE ?
-            ORDER BY m.titulo
-            """;
-
-        try (Connection conn = Conexion.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        // Solo signos, sin palabras: igual que vacío
+        String consulta = consultaTextoCompleto(texto);
+        if (consulta == null) {
+            return listarTodos();
+        }
 
-            String patron = "%" + texto.toLowerCase().trim() + "%";
-            ps.setString(1, patron);
-            ps.setString(2, patron);
-            ps.setString(3, patron);
+        // Índice FTS5 (migración 4); los más relevantes primero, el título pesa más
+        String condicion = """
+            JOIN (SELECT rowid AS id_fts,
+                         bm25(Materiales_FTS, 10.0, 5.0, 2.0, 4.0, 1.0, 1.0, 1.0) AS relevancia
+                  FROM Materiales_FTS
+                  WHERE Materiales_FTS MATCH ?) f ON f.id_fts = m.id_material
+            WHERE c.id_categoria IS NOT NULL
+            ORDER BY f.relevancia, m.titulo
+            """;
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    MaterialBibliografico material = mapearMaterial(conn, rs);
-                    if (material != null) {
-                        resultados.add(material);
-                    }
-                }
-            }
+        try (Connection conn = Conexion.getConnection()) {
+            return HidratadorMateriales.cargar(conn, condicion, consulta);
         } catch (SQLException e) {
             System.err.println("Error SQL buscarPorTextoGeneral: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return resultados;
+        return new ArrayList<>();
     }
 
     @Override
@@ -266,6 +364,7 @@ public class MaterialDAOImpl implements MaterialDAO {
                 }
             }
 
+            BusEventos.publicar(new EventoDominio.MaterialActualizado(material.getId()));
             return true;
 
         } catch (SQLException e) {
@@ -352,95 +451,4 @@ public class MaterialDAOImpl implements MaterialDAO {
             default: throw new IllegalArgumentException("Tipo material lógico no soportado: " + tipoMaterialLogico);
         }
     }
-
-    private MaterialBibliografico mapearMaterial(Connection conn, ResultSet rs) throws SQLException {
-        int id = rs.getInt("id_material");
-        String titulo = rs.getString("titulo");
-        String codigo = rs.getString("codigo_identificador");
-        int idCategoria = rs.getInt("id_categoria");
-        String tipo = rs.getString("tipo_material"); // 'L','R','T'
-
-        Categoria categoria = categoriaDAO.buscarPorId(idCategoria);
-        if (categoria == null) {
-            categoria = new Categoria();
-            categoria.setIdCategoria(idCategoria);
-        }
-
-        // Contar ejemplares disponibles para este material
-        int cantidadDisponible = contarEjemplaresDisponibles(conn, id);
-
-        // Cargar autor común desde Material_Autores
-        Autor autorComun = null;
-        String sqlAutor = "SELECT id_autor FROM Material_Autores WHERE id_material = ?";
-        try (PreparedStatement psAutor = conn.prepareStatement(sqlAutor)) {
-            psAutor.setInt(1, id);
-            try (ResultSet rsAutor = psAutor.executeQuery()) {
-                if (rsAutor.next()) {
-                    int idAutor = rsAutor.getInt("id_autor");
-                    autorComun = autorDAO.buscarPorId(idAutor);
-                }
-            }
-        }
-
-        switch (tipo) {
-            case "L": {
-                String sqlLib = "SELECT editorial, anio_publicacion FROM Libros WHERE id_material = ?";
-                try (PreparedStatement ps = conn.prepareStatement(sqlLib)) {
-                    ps.setInt(1, id);
-                    try (ResultSet rsLib = ps.executeQuery()) {
-                        if (rsLib.next()) {
-                            String editorial = rsLib.getString("editorial");
-                            int anio = rsLib.getInt("anio_publicacion");
-                            return new Libro(id, titulo, codigo, categoria, autorComun, editorial, anio, cantidadDisponible);
-                        }
-                    }
-                }
-                break;
-            }
-            case "R": {
-                String sqlRev = "SELECT numero_revista, periodicidad FROM Revistas WHERE id_material = ?";
-                try (PreparedStatement ps = conn.prepareStatement(sqlRev)) {
-                    ps.setInt(1, id);
-                    try (ResultSet rsRev = ps.executeQuery()) {
-                        if (rsRev.next()) {
-                            int numero = rsRev.getInt("numero_revista");
-                            String periodicidad = rsRev.getString("periodicidad");
-                            return new Revista(id, titulo, codigo, categoria, autorComun, numero, periodicidad, cantidadDisponible);
-                        }
-                    }
-                }
-                break;
-            }
-            case "T": {
-                String sqlTes = "SELECT universidad_tesis, grado_academico FROM Tesis WHERE id_material = ?";
-                try (PreparedStatement ps = conn.prepareStatement(sqlTes)) {
-                    ps.setInt(1, id);
-                    try (ResultSet rsTes = ps.executeQuery()) {
-                        if (rsTes.next()) {
-                            String universidad = rsTes.getString("universidad_tesis");
-                            String grado = rsTes.getString("grado_academico");
-                            return new Tesis(id, titulo, codigo, categoria, autorComun, universidad, grado, cantidadDisponible);
-                        }
-                    }
-                }
-                break;
-            }
-            default:
-                System.err.println("Tipo de material desconocido: " + tipo);
-        }
-        return null;
-    }
-
-    private int contarEjemplaresDisponibles(Connection conn, int idMaterial) throws SQLException {
-        String sql = "SELECT COUNT(*) AS total " +
-                     "FROM Ejemplares " +
-                     "WHERE id_material = ? AND estado = 'Disponible'";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, idMaterial);
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next() ? rs.getInt("total") : 0;
-            }
-        }
-    }
 }
-
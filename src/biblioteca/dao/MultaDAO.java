@@ -26,6 +26,16 @@ public interface MultaDAO {
      */
     List<Multa> listarTodas();
     
+    /**
+     * Igual que listarTodas pero por páginas (desde = null para la primera)
+     */
+    Pagina<Multa> listarPagina(ClavePagina desde, int tamano);
+    
+    /**
+     * Cuenta todas las multas del sistema
+     */
+    int contarTodas();
+    
     /**
      * Lista las multas de una persona específica
      */
@@ -36,6 +46,12 @@ public interface MultaDAO {
      */
     List<Multa> listarPorPrestamo(int idPrestamo);
     
+    /**
+     * Lista las multas de un tipo ("Retraso", "Perdido"), ordenadas por
+     * préstamo y de la más reciente a la más antigua dentro de cada uno
+     */
+    List<Multa> listarPorTipo(String tipoMulta);
+    
     /**
      * Lista solo las multas pendientes de pago
      */
@@ -1,6 +1,7 @@
 package biblioteca.dao;
 
 import biblioteca.config.Conexion;
+import biblioteca.model.EventoDominio;
 import biblioteca.model.Multa;
 import java.sql.*;
 import java.time.LocalDate;
@@ -31,6 +32,8 @@ public class MultaDAOImpl implements MultaDAO {
                         multa.setIdMulta(rs.getInt(1));
                     }
                 }
+                BusEventos.publicar(new EventoDominio.MultaCreada(multa.getIdMulta(),
+                        multa.getIdPrestamo(), multa.getIdPersona()));
                 return true;
             }
             return false;
@@ -117,6 +120,65 @@ public class MultaDAOImpl implements MultaDAO {
         return lista;
     }
 
+    @Override
+    public Pagina<Multa> listarPagina(ClavePagina desde, int tamano) {
+        List<Multa> lista = new ArrayList<>();
+        ClavePagina siguiente = null;
+        String sql = "SELECT m.*, " +
+                     "p.nombre || ' ' || p.apellido AS nombre_usuario, " +
+                     "mat.titulo AS nombre_material " +
+                     "FROM Multas m " +
+                     "INNER JOIN Personas p ON m.id_persona = p.id_persona " +
+                     "LEFT JOIN Prestamos pr ON m.id_prestamo = pr.id_prestamo " +
+                     "LEFT JOIN Ejemplares e ON pr.id_ejemplar = e.id_ejemplar " +
+                     "LEFT JOIN Materiales mat ON e.id_material = mat.id_material " +
+                     (desde != null ? "WHERE " + ClavePagina.condicion(true, "m.fecha_multa", "m.id_multa") : "") +
+                     ClavePagina.orden(true, "m.fecha_multa", "m.id_multa") +
+                     "LIMIT ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int i = desde != null ? desde.enlazar(ps, 1) : 1;
+            ps.setInt(i, tamano + 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (lista.size() == tamano) {
+                        Multa ultima = lista.get(tamano - 1);
+                        siguiente = new ClavePagina(ultima.getFechaMulta(), ultima.getIdMulta());
+                        break;
+                    }
+                    lista.add(mapearMultaConMaterial(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al listar página de multas: " + e.getMessage());
+        }
+
+        return new Pagina<>(lista, siguiente);
+    }
+
+    @Override
+    public int contarTodas() {
+        String sql = "SELECT COUNT(*) AS total FROM Multas";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getInt("total");
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al contar multas: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
     @Override
     public List<Multa> listarPorPersona(int idPersona) {
         List<Multa> lista = new ArrayList<>();
@@ -183,6 +245,38 @@ public class MultaDAOImpl implements MultaDAO {
         return lista;
     }
 
+    @Override
+    public List<Multa> listarPorTipo(String tipoMulta) {
+        List<Multa> lista = new ArrayList<>();
+        String sql = "SELECT m.*, " +
+                     "p.nombre || ' ' || p.apellido AS nombre_usuario, " +
+                     "mat.titulo AS nombre_material " +
+                     "FROM Multas m " +
+                     "INNER JOIN Personas p ON m.id_persona = p.id_persona " +
+                     "LEFT JOIN Prestamos pr ON m.id_prestamo = pr.id_prestamo " +
+                     "LEFT JOIN Ejemplares e ON pr.id_ejemplar = e.id_ejemplar " +
+                     "LEFT JOIN Materiales mat ON e.id_material = mat.id_material " +
+                     "WHERE m.tipo_multa = ? " +
+                     "ORDER BY m.id_prestamo, m.fecha_multa DESC";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, tipoMulta);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearMultaConMaterial(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al listar multas por tipo: " + e.getMessage());
+        }
+
+        return lista;
+    }
+
     @Override
     public List<Multa> listarPendientes() {
         List<Multa> lista = new ArrayList<>();
@@ -253,6 +347,9 @@ public class MultaDAOImpl implements MultaDAO {
             ps.setString(1, fechaPago.toString());
             ps.setInt(2, idMulta);
             int filas = ps.executeUpdate();
+            if (filas > 0) {
+                BusEventos.publicar(new EventoDominio.MultaPagada(idMulta));
+            }
             return filas > 0;
 
         } catch (SQLException e) {
@@ -275,6 +372,9 @@ public class MultaDAOImpl implements MultaDAO {
             ps.setString(1, fechaCondonacion.toString());
             ps.setInt(2, idMulta);
             int filas = ps.executeUpdate();
+            if (filas > 0) {
+                BusEventos.publicar(new EventoDominio.MultaCondonada(idMulta));
+            }
             return filas > 0;
 
         } catch (SQLException e) {
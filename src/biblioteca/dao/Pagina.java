@@ -0,0 +1,26 @@
+package biblioteca.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Una página de resultados de un listado paginado por clave (keyset).
+ * Para pedir la siguiente se pasa {@link #getSiguiente()} al mismo método del DAO.
+ */
+public final class Pagina<T> {
+
+    private final List<T> elementos;
+    private final ClavePagina siguiente;
+
+    public Pagina(List<T> elementos, ClavePagina siguiente) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.siguiente = siguiente;
+    }
+
+    public List<T> getElementos() { return elementos; }
+
+    /** Posición tras el último elemento, o null si esta es la última página. */
+    public ClavePagina getSiguiente() { return siguiente; }
+
+    public boolean hayMas() { return siguiente != null; }
+}
@@ -7,6 +7,9 @@ public interface PersonaDAO {
     Persona buscarPorId(int id);
     Persona autenticar(String username, String password);
     List<Persona> listarTodos();
+    // Igual que listarTodos pero por páginas (desde = null para la primera)
+    Pagina<Persona> listarPagina(ClavePagina desde, int tamano);
+    int contarTodos();
     boolean insertar(Persona persona);
     boolean actualizar(Persona persona);
     boolean eliminar(int id);
@@ -0,0 +1,85 @@
+package biblioteca.dao;
+
+import biblioteca.model.Persona;
+import java.util.List;
+
+/**
+ * PersonaDAO con caché de buscarPorId, que se pide en cada préstamo y cada
+ * escaneo (PrestamoController) y al editar personas (mismo esquema que
+ * {@link CategoriaDAOCache}).
+ * autenticar() nunca pasa por la caché: siempre comprueba contra la BD.
+ */
+public class PersonaDAOCache implements PersonaDAO {
+
+    public static final int CAPACIDAD_POR_DEFECTO = 2048;
+
+    private final PersonaDAO delegado;
+    private final CacheEntidades<Integer, Persona> cache;
+
+    public PersonaDAOCache(PersonaDAO delegado) {
+        this(delegado, CAPACIDAD_POR_DEFECTO);
+    }
+
+    public PersonaDAOCache(PersonaDAO delegado, int capacidad) {
+        this.delegado = delegado;
+        this.cache = new CacheEntidades<>("personas", capacidad);
+    }
+
+    @Override
+    public Persona buscarPorId(int id) {
+        return cache.obtener(id, delegado::buscarPorId);
+    }
+
+    @Override
+    public Persona autenticar(String username, String password) {
+        return delegado.autenticar(username, password);
+    }
+
+    @Override
+    public boolean insertar(Persona persona) {
+        boolean ok = delegado.insertar(persona);
+        cache.invalidar(persona.getId());
+        return ok;
+    }
+
+    @Override
+    public boolean actualizar(Persona persona) {
+        try {
+            return delegado.actualizar(persona);
+        } finally {
+            cache.invalidar(persona.getId());
+        }
+    }
+
+    @Override
+    public boolean eliminar(int id) {
+        try {
+            return delegado.eliminar(id);
+        } finally {
+            cache.invalidar(id);
+        }
+    }
+
+    @Override
+    public List<Persona> listarTodos() {
+        return delegado.listarTodos();
+    }
+
+    @Override
+    public Pagina<Persona> listarPagina(ClavePagina desde, int tamano) {
+        return delegado.listarPagina(desde, tamano);
+    }
+
+    @Override
+    public int contarTodos() {
+        return delegado.contarTodos();
+    }
+
+    public CacheEntidades.Estadisticas getEstadisticas() {
+        return cache.getEstadisticas();
+    }
+
+    public void vaciar() {
+        cache.vaciar();
+    }
+}
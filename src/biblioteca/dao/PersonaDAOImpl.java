@@ -49,6 +49,53 @@ public class PersonaDAOImpl implements PersonaDAO {
         return lista;
     }
 
+    @Override
+    public Pagina<Persona> listarPagina(ClavePagina desde, int tamano) {
+        List<Persona> lista = new ArrayList<>();
+        ClavePagina siguiente = null;
+        String sql = "SELECT * FROM Personas " +
+                     (desde != null ? "WHERE " + ClavePagina.condicion(false, "nombre", "id_persona") : "") +
+                     ClavePagina.orden(false, "nombre", "id_persona") +
+                     "LIMIT ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int i = desde != null ? desde.enlazar(ps, 1) : 1;
+            ps.setInt(i, tamano + 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (lista.size() == tamano) {
+                        Persona ultima = lista.get(tamano - 1);
+                        siguiente = new ClavePagina(ultima.getNombre(), ultima.getId());
+                        break;
+                    }
+                    lista.add(mapearPersona(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar página de personas: " + e.getMessage());
+        }
+        return new Pagina<>(lista, siguiente);
+    }
+
+    @Override
+    public int contarTodos() {
+        String sql = "SELECT COUNT(*) AS total FROM Personas";
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                return rs.getInt("total");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar personas: " + e.getMessage());
+        }
+        return 0;
+    }
+
     @Override
     public boolean insertar(Persona persona) {
         String sql = "INSERT INTO Personas " +
@@ -169,9 +216,10 @@ public class PersonaDAOImpl implements PersonaDAO {
     }
 
     /**
-     * Mapea un ResultSet a un objeto Persona (Usuario por defecto)
+     * Mapea un ResultSet a un objeto Persona (Usuario por defecto).
+     * PrestamoDAOImpl lo reutiliza en sus consultas unidas.
      */
-    private Persona mapearPersona(ResultSet rs) throws SQLException {
+    static Persona mapearPersona(ResultSet rs) throws SQLException {
         int id = rs.getInt("id_persona");
         String nombre = rs.getString("nombre");
         String apellido = rs.getString("apellido");
@@ -6,7 +6,8 @@ import java.util.List;
 
 public interface PrestamoDAO {
 
-    boolean insertar(Prestamo prestamo);
+    // Presta el primer ejemplar disponible; el resultado dice por qué no, si falla.
+    ResultadoPrestamo insertar(Prestamo prestamo);
     Prestamo buscarPorId(int id);
     List<Prestamo> listarTodos();
     List<Prestamo> listarActivos();
@@ -15,12 +16,44 @@ public interface PrestamoDAO {
     List<Prestamo> listarPerdidos();
     List<Prestamo> listarPorTexto(String texto);
 
+    // Igual que listarTodos pero por páginas (desde = null para la primera).
+    Pagina<Prestamo> listarPagina(ClavePagina desde, int tamano);
+    int contarTodos();
+
+    // Bloques por posición para las tablas perezosas (ModeloTablaPerezoso).
+    // estado: "TODOS", "ACTIVOS", "VENCIDOS" o "PERDIDOS"; texto filtra por usuario,
+    // material o tipo (null = sin filtro); orden: "id", "usuario", "material", "tipo",
+    // "fecha_prestamo", "fecha_devolucion" o "estado" (null = orden habitual del listado).
+    List<Prestamo> listarBloque(String estado, String texto, String orden, boolean descendente,
+                                int desde, int tamano);
+    int contarBloque(String estado, String texto);
+
     // Actualiza fecha_devolucion_real, estado del préstamo y ejemplar.
     boolean registrarDevolucion(int idPrestamo, LocalDate fechaDevolucion);
 
     // marca préstamo y ejemplar como Perdido.
     boolean marcarComoPerdido(int idPrestamo, LocalDate fechaReporte);
 
+    // Lotes (mostrador, buzón de devoluciones): todo en una transacción, con un
+    // resultado por elemento en el mismo orden. Un elemento que no se puede hacer
+    // no deshace los demás; un error de BD deshace el lote entero.
+    List<ResultadoLote> insertarLote(List<Prestamo> prestamos);
+
+    // Crea también las multas por retraso (días de retraso * tarifaPorDia).
+    List<ResultadoLote> registrarDevolucionLote(List<Integer> idsPrestamo, LocalDate fechaDevolucion,
+                                                double tarifaPorDia);
+
+    // Lector de código de barras, en una sola transacción: si el ejemplar está
+    // prestado registra su devolución (con la multa por retraso); si está disponible
+    // lo presta según nuevo (persona y fechas; null = solo devoluciones), siempre
+    // que la persona no tenga ya un préstamo activo o vencido.
+    ResultadoEscaneo circularPorCodigoBarra(String codigoBarra, Prestamo nuevo,
+                                            LocalDate fechaDevolucion, double tarifaPorDia);
+
+    // Pasa a 'Vencido' los préstamos activos cuya fecha esperada ya pasó.
+    // Lo ejecuta la tarea programada (TareaVencimientos); devuelve cuántos cambiaron.
+    int actualizarPrestamosVencidos();
+
     int contarPrestamosActivos();
     int contarPrestamosDevueltos();
     int contarPrestamosVencidos();
@@ -2,99 +2,642 @@ package biblioteca.dao;
 
 import biblioteca.config.Conexion;
 import biblioteca.model.Ejemplar;
+import biblioteca.model.EventoDominio;
 import biblioteca.model.MaterialBibliografico;
+import biblioteca.model.Multa;
 import biblioteca.model.Persona;
 import biblioteca.model.Prestamo;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class PrestamoDAOImpl implements PrestamoDAO {
 
-    private final PersonaDAO personaDAO;
-    private final MaterialDAO materialDAO;
     private final EjemplarDAO ejemplarDAO;
 
-    public PrestamoDAOImpl(PersonaDAO personaDAO,
-                           MaterialDAO materialDAO,
-                           EjemplarDAO ejemplarDAO) {
-        this.personaDAO = personaDAO;
-        this.materialDAO = materialDAO;
+    // Estado que ven las lecturas: un 'Activo' pasado de fecha ya se muestra como
+    // 'Vencido' aunque la tarea programada aún no lo haya escrito en la tabla.
+    static final String ESTADO_CALCULADO =
+        "CASE WHEN pr.estado = 'Activo' AND pr.fecha_devolucion_esperada < date('now') " +
+        "     THEN 'Vencido' ELSE pr.estado END";
+
+    private static final String FILTRO_ACTIVOS =
+        "pr.estado = 'Activo' " +
+        "AND (pr.fecha_devolucion_esperada IS NULL OR pr.fecha_devolucion_esperada >= date('now')) ";
+
+    private static final String FILTRO_VENCIDOS =
+        "(pr.estado = 'Vencido' " +
+        " OR (pr.estado = 'Activo' AND pr.fecha_devolucion_esperada < date('now'))) ";
+
+    // Préstamo + persona + ejemplar + columnas del material en una sola fila;
+    // categoría y autor se cargan después para todo el listado (HidratadorMateriales).
+    private static final String SELECT_PRESTAMO =
+        "SELECT pr.id_prestamo, pr.id_persona, pr.id_ejemplar, pr.fecha_prestamo, " +
+        "       pr.fecha_devolucion_esperada, pr.fecha_devolucion_real, " +
+        "       " + ESTADO_CALCULADO + " AS estado, " +
+        "       per.id_persona AS persona_existe, per.nombre, per.apellido, per.cedula, " +
+        "       per.email, per.telefono, per.direccion, " +
+        "       e.id_ejemplar AS ejemplar_existe, e.codigo_barra, e.estado AS estado_ejemplar, " +
+        // NULL = sin multas, 0 = alguna pendiente, 1 = todas pagadas
+        "       (SELECT MIN(IFNULL(mu.pagada, 0)) FROM Multas mu " +
+        "         WHERE mu.id_prestamo = pr.id_prestamo) AS multas_pagadas, " +
+        "       " + HidratadorMateriales.COLUMNAS +
+        "FROM Prestamos pr " +
+        "LEFT JOIN Personas per ON per.id_persona = pr.id_persona " +
+        "LEFT JOIN Ejemplares e ON e.id_ejemplar = pr.id_ejemplar " +
+        "LEFT JOIN Materiales m ON m.id_material = e.id_material " +
+        HidratadorMateriales.JOINS_SUBTIPO;
+
+    // Columnas por las que se puede ordenar un bloque (clave lógica -> expresión SQL)
+    private static final Map<String, String> ORDEN_BLOQUE = Map.of(
+        "id", "pr.id_prestamo",
+        "usuario", "per.nombre || ' ' || per.apellido",
+        "material", "m.titulo",
+        "tipo", "m.tipo_material",
+        "fecha_prestamo", "pr.fecha_prestamo",
+        "fecha_devolucion", "pr.fecha_devolucion_esperada",
+        "estado", ESTADO_CALCULADO
+    );
+
+    public PrestamoDAOImpl(EjemplarDAO ejemplarDAO) {
         this.ejemplarDAO = ejemplarDAO;
     }
 
+    // Reclama el primer ejemplar disponible en la misma sentencia que lo marca
+    // como prestado: si otro puesto se lo llevó antes, el UPDATE no toca filas
+    private static final String SQL_RECLAMAR_EJEMPLAR =
+        "UPDATE Ejemplares SET estado = 'Prestado' " +
+        "WHERE id_ejemplar = (SELECT id_ejemplar FROM Ejemplares " +
+        "                     WHERE id_material = ? AND estado = 'Disponible' " +
+        "                     ORDER BY id_ejemplar LIMIT 1) " +
+        "  AND estado = 'Disponible' " +
+        "RETURNING id_ejemplar, codigo_barra";
+
+    private static final String SQL_INSERTAR_PRESTAMO =
+        "INSERT INTO Prestamos " +
+        "(id_persona, id_ejemplar, fecha_prestamo, fecha_devolucion_esperada, estado) " +
+        "VALUES (?, ?, ?, ?, 'Activo') RETURNING id_prestamo";
+
+    // Un usuario solo puede tener un préstamo abierto a la vez
+    private static final String SQL_PRESTAMO_ABIERTO =
+        "SELECT 1 FROM Prestamos WHERE id_persona = ? AND estado IN ('Activo', 'Vencido') LIMIT 1";
+
+    // Intentos ante SQLITE_BUSY/LOCKED; cada uno ya espera busy_timeout en el BEGIN
+    private static final int INTENTOS_TRANSACCION = 3;
+
+    // Filas por sentencia en los INSERT de varias filas y en los IN de los lotes
+    private static final int FILAS_POR_SENTENCIA = 200;
+
+    /**
+     * Presta el primer ejemplar disponible del material.
+     *
+     * Comprobar que el usuario no tiene otro préstamo abierto, reclamar el
+     * ejemplar y crear el préstamo van en una sola transacción BEGIN IMMEDIATE,
+     * así que dos puestos que prestan a la vez nunca se llevan la misma copia
+     * ni dejan al mismo usuario con dos préstamos. Si la base sigue ocupada
+     * tras busy_timeout se reintenta.
+     */
     @Override
-    public boolean insertar(Prestamo prestamo) {
-        Connection conn = null;
-        PreparedStatement psInsert = null;
-        PreparedStatement psUpdateEjemplar = null;
+    public ResultadoPrestamo insertar(Prestamo prestamo) {
+        Persona persona = prestamo.getPersona();
+        MaterialBibliografico material = prestamo.getMaterial();
+
+        if (!"USUARIO".equals(persona.getRol())) {
+            System.err.println("Error: Solo los usuarios pueden registrar préstamos.");
+            return ResultadoPrestamo.NO_ES_USUARIO;
+        }
 
         try {
-            Persona persona = prestamo.getPersona();
-            MaterialBibliografico material = prestamo.getMaterial();
+            ResultadoPrestamo resultado = enTransaccion(conn -> prestarEjemplar(conn, prestamo));
+            if (!resultado.exito()) {
+                System.err.println(resultado.getMensaje());
+                return resultado;
+            }
+            BusEventos.publicar(new EventoDominio.PrestamoRegistrado(prestamo.getIdPrestamo(),
+                    persona.getId(), material.getId(), prestamo.getEjemplar().getId()));
+            return resultado;
 
-            if (!"USUARIO".equals(persona.getRol())) {
-                System.err.println("Error: Solo los usuarios pueden registrar préstamos.");
-                return false;
+        } catch (SQLException e) {
+            System.err.println("Error al insertar préstamo: " + e.getMessage());
+            return ResultadoPrestamo.ERROR;
+        }
+    }
+
+    /**
+     * Comprueba que el usuario no tenga otro préstamo abierto, reclama el
+     * ejemplar y crea el préstamo. Sin COMMIT: lo hace {@link #enTransaccion}.
+     */
+    private ResultadoPrestamo prestarEjemplar(Connection conn, Prestamo prestamo) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_PRESTAMO_ABIERTO)) {
+            ps.setInt(1, prestamo.getPersona().getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return ResultadoPrestamo.PRESTAMO_ABIERTO;
+                }
             }
+        }
 
-            Ejemplar ejemplarDisponible = ejemplarDAO.buscarPrimerDisponiblePorMaterial(material.getId());
-            if (ejemplarDisponible == null) {
-                System.err.println("No hay ejemplares disponibles del material.");
-                return false;
+        Ejemplar ejemplar;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_RECLAMAR_EJEMPLAR)) {
+            ps.setInt(1, prestamo.getMaterial().getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return ResultadoPrestamo.SIN_EJEMPLARES;
+                }
+                ejemplar = new Ejemplar(rs.getInt("id_ejemplar"), prestamo.getMaterial(),
+                        rs.getString("codigo_barra"), "Prestado");
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERTAR_PRESTAMO)) {
+            ps.setInt(1, prestamo.getPersona().getId());
+            ps.setInt(2, ejemplar.getId());
+            ps.setString(3, prestamo.getFechaPrestamo().toString());
+            ps.setString(4, prestamo.getFechaDevolucionEsperada().toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                prestamo.setIdPrestamo(rs.getInt(1));
             }
+        }
+        prestamo.setEjemplar(ejemplar);
+        prestamo.setEstado("Activo");
+        return ResultadoPrestamo.PRESTADO;
+    }
 
-            conn = Conexion.getConnection();
-            conn.setAutoCommit(false);
+    /**
+     * Cada préstamo reclama su ejemplar con la misma sentencia que
+     * {@link #insertar}; los préstamos se crean con INSERT de varias filas.
+     * Se mantiene la regla de un préstamo abierto por usuario: falla el
+     * elemento si la persona ya tiene uno activo o vencido (una consulta IN
+     * para todo el lote) o si ya se llevó otro ejemplar en este mismo lote.
+     * Los préstamos que salen bien quedan con id, ejemplar y estado.
+     */
+    @Override
+    public List<ResultadoLote> insertarLote(List<Prestamo> prestamos) {
+        LoteHecho hecho;
+        try {
+            hecho = enTransaccion(conn -> prestarLote(conn, prestamos));
+        } catch (SQLException e) {
+            System.err.println("Error al insertar lote de préstamos: " + e.getMessage());
+            return ResultadoLote.falloTodos(prestamos.size(), "Error al insertar préstamos: " + e.getMessage());
+        }
 
-            String sqlInsert = "INSERT INTO Prestamos " +
-                    "(id_persona, id_ejemplar, fecha_prestamo, fecha_devolucion_esperada, estado) " +
-                    "VALUES (?, ?, ?, ?, ?)";
+        for (int i = 0; i < prestamos.size(); i++) {
+            Ejemplar ejemplar = hecho.ejemplares()[i];
+            if (ejemplar != null) {
+                Prestamo p = prestamos.get(i);
+                p.setIdPrestamo(hecho.resultados().get(i).idPrestamo());
+                p.setEjemplar(ejemplar);
+                p.setEstado("Activo");
+            }
+        }
+        hecho.eventos().forEach(BusEventos::publicar);
+        return hecho.resultados();
+    }
 
-            psInsert = conn.prepareStatement(sqlInsert, Statement.RETURN_GENERATED_KEYS);
-            psInsert.setInt(1, persona.getId());
-            psInsert.setInt(2, ejemplarDisponible.getId());
-            psInsert.setString(3, prestamo.getFechaPrestamo().toString());
-            psInsert.setString(4, prestamo.getFechaDevolucionEsperada().toString());
-            psInsert.setString(5, "Activo");
-            psInsert.executeUpdate();
+    private LoteHecho prestarLote(Connection conn, List<Prestamo> prestamos) throws SQLException {
+        int n = prestamos.size();
+        ResultadoLote[] resultados = new ResultadoLote[n];
+        Ejemplar[] ejemplares = new Ejemplar[n];
+        List<Integer> reclamados = new ArrayList<>();
+        Set<Integer> conPrestamoAbierto = personasConPrestamoAbierto(conn, prestamos);
+        Set<Integer> personasDelLote = new HashSet<>();
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_RECLAMAR_EJEMPLAR)) {
+            for (int i = 0; i < n; i++) {
+                Prestamo p = prestamos.get(i);
+                int idPersona = p.getPersona().getId();
+                if (!"USUARIO".equals(p.getPersona().getRol())) {
+                    resultados[i] = ResultadoLote.fallo(0, "Solo los usuarios pueden registrar préstamos");
+                    continue;
+                }
+                if (personasDelLote.contains(idPersona)) {
+                    resultados[i] = ResultadoLote.fallo(0, "Usuario repetido en el lote");
+                    continue;
+                }
+                if (conPrestamoAbierto.contains(idPersona)) {
+                    resultados[i] = ResultadoLote.fallo(0, "El usuario ya tiene un préstamo activo");
+                    continue;
+                }
+                ps.setInt(1, p.getMaterial().getId());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        resultados[i] = ResultadoLote.fallo(0, "No hay ejemplares disponibles del material");
+                        continue;
+                    }
+                    ejemplares[i] = new Ejemplar(rs.getInt("id_ejemplar"), p.getMaterial(),
+                            rs.getString("codigo_barra"), "Prestado");
+                    reclamados.add(i);
+                    // Solo cuenta como préstamo del lote si se llevó el ejemplar
+                    personasDelLote.add(idPersona);
+                }
+            }
+        }
 
-            try (ResultSet keys = psInsert.getGeneratedKeys()) {
-                if (keys.next()) {
-                    prestamo.setIdPrestamo(keys.getInt(1));
+        // id_ejemplar -> id_prestamo (el orden de RETURNING no está garantizado)
+        Map<Integer, Integer> idPorEjemplar = new HashMap<>();
+        for (List<Integer> bloque : partir(reclamados)) {
+            String sql = "INSERT INTO Prestamos " +
+                    "(id_persona, id_ejemplar, fecha_prestamo, fecha_devolucion_esperada, estado) VALUES " +
+                    filas("(?, ?, ?, ?, 'Activo')", bloque.size()) +
+                    " RETURNING id_prestamo, id_ejemplar";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int k = 1;
+                for (int i : bloque) {
+                    Prestamo p = prestamos.get(i);
+                    ps.setInt(k++, p.getPersona().getId());
+                    ps.setInt(k++, ejemplares[i].getId());
+                    ps.setString(k++, p.getFechaPrestamo().toString());
+                    ps.setString(k++, p.getFechaDevolucionEsperada().toString());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        idPorEjemplar.put(rs.getInt("id_ejemplar"), rs.getInt("id_prestamo"));
+                    }
                 }
             }
+        }
 
-            String sqlUpdateEjemplar = "UPDATE Ejemplares SET estado = 'Prestado' " +
-                                       "WHERE id_ejemplar = ?";
-            psUpdateEjemplar = conn.prepareStatement(sqlUpdateEjemplar);
-            psUpdateEjemplar.setInt(1, ejemplarDisponible.getId());
-            psUpdateEjemplar.executeUpdate();
+        List<EventoDominio> eventos = new ArrayList<>();
+        for (int i : reclamados) {
+            Prestamo p = prestamos.get(i);
+            int idPrestamo = idPorEjemplar.get(ejemplares[i].getId());
+            resultados[i] = ResultadoLote.exito(idPrestamo, null);
+            eventos.add(new EventoDominio.PrestamoRegistrado(idPrestamo, p.getPersona().getId(),
+                    p.getMaterial().getId(), ejemplares[i].getId()));
+        }
+        return new LoteHecho(List.of(resultados), ejemplares, eventos);
+    }
 
-            conn.commit();
-            prestamo.setEjemplar(ejemplarDisponible);
-            return true;
+    /**
+     * Personas del lote que ya tienen un préstamo activo o vencido
+     * (idx_prestamos_persona_estado, una búsqueda por persona y estado).
+     */
+    private static Set<Integer> personasConPrestamoAbierto(Connection conn,
+                                                           List<Prestamo> prestamos) throws SQLException {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Prestamo p : prestamos) {
+            ids.add(p.getPersona().getId());
+        }
+        Set<Integer> conPrestamo = new HashSet<>();
+        for (List<Integer> bloque : partir(new ArrayList<>(ids))) {
+            String sql = "SELECT DISTINCT id_persona FROM Prestamos " +
+                    "WHERE estado IN ('Activo', 'Vencido') " +
+                    "AND id_persona IN (" + filas("?", bloque.size()) + ")";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (int k = 0; k < bloque.size(); k++) {
+                    ps.setInt(k + 1, bloque.get(k));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        conPrestamo.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+        return conPrestamo;
+    }
 
+    /**
+     * Lee los préstamos del lote en una consulta, devuelve con UPDATE en
+     * batch y crea las multas por retraso con INSERT de varias filas. Falla
+     * el elemento si el préstamo no existe, está repetido en el lote o ya no
+     * está activo ni vencido.
+     */
+    @Override
+    public List<ResultadoLote> registrarDevolucionLote(List<Integer> idsPrestamo, LocalDate fechaDevolucion,
+                                                       double tarifaPorDia) {
+        LoteHecho hecho;
+        try {
+            hecho = enTransaccion(conn -> devolverLote(conn, idsPrestamo, fechaDevolucion, tarifaPorDia));
         } catch (SQLException e) {
-            rollback(conn);
-            System.err.println("Error al insertar préstamo: " + e.getMessage());
+            System.err.println("Error al registrar lote de devoluciones: " + e.getMessage());
+            String mensaje = "Error al registrar devoluciones: " + e.getMessage();
+            return idsPrestamo.stream().map(id -> ResultadoLote.fallo(id, mensaje)).toList();
+        }
+        hecho.eventos().forEach(BusEventos::publicar);
+        return hecho.resultados();
+    }
+
+    private record PrestamoADevolver(int idPersona, int idEjemplar, int idMaterial,
+                                     String estado, LocalDate fechaEsperada) {}
+
+    private LoteHecho devolverLote(Connection conn, List<Integer> idsPrestamo, LocalDate fechaDevolucion,
+                                   double tarifaPorDia) throws SQLException {
+        Map<Integer, PrestamoADevolver> leidos = new HashMap<>();
+        for (List<Integer> bloque : partir(new ArrayList<>(new LinkedHashSet<>(idsPrestamo)))) {
+            String sql = "SELECT pr.id_prestamo, pr.id_persona, pr.id_ejemplar, e.id_material, pr.estado, " +
+                    "pr.fecha_devolucion_esperada FROM Prestamos pr " +
+                    "LEFT JOIN Ejemplares e ON e.id_ejemplar = pr.id_ejemplar " +
+                    "WHERE pr.id_prestamo IN (" + filas("?", bloque.size()) + ")";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (int k = 0; k < bloque.size(); k++) {
+                    ps.setInt(k + 1, bloque.get(k));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String fe = rs.getString("fecha_devolucion_esperada");
+                        leidos.put(rs.getInt("id_prestamo"), new PrestamoADevolver(
+                                rs.getInt("id_persona"), rs.getInt("id_ejemplar"), rs.getInt("id_material"),
+                                rs.getString("estado"),
+                                fe != null && !fe.isEmpty() ? LocalDate.parse(fe) : null));
+                    }
+                }
+            }
+        }
+
+        int n = idsPrestamo.size();
+        ResultadoLote[] resultados = new ResultadoLote[n];
+        List<Integer> validos = new ArrayList<>();
+        Set<Integer> vistos = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            int id = idsPrestamo.get(i);
+            PrestamoADevolver p = leidos.get(id);
+            if (p == null) {
+                resultados[i] = ResultadoLote.fallo(id, "Préstamo no encontrado");
+            } else if (!vistos.add(id)) {
+                resultados[i] = ResultadoLote.fallo(id, "Préstamo repetido en el lote");
+            } else if (!"Activo".equals(p.estado()) && !"Vencido".equals(p.estado())) {
+                resultados[i] = ResultadoLote.fallo(id, "El préstamo ya está " + p.estado());
+            } else {
+                validos.add(i);
+            }
+        }
+
+        String fecha = fechaDevolucion != null ? fechaDevolucion.toString() : null;
+        try (PreparedStatement psPrestamo = conn.prepareStatement(
+                 "UPDATE Prestamos SET fecha_devolucion_real = ?, estado = 'Devuelto' WHERE id_prestamo = ?");
+             PreparedStatement psEjemplar = conn.prepareStatement(
+                 "UPDATE Ejemplares SET estado = 'Disponible' WHERE id_ejemplar = ?")) {
+            for (int i : validos) {
+                psPrestamo.setString(1, fecha);
+                psPrestamo.setInt(2, idsPrestamo.get(i));
+                psPrestamo.addBatch();
+                psEjemplar.setInt(1, leidos.get(idsPrestamo.get(i)).idEjemplar());
+                psEjemplar.addBatch();
+            }
+            psPrestamo.executeBatch();
+            psEjemplar.executeBatch();
+        }
+
+        // Multas por retraso, calculadas igual que en la devolución individual
+        Map<Integer, Multa> multas = new HashMap<>();
+        List<Integer> conRetraso = new ArrayList<>();
+        for (int i : validos) {
+            int id = idsPrestamo.get(i);
+            PrestamoADevolver p = leidos.get(id);
+            if (p.fechaEsperada() != null && fechaDevolucion != null && fechaDevolucion.isAfter(p.fechaEsperada())) {
+                long dias = ChronoUnit.DAYS.between(p.fechaEsperada(), fechaDevolucion);
+                double monto = dias * tarifaPorDia;
+                if (monto > 0) {
+                    multas.put(id, new Multa(id, p.idPersona(), "Retraso", monto,
+                            "Devolución tardía (" + dias + " días de retraso)"));
+                    conRetraso.add(id);
+                }
+            }
+        }
+        for (List<Integer> bloque : partir(conRetraso)) {
+            String sql = "INSERT INTO Multas " +
+                    "(id_prestamo, id_persona, tipo_multa, monto, fecha_multa, pagada, observacion) VALUES " +
+                    filas("(?, ?, ?, ?, date('now'), 0, ?)", bloque.size()) +
+                    " RETURNING id_multa, id_prestamo";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int k = 1;
+                for (int id : bloque) {
+                    Multa m = multas.get(id);
+                    ps.setInt(k++, m.getIdPrestamo());
+                    ps.setInt(k++, m.getIdPersona());
+                    ps.setString(k++, m.getTipoMulta());
+                    ps.setDouble(k++, m.getMonto());
+                    ps.setString(k++, m.getObservacion());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        multas.get(rs.getInt("id_prestamo")).setIdMulta(rs.getInt("id_multa"));
+                    }
+                }
+            }
+        }
+
+        List<EventoDominio> eventos = new ArrayList<>();
+        for (int i : validos) {
+            int id = idsPrestamo.get(i);
+            PrestamoADevolver p = leidos.get(id);
+            Multa multa = multas.get(id);
+            resultados[i] = ResultadoLote.exito(id, multa);
+            eventos.add(new EventoDominio.PrestamoDevuelto(id, p.idMaterial(), p.idEjemplar()));
+            if (multa != null) {
+                eventos.add(new EventoDominio.MultaCreada(multa.getIdMulta(), id, multa.getIdPersona()));
+            }
+        }
+        return new LoteHecho(List.of(resultados), null, eventos);
+    }
+
+    /**
+     * El código se resuelve con EjemplarDAO (en memoria si es el decorador con
+     * caché); después, una transacción con dos o tres sentencias sobre claves
+     * indexadas. El préstamo resultante se lee ya confirmado, para la pantalla.
+     */
+    @Override
+    public ResultadoEscaneo circularPorCodigoBarra(String codigoBarra, Prestamo nuevo,
+                                                   LocalDate fechaDevolucion, double tarifaPorDia) {
+        if (codigoBarra == null || codigoBarra.isBlank()) {
+            return ResultadoEscaneo.fallo(ResultadoEscaneo.Accion.NINGUNA, "Código de barras vacío");
+        }
+        int idEjemplar = ejemplarDAO.buscarIdPorCodigoBarra(codigoBarra);
+        if (idEjemplar <= 0) {
+            return ResultadoEscaneo.fallo(ResultadoEscaneo.Accion.NINGUNA,
+                    "Código de barras no registrado: " + codigoBarra.trim());
+        }
+
+        Circulacion hecho;
+        try {
+            hecho = enTransaccion(conn -> circular(conn, idEjemplar, nuevo, fechaDevolucion, tarifaPorDia));
+        } catch (SQLException e) {
+            System.err.println("Error al procesar el código de barras: " + e.getMessage());
+            return ResultadoEscaneo.fallo(ResultadoEscaneo.Accion.NINGUNA,
+                    "Error al procesar el código de barras: " + e.getMessage());
+        }
+        hecho.lote().eventos().forEach(BusEventos::publicar);
+
+        ResultadoLote resultado = hecho.lote().resultados().get(0);
+        Prestamo prestamo = resultado.exito() ? buscarPorId(resultado.idPrestamo()) : null;
+        return new ResultadoEscaneo(hecho.accion(), resultado, prestamo);
+    }
+
+    private record Circulacion(ResultadoEscaneo.Accion accion, LoteHecho lote) {}
+
+    private Circulacion circular(Connection conn, int idEjemplar, Prestamo nuevo,
+                                 LocalDate fechaDevolucion, double tarifaPorDia) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id_prestamo FROM Prestamos " +
+                "WHERE id_ejemplar = ? AND estado IN ('Activo', 'Vencido') " +
+                "ORDER BY id_prestamo DESC LIMIT 1")) {
+            ps.setInt(1, idEjemplar);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Circulacion(ResultadoEscaneo.Accion.DEVOLUCION,
+                            devolverLote(conn, List.of(rs.getInt(1)), fechaDevolucion, tarifaPorDia));
+                }
+            }
+        }
+
+        ResultadoEscaneo.Accion accion = ResultadoEscaneo.Accion.PRESTAMO;
+        if (nuevo == null) {
+            return circulacionFallida(ResultadoEscaneo.Accion.NINGUNA,
+                    "El ejemplar no está prestado; seleccione un usuario para prestarlo");
+        }
+        if (!"USUARIO".equals(nuevo.getPersona().getRol())) {
+            return circulacionFallida(accion, "Solo los usuarios pueden registrar préstamos");
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_PRESTAMO_ABIERTO)) {
+            ps.setInt(1, nuevo.getPersona().getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return circulacionFallida(accion, "El usuario ya tiene un préstamo activo");
+                }
+            }
+        }
+
+        int idMaterial;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE Ejemplares SET estado = 'Prestado' " +
+                "WHERE id_ejemplar = ? AND estado = 'Disponible' RETURNING id_material")) {
+            ps.setInt(1, idEjemplar);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return circulacionFallida(accion, "El ejemplar no existe o no está disponible");
+                }
+                idMaterial = rs.getInt(1);
+            }
+        }
+
+        int idPrestamo;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERTAR_PRESTAMO)) {
+            ps.setInt(1, nuevo.getPersona().getId());
+            ps.setInt(2, idEjemplar);
+            ps.setString(3, nuevo.getFechaPrestamo().toString());
+            ps.setString(4, nuevo.getFechaDevolucionEsperada().toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                idPrestamo = rs.getInt(1);
+            }
+        }
+        return new Circulacion(accion, new LoteHecho(List.of(ResultadoLote.exito(idPrestamo, null)), null,
+                List.of(new EventoDominio.PrestamoRegistrado(idPrestamo, nuevo.getPersona().getId(),
+                        idMaterial, idEjemplar))));
+    }
+
+    private static Circulacion circulacionFallida(ResultadoEscaneo.Accion accion, String mensaje) {
+        return new Circulacion(accion, new LoteHecho(List.of(ResultadoLote.fallo(0, mensaje)), null, List.of()));
+    }
+
+    /** Lo que deja un lote confirmado: resultados y eventos a publicar tras el COMMIT. */
+    private record LoteHecho(List<ResultadoLote> resultados, Ejemplar[] ejemplares, List<EventoDominio> eventos) {}
+
+    @FunctionalInterface
+    private interface Transaccion<T> {
+        T ejecutar(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Ejecuta el trabajo en una transacción BEGIN IMMEDIATE y la confirma;
+     * ante SQLITE_BUSY/LOCKED la repite desde el principio. BEGIN explícito
+     * con autocommit activo: el pool solo deshace al devolver conexiones con
+     * autocommit desactivado, así que si no se llega al COMMIT se deshace aquí.
+     */
+    private static <T> T enTransaccion(Transaccion<T> trabajo) throws SQLException {
+        for (int intento = 1; ; intento++) {
+            Connection conn = Conexion.getConnection();
+            boolean confirmado = false;
+            try (conn) {
+                ejecutar(conn, "BEGIN IMMEDIATE");
+                try {
+                    T resultado = trabajo.ejecutar(conn);
+                    ejecutar(conn, "COMMIT");
+                    confirmado = true;
+                    return resultado;
+                } finally {
+                    if (!confirmado) {
+                        deshacer(conn);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!esContencion(e) || intento == INTENTOS_TRANSACCION || !esperarReintento(intento)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static List<List<Integer>> partir(List<Integer> valores) {
+        List<List<Integer>> bloques = new ArrayList<>();
+        for (int i = 0; i < valores.size(); i += FILAS_POR_SENTENCIA) {
+            bloques.add(valores.subList(i, Math.min(valores.size(), i + FILAS_POR_SENTENCIA)));
+        }
+        return bloques;
+    }
+
+    // "fila, fila, ..." n veces, para VALUES o IN
+    private static String filas(String fila, int n) {
+        StringBuilder sb = new StringBuilder(n * (fila.length() + 2));
+        for (int i = 0; i < n; i++) {
+            sb.append(i == 0 ? fila : ", " + fila);
+        }
+        return sb.toString();
+    }
+
+    private static void ejecutar(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void deshacer(Connection conn) {
+        try {
+            ejecutar(conn, "ROLLBACK");
+        } catch (SQLException ex) {
+            System.err.println("Error en rollback: " + ex.getMessage());
+        }
+    }
+
+    // SQLITE_BUSY (5) o SQLITE_LOCKED (6); el driver da el código primario
+    private static boolean esContencion(SQLException e) {
+        int codigo = e.getErrorCode() & 0xFF;
+        return codigo == 5 || codigo == 6;
+    }
+
+    /** Espera antes del siguiente intento; false si el hilo fue interrumpido. */
+    private static boolean esperarReintento(int intento) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50L << intento));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return false;
-        } finally {
-            closeResources(psInsert, psUpdateEjemplar, conn);
         }
     }
 
     @Override
     public Prestamo buscarPorId(int id) {
-        String sql = "SELECT * FROM Prestamos WHERE id_prestamo = ?";
+        String sql = SELECT_PRESTAMO + "WHERE pr.id_prestamo = ?";
         try (Connection conn = Conexion.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return mapearPrestamo(conn, rs);
+                List<Prestamo> encontrados = leerPrestamos(conn, rs);
+                if (!encontrados.isEmpty()) {
+                    return encontrados.get(0);
                 }
             }
         } catch (SQLException e) {
@@ -105,44 +648,169 @@ public class PrestamoDAOImpl implements PrestamoDAO {
 
     @Override
     public List<Prestamo> listarTodos() {
-        actualizarPrestamosVencidos(); // ✅ Actualizar antes de listar
         List<Prestamo> lista = new ArrayList<>();
-        String sql = "SELECT * FROM Prestamos ORDER BY fecha_prestamo DESC";
+        String sql = SELECT_PRESTAMO + "ORDER BY pr.fecha_prestamo DESC";
 
         try (Connection conn = Conexion.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                Prestamo prestamo = mapearPrestamo(conn, rs);
-                if (prestamo != null) {
-                    lista.add(prestamo);
+            lista.addAll(leerPrestamos(conn, rs));
+        } catch (SQLException e) {
+            System.err.println("Error al listar préstamos: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    @Override
+    public Pagina<Prestamo> listarPagina(ClavePagina desde, int tamano) {
+        List<Prestamo> lista = new ArrayList<>();
+        ClavePagina siguiente = null;
+        String sql = SELECT_PRESTAMO +
+                     (desde != null ? "WHERE " + ClavePagina.condicion(true, "pr.fecha_prestamo", "pr.id_prestamo") : "") +
+                     ClavePagina.orden(true, "pr.fecha_prestamo", "pr.id_prestamo") +
+                     "LIMIT ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int i = desde != null ? desde.enlazar(ps, 1) : 1;
+            ps.setInt(i, tamano + 1); // una fila de más para saber si hay otra página
+
+            List<PrestamoLeido> leidos = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                int leidas = 0;
+                while (rs.next()) {
+                    if (++leidas > tamano) {
+                        break;
+                    }
+                    // La clave sale de la fila, no del objeto, por si el préstamo se descarta
+                    siguiente = new ClavePagina(rs.getString("fecha_prestamo"), rs.getInt("id_prestamo"));
+                    PrestamoLeido leido = leerFila(rs);
+                    if (leido != null) {
+                        leidos.add(leido);
+                    }
+                }
+                if (leidas <= tamano) {
+                    siguiente = null;
                 }
             }
+            lista.addAll(completar(conn, leidos));
         } catch (SQLException e) {
-            System.err.println("Error al listar préstamos: " + e.getMessage());
+            System.err.println("Error al listar página de préstamos: " + e.getMessage());
+        }
+        return new Pagina<>(lista, siguiente);
+    }
+
+    @Override
+    public int contarTodos() {
+        return ejecutarConteo("SELECT COUNT(*) AS total FROM Prestamos");
+    }
+
+    @Override
+    public List<Prestamo> listarBloque(String estado, String texto, String orden, boolean descendente,
+                                       int desde, int tamano) {
+        List<Prestamo> lista = new ArrayList<>();
+        List<Object> parametros = new ArrayList<>();
+
+        String columna = orden != null ? ORDEN_BLOQUE.get(orden) : null;
+        if (columna == null) {
+            // Mismo orden que los listados completos
+            boolean porVencimiento = "ACTIVOS".equals(estado) || "VENCIDOS".equals(estado);
+            columna = porVencimiento ? "pr.fecha_devolucion_esperada" : "pr.fecha_prestamo";
+            descendente = !porVencimiento;
+        }
+        String sentido = descendente ? " DESC" : " ASC";
+
+        String sql = SELECT_PRESTAMO +
+                     condicionBloque(estado, texto, parametros) +
+                     "ORDER BY " + columna + sentido + ", pr.id_prestamo" + sentido + " " +
+                     "LIMIT ? OFFSET ?";
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            for (Object p : parametros) {
+                ps.setObject(i++, p);
+            }
+            ps.setInt(i++, tamano);
+            ps.setInt(i, desde);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                lista.addAll(leerPrestamos(conn, rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar bloque de préstamos: " + e.getMessage());
         }
         return lista;
     }
 
+    @Override
+    public int contarBloque(String estado, String texto) {
+        List<Object> parametros = new ArrayList<>();
+        String sql = "SELECT COUNT(*) AS total FROM Prestamos pr " +
+                     "LEFT JOIN Personas per ON per.id_persona = pr.id_persona " +
+                     "LEFT JOIN Ejemplares e ON e.id_ejemplar = pr.id_ejemplar " +
+                     "LEFT JOIN Materiales m ON m.id_material = e.id_material " +
+                     condicionBloque(estado, texto, parametros);
+
+        try (Connection conn = Conexion.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < parametros.size(); i++) {
+                ps.setObject(i + 1, parametros.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return rs.getInt("total");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar bloque de préstamos: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * WHERE común a listarBloque y contarBloque, para que el total y las filas
+     * coincidan. Deja fuera los préstamos con referencias rotas, que
+     * leerFila también descarta.
+     */
+    private String condicionBloque(String estado, String texto, List<Object> parametros) {
+        StringBuilder sb = new StringBuilder(
+            "WHERE per.id_persona IS NOT NULL AND e.id_ejemplar IS NOT NULL AND m.id_material IS NOT NULL ");
+
+        switch (estado != null ? estado : "TODOS") {
+            case "ACTIVOS" -> sb.append("AND ").append(FILTRO_ACTIVOS);
+            case "VENCIDOS" -> sb.append("AND ").append(FILTRO_VENCIDOS);
+            case "PERDIDOS" -> sb.append("AND pr.estado = 'Perdido' ");
+            default -> { }
+        }
+
+        if (texto != null && !texto.isBlank()) {
+            sb.append("AND (per.nombre || ' ' || per.apellido LIKE ? " +
+                      "     OR m.titulo LIKE ? " +
+                      "     OR CASE m.tipo_material WHEN 'L' THEN 'LIBRO' WHEN 'R' THEN 'REVISTA' " +
+                      "                             WHEN 'T' THEN 'TESIS' END LIKE ?) ");
+            String patron = "%" + texto.trim() + "%";
+            parametros.add(patron);
+            parametros.add(patron);
+            parametros.add(patron);
+        }
+        return sb.toString();
+    }
+
     @Override
     public List<Prestamo> listarActivos() {
-        actualizarPrestamosVencidos(); // ✅ Actualizar antes de listar
         List<Prestamo> lista = new ArrayList<>();
-        String sql = "SELECT * FROM Prestamos " +
-                     "WHERE estado = 'Activo' " +
-                     "ORDER BY fecha_devolucion_esperada ASC";
+        String sql = SELECT_PRESTAMO +
+                     "WHERE " + FILTRO_ACTIVOS +
+                     "ORDER BY pr.fecha_devolucion_esperada ASC";
 
         try (Connection conn = Conexion.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                Prestamo prestamo = mapearPrestamo(conn, rs);
-                if (prestamo != null) {
-                    lista.add(prestamo);
-                }
-            }
+            lista.addAll(leerPrestamos(conn, rs));
         } catch (SQLException e) {
             System.err.println("Error al listar préstamos activos: " + e.getMessage());
         }
@@ -151,23 +819,17 @@ public class PrestamoDAOImpl implements PrestamoDAO {
 
     @Override
     public List<Prestamo> listarPorPersona(int idPersona) {
-        actualizarPrestamosVencidos(); // ✅ Actualizar antes de listar
         List<Prestamo> lista = new ArrayList<>();
-        String sql = "SELECT * FROM Prestamos " +
-                     "WHERE id_persona = ? " +
-                     "ORDER BY fecha_prestamo DESC";
+        String sql = SELECT_PRESTAMO +
+                     "WHERE pr.id_persona = ? " +
+                     "ORDER BY pr.fecha_prestamo DESC";
 
         try (Connection conn = Conexion.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, idPersona);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Prestamo prestamo = mapearPrestamo(conn, rs);
-                    if (prestamo != null) {
-                        lista.add(prestamo);
-                    }
-                }
+                lista.addAll(leerPrestamos(conn, rs));
             }
         } catch (SQLException e) {
             System.err.println("Error al listar préstamos por persona: " + e.getMessage());
@@ -177,15 +839,10 @@ public class PrestamoDAOImpl implements PrestamoDAO {
 
     @Override
     public List<Prestamo> listarPorTexto(String texto) {
-        actualizarPrestamosVencidos(); // ✅ Actualizar antes de listar
         List<Prestamo> lista = new ArrayList<>();
 
         String sql =
-            "SELECT pr.* " +
-            "FROM Prestamos pr " +
-            "INNER JOIN Personas per ON pr.id_persona = per.id_persona " +
-            "INNER JOIN Ejemplares e ON pr.id_ejemplar = e.id_ejemplar " +
-            "INNER JOIN Materiales m ON e.id_material = m.id_material " +
+            SELECT_PRESTAMO +
             "WHERE (per.nombre || ' ' || per.apellido LIKE ? " +
             "   OR m.titulo LIKE ?) " +
             "ORDER BY pr.fecha_prestamo DESC";
@@ -198,12 +855,7 @@ public class PrestamoDAOImpl implements PrestamoDAO {
             ps.setString(2, patron);
 
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Prestamo prestamo = mapearPrestamo(conn, rs);
-                    if (prestamo != null) {
-                        lista.add(prestamo);
-                    }
-                }
+                lista.addAll(leerPrestamos(conn, rs));
             }
         } catch (SQLException e) {
             System.err.println("Error al listar préstamos por texto: " + e.getMessage());
@@ -214,20 +866,16 @@ public class PrestamoDAOImpl implements PrestamoDAO {
 
     @Override
     public List<Prestamo> listarVencidos() {
-        actualizarPrestamosVencidos(); // ✅ Actualizar antes de listar
         List<Prestamo> lista = new ArrayList<>();
-        String sql = "SELECT * FROM Prestamos WHERE estado = 'Vencido' ORDER BY fecha_devolucion_esperada ASC";
+        String sql = SELECT_PRESTAMO +
+                     "WHERE " + FILTRO_VENCIDOS +
+                     "ORDER BY pr.fecha_devolucion_esperada ASC";
 
         try (Connection conn = Conexion.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                Prestamo prestamo = mapearPrestamo(conn, rs);
-                if (prestamo != null) {
-                    lista.add(prestamo);
-                }
-            }
+            lista.addAll(leerPrestamos(conn, rs));
         } catch (SQLException e) {
             System.err.println("Error al listar préstamos vencidos: " + e.getMessage());
         }
@@ -236,132 +884,104 @@ public class PrestamoDAOImpl implements PrestamoDAO {
     
     @Override
     public List<Prestamo> listarPerdidos() {
-        actualizarPrestamosVencidos(); 
         List<Prestamo> lista = new ArrayList<>();
-        String sql = "SELECT * FROM Prestamos " +
-                     "WHERE estado = 'Perdido' " +
-                     "ORDER BY fecha_prestamo DESC";
+        String sql = SELECT_PRESTAMO +
+                     "WHERE pr.estado = 'Perdido' " +
+                     "ORDER BY pr.fecha_prestamo DESC";
 
         try (Connection conn = Conexion.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                Prestamo prestamo = mapearPrestamo(conn, rs);
-                if (prestamo != null) {
-                    lista.add(prestamo);
-                }
-            }
+            lista.addAll(leerPrestamos(conn, rs));
         } catch (SQLException e) {
             System.err.println("Error al listar préstamos perdidos: " + e.getMessage());
         }
         return lista;
     }
 
+    // Cierra el préstamo solo si sigue abierto: de dos devoluciones (o pérdidas)
+    // simultáneas del mismo préstamo, la segunda no toca filas
+    private static final String SQL_CERRAR_PRESTAMO =
+        "UPDATE Prestamos SET fecha_devolucion_real = ?, estado = ? " +
+        "WHERE id_prestamo = ? AND estado IN ('Activo', 'Vencido') RETURNING id_ejemplar";
+
+    private record PrestamoCerrado(int idEjemplar, int idMaterial) {}
+
     @Override
     public boolean registrarDevolucion(int idPrestamo, LocalDate fechaDevolucion) {
-        Connection conn = null;
-        PreparedStatement psSel = null;
-        PreparedStatement psUpdPrestamo = null;
-        PreparedStatement psUpdEjemplar = null;
-
         try {
-            conn = Conexion.getConnection();
-            conn.setAutoCommit(false);
-
-            String sqlSel = "SELECT id_ejemplar FROM Prestamos WHERE id_prestamo = ?";
-            psSel = conn.prepareStatement(sqlSel);
-            psSel.setInt(1, idPrestamo);
-            ResultSet rs = psSel.executeQuery();
-
-            if (!rs.next()) {
-                rollback(conn);
-                System.err.println("Préstamo no encontrado");
+            PrestamoCerrado cerrado = enTransaccion(conn ->
+                    cerrarPrestamo(conn, idPrestamo, fechaDevolucion, "Devuelto", "Disponible"));
+            if (cerrado == null) {
+                System.err.println("Préstamo no encontrado o ya no está activo ni vencido");
                 return false;
             }
-            int idEjemplar = rs.getInt("id_ejemplar");
-
-            String sqlUpdPrestamo = "UPDATE Prestamos " +
-                    "SET fecha_devolucion_real = ?, estado = 'Devuelto' " +
-                    "WHERE id_prestamo = ?";
-            psUpdPrestamo = conn.prepareStatement(sqlUpdPrestamo);
-            psUpdPrestamo.setString(1, fechaDevolucion != null ? fechaDevolucion.toString() : null);
-            psUpdPrestamo.setInt(2, idPrestamo);
-            psUpdPrestamo.executeUpdate();
-
-            String sqlUpdEjemplar = "UPDATE Ejemplares " +
-                    "SET estado = 'Disponible' " +
-                    "WHERE id_ejemplar = ?";
-            psUpdEjemplar = conn.prepareStatement(sqlUpdEjemplar);
-            psUpdEjemplar.setInt(1, idEjemplar);
-            psUpdEjemplar.executeUpdate();
-
-            conn.commit();
+            BusEventos.publicar(new EventoDominio.PrestamoDevuelto(idPrestamo,
+                    cerrado.idMaterial(), cerrado.idEjemplar()));
             return true;
 
         } catch (SQLException e) {
-            rollback(conn);
             System.err.println("Error al registrar devolución: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(psSel, psUpdPrestamo, psUpdEjemplar, conn);
         }
     }
 
     @Override
     public boolean marcarComoPerdido(int idPrestamo, LocalDate fechaReporte) {
-        Connection conn = null;
-        PreparedStatement psSel = null;
-        PreparedStatement psUpdPrestamo = null;
-        PreparedStatement psUpdEjemplar = null;
-
         try {
-            conn = Conexion.getConnection();
-            conn.setAutoCommit(false);
-
-            String sqlSel = "SELECT id_ejemplar FROM Prestamos WHERE id_prestamo = ?";
-            psSel = conn.prepareStatement(sqlSel);
-            psSel.setInt(1, idPrestamo);
-            ResultSet rs = psSel.executeQuery();
-
-            if (!rs.next()) {
-                rollback(conn);
-                System.err.println("Préstamo no encontrado");
+            PrestamoCerrado cerrado = enTransaccion(conn ->
+                    cerrarPrestamo(conn, idPrestamo, fechaReporte, "Perdido", "Perdido"));
+            if (cerrado == null) {
+                System.err.println("Préstamo no encontrado o ya no está activo ni vencido");
                 return false;
             }
-            int idEjemplar = rs.getInt("id_ejemplar");
-
-            String sqlUpdPrestamo = "UPDATE Prestamos " +
-                    "SET fecha_devolucion_real = ?, estado = 'Perdido' " +
-                    "WHERE id_prestamo = ?";
-            psUpdPrestamo = conn.prepareStatement(sqlUpdPrestamo);
-            psUpdPrestamo.setString(1, fechaReporte != null ? fechaReporte.toString() : null);
-            psUpdPrestamo.setInt(2, idPrestamo);
-            psUpdPrestamo.executeUpdate();
-
-            String sqlUpdEjemplar = "UPDATE Ejemplares " +
-                    "SET estado = 'Perdido' " +
-                    "WHERE id_ejemplar = ?";
-            psUpdEjemplar = conn.prepareStatement(sqlUpdEjemplar);
-            psUpdEjemplar.setInt(1, idEjemplar);
-            psUpdEjemplar.executeUpdate();
-
-            conn.commit();
+            BusEventos.publicar(new EventoDominio.PrestamoPerdido(idPrestamo,
+                    cerrado.idMaterial(), cerrado.idEjemplar()));
             return true;
 
         } catch (SQLException e) {
-            rollback(conn);
             System.err.println("Error al marcar préstamo como perdido: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(psSel, psUpdPrestamo, psUpdEjemplar, conn);
         }
     }
 
+    /**
+     * Pasa el préstamo abierto al estado final y su ejemplar al estado
+     * indicado. Null si el préstamo no existe o ya estaba cerrado.
+     */
+    private PrestamoCerrado cerrarPrestamo(Connection conn, int idPrestamo, LocalDate fecha,
+                                           String estadoPrestamo, String estadoEjemplar) throws SQLException {
+        int idEjemplar;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_CERRAR_PRESTAMO)) {
+            ps.setString(1, fecha != null ? fecha.toString() : null);
+            ps.setString(2, estadoPrestamo);
+            ps.setInt(3, idPrestamo);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                idEjemplar = rs.getInt(1);
+            }
+        }
+
+        int idMaterial = 0;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE Ejemplares SET estado = ? WHERE id_ejemplar = ? RETURNING id_material")) {
+            ps.setString(1, estadoEjemplar);
+            ps.setInt(2, idEjemplar);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    idMaterial = rs.getInt(1);
+                }
+            }
+        }
+        return new PrestamoCerrado(idEjemplar, idMaterial);
+    }
+
     @Override
     public int contarPrestamosActivos() {
-        actualizarPrestamosVencidos(); 
-        return contarPorEstado("Activo");
+        return ejecutarConteo("SELECT COUNT(*) AS total FROM Prestamos pr WHERE " + FILTRO_ACTIVOS);
     }
 
     @Override
@@ -376,8 +996,7 @@ public class PrestamoDAOImpl implements PrestamoDAO {
 
     @Override
     public int contarPrestamosVencidos() {
-        actualizarPrestamosVencidos(); 
-        return contarPorEstado("Vencido"); 
+        return ejecutarConteo("SELECT COUNT(*) AS total FROM Prestamos pr WHERE " + FILTRO_VENCIDOS);
     }
 
     @Override
@@ -448,10 +1067,12 @@ public class PrestamoDAOImpl implements PrestamoDAO {
     }
     
     /**
-     * Actualiza automáticamente los préstamos activos que ya pasaron su fecha de devolución
-     * cambiándolos a estado 'Vencido'
+     * Actualiza los préstamos activos que ya pasaron su fecha de devolución
+     * cambiándolos a estado 'Vencido'. Las lecturas ya no lo llaman: lo ejecuta
+     * TareaVencimientos al arrancar y cada medianoche.
      */
-    private void actualizarPrestamosVencidos() {
+    @Override
+    public int actualizarPrestamosVencidos() {
         String sql = "UPDATE Prestamos " +
                      "SET estado = 'Vencido' " +
                      "WHERE estado = 'Activo' " +
@@ -464,10 +1085,12 @@ public class PrestamoDAOImpl implements PrestamoDAO {
             if (filasActualizadas > 0) {
                 System.out.println(filasActualizadas + " préstamo(s) marcado(s) como vencido(s)");
             }
+            return filasActualizadas;
 
         } catch (SQLException e) {
             System.err.println("Error al actualizar préstamos vencidos: " + e.getMessage());
         }
+        return 0;
     }
 
     private int contarPorEstado(String estado) {
@@ -500,31 +1123,37 @@ public class PrestamoDAOImpl implements PrestamoDAO {
         return 0;
     }
 
-    private Prestamo mapearPrestamo(Connection conn, ResultSet rs) throws SQLException {
-        int idPrestamo = rs.getInt("id_prestamo");
-        int idPersona = rs.getInt("id_persona");
-        int idEjemplar = rs.getInt("id_ejemplar");
-
-        Persona persona = personaDAO.buscarPorId(idPersona);
-        Ejemplar ejemplar = ejemplarDAO.buscarPorId(idEjemplar);
-
-        MaterialBibliografico material = null;
-        if (ejemplar != null && ejemplar.getMaterial() != null) {
-            material = materialDAO.buscarPorId(ejemplar.getMaterial().getId());
-        } else if (ejemplar != null) {
-            material = materialDAO.buscarPorId(rs.getInt("id_ejemplar"));
+    /**
+     * Préstamo leído a falta del material, que se construye para todo el
+     * listado a la vez en {@link #completar}.
+     */
+    private record PrestamoLeido(Prestamo prestamo, HidratadorMateriales.FilaMaterial material,
+                                 int idEjemplar, String codigoBarra, String estadoEjemplar) {}
+
+    private List<Prestamo> leerPrestamos(Connection conn, ResultSet rs) throws SQLException {
+        List<PrestamoLeido> leidos = new ArrayList<>();
+        while (rs.next()) {
+            PrestamoLeido leido = leerFila(rs);
+            if (leido != null) {
+                leidos.add(leido);
+            }
         }
+        return completar(conn, leidos);
+    }
 
-        if (persona == null || ejemplar == null || material == null) {
+    private PrestamoLeido leerFila(ResultSet rs) throws SQLException {
+        int idPrestamo = rs.getInt("id_prestamo");
+
+        if (rs.getObject("persona_existe") == null
+                || rs.getObject("ejemplar_existe") == null
+                || rs.getObject("id_material") == null) {
             System.err.println("Advertencia: Préstamo con referencias inválidas (ID: " + idPrestamo + ")");
             return null;
         }
 
         Prestamo prestamo = new Prestamo();
         prestamo.setIdPrestamo(idPrestamo);
-        prestamo.setPersona(persona);
-        prestamo.setEjemplar(ejemplar);
-        prestamo.setMaterial(material);
+        prestamo.setPersona(PersonaDAOImpl.mapearPersona(rs));
 
         String fpStr = rs.getString("fecha_prestamo");
         String feStr = rs.getString("fecha_devolucion_esperada");
@@ -541,31 +1170,41 @@ public class PrestamoDAOImpl implements PrestamoDAO {
         );
 
         prestamo.setEstado(rs.getString("estado"));
-        return prestamo;
-    }
 
-    private void rollback(Connection conn) {
-        if (conn != null) {
-            try {
-                conn.rollback();
-            } catch (SQLException ex) {
-                System.err.println("Error en rollback: " + ex.getMessage());
-            }
+        int multasPagadas = rs.getInt("multas_pagadas");
+        if (!rs.wasNull()) {
+            prestamo.setMultasPendientes(multasPagadas == 0);
+            prestamo.setMultasPagadas(multasPagadas == 1);
         }
+        return new PrestamoLeido(prestamo, new HidratadorMateriales.FilaMaterial(rs),
+                                 rs.getInt("id_ejemplar"), rs.getString("codigo_barra"),
+                                 rs.getString("estado_ejemplar"));
     }
 
-    private void closeResources(AutoCloseable... resources) {
-        for (AutoCloseable r : resources) {
-            if (r != null) {
-                try {
-                    r.close();
-                } catch (Exception e) {
-                    System.err.println("Error al cerrar recurso: " + e.getMessage());
-                }
+    /**
+     * Construye los materiales de todos los préstamos leídos (3 consultas en
+     * total) y descarta los que apuntan a un material incompleto.
+     */
+    private List<Prestamo> completar(Connection conn, List<PrestamoLeido> leidos) throws SQLException {
+        List<HidratadorMateriales.FilaMaterial> filas = new ArrayList<>(leidos.size());
+        for (PrestamoLeido l : leidos) {
+            filas.add(l.material());
+        }
+        Map<Integer, MaterialBibliografico> materiales = HidratadorMateriales.construirPorId(conn, filas);
+
+        List<Prestamo> lista = new ArrayList<>(leidos.size());
+        for (PrestamoLeido l : leidos) {
+            Prestamo prestamo = l.prestamo();
+            MaterialBibliografico material = materiales.get(l.material().id);
+            if (material == null) {
+                System.err.println("Advertencia: Préstamo con referencias inválidas (ID: "
+                                   + prestamo.getIdPrestamo() + ")");
+                continue;
             }
+            prestamo.setMaterial(material);
+            prestamo.setEjemplar(new Ejemplar(l.idEjemplar(), material, l.codigoBarra(), l.estadoEjemplar()));
+            lista.add(prestamo);
         }
+        return lista;
     }
 }
-
-
-
@@ -0,0 +1,23 @@
+package biblioteca.dao;
+
+import biblioteca.model.Prestamo;
+
+/**
+ * Resultado de un escaneo en el mostrador ({@link PrestamoDAO#circularPorCodigoBarra}).
+ *
+ * @param accion lo que se hizo (o se intentó) con el ejemplar escaneado
+ * @param resultado éxito, motivo del fallo y multa por retraso de la devolución
+ * @param prestamo préstamo creado o devuelto, leído tras confirmar; null si falló
+ */
+public record ResultadoEscaneo(Accion accion, ResultadoLote resultado, Prestamo prestamo) {
+
+    public enum Accion { PRESTAMO, DEVOLUCION, NINGUNA }
+
+    public boolean exito() {
+        return resultado.exito();
+    }
+
+    static ResultadoEscaneo fallo(Accion accion, String mensaje) {
+        return new ResultadoEscaneo(accion, ResultadoLote.fallo(0, mensaje), null);
+    }
+}
@@ -0,0 +1,29 @@
+package biblioteca.dao;
+
+import biblioteca.model.Multa;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de un elemento de una operación por lotes de PrestamoDAO; la
+ * lista de resultados va en el mismo orden que la entrada.
+ *
+ * @param idPrestamo préstamo creado o devuelto (0 si no se llegó a crear)
+ * @param mensaje motivo del fallo, o null si salió bien
+ * @param multa multa por retraso generada en la devolución, o null
+ */
+public record ResultadoLote(int idPrestamo, boolean exito, String mensaje, Multa multa) {
+
+    static ResultadoLote exito(int idPrestamo, Multa multa) {
+        return new ResultadoLote(idPrestamo, true, null, multa);
+    }
+
+    static ResultadoLote fallo(int idPrestamo, String mensaje) {
+        return new ResultadoLote(idPrestamo, false, mensaje, null);
+    }
+
+    // El lote de préstamos se deshizo entero (error de BD): todos fallan igual
+    static List<ResultadoLote> falloTodos(int n, String mensaje) {
+        return Collections.nCopies(n, fallo(0, mensaje));
+    }
+}
@@ -0,0 +1,29 @@
+package biblioteca.dao;
+
+/**
+ * Resultado de PrestamoDAO.insertar: distingue por qué no se creó el
+ * préstamo, ya que las comprobaciones se repiten dentro de la transacción.
+ */
+public enum ResultadoPrestamo {
+
+    PRESTADO(null),
+    NO_ES_USUARIO("Solo los usuarios pueden registrar préstamos"),
+    PRESTAMO_ABIERTO("El usuario ya tiene un préstamo activo"),
+    SIN_EJEMPLARES("No hay ejemplares disponibles del material"),
+    ERROR("Error al registrar el préstamo");
+
+    private final String mensaje;
+
+    ResultadoPrestamo(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public boolean exito() {
+        return this == PRESTADO;
+    }
+
+    // Motivo del fallo, o null si salió bien
+    public String getMensaje() {
+        return mensaje;
+    }
+}
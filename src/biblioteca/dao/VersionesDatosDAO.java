@@ -0,0 +1,12 @@
+package biblioteca.dao;
+
+import java.util.Map;
+
+public interface VersionesDatosDAO {
+
+    /**
+     * Versión actual de cada tabla vigilada (migración V006). Mapa vacío si
+     * no se pudo leer: quien lo use debe tratarlo como "todo cambió".
+     */
+    Map<String, Long> obtenerVersiones();
+}
@@ -0,0 +1,31 @@
+package biblioteca.dao;
+
+import biblioteca.config.Conexion;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lee Versiones_Datos, que mantienen los triggers de la migración V006. Son
+ * unas pocas filas: la consulta cuesta lo mismo con cualquier volumen.
+ */
+public class VersionesDatosDAOImpl implements VersionesDatosDAO {
+
+    @Override
+    public Map<String, Long> obtenerVersiones() {
+        Map<String, Long> versiones = new HashMap<>();
+
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT tabla, version FROM Versiones_Datos")) {
+
+            while (rs.next()) {
+                versiones.put(rs.getString("tabla"), rs.getLong("version"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al leer versiones de datos: " + e.getMessage());
+            return Map.of();
+        }
+        return versiones;
+    }
+}
@@ -0,0 +1,89 @@
+package biblioteca.model;
+
+/**
+ * Correo en la bandeja de salida (tabla Bandeja_Salida). Se guarda antes de
+ * enviarse y el despachador lo va actualizando con el resultado.
+ */
+public class CorreoSaliente {
+
+    public static final String PENDIENTE = "Pendiente";
+    public static final String ENVIADO = "Enviado";
+    public static final String FALLIDO = "Fallido";   // agotó los reintentos
+
+    private int idCorreo;
+    private String destinatario;
+    private String nombreDestinatario;
+    private String asunto;
+    private String cuerpo;
+    private byte[] adjunto;           // PDF o null
+    private String nombreAdjunto;
+    private String estado;            // 'Pendiente','Enviado','Fallido'
+    private int intentos;
+    private String proximoIntento;    // TEXT 'YYYY-MM-DD HH:MM:SS'
+    private String ultimoError;
+    private String fechaCreacion;     // TEXT 'YYYY-MM-DD HH:MM:SS'
+    private String fechaEnvio;        // TEXT 'YYYY-MM-DD HH:MM:SS' o null
+
+    public CorreoSaliente() {
+    }
+
+    public CorreoSaliente(String destinatario, String nombreDestinatario, String asunto, String cuerpo,
+                          byte[] adjunto, String nombreAdjunto) {
+        this.destinatario = destinatario;
+        this.nombreDestinatario = nombreDestinatario;
+        this.asunto = asunto;
+        this.cuerpo = cuerpo;
+        this.adjunto = adjunto;
+        this.nombreAdjunto = nombreAdjunto;
+        this.estado = PENDIENTE;
+    }
+
+    public int getIdCorreo() { return idCorreo; }
+    public void setIdCorreo(int idCorreo) { this.idCorreo = idCorreo; }
+
+    public String getDestinatario() { return destinatario; }
+    public void setDestinatario(String destinatario) { this.destinatario = destinatario; }
+
+    public String getNombreDestinatario() { return nombreDestinatario; }
+    public void setNombreDestinatario(String nombreDestinatario) { this.nombreDestinatario = nombreDestinatario; }
+
+    public String getAsunto() { return asunto; }
+    public void setAsunto(String asunto) { this.asunto = asunto; }
+
+    public String getCuerpo() { return cuerpo; }
+    public void setCuerpo(String cuerpo) { this.cuerpo = cuerpo; }
+
+    public byte[] getAdjunto() { return adjunto; }
+    public void setAdjunto(byte[] adjunto) { this.adjunto = adjunto; }
+
+    public String getNombreAdjunto() { return nombreAdjunto; }
+    public void setNombreAdjunto(String nombreAdjunto) { this.nombreAdjunto = nombreAdjunto; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public int getIntentos() { return intentos; }
+    public void setIntentos(int intentos) { this.intentos = intentos; }
+
+    public String getProximoIntento() { return proximoIntento; }
+    public void setProximoIntento(String proximoIntento) { this.proximoIntento = proximoIntento; }
+
+    public String getUltimoError() { return ultimoError; }
+    public void setUltimoError(String ultimoError) { this.ultimoError = ultimoError; }
+
+    public String getFechaCreacion() { return fechaCreacion; }
+    public void setFechaCreacion(String fechaCreacion) { this.fechaCreacion = fechaCreacion; }
+
+    public String getFechaEnvio() { return fechaEnvio; }
+    public void setFechaEnvio(String fechaEnvio) { this.fechaEnvio = fechaEnvio; }
+
+    @Override
+    public String toString() {
+        return "CorreoSaliente{" +
+                "id=" + idCorreo +
+                ", destinatario='" + destinatario + '\'' +
+                ", estado='" + estado + '\'' +
+                ", intentos=" + intentos +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+package biblioteca.model;
+
+/**
+ * Cambio ya confirmado en la base de datos, publicado por los DAO en
+ * {@link biblioteca.dao.BusEventos}. Lleva solo ids: quien lo reciba lee lo
+ * que necesite de la fila afectada en vez de recargar la tabla entera.
+ */
+public sealed interface EventoDominio {
+
+    /** Cambios que alteran los ejemplares disponibles de un material. */
+    sealed interface CambioDisponibilidad extends EventoDominio {
+        int idMaterial();
+    }
+
+    record PrestamoRegistrado(int idPrestamo, int idPersona, int idMaterial, int idEjemplar)
+            implements CambioDisponibilidad {}
+
+    record PrestamoDevuelto(int idPrestamo, int idMaterial, int idEjemplar)
+            implements CambioDisponibilidad {}
+
+    record PrestamoPerdido(int idPrestamo, int idMaterial, int idEjemplar)
+            implements CambioDisponibilidad {}
+
+    record EjemplarCambiado(int idEjemplar, int idMaterial, String estado)
+            implements CambioDisponibilidad {}
+
+    record MaterialActualizado(int idMaterial) implements EventoDominio {}
+
+    record MultaCreada(int idMulta, int idPrestamo, int idPersona) implements EventoDominio {}
+
+    record MultaPagada(int idMulta) implements EventoDominio {}
+
+    record MultaCondonada(int idMulta) implements EventoDominio {}
+}
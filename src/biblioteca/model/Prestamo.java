@@ -12,6 +12,10 @@ public class Prestamo {
     private LocalDate fechaDevolucionReal;
     private String estado;
 
+    // Estado de sus multas, leído junto con el préstamo (para colorear la tabla)
+    private boolean multasPendientes;   // alguna sin pagar
+    private boolean multasPagadas;      // tiene multas y todas están pagadas
+
     public Prestamo() {
     }
 
@@ -67,6 +71,12 @@ public class Prestamo {
     public String getEstado() { return estado; }
     public void setEstado(String estado) { this.estado = estado; }
 
+    public boolean isMultasPendientes() { return multasPendientes; }
+    public void setMultasPendientes(boolean multasPendientes) { this.multasPendientes = multasPendientes; }
+
+    public boolean isMultasPagadas() { return multasPagadas; }
+    public void setMultasPagadas(boolean multasPagadas) { this.multasPagadas = multasPagadas; }
+
     // Métodos derivados útiles
     public String getNombreUsuario() {
         return persona != null
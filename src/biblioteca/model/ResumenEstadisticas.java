@@ -0,0 +1,26 @@
+package biblioteca.model;
+
+/**
+ * Cifras del panel de inicio, leídas de las tablas de estadísticas que
+ * mantienen los triggers (ver EstadisticasDAO).
+ *
+ * prestamosPorMes tiene 12 posiciones: los últimos 12 meses con el actual
+ * al final, igual que PrestamoDAO.contarPrestamosPorUltimoAnio().
+ */
+public record ResumenEstadisticas(
+        int totalMateriales,
+        int totalPersonas,
+        int prestamosActivos,
+        int prestamosVencidos,
+        int prestamosDevueltos,
+        int prestamosPerdidos,
+        int multasPendientes,
+        int multasPagadas,
+        double montoMultasPendiente,
+        double montoMultasPagado,
+        int[] prestamosPorMes) {
+
+    public static ResumenEstadisticas vacio() {
+        return new ResumenEstadisticas(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, new int[12]);
+    }
+}
@@ -1,5 +1,6 @@
 package biblioteca.util;
 
+import java.util.BitSet;
 import java.util.function.Supplier;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -8,8 +9,12 @@ import javax.swing.table.TableRowSorter;
 /**
  * Utilidad para configurar un buscador dinámico en cualquier JTable usando PanelBuscador.
  * Permite filtrar por columnas de texto y opcionalmente por una columna de filtro (combo, estado, tipo...).
+ * Con modelos en memoria el filtrado consulta un {@link IndiceBusqueda} en vez de recorrer las filas.
  */
 public class BuscadorTablaUtil {
+
+    // Filtrar en memoria con el índice es casi gratis: basta con agrupar las teclas muy seguidas
+    private static final int RETARDO_MEMORIA_MS = 80;
     
     /**
      * Configura el buscador dinámico.
@@ -25,65 +30,82 @@ public class BuscadorTablaUtil {
                                   int columnaFiltro,
                                   Supplier<String> proveedorFiltro) {
         
+        if (tabla.getModel() instanceof ModeloTablaPerezoso<?> perezoso) {
+            configurarPerezoso(tabla, buscador, perezoso);
+            return;
+        }
+
         DefaultTableModel modelo = (DefaultTableModel) tabla.getModel();
         TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(modelo);
         tabla.setRowSorter(sorter);
-        
+
+        // El índice se arma una vez por carga; si el modelo cambia se rehace en la siguiente búsqueda
+        IndiceBusqueda[] indice = {null};
+
         Runnable aplicarFiltro = () -> {
             String texto = buscador.getTexto();
             String filtro = proveedorFiltro != null ? proveedorFiltro.get() : null;
-            
+
+            boolean sinTexto = texto == null || texto.isBlank();
+            boolean sinFiltro = columnaFiltro < 0 || filtro == null || filtro.isBlank();
+            if (sinTexto && sinFiltro) {
+                sorter.setRowFilter(null);
+                return;
+            }
+
+            if (indice[0] == null) {
+                indice[0] = IndiceBusqueda.construir(modelo, columnasTexto, columnaFiltro);
+            }
+            BitSet coincidencias = indice[0].buscar(texto, filtro);
+
             sorter.setRowFilter(new RowFilter<DefaultTableModel, Integer>() {
                 @Override
                 public boolean include(Entry<? extends DefaultTableModel, ? extends Integer> entry) {
-                    
-                    // Filtrado por texto
-                    boolean textoCoincide = true; // Por defecto pasa si no hay texto
-                    
-                    if (texto != null && !texto.isEmpty() && !texto.isBlank()) {
-                        textoCoincide = false; // Ahora debe buscar coincidencia
-                        
-                        for (int col : columnasTexto) {
-                            try {
-                                Object valorObj = entry.getValue(col);
-                                if (valorObj != null) {
-                                    String valor = valorObj.toString().toLowerCase();
-                                    if (valor.contains(texto.toLowerCase())) {
-                                        textoCoincide = true;
-                                        break;
-                                    }
-                                }
-                            } catch (IndexOutOfBoundsException e) {
-                                // Columna no existe, ignorar
-                            }
-                        }
-                    }
-                    
-                    // Filtrado por combo/filtro
-                    boolean filtroCoincide = true; // Por defecto pasa si no hay filtro
-                    
-                    if (columnaFiltro >= 0 && filtro != null && !filtro.isEmpty() && !filtro.isBlank()) {
-                        try {
-                            Object valorObj = entry.getValue(columnaFiltro);
-                            String valorFila = valorObj != null ? valorObj.toString() : "";
-                            filtroCoincide = valorFila.equals(filtro);
-                        } catch (IndexOutOfBoundsException e) {
-                            filtroCoincide = false;
-                        }
-                    }
-                    
-                    return textoCoincide && filtroCoincide;
+                    return coincidencias.get(entry.getIdentifier());
                 }
             });
         };
+
+        // Si se cambian filas sueltas (p. ej. al recibir un evento) el filtro
+        // activo se recalcula: sus posiciones ya no corresponden a las filas
+        modelo.addTableModelListener(e -> {
+            indice[0] = null;
+            if (sorter.getRowFilter() != null) {
+                SwingUtilities.invokeLater(aplicarFiltro);
+            }
+        });
         
         // Configura el PanelBuscador
+        buscador.setRetardoBusqueda(RETARDO_MEMORIA_MS);
         buscador.configurar(
                 texto -> aplicarFiltro.run(),
                 () -> aplicarFiltro.run()
         );
+
+        // Al recargar la tabla se mantiene lo que ya estaba escrito
+        if (!buscador.getTexto().isEmpty()) {
+            aplicarFiltro.run();
+        }
     }
     
+    /**
+     * Con un modelo perezoso no hay filas en memoria que filtrar: el texto y el
+     * orden se mandan a la consulta. Se busca en las columnas que el DAO tenga
+     * definidas para el listado, no en columnasTexto.
+     */
+    private static void configurarPerezoso(JTable tabla, PanelBuscador buscador,
+                                           ModeloTablaPerezoso<?> modelo) {
+        if (tabla.getRowSorter() == null || tabla.getRowSorter().getModel() != modelo) {
+            tabla.setRowSorter(modelo.crearOrdenador());
+        }
+        modelo.filtrar(buscador.getTexto());
+        buscador.setRetardoBusqueda(PanelBuscador.RETARDO_POR_DEFECTO_MS);
+        buscador.configurar(
+                texto -> modelo.filtrar(texto),
+                () -> modelo.filtrar(null)
+        );
+    }
+
     /**
      * Versión simplificada sin filtro adicional (solo búsqueda por texto)
      */
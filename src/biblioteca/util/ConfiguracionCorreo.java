@@ -3,11 +3,18 @@ package biblioteca.util;
 public class ConfiguracionCorreo {
     
     // Datos del servidor SMTP (ejemplo: Gmail)
-    public static final String HOST_SMTP = "smtp.gmail.com";
-    public static final int PUERTO = 465;
+    // Se pueden cambiar al arrancar con -Dcorreo.host=... -Dcorreo.puerto=... (p. ej. un SMTP local de pruebas)
+    public static final String HOST_SMTP = System.getProperty("correo.host", "smtp.gmail.com");
+    public static final int PUERTO = Integer.getInteger("correo.puerto", 465);
+
+    // SSL implícito (465). Con false se conecta en claro, solo para servidores locales
+    public static final boolean SSL = Boolean.parseBoolean(System.getProperty("correo.ssl", "true"));
+
+    // Traza SMTP completa en consola (-Dcorreo.debug=true)
+    public static final boolean DEBUG = Boolean.getBoolean("correo.debug");
     
     // Tu correo y contraseña (usa variables de entorno en producción)
-    public static final String EMAIL_REMITENTE = "";
+    public static final String EMAIL_REMITENTE = System.getProperty("correo.remitente", "");
     public static final String PASSWORD_APP = "";
     
 }
@@ -0,0 +1,247 @@
+package biblioteca.util;
+
+import biblioteca.dao.CorreoSalienteDAO;
+import biblioteca.dao.CorreoSalienteDAOImpl;
+import biblioteca.model.CorreoSaliente;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * Envía en segundo plano lo que hay en la bandeja de salida (Bandeja_Salida).
+ *
+ * Cada tanda abre una sola conexión SMTP y manda por ella todos los
+ * pendientes. Si un envío falla se reintenta más tarde con espera creciente
+ * (1, 2, 4, 8... minutos); tras {@link #MAXIMO_INTENTOS} queda 'Fallido'.
+ * Como los correos están en la base, los que no salieron antes de cerrar la
+ * aplicación se envían en el siguiente arranque.
+ */
+public final class DespachadorCorreo {
+
+    private static final Logger LOG = Logger.getLogger(DespachadorCorreo.class.getName());
+
+    public static final int MAXIMO_INTENTOS = 5;
+    private static final int TAMANO_TANDA = 50;
+    private static final long ESPERA_BASE_MINUTOS = 1;
+    private static final long ESPERA_MAXIMA_MINUTOS = 60;
+    private static final long REVISION_SEGUNDOS = 30;
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static volatile DespachadorCorreo instancia;
+
+    private final CorreoSalienteDAO correoDAO;
+    private final ScheduledExecutorService hilo;
+
+    // Evita encolar varias pasadas seguidas si llegan muchos correos a la vez
+    private final AtomicBoolean pasadaProgramada = new AtomicBoolean();
+
+    private final List<Consumer<CorreoSaliente>> observadores = new CopyOnWriteArrayList<>();
+
+    // ===== Métricas =====
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong conexiones = new AtomicLong();
+    private volatile int ultimaTandaMensajes;
+    private volatile long ultimaTandaMs;
+
+    private DespachadorCorreo(CorreoSalienteDAO correoDAO) {
+        this.correoDAO = correoDAO;
+        this.hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "correo-saliente");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Arranca el despachador: una pasada inmediata (restos de la sesión
+     * anterior) y una revisión periódica para los reintentos. Solo la primera
+     * llamada tiene efecto.
+     */
+    public static synchronized DespachadorCorreo iniciar(CorreoSalienteDAO correoDAO) {
+        if (instancia == null) {
+            DespachadorCorreo d = new DespachadorCorreo(correoDAO);
+            d.hilo.scheduleWithFixedDelay(d::procesarPendientes, 0, REVISION_SEGUNDOS, TimeUnit.SECONDS);
+            instancia = d;
+        }
+        return instancia;
+    }
+
+    /**
+     * La instancia en marcha; si nadie la inició, se inicia con el DAO por defecto.
+     */
+    public static DespachadorCorreo getInstancia() {
+        DespachadorCorreo d = instancia;
+        return d != null ? d : iniciar(new CorreoSalienteDAOImpl());
+    }
+
+    /**
+     * Guarda el correo en la bandeja y avisa al hilo de envío.
+     */
+    public boolean encolar(CorreoSaliente correo) {
+        if (!correoDAO.encolar(correo)) {
+            return false;
+        }
+        notificar(correo);
+        despertar();
+        return true;
+    }
+
+    /**
+     * Se llama con cada cambio de estado (encolado, enviado, reintento, fallido),
+     * desde el hilo de envío.
+     */
+    public void agregarObservador(Consumer<CorreoSaliente> observador) {
+        observadores.add(observador);
+    }
+
+    public void despertar() {
+        if (pasadaProgramada.compareAndSet(false, true)) {
+            hilo.execute(() -> {
+                pasadaProgramada.set(false);
+                procesarPendientes();
+            });
+        }
+    }
+
+    public void detener() {
+        hilo.shutdownNow();
+    }
+
+    /**
+     * Envía tandas hasta vaciar lo que esté listo. Solo corre en el hilo del despachador.
+     */
+    private void procesarPendientes() {
+        try {
+            List<CorreoSaliente> tanda;
+            do {
+                tanda = correoDAO.listarListosParaEnviar(TAMANO_TANDA);
+                if (!tanda.isEmpty() && !enviarTanda(tanda)) {
+                    return; // sin conexión: ya se reprogramaron, no insistir ahora
+                }
+            } while (tanda.size() == TAMANO_TANDA);
+        } catch (RuntimeException e) {
+            // Una excepción aquí cancelaría la revisión periódica
+            LOG.log(Level.SEVERE, "Error procesando la bandeja de salida", e);
+        }
+    }
+
+    /**
+     * @return false si no se pudo conectar con el servidor
+     */
+    private boolean enviarTanda(List<CorreoSaliente> tanda) {
+        long inicio = System.nanoTime();
+        Session session = EnviadorCorreo.getSesion();
+        int enviadosTanda = 0;
+
+        try (Transport transport = session.getTransport("smtp")) {
+            try {
+                transport.connect();
+                conexiones.incrementAndGet();
+            } catch (MessagingException e) {
+                LOG.log(Level.WARNING, "No se pudo conectar al servidor SMTP", e);
+                for (CorreoSaliente correo : tanda) {
+                    registrarFallo(correo, e, true);
+                }
+                return false;
+            }
+
+            for (CorreoSaliente correo : tanda) {
+                try {
+                    // El servidor puede cerrar la conexión por inactividad entre mensajes
+                    if (!transport.isConnected()) {
+                        transport.connect();
+                        conexiones.incrementAndGet();
+                    }
+                    MimeMessage mensaje = EnviadorCorreo.crearMensaje(session, correo);
+                    transport.sendMessage(mensaje, mensaje.getAllRecipients());
+
+                    correoDAO.marcarEnviado(correo.getIdCorreo());
+                    correo.setEstado(CorreoSaliente.ENVIADO);
+                    correo.setIntentos(correo.getIntentos() + 1);
+                    enviados.incrementAndGet();
+                    enviadosTanda++;
+                    notificar(correo);
+                } catch (SendFailedException e) {
+                    // Dirección rechazada: reintentar no lo va a arreglar
+                    registrarFallo(correo, e, false);
+                } catch (MessagingException e) {
+                    registrarFallo(correo, e, true);
+                }
+            }
+        } catch (MessagingException e) {
+            LOG.log(Level.FINE, "Error al cerrar la conexión SMTP", e);
+        }
+
+        ultimaTandaMensajes = enviadosTanda;
+        ultimaTandaMs = (System.nanoTime() - inicio) / 1_000_000;
+        LOG.info("Bandeja de salida: " + enviadosTanda + "/" + tanda.size() + " correo(s) enviados en "
+                + ultimaTandaMs + " ms con una conexión");
+        return true;
+    }
+
+    private void registrarFallo(CorreoSaliente correo, Exception e, boolean reintentable) {
+        int intentos = correo.getIntentos() + 1;
+        String proximo = null;
+        if (reintentable && intentos < MAXIMO_INTENTOS) {
+            long espera = Math.min(ESPERA_MAXIMA_MINUTOS, ESPERA_BASE_MINUTOS << (intentos - 1));
+            proximo = LocalDateTime.now().plusMinutes(espera).format(FORMATO_FECHA);
+        }
+
+        correoDAO.registrarFallo(correo.getIdCorreo(), e.getMessage(), proximo);
+        correo.setIntentos(intentos);
+        correo.setUltimoError(e.getMessage());
+        correo.setEstado(proximo != null ? CorreoSaliente.PENDIENTE : CorreoSaliente.FALLIDO);
+        correo.setProximoIntento(proximo != null ? proximo : correo.getProximoIntento());
+        fallos.incrementAndGet();
+
+        if (proximo != null) {
+            LOG.warning("Correo " + correo.getIdCorreo() + " a " + correo.getDestinatario()
+                    + " falló (intento " + intentos + "), se reintenta a las " + proximo + ": " + e.getMessage());
+        } else {
+            LOG.severe("Correo " + correo.getIdCorreo() + " a " + correo.getDestinatario()
+                    + " no se pudo enviar tras " + intentos + " intento(s): " + e.getMessage());
+        }
+        notificar(correo);
+    }
+
+    private void notificar(CorreoSaliente correo) {
+        for (Consumer<CorreoSaliente> o : observadores) {
+            try {
+                o.accept(correo);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Error en observador de correo", e);
+            }
+        }
+    }
+
+    public long getEnviados() { return enviados.get(); }
+    public long getFallos() { return fallos.get(); }
+    public long getConexiones() { return conexiones.get(); }
+    public int getUltimaTandaMensajes() { return ultimaTandaMensajes; }
+    public long getUltimaTandaMs() { return ultimaTandaMs; }
+
+    /** Ritmo de la última tanda, en mensajes por minuto (0 si no hubo). */
+    public double getMensajesPorMinutoUltimaTanda() {
+        long ms = ultimaTandaMs;
+        return ms > 0 ? ultimaTandaMensajes * 60_000.0 / ms : 0;
+    }
+
+    public int contarPendientes() { return correoDAO.contarPorEstado(CorreoSaliente.PENDIENTE); }
+    public int contarFallidos() { return correoDAO.contarPorEstado(CorreoSaliente.FALLIDO); }
+}
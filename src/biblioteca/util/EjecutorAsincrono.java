@@ -0,0 +1,130 @@
+package biblioteca.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+/**
+ * Saca del hilo de Swing (EDT) el trabajo lento de los controladores:
+ * consultas, generación de PDF y envío de correo.
+ *
+ * Las tareas corren en hilos virtuales y devuelven un CompletableFuture;
+ * lo que toque la interfaz se encadena con {@link #EDT}, p. ej.
+ * {@code future.thenAcceptAsync(r -> ..., EjecutorAsincrono.EDT)}.
+ */
+public final class EjecutorAsincrono {
+
+    private static final Logger LOG = Logger.getLogger(EjecutorAsincrono.class.getName());
+
+    /*
+     * Un hilo virtual por tarea, pero como mucho MAX_SIMULTANEAS corriendo a
+     * la vez: el resto espera su turno aquí en lugar de hacer cola en el pool
+     * de conexiones, donde pasado pool.esperaMaximaMs fallarían con SQLException.
+     */
+    private static final int MAX_SIMULTANEAS = 8;
+    private static final Semaphore TURNOS = new Semaphore(MAX_SIMULTANEAS, true);
+    private static final ExecutorService VIRTUALES = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Executor HILOS = tarea -> VIRTUALES.execute(() -> {
+        TURNOS.acquireUninterruptibly();
+        try {
+            tarea.run();
+        } finally {
+            TURNOS.release();
+        }
+    });
+
+    /** Ejecuta en el hilo de Swing (directamente si ya se está en él). */
+    public static final Executor EDT = tarea -> {
+        if (SwingUtilities.isEventDispatchThread()) {
+            tarea.run();
+        } else {
+            SwingUtilities.invokeLater(tarea);
+        }
+    };
+
+    private EjecutorAsincrono() {}
+
+    public static <T> CompletableFuture<T> enSegundoPlano(Supplier<T> tarea) {
+        return CompletableFuture.supplyAsync(tarea, HILOS);
+    }
+
+    public static CompletableFuture<Void> enSegundoPlano(Runnable tarea) {
+        return CompletableFuture.runAsync(tarea, HILOS);
+    }
+
+    /**
+     * Ejecuta la tarea fuera del EDT y entrega el resultado en el EDT.
+     * Si la tarea falla se registra el error y no se llama a alTerminar.
+     */
+    public static <T> CompletableFuture<T> ejecutar(Supplier<T> tarea, Consumer<T> alTerminar) {
+        CompletableFuture<T> futuro = enSegundoPlano(tarea);
+        futuro.whenCompleteAsync((resultado, error) -> {
+            if (error != null) {
+                LOG.log(Level.WARNING, "Error en tarea en segundo plano", error);
+            } else if (alTerminar != null) {
+                alTerminar.accept(resultado);
+            }
+        }, EDT);
+        return futuro;
+    }
+
+    /**
+     * JOptionPane desde cualquier hilo. Con null como padre, igual que los controladores.
+     */
+    public static void mostrarMensaje(String mensaje, String titulo, int tipo) {
+        EDT.execute(() -> JOptionPane.showMessageDialog(null, mensaje, titulo, tipo));
+    }
+
+    /**
+     * Para peticiones que se reemplazan unas a otras (filtros, recargas de
+     * tabla): cada {@link #ejecutar} cancela la anterior, y si el resultado de
+     * una anterior llega tarde se descarta en vez de pisar al más reciente.
+     */
+    public static final class Canal {
+
+        private CompletableFuture<?> actual;
+        private long generacion;
+
+        public synchronized <T> CompletableFuture<T> ejecutar(Supplier<T> tarea, Consumer<T> alTerminar) {
+            cancelar();
+            long mia = ++generacion;
+            CompletableFuture<T> futuro = enSegundoPlano(tarea);
+            actual = futuro;
+            futuro.whenCompleteAsync((resultado, error) -> {
+                if (!esVigente(mia) || futuro.isCancelled()) {
+                    return;
+                }
+                if (error != null) {
+                    LOG.log(Level.WARNING, "Error en tarea en segundo plano", error);
+                } else if (alTerminar != null) {
+                    alTerminar.accept(resultado);
+                }
+            }, EDT);
+            return futuro;
+        }
+
+        /**
+         * Cancela la petición en curso. La consulta que ya esté corriendo
+         * termina, pero su resultado no se entrega.
+         */
+        public synchronized void cancelar() {
+            generacion++;
+            if (actual != null) {
+                actual.cancel(false);
+                actual = null;
+            }
+        }
+
+        private synchronized boolean esVigente(long gen) {
+            return gen == generacion;
+        }
+    }
+}
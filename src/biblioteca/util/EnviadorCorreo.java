@@ -1,93 +1,135 @@
 package biblioteca.util;
 
+import biblioteca.model.CorreoSaliente;
 import java.util.Properties;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.mail.Authenticator;
 import javax.mail.Message;
 import javax.mail.MessagingException;
 import javax.mail.PasswordAuthentication;
 import javax.mail.Session;
-import javax.mail.Transport;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
 
+/**
+ * Construcción de los correos de la biblioteca. El envío real lo hace
+ * {@link DespachadorCorreo} desde la bandeja de salida; aquí solo se encolan.
+ */
 public final class EnviadorCorreo {
-    
+
     private static final Logger LOG = Logger.getLogger(EnviadorCorreo.class.getName());
-    
+
+    private static final String ASUNTO_COMPROBANTE = "Comprobante de Préstamo Bibliotecario";
+
+    // La sesión no guarda conexión, solo configuración: se crea una vez
+    private static volatile Session sesion;
+
     private EnviadorCorreo() {}
-    
-    public static boolean enviarCorreoConPDF(String destinatario, String nombreUsuario,
-                                             byte[] pdfBytes, String nombreArchivo) {
-        try {
-            // Configurar propiedades SMTP (587 + STARTTLS)
-            Properties props = new Properties();
-            props.put("mail.smtp.host", ConfiguracionCorreo.HOST_SMTP);      // smtp.gmail.com
-            props.put("mail.smtp.port", String.valueOf(ConfiguracionCorreo.PUERTO)); // 465
-            props.put("mail.smtp.auth", "true");
 
+    /**
+     * Deja el comprobante en la bandeja de salida y vuelve enseguida; el
+     * despachador lo envía en segundo plano y reintenta si falla.
+     *
+     * @return true si quedó guardado para enviarse
+     */
+    public static boolean encolarCorreoConPDF(String destinatario, String nombreUsuario,
+                                              byte[] pdfBytes, String nombreArchivo) {
+        CorreoSaliente correo = new CorreoSaliente(
+            destinatario,
+            nombreUsuario,
+            ASUNTO_COMPROBANTE,
+            "Hola " + nombreUsuario + ",\n\n" +
+            "Te enviamos el comprobante en PDF del préstamo que acabas de realizar en la biblioteca.\n" +
+            "En el archivo encontrarás los datos del material y las fechas de préstamo y devolución.\n\n" +
+            "Por favor, respeta la fecha de devolución para evitar bloqueos o sanciones.\n\n" +
+            "Saludos cordiales,\nSistema de Gestión Bibliotecaria",
+            pdfBytes,
+            nombreArchivo
+        );
+
+        boolean encolado = DespachadorCorreo.getInstancia().encolar(correo);
+        if (encolado) {
+            LOG.info("Correo " + correo.getIdCorreo() + " encolado para: " + destinatario);
+        }
+        return encolado;
+    }
+
+    static Session getSesion() {
+        Session s = sesion;
+        if (s == null) {
+            synchronized (EnviadorCorreo.class) {
+                s = sesion;
+                if (s == null) {
+                    s = crearSesion();
+                    sesion = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    private static Session crearSesion() {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", ConfiguracionCorreo.HOST_SMTP);      // smtp.gmail.com
+        props.put("mail.smtp.port", String.valueOf(ConfiguracionCorreo.PUERTO)); // 465
+        props.put("mail.smtp.auth", "true");
+
+        // Sin esto una conexión colgada bloquearía al despachador indefinidamente
+        props.put("mail.smtp.connectiontimeout", "15000");
+        props.put("mail.smtp.timeout", "30000");
+        props.put("mail.smtp.writetimeout", "30000");
+
+        if (ConfiguracionCorreo.SSL) {
             // SSL implícito en 465
             props.put("mail.smtp.socketFactory.port", String.valueOf(ConfiguracionCorreo.PUERTO));
             props.put("mail.smtp.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
-            props.put("mail.smtp.starttls.enable", "false");
-            props.put("mail.smtp.starttls.required", "false");
-
-            // Crear sesión con autenticación
-            Session session = Session.getInstance(props, new Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(
-                            ConfiguracionCorreo.EMAIL_REMITENTE,
-                            ConfiguracionCorreo.PASSWORD_APP
-                    );
-                }
-            });
-            session.setDebug(true); // ver el log SMTP en consola
-
-            // Crear mensaje
-            Message mensaje = new MimeMessage(session);
-            mensaje.setFrom(new InternetAddress(ConfiguracionCorreo.EMAIL_REMITENTE));
-            mensaje.setRecipients(Message.RecipientType.TO, InternetAddress.parse(destinatario));
-            mensaje.setSubject("Comprobante de Préstamo Bibliotecario");
-            
-            // Cuerpo del correo
-            MimeMultipart multipart = new MimeMultipart();
-            
-            // Texto
-            MimeBodyPart textoBodyPart = new MimeBodyPart();
-            textoBodyPart.setText(
-                "Hola " + nombreUsuario + ",\n\n" +
-                "Te enviamos el comprobante en PDF del préstamo que acabas de realizar en la biblioteca.\n" +
-                "En el archivo encontrarás los datos del material y las fechas de préstamo y devolución.\n\n" +
-                "Por favor, respeta la fecha de devolución para evitar bloqueos o sanciones.\n\n" +
-                "Saludos cordiales,\nSistema de Gestión Bibliotecaria",
-                "utf-8"
-            );
-
-            multipart.addBodyPart(textoBodyPart);
-            
-            // Adjuntar PDF
+        }
+        props.put("mail.smtp.starttls.enable", "false");
+        props.put("mail.smtp.starttls.required", "false");
+
+        // Crear sesión con autenticación
+        Session session = Session.getInstance(props, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(
+                        ConfiguracionCorreo.EMAIL_REMITENTE,
+                        ConfiguracionCorreo.PASSWORD_APP
+                );
+            }
+        });
+        session.setDebug(ConfiguracionCorreo.DEBUG);
+        return session;
+    }
+
+    /**
+     * Mensaje MIME listo para Transport.sendMessage: texto + PDF adjunto si lo hay.
+     */
+    static MimeMessage crearMensaje(Session session, CorreoSaliente correo) throws MessagingException {
+        MimeMessage mensaje = new MimeMessage(session);
+        mensaje.setFrom(new InternetAddress(ConfiguracionCorreo.EMAIL_REMITENTE));
+        mensaje.setRecipients(Message.RecipientType.TO, InternetAddress.parse(correo.getDestinatario()));
+        mensaje.setSubject(correo.getAsunto(), "utf-8");
+
+        // Cuerpo del correo
+        MimeMultipart multipart = new MimeMultipart();
+
+        // Texto
+        MimeBodyPart textoBodyPart = new MimeBodyPart();
+        textoBodyPart.setText(correo.getCuerpo(), "utf-8");
+        multipart.addBodyPart(textoBodyPart);
+
+        // Adjuntar PDF
+        if (correo.getAdjunto() != null) {
             MimeBodyPart adjuntoBodyPart = new MimeBodyPart();
-            adjuntoBodyPart.setFileName(nombreArchivo);
-            adjuntoBodyPart.setContent(pdfBytes, "application/pdf");
+            adjuntoBodyPart.setFileName(correo.getNombreAdjunto());
+            adjuntoBodyPart.setContent(correo.getAdjunto(), "application/pdf");
             multipart.addBodyPart(adjuntoBodyPart);
-            
-            mensaje.setContent(multipart);
-            
-            // Enviar
-            Transport.send(mensaje);
-            
-            LOG.info("Correo enviado exitosamente a: " + destinatario);
-            return true;
-            
-        } catch (MessagingException e) {
-            LOG.log(Level.SEVERE, "Error al enviar correo", e);
-            return false;
         }
+
+        mensaje.setContent(multipart);
+        mensaje.saveChanges();
+        return mensaje;
     }
 }
-
-
@@ -2,25 +2,49 @@ package biblioteca.util;
 
 import biblioteca.model.Multa;
 import biblioteca.model.Prestamo;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.IBlockElement;
+import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.layout.LayoutResult;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.layout.properties.VerticalAlignment;
+import com.itextpdf.layout.renderer.IRenderer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 public final class GeneradorPrestamoPDF {
@@ -38,8 +62,20 @@ public final class GeneradorPrestamoPDF {
     private static final DeviceRgb COLOR_WHITE = new DeviceRgb(255, 255, 255);
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Métricas de las fuentes: se leen una vez y cada documento crea su PdfFont a partir de ellas
+    private static final FontProgram HELVETICA = cargarFuente(StandardFonts.HELVETICA);
+    private static final FontProgram HELVETICA_BOLD = cargarFuente(StandardFonts.HELVETICA_BOLD);
     
     private GeneradorPrestamoPDF() {}
+
+    private static FontProgram cargarFuente(String nombre) {
+        try {
+            return FontProgramFactory.createFont(nombre);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cargar la fuente " + nombre, e);
+        }
+    }
     
     // ==================== PDF DE PRÉSTAMO BÁSICO ====================
     
@@ -53,8 +89,8 @@ public final class GeneradorPrestamoPDF {
         Document doc = new Document(pdf, PageSize.A4, false);
         doc.setMargins(50, 50, 50, 50);
 
-        PdfFont fontReg = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-        PdfFont fontBold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        PdfFont fontReg = crearFuente(HELVETICA);
+        PdfFont fontBold = crearFuente(HELVETICA_BOLD);
 
         // ========== ENCABEZADO PRINCIPAL ==========
         agregarEncabezado(doc, fontBold, fontReg);
@@ -103,33 +139,13 @@ public final class GeneradorPrestamoPDF {
         Document doc = new Document(pdf, PageSize.A4, false);
         doc.setMargins(50, 50, 50, 50);
 
-        PdfFont fontReg = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-        PdfFont fontBold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        PdfFont fontReg = crearFuente(HELVETICA);
+        PdfFont fontBold = crearFuente(HELVETICA_BOLD);
 
         LocalDate fechaDevolucionReal = LocalDate.now();
 
         // ========== ENCABEZADO ==========
-        Table headerTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
-        
-        Cell headerCell = new Cell()
-                .add(new Paragraph("COMPROBANTE DE DEVOLUCIÓN")
-                        .setFont(fontBold)
-                        .setFontSize(24)
-                        .setFontColor(COLOR_WHITE)
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setMarginBottom(5))
-                .add(new Paragraph("Sistema de Gestión Bibliotecaria")
-                        .setFont(fontReg)
-                        .setFontSize(11)
-                        .setFontColor(COLOR_WHITE)
-                        .setTextAlignment(TextAlignment.CENTER))
-                .setBackgroundColor(COLOR_ACCENT)  // Verde para éxito
-                .setBorder(Border.NO_BORDER)
-                .setPadding(20)
-                .setTextAlignment(TextAlignment.CENTER);
-        
-        headerTable.addCell(headerCell);
-        doc.add(headerTable);
+        doc.add(Plantilla.bloque(Bloque.ENCABEZADO_DEVOLUCION, doc, fontBold, fontReg));
         doc.add(new Paragraph(" ").setMarginBottom(10));
 
         // ========== BANNER CON ESTADO ==========
@@ -216,32 +232,7 @@ public final class GeneradorPrestamoPDF {
         doc.add(new Paragraph(" ").setMarginBottom(20));
 
         // ========== ESTADO DE LA DEVOLUCIÓN ==========
-        Table estadoTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
-        
-        Cell estadoCell = new Cell()
-                .add(new Paragraph("✓ DEVOLUCIÓN A TIEMPO")
-                        .setFont(fontBold)
-                        .setFontSize(16)
-                        .setFontColor(COLOR_ACCENT)
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setMarginBottom(8))
-                .add(new Paragraph("El material fue devuelto dentro del plazo establecido.")
-                        .setFont(fontReg)
-                        .setFontSize(11)
-                        .setFontColor(COLOR_DARK)
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setMarginBottom(5))
-                .add(new Paragraph("No se generaron multas por retraso.")
-                        .setFont(fontReg)
-                        .setFontSize(10)
-                        .setFontColor(COLOR_GRAY)
-                        .setTextAlignment(TextAlignment.CENTER))
-                .setBackgroundColor(new DeviceRgb(220, 252, 231))  // Verde muy claro
-                .setBorder(new SolidBorder(COLOR_ACCENT, 2))
-                .setPadding(20);
-        
-        estadoTable.addCell(estadoCell);
-        doc.add(estadoTable);
+        doc.add(Plantilla.bloque(Bloque.ESTADO_DEVOLUCION, doc, fontBold, fontReg));
 
         doc.add(new Paragraph(" ").setMarginBottom(10));
         
@@ -284,8 +275,8 @@ public final class GeneradorPrestamoPDF {
         Document doc = new Document(pdf, PageSize.A4, false);
         doc.setMargins(50, 50, 50, 50);
 
-        PdfFont fontReg = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-        PdfFont fontBold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        PdfFont fontReg = crearFuente(HELVETICA);
+        PdfFont fontBold = crearFuente(HELVETICA_BOLD);
 
         // Validar que fechaMulta no sea null
         LocalDate fechaMulta;
@@ -484,8 +475,8 @@ public final class GeneradorPrestamoPDF {
         Document doc = new Document(pdf, PageSize.A4, false);
         doc.setMargins(50, 50, 50, 50);
 
-        PdfFont fontReg = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-        PdfFont fontBold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        PdfFont fontReg = crearFuente(HELVETICA);
+        PdfFont fontBold = crearFuente(HELVETICA_BOLD);
 
         // Convertir fechaMulta (String 'YYYY-MM-DD') a LocalDate
         LocalDate fechaMulta = LocalDate.parse(multa.getFechaMulta());
@@ -650,29 +641,8 @@ public final class GeneradorPrestamoPDF {
 
     // ==================== SECCIONES DEL PDF ====================
     
-    private static void agregarEncabezado(Document doc, PdfFont fontBold, PdfFont fontReg) {
-        // Título principal con fondo degradado simulado
-        Table headerTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
-        
-        Cell headerCell = new Cell()
-                .add(new Paragraph("COMPROBANTE DE PRÉSTAMO")
-                        .setFont(fontBold)
-                        .setFontSize(24)
-                        .setFontColor(COLOR_WHITE)
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setMarginBottom(5))
-                .add(new Paragraph("Sistema de Gestión Bibliotecaria")
-                        .setFont(fontReg)
-                        .setFontSize(11)
-                        .setFontColor(COLOR_WHITE)
-                        .setTextAlignment(TextAlignment.CENTER))
-                .setBackgroundColor(COLOR_PRIMARY)
-                .setBorder(Border.NO_BORDER)
-                .setPadding(20)
-                .setTextAlignment(TextAlignment.CENTER);
-        
-        headerTable.addCell(headerCell);
-        doc.add(headerTable);
+    private static void agregarEncabezado(Document doc, PdfFont fontBold, PdfFont fontReg) throws IOException {
+        doc.add(Plantilla.bloque(Bloque.ENCABEZADO_PRESTAMO, doc, fontBold, fontReg));
         doc.add(new Paragraph(" ").setMarginBottom(10));
     }
     
@@ -836,7 +806,107 @@ public final class GeneradorPrestamoPDF {
         doc.add(fechasTable);
     }
     
-    private static void agregarPieDePagina(Document doc, PdfFont fontReg, PdfFont fontBold) {
+    private static void agregarPieDePagina(Document doc, PdfFont fontReg, PdfFont fontBold) throws IOException {
+        doc.add(Plantilla.bloque(Bloque.NOTA_PRESTAMO, doc, fontBold, fontReg));
+        
+        doc.add(new Paragraph(" ").setMarginBottom(10));
+        
+        // Firma y fecha de generación
+        doc.add(new Paragraph("Documento generado el " + 
+                LocalDate.now().format(DATE_FORMATTER))
+                .setFont(fontReg)
+                .setFontSize(8)
+                .setFontColor(COLOR_GRAY)
+                .setTextAlignment(TextAlignment.CENTER));
+        
+        doc.add(new Paragraph("Sistema de Gestión Bibliotecaria - Todos los derechos reservados")
+                .setFont(fontReg)
+                .setFontSize(8)
+                .setFontColor(COLOR_GRAY)
+                .setTextAlignment(TextAlignment.CENTER));
+    }
+    
+    /**
+     * ✅ NUEVO: Pie de página específico para devolución exitosa
+     */
+    private static void agregarPieDeDevolucion(Document doc, PdfFont fontReg, PdfFont fontBold) throws IOException {
+        doc.add(Plantilla.bloque(Bloque.NOTA_DEVOLUCION, doc, fontBold, fontReg));
+        
+        doc.add(new Paragraph(" ").setMarginBottom(10));
+        
+        // Firma y fecha de generación
+        doc.add(new Paragraph("Documento generado el " + 
+                LocalDate.now().format(DATE_FORMATTER))
+                .setFont(fontReg)
+                .setFontSize(8)
+                .setFontColor(COLOR_GRAY)
+                .setTextAlignment(TextAlignment.CENTER));
+        
+        doc.add(new Paragraph("Sistema de Gestión Bibliotecaria - Todos los derechos reservados")
+                .setFont(fontReg)
+                .setFontSize(8)
+                .setFontColor(COLOR_GRAY)
+                .setTextAlignment(TextAlignment.CENTER));
+    }
+    
+    // ==================== BLOQUES FIJOS (PLANTILLA) ====================
+
+    private static Table crearEncabezado(String titulo, DeviceRgb fondo, PdfFont fontBold, PdfFont fontReg) {
+        // Título principal con fondo degradado simulado
+        Table headerTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
+        
+        Cell headerCell = new Cell()
+                .add(new Paragraph(titulo)
+                        .setFont(fontBold)
+                        .setFontSize(24)
+                        .setFontColor(COLOR_WHITE)
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setMarginBottom(5))
+                .add(new Paragraph("Sistema de Gestión Bibliotecaria")
+                        .setFont(fontReg)
+                        .setFontSize(11)
+                        .setFontColor(COLOR_WHITE)
+                        .setTextAlignment(TextAlignment.CENTER))
+                .setBackgroundColor(fondo)
+                .setBorder(Border.NO_BORDER)
+                .setPadding(20)
+                .setTextAlignment(TextAlignment.CENTER);
+        
+        headerTable.addCell(headerCell);
+        return headerTable;
+    }
+
+    private static Table crearEstadoDevolucion(PdfFont fontBold, PdfFont fontReg) {
+        Table estadoTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
+        
+        Cell estadoCell = new Cell()
+                .add(new Paragraph("✓ DEVOLUCIÓN A TIEMPO")
+                        .setFont(fontBold)
+                        .setFontSize(16)
+                        .setFontColor(COLOR_ACCENT)
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setMarginBottom(8))
+                .add(new Paragraph("El material fue devuelto dentro del plazo establecido.")
+                        .setFont(fontReg)
+                        .setFontSize(11)
+                        .setFontColor(COLOR_DARK)
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setMarginBottom(5))
+                .add(new Paragraph("No se generaron multas por retraso.")
+                        .setFont(fontReg)
+                        .setFontSize(10)
+                        .setFontColor(COLOR_GRAY)
+                        .setTextAlignment(TextAlignment.CENTER))
+                .setBackgroundColor(new DeviceRgb(220, 252, 231))  // Verde muy claro
+                .setBorder(new SolidBorder(COLOR_ACCENT, 2))
+                .setPadding(20);
+        
+        estadoTable.addCell(estadoCell);
+        return estadoTable;
+    }
+
+    /** Separador y nota "IMPORTANTE" del pie de préstamo y multas. */
+    private static Div crearNotaPrestamo(PdfFont fontBold, PdfFont fontReg) {
         // Línea separadora
         Table lineTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
         Cell lineCell = new Cell()
@@ -844,7 +914,6 @@ public final class GeneradorPrestamoPDF {
                 .setBorderTop(new SolidBorder(COLOR_BORDER, 1))
                 .setPaddingTop(15);
         lineTable.addCell(lineCell);
-        doc.add(lineTable);
         
         // Nota importante
         Table notaTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
@@ -873,29 +942,11 @@ public final class GeneradorPrestamoPDF {
                 .setPadding(12);
         
         notaTable.addCell(notaCell);
-        doc.add(notaTable);
-        
-        doc.add(new Paragraph(" ").setMarginBottom(10));
-        
-        // Firma y fecha de generación
-        doc.add(new Paragraph("Documento generado el " + 
-                LocalDate.now().format(DATE_FORMATTER))
-                .setFont(fontReg)
-                .setFontSize(8)
-                .setFontColor(COLOR_GRAY)
-                .setTextAlignment(TextAlignment.CENTER));
-        
-        doc.add(new Paragraph("Sistema de Gestión Bibliotecaria - Todos los derechos reservados")
-                .setFont(fontReg)
-                .setFontSize(8)
-                .setFontColor(COLOR_GRAY)
-                .setTextAlignment(TextAlignment.CENTER));
+        return new Div().add(lineTable).add(notaTable);
     }
-    
-    /**
-     * ✅ NUEVO: Pie de página específico para devolución exitosa
-     */
-    private static void agregarPieDeDevolucion(Document doc, PdfFont fontReg, PdfFont fontBold) {
+
+    /** Separador y nota de agradecimiento del pie de devolución. */
+    private static Div crearNotaDevolucion(PdfFont fontBold, PdfFont fontReg) {
         // Línea separadora
         Table lineTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
         Cell lineCell = new Cell()
@@ -903,7 +954,6 @@ public final class GeneradorPrestamoPDF {
                 .setBorderTop(new SolidBorder(COLOR_BORDER, 1))
                 .setPaddingTop(15);
         lineTable.addCell(lineCell);
-        doc.add(lineTable);
         
         // Nota de agradecimiento
         Table notaTable = new Table(1).setWidth(UnitValue.createPercentValue(100));
@@ -932,25 +982,122 @@ public final class GeneradorPrestamoPDF {
                 .setPadding(12);
         
         notaTable.addCell(notaCell);
-        doc.add(notaTable);
-        
-        doc.add(new Paragraph(" ").setMarginBottom(10));
-        
-        // Firma y fecha de generación
-        doc.add(new Paragraph("Documento generado el " + 
-                LocalDate.now().format(DATE_FORMATTER))
-                .setFont(fontReg)
-                .setFontSize(8)
-                .setFontColor(COLOR_GRAY)
-                .setTextAlignment(TextAlignment.CENTER));
-        
-        doc.add(new Paragraph("Sistema de Gestión Bibliotecaria - Todos los derechos reservados")
-                .setFont(fontReg)
-                .setFontSize(8)
-                .setFontColor(COLOR_GRAY)
-                .setTextAlignment(TextAlignment.CENTER));
+        return new Div().add(lineTable).add(notaTable);
     }
-    
+
+    /** Bloques que no cambian entre recibos; el orden es el de las páginas de la plantilla. */
+    private enum Bloque {
+        ENCABEZADO_PRESTAMO,
+        ENCABEZADO_DEVOLUCION,
+        ESTADO_DEVOLUCION,
+        NOTA_PRESTAMO,
+        NOTA_DEVOLUCION;
+
+        IBlockElement crear(PdfFont fontBold, PdfFont fontReg) {
+            return switch (this) {
+                case ENCABEZADO_PRESTAMO -> crearEncabezado("COMPROBANTE DE PRÉSTAMO", COLOR_PRIMARY, fontBold, fontReg);
+                case ENCABEZADO_DEVOLUCION -> crearEncabezado("COMPROBANTE DE DEVOLUCIÓN", COLOR_ACCENT, fontBold, fontReg);
+                case ESTADO_DEVOLUCION -> crearEstadoDevolucion(fontBold, fontReg);
+                case NOTA_PRESTAMO -> crearNotaPrestamo(fontBold, fontReg);
+                case NOTA_DEVOLUCION -> crearNotaDevolucion(fontBold, fontReg);
+            };
+        }
+    }
+
+    /**
+     * Bloques fijos ya maquetados y dibujados. Se dibujan una vez en un PDF
+     * auxiliar, una página del tamaño justo por bloque, y se guarda el
+     * contenido de cada página. Cada recibo lo estampa como form XObject
+     * apuntando a sus propias fuentes: iText solo maqueta lo que cambia y
+     * las fuentes no se duplican.
+     */
+    private static final class Plantilla {
+
+        // Ancho útil de A4 con los márgenes de 50 de los recibos
+        private static final float ANCHO = PageSize.A4.getWidth() - 100;
+
+        /** Operadores de dibujo del bloque y, por nombre de recurso, si la fuente es la negrita. */
+        private record BloqueFijo(byte[] contenido, float alto, Map<PdfName, Boolean> fuentes) {}
+
+        private static BloqueFijo[] bloques;
+
+        static Image bloque(Bloque bloque, Document doc, PdfFont fontBold, PdfFont fontReg) throws IOException {
+            BloqueFijo fijo = bloques()[bloque.ordinal()];
+            PdfDocument pdf = doc.getPdfDocument();
+
+            PdfDictionary fuentes = new PdfDictionary();
+            fijo.fuentes().forEach((nombre, negrita) -> {
+                // addFont: que se escriba al cerrar aunque el texto variable no la use
+                fuentes.put(nombre, pdf.addFont(negrita ? fontBold : fontReg).getPdfObject());
+            });
+            PdfDictionary recursos = new PdfDictionary();
+            recursos.put(PdfName.Font, fuentes);
+
+            PdfStream stream = new PdfStream(fijo.contenido());
+            stream.put(PdfName.Type, PdfName.XObject);
+            stream.put(PdfName.Subtype, PdfName.Form);
+            stream.put(PdfName.BBox, new PdfArray(new Rectangle(ANCHO, fijo.alto())));
+            stream.put(PdfName.Resources, recursos);
+            return new Image(new PdfFormXObject(stream));
+        }
+
+        private static synchronized BloqueFijo[] bloques() throws IOException {
+            if (bloques == null) {
+                bloques = construir();
+            }
+            return bloques;
+        }
+
+        private static BloqueFijo[] construir() throws IOException {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            try (PdfDocument pdf = new PdfDocument(new PdfWriter(salida))) {
+                PdfFont fontReg = crearFuente(HELVETICA);
+                PdfFont fontBold = crearFuente(HELVETICA_BOLD);
+                Document medidor = new Document(pdf);
+
+                for (Bloque bloque : Bloque.values()) {
+                    // Primero se mide el alto con el ancho de los recibos...
+                    IRenderer renderer = bloque.crear(fontBold, fontReg).createRendererSubTree()
+                            .setParent(medidor.getRenderer());
+                    LayoutResult medida = renderer.layout(new LayoutContext(
+                            new LayoutArea(1, new Rectangle(ANCHO, PageSize.A4.getHeight()))));
+                    float alto = (float) Math.ceil(medida.getOccupiedArea().getBBox().getHeight());
+
+                    // ...y luego se dibuja en una página de exactamente ese tamaño
+                    PdfPage pagina = pdf.addNewPage(new PageSize(ANCHO, alto));
+                    try (Canvas canvas = new Canvas(pagina, pagina.getPageSize())) {
+                        canvas.add(bloque.crear(fontBold, fontReg));
+                    }
+                }
+            }
+
+            String negrita = HELVETICA_BOLD.getFontNames().getFontName();
+            BloqueFijo[] resultado = new BloqueFijo[Bloque.values().length];
+            try (PdfDocument plantilla = new PdfDocument(new PdfReader(new ByteArrayInputStream(salida.toByteArray())))) {
+                for (int i = 0; i < resultado.length; i++) {
+                    PdfPage pagina = plantilla.getPage(i + 1);
+                    PdfDictionary fuentes = pagina.getResources().getResource(PdfName.Font);
+                    Map<PdfName, Boolean> porNombre = new HashMap<>();
+                    if (fuentes != null) {
+                        for (PdfName nombre : fuentes.keySet()) {
+                            PdfName base = fuentes.getAsDictionary(nombre).getAsName(PdfName.BaseFont);
+                            porNombre.put(nombre, base != null && base.getValue().equals(negrita));
+                        }
+                    }
+                    resultado[i] = new BloqueFijo(pagina.getContentBytes(), pagina.getPageSize().getHeight(),
+                            Map.copyOf(porNombre));
+                }
+            }
+            LOG.fine("Plantilla de recibos preparada (" + salida.size() + " bytes)");
+            return resultado;
+        }
+    }
+
+    /** Fuente para un documento a partir del programa ya cargado, sin volver a leer la métrica. */
+    private static PdfFont crearFuente(FontProgram programa) {
+        return PdfFontFactory.createFont(programa, PdfEncodings.WINANSI);
+    }
+
     // ==================== HELPERS ====================
     
     private static void agregarFilaDetalle(Table table, String label, String value, 
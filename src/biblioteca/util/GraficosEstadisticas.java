@@ -1,11 +1,18 @@
 package biblioteca.util;
 
+import biblioteca.dao.CacheEntidades;
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtilities;
 import org.jfree.chart.JFreeChart;
@@ -55,10 +62,28 @@ public final class GraficosEstadisticas {
 
     // ========== CONSTANTES ==========
     private static final RectangleInsets ZERO = new RectangleInsets(0, 0, 0, 0);
-    private static final DecimalFormat INTEGER_FORMAT = new DecimalFormat("#");
+
+    private static boolean headlessActivado;
+
+    // ========== CACHÉ DE GRÁFICOS ==========
+    // Un informe repetido con los mismos datos no vuelve a dibujar nada. La
+    // clave lleva los propios valores del gráfico: si los datos cambian, la
+    // clave es otra, y las entradas viejas salen por LRU.
+    private static final CacheEntidades<ClaveGrafico, byte[]> CACHE = new CacheEntidades<>("gráficos", 16);
+
+    private record ClaveGrafico(String tipo, int ancho, int alto, List<?> datos) {}
 
     private GraficosEstadisticas() {}
 
+    public static CacheEntidades.Estadisticas getEstadisticasCache() {
+        return CACHE.getEstadisticas();
+    }
+
+    /** Descarta los PNG guardados; la siguiente petición de cada gráfico lo vuelve a dibujar. */
+    public static void vaciarCache() {
+        CACHE.vaciar();
+    }
+
     /**
      * Genera un gráfico de pastel mostrando la distribución de préstamos.
      * 
@@ -75,7 +100,31 @@ public final class GraficosEstadisticas {
         int prestamosPerdidos,
         String rutaImagen
     ) {
-        activarModoHeadless();
+        guardarGrafico(renderizarGraficoDistribucionPrestamos(
+            prestamosActivos, prestamosVencidos, prestamosDevueltos, prestamosPerdidos), rutaImagen);
+    }
+
+    /**
+     * Como {@link #generarGraficoDistribucionPrestamos}, pero devuelve el PNG en memoria.
+     */
+    public static byte[] renderizarGraficoDistribucionPrestamos(
+        int prestamosActivos,
+        int prestamosVencidos,
+        int prestamosDevueltos,
+        int prestamosPerdidos
+    ) {
+        return renderizarEnCache("distribución", 500, 380,
+            List.of(prestamosActivos, prestamosVencidos, prestamosDevueltos, prestamosPerdidos),
+            () -> crearGraficoDistribucionPrestamos(
+                prestamosActivos, prestamosVencidos, prestamosDevueltos, prestamosPerdidos));
+    }
+
+    private static JFreeChart crearGraficoDistribucionPrestamos(
+        int prestamosActivos,
+        int prestamosVencidos,
+        int prestamosDevueltos,
+        int prestamosPerdidos
+    ) {
 
         DefaultPieDataset dataset = new DefaultPieDataset();
         boolean hayDatos = false;
@@ -140,7 +189,7 @@ public final class GraficosEstadisticas {
             chart.getLegend().setItemLabelPadding(new RectangleInsets(1, 3, 1, 3));
         }
 
-        guardarGrafico(chart, rutaImagen, 500, 380);
+        return chart;
     }
 
     /**
@@ -150,7 +199,18 @@ public final class GraficosEstadisticas {
      * @param rutaImagen Ruta donde se guardará el gráfico
      */
     public static void generarGraficoLibrosPorCategoria(List<Object[]> categorias, String rutaImagen) {
-        activarModoHeadless();
+        guardarGrafico(renderizarGraficoLibrosPorCategoria(categorias), rutaImagen);
+    }
+
+    /**
+     * Como {@link #generarGraficoLibrosPorCategoria}, pero devuelve el PNG en memoria.
+     */
+    public static byte[] renderizarGraficoLibrosPorCategoria(List<Object[]> categorias) {
+        return renderizarEnCache("categorías", 500, 380, huella(categorias),
+            () -> crearGraficoLibrosPorCategoria(categorias));
+    }
+
+    private static JFreeChart crearGraficoLibrosPorCategoria(List<Object[]> categorias) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         
         for (Object[] item : categorias) {
@@ -170,7 +230,7 @@ public final class GraficosEstadisticas {
         
         estilizarGrafico(chart);
         estilizarGraficoBarras((CategoryPlot) chart.getPlot(), dataset);
-        guardarGrafico(chart, rutaImagen, 500, 380);
+        return chart;
     }
 
     /**
@@ -180,7 +240,18 @@ public final class GraficosEstadisticas {
      * @param rutaImagen Ruta donde se guardará el gráfico
      */
     public static void generarGraficoEvolucionMensual(int[] datosMensuales, String rutaImagen) {
-        activarModoHeadless();
+        guardarGrafico(renderizarGraficoEvolucionMensual(datosMensuales), rutaImagen);
+    }
+
+    /**
+     * Como {@link #generarGraficoEvolucionMensual}, pero devuelve el PNG en memoria.
+     */
+    public static byte[] renderizarGraficoEvolucionMensual(int[] datosMensuales) {
+        return renderizarEnCache("evolución", 500, 400, huella(datosMensuales),
+            () -> crearGraficoEvolucionMensual(datosMensuales));
+    }
+
+    private static JFreeChart crearGraficoEvolucionMensual(int[] datosMensuales) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         String[] meses = {"Ene", "Feb", "Mar", "Abr", "May", "Jun",
                           "Jul", "Ago", "Sep", "Oct", "Nov", "Dic"};
@@ -222,13 +293,13 @@ public final class GraficosEstadisticas {
         renderer.setSeriesOutlinePaint(0, Color.WHITE);
         renderer.setSeriesOutlineStroke(0, new BasicStroke(2.0f));
         renderer.setBaseItemLabelsVisible(true);
-        renderer.setBaseItemLabelGenerator(new StandardCategoryItemLabelGenerator("{2}", INTEGER_FORMAT));
+        renderer.setBaseItemLabelGenerator(new StandardCategoryItemLabelGenerator("{2}", formatoEntero()));
         renderer.setBaseItemLabelFont(FONT_VALOR);
         renderer.setBaseItemLabelPaint(COLOR_TEXTO);
         renderer.setBasePositiveItemLabelPosition(new ItemLabelPosition(ItemLabelAnchor.OUTSIDE12, TextAnchor.BOTTOM_CENTER));
         plot.setRenderer(renderer);
 
-        guardarGrafico(chart, rutaImagen, 500, 400);
+        return chart;
     }
     
     /**
@@ -239,7 +310,18 @@ public final class GraficosEstadisticas {
      * @param rutaImagen Ruta donde se guardará el gráfico
      */
     public static void generarGraficoTiposMateriales(List<Object[]> tiposMateriales, String rutaImagen) {
-        activarModoHeadless();
+        guardarGrafico(renderizarGraficoTiposMateriales(tiposMateriales), rutaImagen);
+    }
+
+    /**
+     * Como {@link #generarGraficoTiposMateriales}, pero devuelve el PNG en memoria.
+     */
+    public static byte[] renderizarGraficoTiposMateriales(List<Object[]> tiposMateriales) {
+        return renderizarEnCache("tipos", 500, 380, huella(tiposMateriales),
+            () -> crearGraficoTiposMateriales(tiposMateriales));
+    }
+
+    private static JFreeChart crearGraficoTiposMateriales(List<Object[]> tiposMateriales) {
         
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         boolean hayDatos = false;
@@ -293,13 +375,13 @@ public final class GraficosEstadisticas {
         renderer.setMaximumBarWidth(0.08);
         renderer.setItemMargin(0.08);
         renderer.setBaseItemLabelsVisible(true);
-        renderer.setBaseItemLabelGenerator(new StandardCategoryItemLabelGenerator("{2}", INTEGER_FORMAT));
+        renderer.setBaseItemLabelGenerator(new StandardCategoryItemLabelGenerator("{2}", formatoEntero()));
         renderer.setBaseItemLabelFont(FONT_VALOR);
         renderer.setBaseItemLabelPaint(COLOR_TEXTO);
         
         plot.setRenderer(renderer);
         
-        guardarGrafico(chart, rutaImagen, 500, 380);
+        return chart;
     }
 
     /**
@@ -309,7 +391,18 @@ public final class GraficosEstadisticas {
      * @param rutaImagen Ruta donde se guardará el gráfico
      */
     public static void generarGraficoTopUsuarios(List<Object[]> topUsuarios, String rutaImagen) {
-        activarModoHeadless();
+        guardarGrafico(renderizarGraficoTopUsuarios(topUsuarios), rutaImagen);
+    }
+
+    /**
+     * Como {@link #generarGraficoTopUsuarios}, pero devuelve el PNG en memoria.
+     */
+    public static byte[] renderizarGraficoTopUsuarios(List<Object[]> topUsuarios) {
+        return renderizarEnCache("top usuarios", 500, 380, huella(topUsuarios),
+            () -> crearGraficoTopUsuarios(topUsuarios));
+    }
+
+    private static JFreeChart crearGraficoTopUsuarios(List<Object[]> topUsuarios) {
 
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
@@ -366,7 +459,7 @@ public final class GraficosEstadisticas {
         renderer.setItemMargin(0.10);
 
         renderer.setBaseItemLabelsVisible(true);
-        renderer.setBaseItemLabelGenerator(new StandardCategoryItemLabelGenerator("{2}", INTEGER_FORMAT));
+        renderer.setBaseItemLabelGenerator(new StandardCategoryItemLabelGenerator("{2}", formatoEntero()));
         renderer.setBaseItemLabelFont(FONT_VALOR);
         renderer.setBaseItemLabelPaint(COLOR_TEXTO);
 
@@ -377,7 +470,7 @@ public final class GraficosEstadisticas {
         plot.getDomainAxis().setLowerMargin(0.02);
         plot.getDomainAxis().setUpperMargin(0.02);
 
-        guardarGrafico(chart, rutaImagen, 500, 380);
+        return chart;
     }
 
     // ========== MÉTODOS PRIVADOS DE ESTILIZACIÓN ==========
@@ -423,7 +516,7 @@ public final class GraficosEstadisticas {
         renderer.setMaximumBarWidth(0.08);
         renderer.setItemMargin(0.08);
         renderer.setBaseItemLabelsVisible(true);
-        renderer.setBaseItemLabelGenerator(new StandardCategoryItemLabelGenerator("{2}", INTEGER_FORMAT));
+        renderer.setBaseItemLabelGenerator(new StandardCategoryItemLabelGenerator("{2}", formatoEntero()));
         renderer.setBaseItemLabelFont(FONT_VALOR);
         renderer.setBaseItemLabelPaint(COLOR_TEXTO);
         plot.setRenderer(renderer);
@@ -449,8 +542,13 @@ public final class GraficosEstadisticas {
 
     /**
      * Activa el modo headless de Java AWT para generar gráficos sin interfaz gráfica.
+     * Una sola vez: antes se registraba un shutdown hook nuevo por cada gráfico.
      */
-    private static void activarModoHeadless() {
+    private static synchronized void activarModoHeadless() {
+        if (headlessActivado) {
+            return;
+        }
+        headlessActivado = true;
         System.setProperty("java.awt.headless", "true");
         Runtime.getRuntime().addShutdownHook(new Thread(() -> System.clearProperty("java.awt.headless")));
     }
@@ -476,12 +574,60 @@ public final class GraficosEstadisticas {
         return s.length() <= maxLength ? s : s.substring(0, maxLength - 2) + "…";
     }
 
+    /**
+     * DecimalFormat no es seguro entre hilos y los gráficos se pueden dibujar
+     * en paralelo (ver InformeEstadisticasPDF): uno por generador de etiquetas.
+     */
+    private static DecimalFormat formatoEntero() {
+        return new DecimalFormat("#");
+    }
+
+    /**
+     * PNG del gráfico desde la caché o, si no está, dibujado y guardado en
+     * ella. Se devuelve una copia: el array de la caché no sale de aquí.
+     */
+    private static byte[] renderizarEnCache(String tipo, int ancho, int alto, List<?> datos,
+                                            Supplier<JFreeChart> crear) {
+        ClaveGrafico clave = new ClaveGrafico(tipo, ancho, alto, datos);
+        return CACHE.obtener(clave, c -> renderizarPNG(crear.get(), ancho, alto)).clone();
+    }
+
+    /** Filas [etiqueta, valor, ...] como listas, para comparar por contenido. */
+    private static List<?> huella(List<Object[]> filas) {
+        if (filas == null) {
+            return List.of();
+        }
+        List<List<Object>> huella = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            huella.add(Arrays.asList(fila.clone()));
+        }
+        return huella;
+    }
+
+    private static List<?> huella(int[] valores) {
+        return valores == null ? List.of() : Arrays.stream(valores).boxed().toList();
+    }
+
+    /**
+     * Dibuja el gráfico como PNG en memoria, sin pasar por disco.
+     */
+    private static byte[] renderizarPNG(JFreeChart chart, int ancho, int alto) {
+        activarModoHeadless();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(64 * 1024);
+        try {
+            ChartUtilities.writeChartAsPNG(salida, chart, ancho, alto, null, true, 8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al dibujar el gráfico: " + chart.getTitle().getText(), e);
+        }
+        return salida.toByteArray();
+    }
+
     /**
      * Guarda el gráfico como imagen PNG en la ruta especificada.
      */
-    private static void guardarGrafico(JFreeChart chart, String ruta, int ancho, int alto) {
+    private static void guardarGrafico(byte[] png, String ruta) {
         try {
-            ChartUtilities.saveChartAsPNG(new File(ruta), chart, ancho, alto, null, true, 8);
+            Files.write(Paths.get(ruta), png);
         } catch (IOException e) {
             throw new RuntimeException("Error al guardar el gráfico: " + ruta, e);
         }
@@ -0,0 +1,332 @@
+package biblioteca.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import javax.swing.table.TableModel;
+
+/**
+ * Índice invertido de trigramas sobre las columnas de texto de una tabla.
+ *
+ * Se construye una vez por carga de la tabla. Buscar es intersectar las
+ * listas de filas de cada trigrama del texto y confirmar los candidatos con
+ * contains() sobre el texto ya normalizado, así que el resultado es el mismo
+ * que buscar subcadena fila a fila, pero sin recorrer la tabla. La
+ * normalización quita mayúsculas y tildes ("jose" encuentra "José").
+ */
+public final class IndiceBusqueda {
+
+    // Separa columnas: ninguna búsqueda lo contiene, así no casa a caballo entre dos
+    private static final char SEPARADOR = '\u0000';
+
+    private final int filas;
+    private final String[] textos;
+    private final TablaTrigramas trigramas;
+    private final Map<String, BitSet> valoresFiltro;   // null si no hay columna de filtro
+
+    private IndiceBusqueda(int filas, String[] textos, TablaTrigramas trigramas,
+                           Map<String, BitSet> valoresFiltro) {
+        this.filas = filas;
+        this.textos = textos;
+        this.trigramas = trigramas;
+        this.valoresFiltro = valoresFiltro;
+    }
+
+    /**
+     * @param columnasTexto columnas donde se busca el texto
+     * @param columnaFiltro columna que se compara exacta con el combo (-1 si no hay)
+     */
+    public static IndiceBusqueda construir(TableModel modelo, int[] columnasTexto, int columnaFiltro) {
+        int filas = modelo.getRowCount();
+        int columnas = modelo.getColumnCount();
+        String[] textos = new String[filas];
+        Map<String, BitSet> valoresFiltro = columnaFiltro >= 0 ? new HashMap<>() : null;
+
+        StringBuilder sb = new StringBuilder();
+        for (int fila = 0; fila < filas; fila++) {
+            sb.setLength(0);
+            for (int col : columnasTexto) {
+                if (col < 0 || col >= columnas) {
+                    continue;   // columna que no existe: se ignora, como antes
+                }
+                Object valor = modelo.getValueAt(fila, col);
+                if (valor != null) {
+                    sb.append(normalizar(valor.toString()));
+                }
+                sb.append(SEPARADOR);
+            }
+            textos[fila] = sb.toString();
+
+            if (valoresFiltro != null && columnaFiltro < columnas) {
+                Object valor = modelo.getValueAt(fila, columnaFiltro);
+                valoresFiltro.computeIfAbsent(valor != null ? valor.toString() : "", k -> new BitSet(filas))
+                             .set(fila);
+            }
+        }
+        return new IndiceBusqueda(filas, textos, TablaTrigramas.construir(textos), valoresFiltro);
+    }
+
+    /**
+     * Filas que contienen el texto en alguna columna y cuyo valor de filtro
+     * es exactamente {@code filtro}. Texto o filtro vacíos no restringen.
+     */
+    public BitSet buscar(String texto, String filtro) {
+        BitSet resultado;
+        if (valoresFiltro != null && filtro != null && !filtro.isBlank()) {
+            BitSet conFiltro = valoresFiltro.get(filtro);
+            resultado = conFiltro != null ? (BitSet) conFiltro.clone() : new BitSet();
+        } else {
+            resultado = new BitSet(filas);
+            resultado.set(0, filas);
+        }
+
+        if (texto == null || texto.isBlank()) {
+            return resultado;
+        }
+        String buscado = normalizar(texto);
+
+        if (buscado.length() >= 3) {
+            BitSet candidatos = candidatos(buscado);
+            if (candidatos == null) {
+                return new BitSet();
+            }
+            resultado.and(candidatos);
+        }
+
+        // Confirmar: los trigramas solo descartan; el orden lo comprueba contains()
+        for (int fila = resultado.nextSetBit(0); fila >= 0; fila = resultado.nextSetBit(fila + 1)) {
+            if (!textos[fila].contains(buscado)) {
+                resultado.clear(fila);
+            }
+        }
+        return resultado;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Intersección de las listas de todos los trigramas del texto, empezando
+     * por la más corta. Null si algún trigrama no aparece en ninguna fila.
+     */
+    private BitSet candidatos(String buscado) {
+        int n = buscado.length() - 2;
+        int[] huecos = new int[n];
+        for (int i = 0; i < n; i++) {
+            huecos[i] = trigramas.buscar(clave(buscado, i));
+            if (huecos[i] < 0) {
+                return null;
+            }
+        }
+        int menor = 0;
+        for (int i = 1; i < n; i++) {
+            if (trigramas.cantidad(huecos[i]) < trigramas.cantidad(huecos[menor])) {
+                menor = i;
+            }
+        }
+
+        BitSet candidatos = new BitSet(filas);
+        trigramas.marcar(huecos[menor], candidatos);
+        BitSet otra = new BitSet(filas);
+        for (int i = 0; i < n && !candidatos.isEmpty(); i++) {
+            if (huecos[i] == huecos[menor]) {
+                continue;
+            }
+            otra.clear();
+            trigramas.marcar(huecos[i], otra);
+            candidatos.and(otra);
+        }
+        return candidatos;
+    }
+
+    // Tres caracteres en un long (nunca 0); -1 si cruza el separador de columnas
+    private static long clave(String texto, int i) {
+        char a = texto.charAt(i), b = texto.charAt(i + 1), c = texto.charAt(i + 2);
+        if (a == SEPARADOR || b == SEPARADOR || c == SEPARADOR) {
+            return -1;
+        }
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * Minúsculas y sin tildes. Latin-1 y Latin Extended-A (todo el español)
+     * van por una tabla precalculada; Normalizer solo se usa con lo demás.
+     */
+    static String normalizar(String texto) {
+        StringBuilder sb = null;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            char plegado = c < PLEGADO.length ? PLEGADO[c] : 0;
+            if (plegado == c) {
+                if (sb != null) sb.append(c);
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(texto.length()).append(texto, 0, i);
+            }
+            if (plegado != 0) {
+                sb.append(plegado);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                plegarRaro(c, sb);
+            }
+        }
+        return sb != null ? sb.toString() : texto;
+    }
+
+    private static final char[] PLEGADO = new char[0x180];
+    static {
+        StringBuilder sb = new StringBuilder();
+        for (char c = 0; c < PLEGADO.length; c++) {
+            sb.setLength(0);
+            plegarRaro(c, sb);
+            // Si se descompone en más de un carácter (ß, æ...) se deja como está
+            PLEGADO[c] = sb.length() == 1 ? sb.charAt(0) : Character.toLowerCase(c);
+        }
+    }
+
+    private static void plegarRaro(char c, StringBuilder destino) {
+        String descompuesto = Normalizer.normalize(String.valueOf(Character.toLowerCase(c)), Normalizer.Form.NFD);
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char d = descompuesto.charAt(i);
+            if (Character.getType(d) != Character.NON_SPACING_MARK) {
+                destino.append(d);
+            }
+        }
+    }
+
+    /**
+     * Trigrama -> filas donde aparece, sin objetos por entrada: direccionamiento
+     * abierto sobre long[] y todas las listas seguidas en un solo int[].
+     */
+    private static final class TablaTrigramas {
+
+        private long[] claves;            // 0 = hueco libre (ningún trigrama real vale 0)
+        private int[] cuantas;
+        private int[] ultimaFila;         // solo durante la construcción
+        private int[] desde;              // inicio de la lista en filasPorClave
+        private int[] filasPorClave;
+        private int mascara;
+        private int ocupados;
+
+        private TablaTrigramas(int capacidad) {
+            claves = new long[capacidad];
+            cuantas = new int[capacidad];
+            ultimaFila = new int[capacidad];
+            Arrays.fill(ultimaFila, -1);
+            mascara = capacidad - 1;
+        }
+
+        /**
+         * Dos pasadas: contar cuántas filas tiene cada trigrama y luego
+         * rellenar. Las filas se recorren en orden, así cada lista sale ordenada.
+         */
+        static TablaTrigramas construir(String[] textos) {
+            TablaTrigramas tabla = new TablaTrigramas(1 << 12);
+
+            int ocurrencias = 0;
+            for (int fila = 0; fila < textos.length; fila++) {
+                String texto = textos[fila];
+                for (int i = 0; i + 3 <= texto.length(); i++) {
+                    long clave = clave(texto, i);
+                    if (clave > 0) {
+                        int h = tabla.hueco(clave);
+                        if (tabla.claves[h] == 0) {
+                            if (++tabla.ocupados > tabla.claves.length / 2) {
+                                tabla.crecer();
+                                h = tabla.hueco(clave);
+                            }
+                            tabla.claves[h] = clave;
+                        }
+                        // Un trigrama repetido en la misma fila cuenta una vez
+                        if (tabla.ultimaFila[h] != fila) {
+                            tabla.ultimaFila[h] = fila;
+                            tabla.cuantas[h]++;
+                            ocurrencias++;
+                        }
+                    }
+                }
+            }
+
+            int capacidad = tabla.claves.length;
+            tabla.desde = new int[capacidad];
+            int acumulado = 0;
+            for (int h = 0; h < capacidad; h++) {
+                tabla.desde[h] = acumulado;
+                acumulado += tabla.cuantas[h];
+            }
+
+            tabla.filasPorClave = new int[ocurrencias];
+            int[] llenas = new int[capacidad];
+            Arrays.fill(tabla.ultimaFila, -1);
+            for (int fila = 0; fila < textos.length; fila++) {
+                String texto = textos[fila];
+                for (int i = 0; i + 3 <= texto.length(); i++) {
+                    long clave = clave(texto, i);
+                    if (clave > 0) {
+                        int h = tabla.hueco(clave);
+                        if (tabla.ultimaFila[h] != fila) {
+                            tabla.ultimaFila[h] = fila;
+                            tabla.filasPorClave[tabla.desde[h] + llenas[h]++] = fila;
+                        }
+                    }
+                }
+            }
+            tabla.ultimaFila = null;
+            return tabla;
+        }
+
+        private void crecer() {
+            long[] viejasClaves = claves;
+            int[] viejasCuantas = cuantas;
+            int[] viejaUltima = ultimaFila;
+
+            int capacidad = viejasClaves.length * 2;
+            claves = new long[capacidad];
+            cuantas = new int[capacidad];
+            ultimaFila = new int[capacidad];
+            Arrays.fill(ultimaFila, -1);
+            mascara = capacidad - 1;
+
+            for (int i = 0; i < viejasClaves.length; i++) {
+                if (viejasClaves[i] != 0) {
+                    int h = hueco(viejasClaves[i]);
+                    claves[h] = viejasClaves[i];
+                    cuantas[h] = viejasCuantas[i];
+                    ultimaFila[h] = viejaUltima[i];
+                }
+            }
+        }
+
+        /** Hueco de la clave: el suyo si ya está, o el libre donde iría. */
+        private int hueco(long clave) {
+            int h = (int) ((clave * 0x9E3779B97F4A7C15L) >>> 40) & mascara;
+            while (claves[h] != 0 && claves[h] != clave) {
+                h = (h + 1) & mascara;
+            }
+            return h;
+        }
+
+        /** Hueco de la clave, o -1 si el trigrama no aparece en ninguna fila. */
+        int buscar(long clave) {
+            if (clave <= 0) {
+                return -1;
+            }
+            int h = hueco(clave);
+            return claves[h] == clave ? h : -1;
+        }
+
+        int cantidad(int hueco) {
+            return cuantas[hueco];
+        }
+
+        void marcar(int hueco, BitSet destino) {
+            int fin = desde[hueco] + cuantas[hueco];
+            for (int i = desde[hueco]; i < fin; i++) {
+                destino.set(filasPorClave[i]);
+            }
+        }
+    }
+}
@@ -13,6 +13,8 @@ import java.util.logging.Logger;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xddf.usermodel.chart.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
 
 public final class InformeEstadisticasExcel {
@@ -30,27 +32,43 @@ public final class InformeEstadisticasExcel {
     private static final byte[] COLOR_MED_GRAY = {(byte) 217, (byte) 217, (byte) 217}; // Gris medio
     private static final byte[] COLOR_TEXT = {51, 51, 51};                             // Gris oscuro para texto
 
+    // Filas de cada hoja de detalle que se mantienen en memoria; las
+    // anteriores ya están volcadas a un temporal y no se pueden tocar
+    private static final int FILAS_EN_MEMORIA = 200;
+
+    // Filas de materiales por página al recorrer el catálogo
+    private static final int TAMANO_PAGINA_MATERIALES = 1000;
+
+    private static final byte[] COLOR_FONDO_OK = {(byte) 230, (byte) 255, (byte) 230};
+    private static final byte[] COLOR_FONDO_ALERTA = {(byte) 255, (byte) 230, (byte) 230};
+
     private InformeEstadisticasExcel() {}
 
     public static void generar(String rutaArchivo) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            
-            CategoriaDAO categoriaDAO = new CategoriaDAOImpl();
-            AutorDAO autorDAO = new AutorDAOImpl();
-            PersonaDAO personaDAO = new PersonaDAOImpl();
-            MaterialDAO materialDAO = new MaterialDAOImpl(categoriaDAO, autorDAO);
-            EjemplarDAO ejemplarDAO = new EjemplarDAOImpl(materialDAO);
-            PrestamoDAO prestamoDAO = new PrestamoDAOImpl(personaDAO, materialDAO, ejemplarDAO);
-            MultaDAO multaDAO = new MultaDAOImpl();
-
-            crearHojaDashboard(workbook, materialDAO, personaDAO, prestamoDAO, multaDAO);
-            crearHojaPrestamos(workbook, prestamoDAO);
-            crearHojaUsuarios(workbook, personaDAO, prestamoDAO);
-            crearHojaMateriales(workbook, materialDAO);
-            crearHojaMultas(workbook, multaDAO);
-
-            try (FileOutputStream fileOut = new FileOutputStream(rutaArchivo)) {
-                workbook.write(fileOut);
+        PersonaDAO personaDAO = new PersonaDAOImpl();
+        MaterialDAO materialDAO = new MaterialDAOImpl();
+        InformeDAO informeDAO = new InformeDAOImpl();
+
+        // El dashboard lleva gráficos, que SXSSF no sabe escribir: se arma
+        // entero en memoria. Las hojas de detalle, que crecen con los datos,
+        // van en streaming sobre el mismo libro.
+        try (XSSFWorkbook plantilla = new XSSFWorkbook()) {
+            Estilos estilos = new Estilos(plantilla);
+            crearHojaDashboard(plantilla, estilos, new EstadisticasDAOImpl().obtenerResumen(), informeDAO);
+
+            SXSSFWorkbook workbook = new SXSSFWorkbook(plantilla, FILAS_EN_MEMORIA);
+            workbook.setCompressTempFiles(true);
+            try {
+                crearHojaPrestamos(workbook, estilos, informeDAO);
+                crearHojaUsuarios(workbook, estilos, personaDAO, informeDAO);
+                crearHojaMateriales(workbook, estilos, materialDAO);
+                crearHojaMultas(workbook, estilos, informeDAO);
+
+                try (FileOutputStream fileOut = new FileOutputStream(rutaArchivo)) {
+                    workbook.write(fileOut);
+                }
+            } finally {
+                workbook.dispose();   // borra los temporales de las filas ya escritas
             }
 
             LOG.info("Informe Excel generado exitosamente: " + rutaArchivo);
@@ -62,9 +80,8 @@ public final class InformeEstadisticasExcel {
     }
 
     // ========== HOJA 1: DASHBOARD EJECUTIVO ==========
-    private static void crearHojaDashboard(XSSFWorkbook workbook, MaterialDAO materialDAO, 
-                                           PersonaDAO personaDAO, PrestamoDAO prestamoDAO,
-                                           MultaDAO multaDAO) {
+    private static void crearHojaDashboard(XSSFWorkbook workbook, Estilos estilos, ResumenEstadisticas resumen,
+                                           InformeDAO informeDAO) {
         XSSFSheet sheet = workbook.createSheet("Dashboard");
         
         // Configurar anchos de columna para diseño de dos columnas
@@ -83,7 +100,7 @@ public final class InformeEstadisticasExcel {
         headerRow1.setHeightInPoints(35);
         Cell headerCell = headerRow1.createCell(1);
         headerCell.setCellValue("SISTEMA DE GESTIÓN BIBLIOTECARIA");
-        headerCell.setCellStyle(crearEstiloHeaderPrincipal(workbook));
+        headerCell.setCellStyle(estilos.headerPrincipal);
         sheet.addMergedRegion(new CellRangeAddress(rowNum, rowNum, 1, 5));
         rowNum++;
 
@@ -92,43 +109,45 @@ public final class InformeEstadisticasExcel {
         Cell subheaderCell = headerRow2.createCell(1);
         subheaderCell.setCellValue("Informe Ejecutivo de Estadísticas | " + 
             LocalDate.now().format(DateTimeFormatter.ofPattern("MMMM yyyy")).toUpperCase());
-        subheaderCell.setCellStyle(crearEstiloSubheader(workbook));
+        subheaderCell.setCellStyle(estilos.subheader);
         sheet.addMergedRegion(new CellRangeAddress(rowNum, rowNum, 1, 5));
         rowNum += 2;
 
-        // Obtener estadísticas
-        int totalMateriales = materialDAO.listarTodos().size();
-        int totalUsuarios = (int) personaDAO.listarTodos().stream()
-            .filter(p -> "USUARIO".equals(p.getRol())).count();
-        int activos = prestamoDAO.contarPrestamosActivos();
-        int vencidos = prestamoDAO.contarPrestamosVencidos();
-        int devueltos = prestamoDAO.contarPrestamosDevueltos();
+        // Obtener estadísticas: totales del resumen y multas agrupadas en la BD
+        int totalMateriales = resumen.totalMateriales();
+        int totalUsuarios = resumen.totalPersonas();
+        int activos = resumen.prestamosActivos();
+        int vencidos = resumen.prestamosVencidos();
+        int devueltos = resumen.prestamosDevueltos();
         int totalPrestamos = activos + vencidos + devueltos;
-        int totalMultas = multaDAO.listarTodas().size();
-        double montoMultas = multaDAO.listarTodas().stream()
-            .mapToDouble(Multa::getMonto).sum();
+        int totalMultas = 0;
+        double montoMultas = 0;
+        for (Object[] fila : informeDAO.contarMultasPorEstado()) {
+            totalMultas += (Integer) fila[1];
+            montoMultas += (Double) fila[2];
+        }
 
         // ===== TARJETAS KPI (2 COLUMNAS) =====
         int kpiStartRow = rowNum;
         
         // Fila 1 de KPIs
-        crearTarjetaKPI(sheet, workbook, rowNum, 1, "CATÁLOGO TOTAL", 
+        crearTarjetaKPI(sheet, estilos, rowNum, 1, "CATÁLOGO TOTAL", 
             String.valueOf(totalMateriales), "Materiales disponibles", COLOR_ACCENT);
-        crearTarjetaKPI(sheet, workbook, rowNum, 4, "USUARIOS ACTIVOS", 
+        crearTarjetaKPI(sheet, estilos, rowNum, 4, "USUARIOS ACTIVOS", 
             String.valueOf(totalUsuarios), "Miembros registrados", COLOR_SUCCESS);
         rowNum += 4;
 
         // Fila 2 de KPIs
-        crearTarjetaKPI(sheet, workbook, rowNum, 1, "PRÉSTAMOS ACTIVOS", 
+        crearTarjetaKPI(sheet, estilos, rowNum, 1, "PRÉSTAMOS ACTIVOS", 
             String.valueOf(activos), "En circulación", COLOR_HEADER);
-        crearTarjetaKPI(sheet, workbook, rowNum, 4, "PRÉSTAMOS VENCIDOS", 
+        crearTarjetaKPI(sheet, estilos, rowNum, 4, "PRÉSTAMOS VENCIDOS", 
             String.valueOf(vencidos), "Requieren atención", COLOR_DANGER);
         rowNum += 4;
 
         // Fila 3 de KPIs
-        crearTarjetaKPI(sheet, workbook, rowNum, 1, "DEVOLUCIONES", 
+        crearTarjetaKPI(sheet, estilos, rowNum, 1, "DEVOLUCIONES", 
             String.valueOf(devueltos), "Completados exitosamente", COLOR_SUCCESS);
-        crearTarjetaKPI(sheet, workbook, rowNum, 4, "MULTAS TOTALES", 
+        crearTarjetaKPI(sheet, estilos, rowNum, 4, "MULTAS TOTALES", 
             String.format("$%.2f", montoMultas), totalMultas + " registros", COLOR_WARNING);
         rowNum += 5;
 
@@ -139,7 +158,7 @@ public final class InformeEstadisticasExcel {
         seccionGraficos.setHeightInPoints(25);
         Cell tituloGraficos = seccionGraficos.createCell(1);
         tituloGraficos.setCellValue("ANÁLISIS VISUAL DE DATOS");
-        tituloGraficos.setCellStyle(crearEstiloSeccionTitulo(workbook));
+        tituloGraficos.setCellStyle(estilos.seccionTitulo);
         sheet.addMergedRegion(new CellRangeAddress(rowNum, rowNum, 1, 5));
         rowNum += 2;
 
@@ -154,35 +173,35 @@ public final class InformeEstadisticasExcel {
             Row headerPie = sheet.createRow(rowNum++);
             Cell cellEstado = headerPie.createCell(1);
             cellEstado.setCellValue("Estado");
-            cellEstado.setCellStyle(crearEstiloCelda(workbook));
+            cellEstado.setCellStyle(estilos.celda);
             
             Cell cellCantidad = headerPie.createCell(2);
             cellCantidad.setCellValue("Cantidad");
-            cellCantidad.setCellStyle(crearEstiloCelda(workbook));
+            cellCantidad.setCellStyle(estilos.celda);
             
             Row rowActivos = sheet.createRow(rowNum++);
             Cell activosLabel = rowActivos.createCell(1);
             activosLabel.setCellValue("Activos");
-            activosLabel.setCellStyle(crearEstiloCelda(workbook));
+            activosLabel.setCellStyle(estilos.celda);
             Cell activosValue = rowActivos.createCell(2);
             activosValue.setCellValue(activos);
-            activosValue.setCellStyle(crearEstiloCelda(workbook));
+            activosValue.setCellStyle(estilos.celda);
             
             Row rowVencidos = sheet.createRow(rowNum++);
             Cell vencidosLabel = rowVencidos.createCell(1);
             vencidosLabel.setCellValue("Vencidos");
-            vencidosLabel.setCellStyle(crearEstiloCelda(workbook));
+            vencidosLabel.setCellStyle(estilos.celda);
             Cell vencidosValue = rowVencidos.createCell(2);
             vencidosValue.setCellValue(vencidos);
-            vencidosValue.setCellStyle(crearEstiloCelda(workbook));
+            vencidosValue.setCellStyle(estilos.celda);
             
             Row rowDevueltos = sheet.createRow(rowNum++);
             Cell devueltosLabel = rowDevueltos.createCell(1);
             devueltosLabel.setCellValue("Devueltos");
-            devueltosLabel.setCellStyle(crearEstiloCelda(workbook));
+            devueltosLabel.setCellStyle(estilos.celda);
             Cell devueltosValue = rowDevueltos.createCell(2);
             devueltosValue.setCellValue(devueltos);
-            devueltosValue.setCellStyle(crearEstiloCelda(workbook));
+            devueltosValue.setCellStyle(estilos.celda);
 
             // Crear gráfico de pie
             XSSFDrawing drawing = sheet.createDrawingPatriarch();
@@ -211,26 +230,26 @@ public final class InformeEstadisticasExcel {
             int dataLineStart = rowNum;
             
             String[] meses = obtenerUltimosMeses(6);
-            int[] prestamosPorMes = calcularPrestamosPorMes(prestamoDAO, 6);
+            int[] prestamosPorMes = informeDAO.contarPrestamosPorMes(6);
 
             Row headerLine = sheet.createRow(rowNum++);
             Cell mesHeader = headerLine.createCell(4);
             mesHeader.setCellValue("Mes");
-            mesHeader.setCellStyle(crearEstiloCelda(workbook));
+            mesHeader.setCellStyle(estilos.celda);
             
             Cell prestamosHeader = headerLine.createCell(5);
             prestamosHeader.setCellValue("Préstamos");
-            prestamosHeader.setCellStyle(crearEstiloCelda(workbook));
+            prestamosHeader.setCellStyle(estilos.celda);
 
             for (int i = 0; i < meses.length; i++) {
                 Row mesRow = sheet.createRow(rowNum++);
                 Cell mesCell = mesRow.createCell(4);
                 mesCell.setCellValue(meses[i]);
-                mesCell.setCellStyle(crearEstiloCelda(workbook));
+                mesCell.setCellStyle(estilos.celda);
                 
                 Cell prestamoCell = mesRow.createCell(5);
                 prestamoCell.setCellValue(prestamosPorMes[i]);
-                prestamoCell.setCellStyle(crearEstiloCelda(workbook));
+                prestamoCell.setCellStyle(estilos.celda);
             }
 
             XSSFClientAnchor anchorLine = drawing.createAnchor(0, 0, 0, 0, 4, graficoRow, 6, graficoRow + 15);
@@ -261,28 +280,28 @@ public final class InformeEstadisticasExcel {
             rowNum += 2;
             int dataBarStart = rowNum;
             
-            Map<String, Integer> materialesPorCategoria = calcularMaterialesPorCategoria(materialDAO);
+            List<Object[]> materialesPorCategoria = informeDAO.contarMaterialesPorCategoria();
             
             if (!materialesPorCategoria.isEmpty()) {
                 Row headerBar = sheet.createRow(rowNum++);
                 Cell catHeader = headerBar.createCell(1);
                 catHeader.setCellValue("Categoría");
-                catHeader.setCellStyle(crearEstiloCelda(workbook));
+                catHeader.setCellStyle(estilos.celda);
                 
                 Cell cantHeader = headerBar.createCell(2);
                 cantHeader.setCellValue("Cantidad");
-                cantHeader.setCellStyle(crearEstiloCelda(workbook));
+                cantHeader.setCellStyle(estilos.celda);
 
                 int barRows = 0;
-                for (Map.Entry<String, Integer> entry : materialesPorCategoria.entrySet()) {
+                for (Object[] fila : materialesPorCategoria) {
                     Row catRow = sheet.createRow(rowNum++);
                     Cell catCell = catRow.createCell(1);
-                    catCell.setCellValue(entry.getKey());
-                    catCell.setCellStyle(crearEstiloCelda(workbook));
+                    catCell.setCellValue((String) fila[0]);
+                    catCell.setCellStyle(estilos.celda);
                     
                     Cell valCell = catRow.createCell(2);
-                    valCell.setCellValue(entry.getValue());
-                    valCell.setCellStyle(crearEstiloCelda(workbook));
+                    valCell.setCellValue((Integer) fila[1]);
+                    valCell.setCellStyle(estilos.celda);
                     barRows++;
                 }
 
@@ -312,28 +331,28 @@ public final class InformeEstadisticasExcel {
             // ===== GRÁFICO 4: TOP USUARIOS (BAR CHART) =====
             int dataTopStart = rowNum;
             
-            Map<String, Integer> topUsuarios = calcularTopUsuarios(personaDAO, prestamoDAO, 5);
+            List<Object[]> topUsuarios = informeDAO.obtenerTopUsuarios(5);
             
             if (!topUsuarios.isEmpty()) {
                 Row headerTop = sheet.createRow(rowNum++);
                 Cell userHeader = headerTop.createCell(4);
                 userHeader.setCellValue("Usuario");
-                userHeader.setCellStyle(crearEstiloCelda(workbook));
+                userHeader.setCellStyle(estilos.celda);
                 
                 Cell prestHeader = headerTop.createCell(5);
                 prestHeader.setCellValue("Préstamos");
-                prestHeader.setCellStyle(crearEstiloCelda(workbook));
+                prestHeader.setCellStyle(estilos.celda);
 
                 int topRows = 0;
-                for (Map.Entry<String, Integer> entry : topUsuarios.entrySet()) {
+                for (Object[] fila : topUsuarios) {
                     Row userRow = sheet.createRow(rowNum++);
                     Cell userCell = userRow.createCell(4);
-                    userCell.setCellValue(entry.getKey());
-                    userCell.setCellStyle(crearEstiloCelda(workbook));
+                    userCell.setCellValue((String) fila[0]);
+                    userCell.setCellStyle(estilos.celda);
                     
                     Cell prestCell = userRow.createCell(5);
-                    prestCell.setCellValue(entry.getValue());
-                    prestCell.setCellStyle(crearEstiloCelda(workbook));
+                    prestCell.setCellValue((Integer) fila[1]);
+                    prestCell.setCellStyle(estilos.celda);
                     topRows++;
                 }
 
@@ -372,7 +391,7 @@ public final class InformeEstadisticasExcel {
             Row noDataRow = sheet.createRow(rowNum++);
             Cell noDataCell = noDataRow.createCell(1);
             noDataCell.setCellValue("No hay datos suficientes para generar gráficos");
-            noDataCell.setCellStyle(crearEstiloCelda(workbook));
+            noDataCell.setCellStyle(estilos.celda);
             sheet.addMergedRegion(new CellRangeAddress(rowNum - 1, rowNum - 1, 1, 5));
         }
 
@@ -383,12 +402,12 @@ public final class InformeEstadisticasExcel {
         footerCell.setCellValue("Generado automáticamente el " + 
             LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) + 
             " | Sistema de Gestión Bibliotecaria v1.0");
-        footerCell.setCellStyle(crearEstiloPiePagina(workbook));
+        footerCell.setCellStyle(estilos.piePagina);
         sheet.addMergedRegion(new CellRangeAddress(graficoRow + 32, graficoRow + 32, 1, 5));
     }
 
     // Método para crear tarjetas KPI profesionales
-    private static void crearTarjetaKPI(XSSFSheet sheet, XSSFWorkbook workbook, int rowStart, 
+    private static void crearTarjetaKPI(XSSFSheet sheet, Estilos estilos, int rowStart, 
                                         int colStart, String titulo, String valor, 
                                         String descripcion, byte[] color) {
         // Título de la tarjeta
@@ -398,7 +417,7 @@ public final class InformeEstadisticasExcel {
         
         Cell cellTitulo = row1.createCell(colStart);
         cellTitulo.setCellValue(titulo);
-        cellTitulo.setCellStyle(crearEstiloKPITitulo(workbook, color));
+        cellTitulo.setCellStyle(estilos.kpiTitulo(color));
         sheet.addMergedRegion(new CellRangeAddress(rowStart, rowStart, colStart, colStart + 1));
 
         // Valor principal
@@ -408,7 +427,7 @@ public final class InformeEstadisticasExcel {
         
         Cell cellValor = row2.createCell(colStart);
         cellValor.setCellValue(valor);
-        cellValor.setCellStyle(crearEstiloKPIValor(workbook));
+        cellValor.setCellStyle(estilos.kpiValor);
         sheet.addMergedRegion(new CellRangeAddress(rowStart + 1, rowStart + 1, colStart, colStart + 1));
 
         // Descripción
@@ -418,7 +437,7 @@ public final class InformeEstadisticasExcel {
         
         Cell cellDesc = row3.createCell(colStart);
         cellDesc.setCellValue(descripcion);
-        cellDesc.setCellStyle(crearEstiloKPIDescripcion(workbook));
+        cellDesc.setCellStyle(estilos.kpiDescripcion);
         sheet.addMergedRegion(new CellRangeAddress(rowStart + 2, rowStart + 2, colStart, colStart + 1));
     }
 
@@ -434,64 +453,9 @@ public final class InformeEstadisticasExcel {
         return meses;
     }
 
-    private static int[] calcularPrestamosPorMes(PrestamoDAO prestamoDAO, int numMeses) {
-        int[] resultado = new int[numMeses];
-        List<Prestamo> prestamos = prestamoDAO.listarTodos();
-        LocalDate hoy = LocalDate.now();
-        
-        for (int i = 0; i < numMeses; i++) {
-            LocalDate mesObjetivo = hoy.minusMonths(numMeses - 1 - i);
-            int mes = mesObjetivo.getMonthValue();
-            int anio = mesObjetivo.getYear();
-            
-            resultado[i] = (int) prestamos.stream()
-                .filter(p -> p.getFechaPrestamo().getMonthValue() == mes && 
-                            p.getFechaPrestamo().getYear() == anio)
-                .count();
-        }
-        
-        return resultado;
-    }
-
-    private static Map<String, Integer> calcularMaterialesPorCategoria(MaterialDAO materialDAO) {
-        Map<String, Integer> resultado = new LinkedHashMap<>();
-        List<MaterialBibliografico> materiales = materialDAO.listarTodos();
-        
-        for (MaterialBibliografico m : materiales) {
-            String categoria = (m.getCategoria() != null) ? 
-                m.getCategoria().getNombreCategoria() : "Sin categoría";
-            resultado.put(categoria, resultado.getOrDefault(categoria, 0) + 1);
-        }
-        
-        return resultado;
-    }
-
-    private static Map<String, Integer> calcularTopUsuarios(PersonaDAO personaDAO, 
-                                                            PrestamoDAO prestamoDAO, int top) {
-        Map<String, Integer> conteo = new HashMap<>();
-        List<Persona> usuarios = personaDAO.listarTodos();
-        List<Prestamo> prestamos = prestamoDAO.listarTodos();
-        
-        for (Persona u : usuarios) {
-            int total = (int) prestamos.stream()
-                .filter(p -> p.getPersona() != null && p.getPersona().getId() == u.getId())
-                .count();
-            if (total > 0) {
-                conteo.put(u.getNombre() + " " + u.getApellido(), total);
-            }
-        }
-        
-        return conteo.entrySet().stream()
-            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-            .limit(top)
-            .collect(LinkedHashMap::new, 
-                    (m, e) -> m.put(e.getKey(), e.getValue()), 
-                    Map::putAll);
-    }
-
     // ========== HOJA 2: PRÉSTAMOS ==========
-    private static void crearHojaPrestamos(XSSFWorkbook workbook, PrestamoDAO prestamoDAO) {
-        XSSFSheet sheet = workbook.createSheet("Préstamos");
+    private static void crearHojaPrestamos(SXSSFWorkbook workbook, Estilos estilos, InformeDAO informeDAO) {
+        SXSSFSheet sheet = workbook.createSheet("Préstamos");
         
         sheet.setColumnWidth(0, 2500);
         sheet.setColumnWidth(1, 6500);
@@ -501,77 +465,38 @@ public final class InformeEstadisticasExcel {
         sheet.setColumnWidth(5, 4000);
         sheet.setColumnWidth(6, 3500);
 
-        int rowNum = 0;
-
-        // Título
-        Row titleRow = sheet.createRow(rowNum);
-        titleRow.setHeightInPoints(30);
-        Cell titleCell = titleRow.createCell(0);
-        titleCell.setCellValue("REGISTRO DETALLADO DE PRÉSTAMOS");
-        titleCell.setCellStyle(crearEstiloHeaderPrincipal(workbook));
-        sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 6));
-        rowNum += 2;
-
-        // Encabezados
-        Row headerRow = sheet.createRow(rowNum++);
-        headerRow.setHeightInPoints(25);
         String[] headers = {"ID", "Usuario", "Material", "Fecha Préstamo", "Fecha Esperada", "Fecha Devolución", "Estado"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(crearEstiloEncabezadoTabla(workbook));
-        }
+        int[] rowNum = {crearEncabezadoHoja(sheet, estilos, "REGISTRO DETALLADO DE PRÉSTAMOS", headers)};
 
-        // Datos
-        List<Prestamo> prestamos = prestamoDAO.listarTodos();
-        for (Prestamo p : prestamos) {
-            Row dataRow = sheet.createRow(rowNum++);
+        // Datos: cada préstamo se escribe según sale del ResultSet
+        informeDAO.recorrerPrestamos(p -> {
+            Row dataRow = sheet.createRow(rowNum[0]++);
             dataRow.setHeightInPoints(20);
             
-            dataRow.createCell(0).setCellValue(p.getIdPrestamo());
-            
-            String nombreUsuario = (p.getPersona() != null) ? 
-                p.getPersona().getNombre() + " " + p.getPersona().getApellido() : "N/A";
-            dataRow.createCell(1).setCellValue(nombreUsuario);
-            
-            String tituloMaterial = (p.getMaterial() != null) ? p.getMaterial().getTitulo() : "N/A";
-            dataRow.createCell(2).setCellValue(tituloMaterial);
-            
-            dataRow.createCell(3).setCellValue(p.getFechaPrestamo().format(DATE_FORMATTER));
-            dataRow.createCell(4).setCellValue(p.getFechaDevolucionEsperada().format(DATE_FORMATTER));
-            
-            if (p.getFechaDevolucionReal() != null) {
-                dataRow.createCell(5).setCellValue(p.getFechaDevolucionReal().format(DATE_FORMATTER));
-            } else {
-                dataRow.createCell(5).setCellValue("-");
+            celda(dataRow, 0, estilos.celda).setCellValue(p.idPrestamo());
+            celda(dataRow, 1, estilos.celda).setCellValue(p.usuario() != null ? p.usuario() : "N/A");
+            celda(dataRow, 2, estilos.celda).setCellValue(p.material() != null ? p.material() : "N/A");
+            celda(dataRow, 3, estilos.celda).setCellValue(formatearFecha(p.fechaPrestamo()));
+            celda(dataRow, 4, estilos.celda).setCellValue(formatearFecha(p.fechaEsperada()));
+            celda(dataRow, 5, estilos.celda).setCellValue(formatearFecha(p.fechaDevolucion()));
+
+            // Colores según estado
+            CellStyle estadoStyle = estilos.celda;
+            if ("Vencido".equalsIgnoreCase(p.estado())) {
+                estadoStyle = estilos.celdaAlerta;
+            } else if ("Activo".equalsIgnoreCase(p.estado())) {
+                estadoStyle = estilos.celdaOk;
             }
-            
-            Cell estadoCell = dataRow.createCell(6);
-            estadoCell.setCellValue(p.getEstado());
-            
-            // Aplicar estilos con colores según estado
-            for (int i = 0; i < 6; i++) {
-                dataRow.getCell(i).setCellStyle(crearEstiloCelda(workbook));
-            }
-            
-            XSSFCellStyle estadoStyle = crearEstiloCelda(workbook);
-            if ("VENCIDO".equals(p.getEstado())) {
-                estadoStyle.setFillForegroundColor(new XSSFColor(new byte[]{(byte) 255, (byte) 230, (byte) 230}));
-                estadoStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            } else if ("ACTIVO".equals(p.getEstado())) {
-                estadoStyle.setFillForegroundColor(new XSSFColor(new byte[]{(byte) 230, (byte) 255, (byte) 230}));
-                estadoStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            }
-            estadoCell.setCellStyle(estadoStyle);
-        }
+            celda(dataRow, 6, estadoStyle).setCellValue(p.estado());
+        });
 
-        sheet.setAutoFilter(new CellRangeAddress(2, rowNum - 1, 0, 6));
-        sheet.createFreezePane(0, 3);
+        terminarHoja(sheet, rowNum[0], headers.length);
     }
 
     // ========== HOJA 3: USUARIOS ==========
-    private static void crearHojaUsuarios(XSSFWorkbook workbook, PersonaDAO personaDAO, PrestamoDAO prestamoDAO) {
-        XSSFSheet sheet = workbook.createSheet("Usuarios");
+    private static void crearHojaUsuarios(SXSSFWorkbook workbook, Estilos estilos,
+                                          PersonaDAO personaDAO, InformeDAO informeDAO) {
+        SXSSFSheet sheet = workbook.createSheet("Usuarios");
         
         sheet.setColumnWidth(0, 2500);
         sheet.setColumnWidth(1, 7000);
@@ -579,53 +504,27 @@ public final class InformeEstadisticasExcel {
         sheet.setColumnWidth(3, 4000);
         sheet.setColumnWidth(4, 3500);
 
-        int rowNum = 0;
-
-        Row titleRow = sheet.createRow(rowNum);
-        titleRow.setHeightInPoints(30);
-        Cell titleCell = titleRow.createCell(0);
-        titleCell.setCellValue("DIRECTORIO DE USUARIOS");
-        titleCell.setCellStyle(crearEstiloHeaderPrincipal(workbook));
-        sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 4));
-        rowNum += 2;
-
-        Row headerRow = sheet.createRow(rowNum++);
-        headerRow.setHeightInPoints(25);
         String[] headers = {"ID", "Nombre Completo", "Email", "Total Préstamos", "Rol"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(crearEstiloEncabezadoTabla(workbook));
-        }
+        int rowNum = crearEncabezadoHoja(sheet, estilos, "DIRECTORIO DE USUARIOS", headers);
 
-        List<Persona> usuarios = personaDAO.listarTodos();
-        for (Persona u : usuarios) {
+        Map<Integer, Integer> prestamosPorPersona = informeDAO.contarPrestamosPorPersona();
+        for (Persona u : personaDAO.listarTodos()) {
             Row dataRow = sheet.createRow(rowNum++);
             dataRow.setHeightInPoints(20);
             
-            dataRow.createCell(0).setCellValue(u.getId());
-            dataRow.createCell(1).setCellValue(u.getNombre() + " " + u.getApellido());
-            dataRow.createCell(2).setCellValue(u.getEmail());
-            
-            int totalPrestamos = (int) prestamoDAO.listarTodos().stream()
-                .filter(p -> p.getPersona() != null && p.getPersona().getId() == u.getId())
-                .count();
-            dataRow.createCell(3).setCellValue(totalPrestamos);
-            
-            dataRow.createCell(4).setCellValue(u.getRol());
-
-            for (int i = 0; i < 5; i++) {
-                dataRow.getCell(i).setCellStyle(crearEstiloCelda(workbook));
-            }
+            celda(dataRow, 0, estilos.celda).setCellValue(u.getId());
+            celda(dataRow, 1, estilos.celda).setCellValue(u.getNombre() + " " + u.getApellido());
+            celda(dataRow, 2, estilos.celda).setCellValue(u.getEmail());
+            celda(dataRow, 3, estilos.celda).setCellValue(prestamosPorPersona.getOrDefault(u.getId(), 0));
+            celda(dataRow, 4, estilos.celda).setCellValue(u.getRol());
         }
 
-        sheet.setAutoFilter(new CellRangeAddress(2, rowNum - 1, 0, 4));
-        sheet.createFreezePane(0, 3);
+        terminarHoja(sheet, rowNum, headers.length);
     }
 
     // ========== HOJA 4: MATERIALES ==========
-    private static void crearHojaMateriales(XSSFWorkbook workbook, MaterialDAO materialDAO) {
-        XSSFSheet sheet = workbook.createSheet("Materiales");
+    private static void crearHojaMateriales(SXSSFWorkbook workbook, Estilos estilos, MaterialDAO materialDAO) {
+        SXSSFSheet sheet = workbook.createSheet("Materiales");
         
         sheet.setColumnWidth(0, 2500);
         sheet.setColumnWidth(1, 8500);
@@ -634,75 +533,53 @@ public final class InformeEstadisticasExcel {
         sheet.setColumnWidth(4, 3500);
         sheet.setColumnWidth(5, 3500);
 
-        int rowNum = 0;
-
-        Row titleRow = sheet.createRow(rowNum);
-        titleRow.setHeightInPoints(30);
-        Cell titleCell = titleRow.createCell(0);
-        titleCell.setCellValue("CATÁLOGO DE MATERIALES BIBLIOGRÁFICOS");
-        titleCell.setCellStyle(crearEstiloHeaderPrincipal(workbook));
-        sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 5));
-        rowNum += 2;
-
-        Row headerRow = sheet.createRow(rowNum++);
-        headerRow.setHeightInPoints(25);
         String[] headers = {"ID", "Título", "Autor/Info", "Categoría", "Año/Grado", "Tipo"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(crearEstiloEncabezadoTabla(workbook));
-        }
-
-        List<MaterialBibliografico> materiales = materialDAO.listarTodos();
-        for (MaterialBibliografico m : materiales) {
-            Row dataRow = sheet.createRow(rowNum++);
-            dataRow.setHeightInPoints(20);
-            
-            dataRow.createCell(0).setCellValue(m.getId());
-            dataRow.createCell(1).setCellValue(m.getTitulo());
-            
-            String infoEspecifica = "";
-            if (m instanceof Libro) {
-                Libro libro = (Libro) m;
-                infoEspecifica = (libro.getAutor() != null) ? libro.getAutor().getNombre() : "N/A";
-            } else if (m instanceof Revista) {
-                Revista revista = (Revista) m;
-                infoEspecifica = "Nº " + revista.getNumero() + " - " + revista.getPeriodicidad();
-            } else if (m instanceof Tesis) {
-                Tesis tesis = (Tesis) m;
-                infoEspecifica = tesis.getUniversidad();
+        int rowNum = crearEncabezadoHoja(sheet, estilos, "CATÁLOGO DE MATERIALES BIBLIOGRÁFICOS", headers);
+
+        // Por páginas: en memoria solo hay una página de materiales a la vez
+        Pagina<MaterialBibliografico> pagina = materialDAO.listarPagina(null, TAMANO_PAGINA_MATERIALES);
+        while (true) {
+            for (MaterialBibliografico m : pagina.getElementos()) {
+                Row dataRow = sheet.createRow(rowNum++);
+                dataRow.setHeightInPoints(20);
+                
+                celda(dataRow, 0, estilos.celda).setCellValue(m.getId());
+                celda(dataRow, 1, estilos.celda).setCellValue(m.getTitulo());
+                
+                String infoEspecifica = "";
+                String anioOGrado = "";
+                if (m instanceof Libro) {
+                    Libro libro = (Libro) m;
+                    infoEspecifica = (libro.getAutor() != null) ? libro.getAutor().getNombre() : "N/A";
+                    anioOGrado = String.valueOf(libro.getAnioPublicacion());
+                } else if (m instanceof Revista) {
+                    Revista revista = (Revista) m;
+                    infoEspecifica = "Nº " + revista.getNumero() + " - " + revista.getPeriodicidad();
+                    anioOGrado = "-";
+                } else if (m instanceof Tesis) {
+                    Tesis tesis = (Tesis) m;
+                    infoEspecifica = tesis.getUniversidad();
+                    anioOGrado = tesis.getGradoAcademico();
+                }
+                celda(dataRow, 2, estilos.celda).setCellValue(infoEspecifica);
+                
+                String nombreCategoria = (m.getCategoria() != null) ? m.getCategoria().getNombreCategoria() : "N/A";
+                celda(dataRow, 3, estilos.celda).setCellValue(nombreCategoria);
+                celda(dataRow, 4, estilos.celda).setCellValue(anioOGrado);
+                celda(dataRow, 5, estilos.celda).setCellValue(m.getTipoMaterial());
             }
-            dataRow.createCell(2).setCellValue(infoEspecifica);
-            
-            String nombreCategoria = (m.getCategoria() != null) ? m.getCategoria().getNombreCategoria() : "N/A";
-            dataRow.createCell(3).setCellValue(nombreCategoria);
-            
-            String anioOGrado = "";
-            if (m instanceof Libro) {
-                Libro libro = (Libro) m;
-                anioOGrado = String.valueOf(libro.getAnioPublicacion());
-            } else if (m instanceof Revista) {
-                anioOGrado = "-";
-            } else if (m instanceof Tesis) {
-                Tesis tesis = (Tesis) m;
-                anioOGrado = tesis.getGradoAcademico();
-            }
-            dataRow.createCell(4).setCellValue(anioOGrado);
-            
-            dataRow.createCell(5).setCellValue(m.getTipoMaterial());
-
-            for (int i = 0; i < 6; i++) {
-                dataRow.getCell(i).setCellStyle(crearEstiloCelda(workbook));
+            if (!pagina.hayMas()) {
+                break;
             }
+            pagina = materialDAO.listarPagina(pagina.getSiguiente(), TAMANO_PAGINA_MATERIALES);
         }
 
-        sheet.setAutoFilter(new CellRangeAddress(2, rowNum - 1, 0, 5));
-        sheet.createFreezePane(0, 3);
+        terminarHoja(sheet, rowNum, headers.length);
     }
 
     // ========== HOJA 5: MULTAS ==========
-    private static void crearHojaMultas(XSSFWorkbook workbook, MultaDAO multaDAO) {
-        XSSFSheet sheet = workbook.createSheet("Multas");
+    private static void crearHojaMultas(SXSSFWorkbook workbook, Estilos estilos, InformeDAO informeDAO) {
+        SXSSFSheet sheet = workbook.createSheet("Multas");
         
         sheet.setColumnWidth(0, 2500);
         sheet.setColumnWidth(1, 6500);
@@ -711,63 +588,104 @@ public final class InformeEstadisticasExcel {
         sheet.setColumnWidth(4, 3500);
         sheet.setColumnWidth(5, 3500);
 
-        int rowNum = 0;
+        String[] headers = {"ID Multa", "Usuario", "Material", "Fecha Multa", "Monto", "Estado"};
+        int[] rowNum = {crearEncabezadoHoja(sheet, estilos, "REGISTRO DE MULTAS Y PENALIZACIONES", headers)};
+
+        informeDAO.recorrerMultas(m -> {
+            Row dataRow = sheet.createRow(rowNum[0]++);
+            dataRow.setHeightInPoints(20);
+            
+            celda(dataRow, 0, estilos.celda).setCellValue(m.idMulta());
+            celda(dataRow, 1, estilos.celda).setCellValue(m.usuario() != null ? m.usuario() : "N/A");
+            celda(dataRow, 2, estilos.celda).setCellValue(m.material() != null ? m.material() : "N/A");
+            celda(dataRow, 3, estilos.celda).setCellValue(m.fechaMulta() != null ? m.fechaMulta() : "-");
+            celda(dataRow, 4, estilos.celda).setCellValue(String.format("$%.2f", m.monto()));
+            celda(dataRow, 5, m.pagada() ? estilos.celdaOk : estilos.celdaAlerta)
+                .setCellValue(m.pagada() ? "PAGADA" : "PENDIENTE");
+        });
 
-        Row titleRow = sheet.createRow(rowNum);
+        terminarHoja(sheet, rowNum[0], headers.length);
+    }
+
+    // Título y fila de encabezados de una hoja de detalle; devuelve la primera fila de datos
+    private static int crearEncabezadoHoja(Sheet sheet, Estilos estilos, String titulo, String[] headers) {
+        Row titleRow = sheet.createRow(0);
         titleRow.setHeightInPoints(30);
         Cell titleCell = titleRow.createCell(0);
-        titleCell.setCellValue("REGISTRO DE MULTAS Y PENALIZACIONES");
-        titleCell.setCellStyle(crearEstiloHeaderPrincipal(workbook));
-        sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 5));
-        rowNum += 2;
+        titleCell.setCellValue(titulo);
+        titleCell.setCellStyle(estilos.headerPrincipal);
+        sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, headers.length - 1));
 
-        Row headerRow = sheet.createRow(rowNum++);
+        Row headerRow = sheet.createRow(2);
         headerRow.setHeightInPoints(25);
-        String[] headers = {"ID Multa", "Usuario", "Material", "Fecha Multa", "Monto", "Estado"};
         for (int i = 0; i < headers.length; i++) {
             Cell cell = headerRow.createCell(i);
             cell.setCellValue(headers[i]);
-            cell.setCellStyle(crearEstiloEncabezadoTabla(workbook));
+            cell.setCellStyle(estilos.encabezadoTabla);
         }
+        return 3;
+    }
 
-        List<Multa> multas = multaDAO.listarTodas();
-        for (Multa m : multas) {
-            Row dataRow = sheet.createRow(rowNum++);
-            dataRow.setHeightInPoints(20);
-            
-            dataRow.createCell(0).setCellValue(m.getIdMulta());
-            
-            String nombreUsuario = (m.getNombreUsuario() != null) ? m.getNombreUsuario() : "N/A";
-            dataRow.createCell(1).setCellValue(nombreUsuario);
-            
-            String nombreMaterial = (m.getNombreMaterial() != null) ? m.getNombreMaterial() : "N/A";
-            dataRow.createCell(2).setCellValue(nombreMaterial);
-            
-            String fechaMulta = (m.getFechaMulta() != null) ? m.getFechaMulta() : "-";
-            dataRow.createCell(3).setCellValue(fechaMulta);
-            
-            dataRow.createCell(4).setCellValue(String.format("$%.2f", m.getMonto()));
-            
-            Cell estadoCell = dataRow.createCell(5);
-            String estado = m.isPagada() ? "PAGADA" : "PENDIENTE";
-            estadoCell.setCellValue(estado);
+    private static void terminarHoja(Sheet sheet, int filas, int columnas) {
+        sheet.setAutoFilter(new CellRangeAddress(2, Math.max(filas - 1, 2), 0, columnas - 1));
+        sheet.createFreezePane(0, 3);
+    }
 
-            for (int i = 0; i < 5; i++) {
-                dataRow.getCell(i).setCellStyle(crearEstiloCelda(workbook));
-            }
-            
-            XSSFCellStyle estadoStyle = crearEstiloCelda(workbook);
-            if (m.isPagada()) {
-                estadoStyle.setFillForegroundColor(new XSSFColor(new byte[]{(byte) 230, (byte) 255, (byte) 230}));
-            } else {
-                estadoStyle.setFillForegroundColor(new XSSFColor(new byte[]{(byte) 255, (byte) 230, (byte) 230}));
-            }
-            estadoStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            estadoCell.setCellStyle(estadoStyle);
+    private static Cell celda(Row row, int columna, CellStyle estilo) {
+        Cell cell = row.createCell(columna);
+        cell.setCellStyle(estilo);
+        return cell;
+    }
+
+    // 'YYYY-MM-DD' (con o sin hora) -> dd/MM/yyyy; "-" si no hay fecha
+    private static String formatearFecha(String fecha) {
+        if (fecha == null || fecha.length() < 10) {
+            return "-";
         }
+        try {
+            return LocalDate.parse(fecha.substring(0, 10)).format(DATE_FORMATTER);
+        } catch (java.time.format.DateTimeParseException e) {
+            return fecha;
+        }
+    }
 
-        sheet.setAutoFilter(new CellRangeAddress(2, rowNum - 1, 0, 5));
-        sheet.createFreezePane(0, 3);
+    /**
+     * Un estilo de cada tipo por libro, compartido por todas las celdas.
+     * Antes se creaba uno por celda y un libro .xlsx admite como mucho 64.000.
+     */
+    private static final class Estilos {
+        final XSSFCellStyle headerPrincipal;
+        final XSSFCellStyle subheader;
+        final XSSFCellStyle seccionTitulo;
+        final XSSFCellStyle kpiValor;
+        final XSSFCellStyle kpiDescripcion;
+        final XSSFCellStyle encabezadoTabla;
+        final XSSFCellStyle celda;
+        final XSSFCellStyle celdaOk;
+        final XSSFCellStyle celdaAlerta;
+        final XSSFCellStyle piePagina;
+
+        private final XSSFWorkbook workbook;
+        private final Map<byte[], XSSFCellStyle> kpiTitulos = new IdentityHashMap<>();
+
+        Estilos(XSSFWorkbook workbook) {
+            this.workbook = workbook;
+            headerPrincipal = crearEstiloHeaderPrincipal(workbook);
+            subheader = crearEstiloSubheader(workbook);
+            seccionTitulo = crearEstiloSeccionTitulo(workbook);
+            kpiValor = crearEstiloKPIValor(workbook);
+            kpiDescripcion = crearEstiloKPIDescripcion(workbook);
+            encabezadoTabla = crearEstiloEncabezadoTabla(workbook);
+            celda = crearEstiloCelda(workbook);
+            celdaOk = crearEstiloCeldaConFondo(workbook, COLOR_FONDO_OK);
+            celdaAlerta = crearEstiloCeldaConFondo(workbook, COLOR_FONDO_ALERTA);
+            piePagina = crearEstiloPiePagina(workbook);
+        }
+
+        // Por color de la paleta (las constantes COLOR_*)
+        XSSFCellStyle kpiTitulo(byte[] color) {
+            return kpiTitulos.computeIfAbsent(color, c -> crearEstiloKPITitulo(workbook, c));
+        }
     }
 
     // ========== ESTILOS PROFESIONALES ==========
@@ -913,6 +831,13 @@ public final class InformeEstadisticasExcel {
         return style;
     }
 
+    private static XSSFCellStyle crearEstiloCeldaConFondo(XSSFWorkbook workbook, byte[] color) {
+        XSSFCellStyle style = crearEstiloCelda(workbook);
+        style.setFillForegroundColor(new XSSFColor(color));
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        return style;
+    }
+
     private static XSSFCellStyle crearEstiloPiePagina(XSSFWorkbook workbook) {
         XSSFCellStyle style = workbook.createCellStyle();
         XSSFFont font = workbook.createFont();
@@ -1,6 +1,8 @@
 package biblioteca.util;
 
-import biblioteca.model.MaterialBibliografico;
+import biblioteca.dao.EstadisticasDAOImpl;
+import biblioteca.dao.InformeDAO;
+import biblioteca.model.ResumenEstadisticas;
 import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.kernel.colors.DeviceRgb;
@@ -32,10 +34,11 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -111,39 +114,30 @@ public final class InformeEstadisticasPDF {
             archivo.getParentFile().mkdirs();
         }
 
-        String tempDir = System.getProperty("java.io.tmpdir");
-        String pastel  = tempDir + File.separator + "tmp_pastel.png";
-        String lineas  = tempDir + File.separator + "tmp_lineas.png";
-        String tipos   = tempDir + File.separator + "tmp_tipos.png";
-        String top5    = tempDir + File.separator + "tmp_top5.png";
+        Etapas etapas = new Etapas();
 
-        try {
-            int totalPrestamos = datos.prestamosActivos + datos.prestamosVencidos + 
-                                datos.prestamosDevueltos + datos.prestamosPerdidos;
-
-            // ===== GENERAR LOS 4 GRÁFICOS CON LOS DATOS DEL DASHBOARD =====
-            GraficosEstadisticas.generarGraficoDistribucionPrestamos(
+        // ===== LOS 4 GRÁFICOS, EN PARALELO Y EN MEMORIA =====
+        // Se dibujan mientras se arma la primera página; solo se espera por
+        // ellos al llegar a la sección de gráficos.
+        CompletableFuture<GraficoRenderizado> pastel = renderizar("distribución", () ->
+            GraficosEstadisticas.renderizarGraficoDistribucionPrestamos(
                 datos.prestamosActivos, 
                 datos.prestamosVencidos, 
                 datos.prestamosDevueltos,
-                datos.prestamosPerdidos,
-                pastel
-            );
-            
-            GraficosEstadisticas.generarGraficoEvolucionMensual(
-                datos.evolucionMensual != null ? datos.evolucionMensual : new int[12], 
-                lineas
-            );
-            
-            GraficosEstadisticas.generarGraficoTiposMateriales(
-                datos.tiposMateriales != null ? datos.tiposMateriales : new ArrayList<>(), 
-                tipos
-            );
-            
-            GraficosEstadisticas.generarGraficoTopUsuarios(
-                datos.topUsuarios != null ? datos.topUsuarios : new ArrayList<>(), 
-                top5
-            );
+                datos.prestamosPerdidos));
+        CompletableFuture<GraficoRenderizado> lineas = renderizar("evolución", () ->
+            GraficosEstadisticas.renderizarGraficoEvolucionMensual(
+                datos.evolucionMensual != null ? datos.evolucionMensual : new int[12]));
+        CompletableFuture<GraficoRenderizado> tipos = renderizar("tipos", () ->
+            GraficosEstadisticas.renderizarGraficoTiposMateriales(
+                datos.tiposMateriales != null ? datos.tiposMateriales : new ArrayList<>()));
+        CompletableFuture<GraficoRenderizado> top5 = renderizar("top usuarios", () ->
+            GraficosEstadisticas.renderizarGraficoTopUsuarios(
+                datos.topUsuarios != null ? datos.topUsuarios : new ArrayList<>()));
+
+        try {
+            int totalPrestamos = datos.prestamosActivos + datos.prestamosVencidos + 
+                                datos.prestamosDevueltos + datos.prestamosPerdidos;
 
             PdfWriter writer = new PdfWriter(rutaArchivo);
             PdfDocument pdf = new PdfDocument(writer);
@@ -230,6 +224,10 @@ public final class InformeEstadisticasPDF {
                 "Material extraviado", COLOR_DANGER, fontReg, fontBold));
 
             doc.add(metricas);
+            etapas.marcar("resumen");
+
+            CompletableFuture.allOf(pastel, lineas, tipos, top5).join();
+            etapas.marcar("espera gráficos");
 
             doc.add(new AreaBreak());
 
@@ -242,9 +240,9 @@ public final class InformeEstadisticasPDF {
                     .setMarginBottom(15);
 
             graficos1.addCell(crearCeldaGraficoModerna("Distribución de Préstamos", 
-                "Estado actual del sistema", pastel, pdf, 240, 180, fontBold, fontReg));
+                "Estado actual del sistema", pastel.join().png(), pdf, 240, 180, fontBold, fontReg));
             graficos1.addCell(crearCeldaGraficoModerna("Materiales por Tipo", 
-                "Distribución: Libros, Tesis y Revistas", tipos, pdf, 240, 180, fontBold, fontReg));
+                "Distribución: Libros, Tesis y Revistas", tipos.join().png(), pdf, 240, 180, fontBold, fontReg));
 
             doc.add(graficos1);
 
@@ -254,22 +252,20 @@ public final class InformeEstadisticasPDF {
                     .setMarginBottom(15);
 
             graficos2.addCell(crearCeldaGraficoModerna("Evolución Mensual", 
-                "Tendencia de préstamos (12 meses)", lineas, pdf, 240, 180, fontBold, fontReg));
+                "Tendencia de préstamos (12 meses)", lineas.join().png(), pdf, 240, 180, fontBold, fontReg));
             graficos2.addCell(crearCeldaGraficoModerna("Top 5 Usuarios más activos", 
-                "Usuarios con más préstamos", top5, pdf, 240, 180, fontBold, fontReg));
+                "Usuarios con más préstamos", top5.join().png(), pdf, 240, 180, fontBold, fontReg));
 
             doc.add(graficos2);
 
             doc.close();
             pdf.close();
-
-            // Limpiar archivos temporales
-            new File(pastel).delete();
-            new File(lineas).delete();
-            new File(tipos).delete();
-            new File(top5).delete();
+            etapas.marcar("documento");
 
             LOG.info("✓ Informe PDF generado exitosamente: " + archivo.getAbsolutePath());
+            LOG.info("Informe PDF: " + etapas + " | gráficos: " + pastel.join() + ", " + lineas.join()
+                    + ", " + tipos.join() + ", " + top5.join()
+                    + " | " + GraficosEstadisticas.getEstadisticasCache());
 
         } catch (IOException e) {
             LOG.log(Level.SEVERE, "Error al generar informe", e);
@@ -283,41 +279,87 @@ public final class InformeEstadisticasPDF {
      */
     public static void generar(String rutaArchivo) {
         try {
-            biblioteca.dao.CategoriaDAO categoriaDAO = new biblioteca.dao.CategoriaDAOImpl();
-            biblioteca.dao.AutorDAO autorDAO = new biblioteca.dao.AutorDAOImpl();
-            biblioteca.dao.PersonaDAO personaDAO = new biblioteca.dao.PersonaDAOImpl();
-            biblioteca.dao.MaterialDAO materialDAO = new biblioteca.dao.MaterialDAOImpl(categoriaDAO, autorDAO);
-            biblioteca.dao.EjemplarDAO ejemplarDAO = new biblioteca.dao.EjemplarDAOImpl(materialDAO);
-            biblioteca.dao.PrestamoDAO prestamoDAO = new biblioteca.dao.PrestamoDAOImpl(personaDAO, materialDAO, ejemplarDAO);
-
-            int totalMateriales = Math.max(0, materialDAO.listarTodos().size());
-            int totalUsuarios = Math.max(0, (int) personaDAO.listarTodos().stream()
-                .filter(p -> "USUARIO".equals(p.getRol()))
-                .count());
-
-            int activos = Math.max(0, prestamoDAO.contarPrestamosActivos());
-            int vencidos = Math.max(0, prestamoDAO.contarPrestamosVencidos());
-            int devueltos = Math.max(0, prestamoDAO.contarPrestamosDevueltos());
-            int perdidos = Math.max(0, prestamoDAO.contarPrestamosPerdidos());
-
-            List<Object[]> categorias = contarMaterialesPorCategoria(materialDAO);
-            int[] evolucionMensual = prestamoDAO.contarPrestamosPorUltimoAnio();
-            List<Object[]> tiposMateriales = contarMaterialesPorTipo(materialDAO);
-            List<Object[]> topUsuarios = prestamoDAO.obtenerTopUsuariosConMasPrestamos(5);
-
-            DatosDashboard datos = new DatosDashboard(
-                totalMateriales, totalUsuarios, activos, vencidos, devueltos, perdidos,
-                categorias, evolucionMensual, tiposMateriales, topUsuarios
-            );
-
-            generar(rutaArchivo, datos);
-
+            generar(rutaArchivo, recopilarDatos(null, new biblioteca.dao.InformeDAOImpl()));
         } catch (Exception e) {
             LOG.log(Level.SEVERE, "Error al generar informe con método legacy", e);
             throw new RuntimeException("No se pudo generar el informe", e);
         }
     }
 
+    /**
+     * Reúne los datos del informe lanzando todas las consultas a la vez; cada
+     * una usa su propia conexión del pool. Con {@code resumen} null también
+     * se consulta; el panel de inicio pasa el que ya tiene cargado.
+     */
+    public static DatosDashboard recopilarDatos(ResumenEstadisticas resumen, InformeDAO informeDAO) {
+        long inicio = System.nanoTime();
+
+        CompletableFuture<ResumenEstadisticas> fResumen = resumen != null
+            ? CompletableFuture.completedFuture(resumen)
+            : EjecutorAsincrono.enSegundoPlano(() -> new EstadisticasDAOImpl().obtenerResumen());
+        CompletableFuture<List<Object[]>> fCategorias =
+            EjecutorAsincrono.enSegundoPlano(informeDAO::contarMaterialesPorCategoria);
+        CompletableFuture<List<Object[]>> fTipos =
+            EjecutorAsincrono.enSegundoPlano(informeDAO::contarMaterialesPorTipo);
+        CompletableFuture<List<Object[]>> fTop =
+            EjecutorAsincrono.enSegundoPlano(() -> informeDAO.obtenerTopUsuarios(5));
+
+        ResumenEstadisticas r = fResumen.join();
+        DatosDashboard datos = new DatosDashboard(
+            r.totalMateriales(), r.totalPersonas(),
+            r.prestamosActivos(), r.prestamosVencidos(), r.prestamosDevueltos(), r.prestamosPerdidos(),
+            fCategorias.join(), r.prestamosPorMes(), fTipos.join(), fTop.join()
+        );
+
+        LOG.info("Informe PDF: datos " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+        return datos;
+    }
+
+    // ===== PIPELINE: GRÁFICOS Y TIEMPOS =====
+
+    /** PNG ya dibujado (null si falló) y lo que tardó. */
+    private record GraficoRenderizado(String nombre, byte[] png, long nanos) {
+        @Override
+        public String toString() {
+            return nombre + " " + nanos / 1_000_000 + " ms" + (png == null ? " (falló)" : "");
+        }
+    }
+
+    /**
+     * Dibuja un gráfico en el pool fork-join común: es trabajo de CPU, no de
+     * BD. Si falla se registra y el informe lleva el marcador en su lugar.
+     */
+    private static CompletableFuture<GraficoRenderizado> renderizar(String nombre, Supplier<byte[]> dibujar) {
+        return CompletableFuture.supplyAsync(() -> {
+            long inicio = System.nanoTime();
+            byte[] png = null;
+            try {
+                png = dibujar.get();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "No se pudo dibujar el gráfico " + nombre, e);
+            }
+            return new GraficoRenderizado(nombre, png, System.nanoTime() - inicio);
+        }, ForkJoinPool.commonPool());
+    }
+
+    /** Duración de cada etapa desde la anterior, en el orden en que se marcan. */
+    private static final class Etapas {
+        private final long inicio = System.nanoTime();
+        private long ultima = inicio;
+        private final StringBuilder texto = new StringBuilder();
+
+        void marcar(String etapa) {
+            long ahora = System.nanoTime();
+            texto.append(etapa).append(' ').append((ahora - ultima) / 1_000_000).append(" ms, ");
+            ultima = ahora;
+        }
+
+        @Override
+        public String toString() {
+            return texto + "total " + (ultima - inicio) / 1_000_000 + " ms";
+        }
+    }
+
     // ===== MÉTODOS DE CREACIÓN DE COMPONENTES =====
 
     private static void crearPortadaModerna(Document doc, PdfFont fontReg, PdfFont fontBold) {
@@ -555,9 +597,9 @@ public final class InformeEstadisticasPDF {
     }
 
     private static Cell crearCeldaGraficoModerna(String titulo, String descripcion, 
-                                                 String rutaImagen, PdfDocument pdf,
+                                                 byte[] png, PdfDocument pdf,
                                                  float ancho, float alto,
-                                                 PdfFont fontBold, PdfFont fontReg) throws IOException {
+                                                 PdfFont fontBold, PdfFont fontReg) {
         return new Cell()
                 .add(new Paragraph(titulo)
                         .setFont(fontBold)
@@ -567,7 +609,7 @@ public final class InformeEstadisticasPDF {
                         .setPadding(8)
                         .setMarginBottom(10)
                         .setTextAlignment(TextAlignment.CENTER))
-                .add(crearImagen(pdf, rutaImagen, ancho, alto))
+                .add(crearImagen(png, ancho, alto))
                 .add(new Paragraph(descripcion)
                         .setFont(fontReg)
                         .setFontSize(8)
@@ -664,58 +706,8 @@ public final class InformeEstadisticasPDF {
                 totalUsuarios, totalMateriales, tasaUtilizacion);
     }
 
-    // ===== MÉTODOS DE PROCESAMIENTO DE DATOS =====
-
-    private static List<Object[]> contarMaterialesPorCategoria(biblioteca.dao.MaterialDAO materialDAO) {
-        Map<String, Integer> conteo = new HashMap<>();
-        for (MaterialBibliografico material : materialDAO.listarTodos()) {
-            String categoria = material.getCategoria().getNombreCategoria();
-            if (categoria == null || categoria.isBlank()) {
-                categoria = "Sin categoría";
-            }
-            conteo.put(categoria, conteo.getOrDefault(categoria, 0) + 1);
-        }
-
-        List<Object[]> resultado = new ArrayList<>();
-        for (Map.Entry<String, Integer> entry : conteo.entrySet()) {
-            resultado.add(new Object[]{entry.getKey(), entry.getValue()});
-        }
-        return resultado;
-    }
-
-    private static List<Object[]> contarMaterialesPorTipo(biblioteca.dao.MaterialDAO materialDAO) {
-        Map<String, Integer> conteo = new HashMap<>();
-        conteo.put("Libros", 0);
-        conteo.put("Tesis", 0);
-        conteo.put("Revistas", 0);
-
-        for (MaterialBibliografico material : materialDAO.listarTodos()) {
-            String tipo = material.getClass().getSimpleName();
-            
-            if (tipo.equals("Libro")) {
-                conteo.put("Libros", conteo.get("Libros") + 1);
-            } else if (tipo.equals("Tesis")) {
-                conteo.put("Tesis", conteo.get("Tesis") + 1);
-            } else if (tipo.equals("Revista")) {
-                conteo.put("Revistas", conteo.get("Revistas") + 1);
-            }
-        }
-
-        List<Object[]> resultado = new ArrayList<>();
-        resultado.add(new Object[]{"Libros", conteo.get("Libros")});
-        resultado.add(new Object[]{"Tesis", conteo.get("Tesis")});
-        resultado.add(new Object[]{"Revistas", conteo.get("Revistas")});
-        
-        return resultado;
-    }
-
-    private static Image crearImagen(PdfDocument pdf, String ruta, float ancho, float alto) throws IOException {
-        if (!new File(ruta).exists()) {
-            return new Image(ImageDataFactory.create(crearPlaceholder()))
-                    .scaleToFit(ancho, alto)
-                    .setHorizontalAlignment(HorizontalAlignment.CENTER);
-        }
-        return new Image(ImageDataFactory.create(ruta))
+    private static Image crearImagen(byte[] png, float ancho, float alto) {
+        return new Image(ImageDataFactory.create(png != null ? png : crearPlaceholder()))
                 .scaleToFit(ancho, alto)
                 .setHorizontalAlignment(HorizontalAlignment.CENTER);
     }
@@ -1,36 +1,249 @@
 package biblioteca.util;
 
 import biblioteca.config.Conexion;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
+/**
+ * Migraciones versionadas del esquema.
+ *
+ * Las versiones aplicadas se guardan en Schema_Versiones; al arrancar se
+ * ejecutan en orden las que falten, cada una en su propia transacción (si
+ * una falla no queda a medias y las siguientes no se aplican). Una
+ * migración ya publicada no se edita: los cambios van en una nueva.
+ */
 public class InitBD {
 
-    public static void crearTablasDesdeScript() {
-        Connection conn = Conexion.getConnection();
-        if (conn == null) {
-            System.err.println("No se pudo obtener conexión a la BD en InitBD.");
-            return;
+    // Esquema base: se sigue leyendo del directorio de trabajo, como antes
+    private static final String SCRIPT_ESQUEMA = "schema_biblioteca.sql";
+    private static final String RUTA_MIGRACIONES = "/biblioteca/config/migraciones/";
+
+    private static final List<Migracion> MIGRACIONES = List.of(
+        new Migracion(1, "Esquema inicial", null),
+        new Migracion(2, "Índices de las consultas frecuentes", "V002__indices.sql"),
+        new Migracion(3, "Bandeja de salida de correo", "V003__bandeja_salida.sql"),
+        new Migracion(4, "Índice de texto completo del catálogo", "V004__catalogo_fts.sql"),
+        new Migracion(5, "Estadísticas del panel de inicio", "V005__estadisticas.sql"),
+        new Migracion(6, "Versiones de datos por tabla", "V006__versiones_datos.sql"),
+        new Migracion(7, "Índice de préstamos por persona y estado", "V007__indice_prestamos_persona_estado.sql"),
+        new Migracion(8, "Códigos de barra únicos de ejemplares", "V008__codigos_barra.sql")
+    );
+
+    private record Migracion(int version, String descripcion, String recurso) {}
+
+    /**
+     * Aplica las migraciones pendientes. Devuelve false si alguna falló.
+     */
+    public static boolean migrar() {
+        try (Connection conn = Conexion.getConnection()) {
+            crearTablaVersiones(conn);
+            Set<Integer> aplicadas = versionesAplicadas(conn);
+
+            for (Migracion m : MIGRACIONES) {
+                if (aplicadas.contains(m.version())) {
+                    continue;
+                }
+                if (!aplicar(conn, m)) {
+                    return false;
+                }
+            }
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error al migrar la base de datos: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void crearTablaVersiones(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS Schema_Versiones (" +
+                         "  version INTEGER PRIMARY KEY," +
+                         "  descripcion TEXT NOT NULL," +
+                         "  fecha_aplicada TEXT NOT NULL DEFAULT (datetime('now', 'localtime'))" +
+                         ")");
+        }
+    }
+
+    private static Set<Integer> versionesAplicadas(Connection conn) throws SQLException {
+        Set<Integer> versiones = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM Schema_Versiones")) {
+            while (rs.next()) {
+                versiones.add(rs.getInt("version"));
+            }
+        }
+        return versiones;
+    }
+
+    private static boolean aplicar(Connection conn, Migracion m) {
+        List<String> sentencias;
+        try {
+            sentencias = leerSentencias(conn, m);
+        } catch (IOException | SQLException e) {
+            System.err.println("No se pudo leer la migración " + m.version() + ": " + e.getMessage());
+            return false;
+        }
+
+        try {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sentencia : sentencias) {
+                    stmt.execute(sentencia);
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO Schema_Versiones (version, descripcion) VALUES (?, ?)")) {
+                ps.setInt(1, m.version());
+                ps.setString(2, m.descripcion());
+                ps.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Migración " + m.version() + " aplicada: " + m.descripcion()
+                    + " (" + sentencias.size() + " sentencia(s))");
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error en la migración " + m.version() + " (" + m.descripcion() + "): "
+                    + e.getMessage());
+            try {
+                conn.rollback();
+            } catch (SQLException ex) {
+                System.err.println("Error al deshacer la migración: " + ex.getMessage());
+            }
+            return false;
+        } finally {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException ignored) {
+                // el pool la reinicia al devolverla
+            }
         }
+    }
+
+    private static List<String> leerSentencias(Connection conn, Migracion m) throws IOException, SQLException {
+        if (m.recurso() != null) {
+            try (InputStream in = InitBD.class.getResourceAsStream(RUTA_MIGRACIONES + m.recurso())) {
+                if (in == null) {
+                    throw new IOException("no existe el recurso " + RUTA_MIGRACIONES + m.recurso());
+                }
+                return dividirSentencias(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        // Versión 1: las bases creadas antes de las migraciones ya tienen el
+        // esquema; solo se registra la versión
+        if (existeTabla(conn, "Prestamos")) {
+            return List.of();
+        }
+        System.out.println("BD vacía, creando estructura inicial desde " + SCRIPT_ESQUEMA + "...");
+        String sql = new String(Files.readAllBytes(Paths.get(SCRIPT_ESQUEMA)), StandardCharsets.UTF_8);
+        return dividirSentencias(sql);
+    }
+
+    private static boolean existeTabla(Connection conn, String tabla) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            ps.setString(1, tabla);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
 
-        try (conn; Statement stmt = conn.createStatement()) {
+    /**
+     * Separa un script en sentencias por ';', sin cortar dentro de cadenas,
+     * comentarios ni cuerpos de CREATE TRIGGER ... BEGIN ... END.
+     */
+    static List<String> dividirSentencias(String sql) {
+        List<String> sentencias = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        StringBuilder palabra = new StringBuilder();
+        List<String> primerasPalabras = new ArrayList<>();
+        boolean esTrigger = false;
+        int profundidad = 0;   // BEGIN/CASE abiertos dentro de un trigger
 
-            String sql = new String(
-                Files.readAllBytes(Paths.get("schema_biblioteca.sql")),
-                StandardCharsets.UTF_8
-            );
+        int n = sql.length();
+        for (int i = 0; i < n; i++) {
+            char c = sql.charAt(i);
 
-            for (String sentencia : sql.split(";")) {
-                String s = sentencia.trim();
+            // Comentarios: no se copian
+            if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                while (i < n && sql.charAt(i) != '\n') i++;
+                c = '\n';
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int fin = sql.indexOf("*/", i + 2);
+                i = fin < 0 ? n : fin + 1;
+                c = ' ';
+            }
+
+            // Cadenas e identificadores entre comillas: se copian tal cual
+            if (c == '\'' || c == '"' || c == '`' || c == '[') {
+                char cierre = c == '[' ? ']' : c;
+                int fin = i + 1;
+                while (fin < n) {
+                    if (sql.charAt(fin) == cierre) {
+                        if (cierre != ']' && fin + 1 < n && sql.charAt(fin + 1) == cierre) {
+                            fin += 2;   // comilla escapada duplicándola
+                            continue;
+                        }
+                        break;
+                    }
+                    fin++;
+                }
+                fin = Math.min(fin, n - 1);
+                actual.append(sql, i, fin + 1);
+                palabra.setLength(0);
+                i = fin;
+                continue;
+            }
+
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                palabra.append(c);
+                actual.append(c);
+                continue;
+            }
+
+            // Fin de palabra
+            if (palabra.length() > 0) {
+                String p = palabra.toString().toUpperCase(Locale.ROOT);
+                palabra.setLength(0);
+                if (primerasPalabras.size() < 4) {
+                    primerasPalabras.add(p);
+                    esTrigger = esTrigger || p.equals("TRIGGER") && primerasPalabras.get(0).equals("CREATE");
+                }
+                if (esTrigger) {
+                    if (p.equals("BEGIN") || p.equals("CASE")) profundidad++;
+                    else if (p.equals("END")) profundidad--;
+                }
+            }
+
+            if (c == ';' && (!esTrigger || profundidad <= 0)) {
+                String s = actual.toString().trim();
                 if (!s.isEmpty()) {
-                    stmt.execute(s + ";");
+                    sentencias.add(s);
                 }
+                actual.setLength(0);
+                primerasPalabras.clear();
+                esTrigger = false;
+                profundidad = 0;
+            } else {
+                actual.append(c);
             }
+        }
 
-            System.out.println("Tablas creadas correctamente desde script.");
-        } catch (Exception e) {
-            e.printStackTrace();
+        String resto = actual.toString().trim();
+        if (!resto.isEmpty()) {
+            sentencias.add(resto);
         }
+        return sentencias;
     }
 }
@@ -0,0 +1,383 @@
+package biblioteca.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableModel;
+
+/**
+ * Modelo de tabla que no carga todas las filas: las pide al DAO por bloques
+ * a medida que el JTable las pinta y guarda solo los últimos bloques usados.
+ *
+ * El total de filas sale de un COUNT, así que la barra de desplazamiento es
+ * correcta desde el principio. El orden y el filtro de texto también se
+ * resuelven en la base de datos (ver {@link #crearOrdenador()} y {@link #filtrar(String)}).
+ *
+ * Debe usarse desde el hilo de Swing; el recuento y los bloques se leen
+ * fuera de él (EjecutorAsincrono).
+ */
+public class ModeloTablaPerezoso<T> extends AbstractTableModel {
+
+    private static final Logger LOG = Logger.getLogger(ModeloTablaPerezoso.class.getName());
+
+    public static final int TAMANO_BLOQUE = 100;
+    public static final int MAXIMO_BLOQUES = 10;
+
+    // Recuento + primer bloque de las últimas consultas (texto y orden), para
+    // que borrar una letra o volver a un orden anterior no vaya a la base
+    private static final int MAXIMO_CONSULTAS_CACHE = 8;
+    private static final long VIGENCIA_CACHE_MS = 30_000;
+
+    /**
+     * Origen de las filas. columnaOrden es el índice de la columna de la tabla
+     * (-1 = orden por defecto) y texto el filtro del buscador (null = sin filtro).
+     */
+    public interface FuenteDatos<T> {
+        int contar(String texto);
+        List<T> cargar(String texto, int columnaOrden, boolean descendente, int desde, int tamano);
+    }
+
+    private final String[] columnas;
+    private final FuenteDatos<T> fuente;
+    private final Function<T, Object[]> convertidor;
+
+    // Bloques en memoria por número de bloque, en orden de uso (LRU)
+    private final Map<Integer, Object[][]> bloques =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+                return size() > MAXIMO_BLOQUES;
+            }
+        };
+    private final Set<Integer> pendientes = new HashSet<>();
+
+    private final Map<String, EntradaCache> cacheConsultas =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EntradaCache> eldest) {
+                return size() > MAXIMO_CONSULTAS_CACHE;
+            }
+        };
+
+    // Recuento + primer bloque; una recarga nueva descarta la que esté en curso
+    private final EjecutorAsincrono.Canal recargas = new EjecutorAsincrono.Canal();
+
+    private int filas;
+    private String texto;
+    private int columnaOrden = -1;
+    private boolean descendente;
+
+    // Cambia con cada recarga; los bloques que llegan de una generación anterior se descartan
+    private int generacion;
+
+    // Última consulta pedida; la que corre en segundo plano la mira para no seguir si ya sobra
+    private volatile int ultimaConsulta;
+
+    // ===== Métricas =====
+    private int consultas;
+    private int aciertosCache;
+
+    public ModeloTablaPerezoso(String[] columnas, FuenteDatos<T> fuente,
+                               Function<T, Object[]> convertidor) {
+        this.columnas = columnas;
+        this.fuente = fuente;
+        this.convertidor = convertidor;
+        recargar();
+    }
+
+    /**
+     * Vuelve a contar y lee el primer bloque en segundo plano. Hasta que
+     * llegan se siguen viendo las filas anteriores; el resto se pide al hacer scroll.
+     * Descarta la caché de consultas: se llama cuando cambian los datos.
+     */
+    public final void recargar() {
+        cacheConsultas.clear();
+        consultar();
+    }
+
+    private void consultar() {
+        generacion++;
+        pendientes.clear();
+        final String textoCarga = texto;
+        final int columnaCarga = columnaOrden;
+        final boolean descendenteCarga = descendente;
+        final int mia = ++ultimaConsulta;
+
+        String clave = textoCarga + '\u0000' + columnaCarga + (descendenteCarga ? "d" : "a");
+        EntradaCache enCache = cacheConsultas.get(clave);
+        if (enCache != null && System.currentTimeMillis() - enCache.instante() < VIGENCIA_CACHE_MS) {
+            recargas.cancelar();
+            aciertosCache++;
+            aplicar(enCache.recarga());
+            return;
+        }
+
+        consultas++;
+        recargas.ejecutar(() -> {
+            int total = Math.max(0, fuente.contar(textoCarga));
+            // Si mientras tanto se escribió otra cosa, no merece la pena leer el bloque
+            if (mia != ultimaConsulta) {
+                return null;
+            }
+            Object[][] primero = total > 0
+                ? convertir(fuente.cargar(textoCarga, columnaCarga, descendenteCarga, 0, TAMANO_BLOQUE))
+                : null;
+            return new Recarga(total, primero);
+        }, resultado -> {
+            if (resultado == null) {
+                return;
+            }
+            cacheConsultas.put(clave, new EntradaCache(resultado, System.currentTimeMillis()));
+            aplicar(resultado);
+        });
+    }
+
+    private void aplicar(Recarga resultado) {
+        generacion++;
+        bloques.clear();
+        pendientes.clear();
+        filas = resultado.filas();
+        if (resultado.primerBloque() != null) {
+            bloques.put(0, resultado.primerBloque());
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Deja de atender este modelo: cancela la recarga pendiente y descarta
+     * los bloques que estén en camino. Se llama al sustituirlo en la tabla.
+     */
+    public void descartar() {
+        recargas.cancelar();
+        ultimaConsulta++;
+        generacion++;
+        pendientes.clear();
+    }
+
+    /**
+     * Aplica el filtro del buscador en la consulta (no sobre las filas cargadas).
+     */
+    public void filtrar(String texto) {
+        String nuevo = texto == null || texto.isBlank() ? null : texto.trim();
+        if (nuevo == null ? this.texto == null : nuevo.equals(this.texto)) {
+            return;
+        }
+        this.texto = nuevo;
+        consultar();
+    }
+
+    public void ordenar(int columna, boolean descendente) {
+        this.columnaOrden = columna;
+        this.descendente = descendente;
+        consultar();
+    }
+
+    /** Consultas de recuento que llegaron a la base (sin contar bloques de scroll). */
+    public int getConsultas() { return consultas; }
+    public int getAciertosCache() { return aciertosCache; }
+
+    /**
+     * Pone el modelo en la tabla junto con su ordenador. JTable conserva el
+     * RowSorter del modelo anterior al cambiar de modelo, por eso van juntos.
+     */
+    public void instalarEn(JTable tabla) {
+        if (tabla.getModel() instanceof ModeloTablaPerezoso<?> anterior && anterior != this) {
+            anterior.descartar();
+        }
+        tabla.setModel(this);
+        tabla.setRowSorter(crearOrdenador());
+    }
+
+    /**
+     * RowSorter para JTable.setRowSorter: el clic en la cabecera reordena en
+     * la base de datos. Las filas de vista y de modelo coinciden.
+     */
+    public RowSorter<TableModel> crearOrdenador() {
+        return new OrdenadorServidor();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnas[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    /**
+     * Si el bloque de la fila no está en memoria se pide en segundo plano y
+     * mientras tanto la celda sale vacía (null).
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        int numero = row / TAMANO_BLOQUE;
+        Object[][] bloque = bloques.get(numero);
+        if (bloque == null) {
+            solicitarBloque(numero);
+            return null;
+        }
+        Object[] fila = bloque[row - numero * TAMANO_BLOQUE];
+        return fila != null ? fila[column] : null;
+    }
+
+    /**
+     * Elemento del DAO de la fila, para los renderers que necesitan más que las
+     * columnas visibles. null si su bloque todavía no está en memoria (no lo pide).
+     */
+    @SuppressWarnings("unchecked")
+    public T getElemento(int row) {
+        Object[][] bloque = bloques.get(row / TAMANO_BLOQUE);
+        if (bloque == null) {
+            return null;
+        }
+        Object[] fila = bloque[row % TAMANO_BLOQUE];
+        return fila != null ? (T) fila[columnas.length] : null;
+    }
+
+    private void solicitarBloque(int numero) {
+        if (!pendientes.add(numero)) {
+            return;
+        }
+        final int gen = generacion;
+        final String textoCarga = texto;
+        final int columnaCarga = columnaOrden;
+        final boolean descendenteCarga = descendente;
+        final int desde = numero * TAMANO_BLOQUE;
+
+        EjecutorAsincrono.enSegundoPlano(() -> {
+            List<T> elementos;
+            try {
+                elementos = fuente.cargar(textoCarga, columnaCarga, descendenteCarga, desde, TAMANO_BLOQUE);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "No se pudo cargar el bloque " + numero, e);
+                elementos = Collections.emptyList();
+            }
+            Object[][] bloque = convertir(elementos);
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generacion) {
+                    return;
+                }
+                pendientes.remove(numero);
+                bloques.put(numero, bloque);
+                int ultima = Math.min(filas, desde + TAMANO_BLOQUE) - 1;
+                if (ultima >= desde) {
+                    fireTableRowsUpdated(desde, ultima);
+                }
+            });
+        });
+    }
+
+    // Si el DAO devuelve menos filas de las contadas (borradas entre medias), el resto queda vacío.
+    // Cada fila guarda el elemento detrás de sus columnas (getElemento).
+    private Object[][] convertir(List<T> elementos) {
+        Object[][] bloque = new Object[TAMANO_BLOQUE][];
+        for (int i = 0; i < elementos.size() && i < TAMANO_BLOQUE; i++) {
+            T elemento = elementos.get(i);
+            Object[] fila = Arrays.copyOf(convertidor.apply(elemento), columnas.length + 1);
+            fila[columnas.length] = elemento;
+            bloque[i] = fila;
+        }
+        return bloque;
+    }
+
+    private record Recarga(int filas, Object[][] primerBloque) {}
+
+    private record EntradaCache(Recarga recarga, long instante) {}
+
+    /**
+     * Ordenación delegada: guarda la clave de orden (para la flecha de la
+     * cabecera) y pide al modelo recargar ordenado.
+     */
+    private class OrdenadorServidor extends RowSorter<TableModel> {
+
+        private List<SortKey> claves = Collections.emptyList();
+
+        @Override
+        public TableModel getModel() {
+            return ModeloTablaPerezoso.this;
+        }
+
+        @Override
+        public void toggleSortOrder(int column) {
+            boolean desc = !claves.isEmpty()
+                && claves.get(0).getColumn() == column
+                && claves.get(0).getSortOrder() == SortOrder.ASCENDING;
+            setSortKeys(List.of(new SortKey(column, desc ? SortOrder.DESCENDING : SortOrder.ASCENDING)));
+        }
+
+        @Override
+        public void setSortKeys(List<? extends SortKey> keys) {
+            List<SortKey> anteriores = claves;
+            claves = keys == null || keys.isEmpty()
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(keys.subList(0, 1)));
+            fireSortOrderChanged();
+            if (claves.isEmpty()) {
+                ordenar(-1, false);
+            } else {
+                SortKey clave = claves.get(0);
+                ordenar(clave.getColumn(), clave.getSortOrder() == SortOrder.DESCENDING);
+            }
+            if (!anteriores.equals(claves)) {
+                fireRowSorterChanged(null);
+            }
+        }
+
+        @Override
+        public List<? extends SortKey> getSortKeys() {
+            return claves;
+        }
+
+        @Override
+        public int convertRowIndexToModel(int index) {
+            return index;
+        }
+
+        @Override
+        public int convertRowIndexToView(int index) {
+            return index;
+        }
+
+        @Override
+        public int getViewRowCount() {
+            return filas;
+        }
+
+        @Override
+        public int getModelRowCount() {
+            return filas;
+        }
+
+        @Override public void modelStructureChanged() {}
+        @Override public void allRowsChanged() {}
+        @Override public void rowsInserted(int firstRow, int endRow) {}
+        @Override public void rowsDeleted(int firstRow, int endRow) {}
+        @Override public void rowsUpdated(int firstRow, int endRow) {}
+        @Override public void rowsUpdated(int firstRow, int endRow, int column) {}
+    }
+}
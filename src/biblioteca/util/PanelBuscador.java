@@ -9,12 +9,25 @@ import javax.swing.event.DocumentListener;
 /**
  * Panel de búsqueda reutilizable para todo el sistema.
  * Incluye buscador dinámico, botón limpiar, Enter para buscar y ESC para limpiar.
+ *
+ * La búsqueda dinámica espera a que se deje de escribir (ver
+ * {@link #setRetardoBusqueda(int)}): las teclas seguidas se agrupan en una
+ * sola búsqueda y no se repite la misma búsqueda dos veces seguidas.
  */
 public class PanelBuscador extends JPanel {
+
+    public static final int RETARDO_POR_DEFECTO_MS = 250;
+
     private JTextField txtBuscar;
     private BotonModerno btnLimpiar;
     private Consumer<String> accionBuscar;
     private Runnable accionRecargar;
+
+    // Se reinicia con cada tecla; solo dispara cuando pasa el retardo sin escribir
+    private final Timer temporizador;
+
+    // Último texto enviado a accionBuscar/accionRecargar ("" = recarga); null = ninguno
+    private String ultimoEnviado;
     
     public PanelBuscador(String titulo, String tooltip) {
         setLayout(new FlowLayout(FlowLayout.LEFT, 8, 5));
@@ -39,16 +52,19 @@ public class PanelBuscador extends JPanel {
         btnLimpiar.setPreferredSize(new Dimension(8, 32)); // ← Más pequeño y cuadrado
         btnLimpiar.setToolTipText("Limpiar búsqueda");
         add(btnLimpiar);
-        
+
+        temporizador = new Timer(RETARDO_POR_DEFECTO_MS, e -> ejecutarBusqueda());
+        temporizador.setRepeats(false);
+
         configurarEventos();
     }
     
     private void configurarEventos() {
         // 🔍 Búsqueda dinámica
         txtBuscar.getDocument().addDocumentListener(new DocumentListener() {
-            @Override public void insertUpdate(DocumentEvent e) { ejecutarBusqueda(); }
-            @Override public void removeUpdate(DocumentEvent e) { ejecutarBusqueda(); }
-            @Override public void changedUpdate(DocumentEvent e) { ejecutarBusqueda(); }
+            @Override public void insertUpdate(DocumentEvent e) { temporizador.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { temporizador.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { temporizador.restart(); }
         });
         
         // ⌨ Enter y ESC
@@ -56,6 +72,8 @@ public class PanelBuscador extends JPanel {
             @Override
             public void keyPressed(KeyEvent e) {
                 if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    // Enter no espera al retardo y siempre vuelve a buscar
+                    ultimoEnviado = null;
                     ejecutarBusqueda();
                 }
                 if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
@@ -69,8 +87,13 @@ public class PanelBuscador extends JPanel {
     }
     
     private void ejecutarBusqueda() {
+        temporizador.stop();
         if (accionBuscar == null) return;
         String texto = txtBuscar.getText().trim();
+        if (texto.equals(ultimoEnviado)) {
+            return;   // p. ej. solo se añadió un espacio al final
+        }
+        ultimoEnviado = texto;
         if (texto.isEmpty()) {
             if (accionRecargar != null) accionRecargar.run();
         } else {
@@ -80,6 +103,8 @@ public class PanelBuscador extends JPanel {
     
     private void limpiar() {
         txtBuscar.setText("");
+        temporizador.stop();
+        ultimoEnviado = "";
         if (accionRecargar != null) accionRecargar.run();
         txtBuscar.requestFocus();
     }
@@ -90,6 +115,16 @@ public class PanelBuscador extends JPanel {
     public void configurar(Consumer<String> accionBuscar, Runnable accionRecargar) {
         this.accionBuscar = accionBuscar;
         this.accionRecargar = accionRecargar;
+        // Las acciones nuevas parten de la tabla recién cargada con el texto actual
+        this.ultimoEnviado = getTexto();
+    }
+
+    /**
+     * Tiempo sin escribir antes de lanzar la búsqueda. Las búsquedas que van
+     * a la base usan el valor por defecto; los filtros en memoria pueden usar menos.
+     */
+    public void setRetardoBusqueda(int milisegundos) {
+        temporizador.setInitialDelay(Math.max(0, milisegundos));
     }
     
     public String getTexto() {
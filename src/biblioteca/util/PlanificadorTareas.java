@@ -0,0 +1,85 @@
+package biblioteca.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Único hilo en segundo plano para las tareas de mantenimiento
+ * (vencimientos, checkpoints...). Las tareas se ejecutan una detrás de otra,
+ * nunca en paralelo, así no compiten entre sí por el bloqueo de escritura de SQLite.
+ */
+public final class PlanificadorTareas {
+
+    private static final Logger LOG = Logger.getLogger(PlanificadorTareas.class.getName());
+
+    private static final ScheduledExecutorService EJECUTOR =
+        Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "planificador-biblioteca");
+            t.setDaemon(true);
+            return t;
+        });
+
+    private PlanificadorTareas() {}
+
+    /**
+     * Ejecuta la tarea en el hilo del planificador lo antes posible.
+     */
+    public static void ejecutarAhora(String nombre, Runnable tarea) {
+        EJECUTOR.execute(protegida(nombre, tarea));
+    }
+
+    /**
+     * Ejecuta la tarea todos los días a la hora indicada (hora local).
+     * Se recalcula el retraso en cada vuelta para no derivar con cambios de hora.
+     */
+    public static void programarDiaria(String nombre, LocalTime hora, Runnable tarea) {
+        Runnable protegidaTarea = protegida(nombre, tarea);
+        EJECUTOR.schedule(new Runnable() {
+            @Override
+            public void run() {
+                protegidaTarea.run();
+                EJECUTOR.schedule(this, retrasoHasta(hora), TimeUnit.MILLISECONDS);
+            }
+        }, retrasoHasta(hora), TimeUnit.MILLISECONDS);
+        LOG.info("Tarea diaria '" + nombre + "' programada a las " + hora);
+    }
+
+    /**
+     * Ejecuta la tarea cada cierto periodo, empezando tras un periodo completo.
+     */
+    public static ScheduledFuture<?> programarPeriodica(String nombre, long periodo, TimeUnit unidad,
+                                                        Runnable tarea) {
+        return EJECUTOR.scheduleWithFixedDelay(protegida(nombre, tarea), periodo, periodo, unidad);
+    }
+
+    public static void detener() {
+        EJECUTOR.shutdownNow();
+    }
+
+    private static long retrasoHasta(LocalTime hora) {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime siguiente = ahora.toLocalDate().atTime(hora);
+        if (!siguiente.isAfter(ahora)) {
+            siguiente = siguiente.plusDays(1);
+        }
+        return Duration.between(ahora, siguiente).toMillis();
+    }
+
+    // Una excepción no capturada cancelaría en silencio las repeticiones siguientes
+    private static Runnable protegida(String nombre, Runnable tarea) {
+        return () -> {
+            try {
+                tarea.run();
+            } catch (RuntimeException e) {
+                LOG.log(Level.SEVERE, "Error en la tarea programada '" + nombre + "'", e);
+            }
+        };
+    }
+}
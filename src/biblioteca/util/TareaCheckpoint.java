@@ -0,0 +1,94 @@
+package biblioteca.util;
+
+import biblioteca.config.Conexion;
+import biblioteca.config.PerfilAlmacenamiento;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Checkpoint periódico del WAL: vuelca al archivo principal las páginas
+ * escritas para que el -wal no crezca sin límite mientras haya lectores
+ * abiertos (informes largos, tablas perezosas). El periodo y el modo salen
+ * del perfil de almacenamiento.
+ */
+public class TareaCheckpoint implements Runnable {
+
+    private static final Logger LOG = Logger.getLogger(TareaCheckpoint.class.getName());
+
+    private static volatile TareaCheckpoint instancia;
+
+    private final String modo;
+
+    // ===== Métricas =====
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final AtomicLong ocupados = new AtomicLong();
+    private volatile int ultimasPaginasWal;
+    private volatile int ultimasPaginasVolcadas;
+    private volatile long ultimaDuracionMs;
+    private volatile LocalDateTime ultimaEjecucion;
+
+    public TareaCheckpoint(String modo) {
+        this.modo = modo;
+    }
+
+    /**
+     * Programa el checkpoint según el perfil en uso. Solo la primera llamada tiene efecto.
+     */
+    public static synchronized TareaCheckpoint iniciar() {
+        if (instancia == null) {
+            PerfilAlmacenamiento perfil = Conexion.getPerfilAlmacenamiento();
+            instancia = new TareaCheckpoint(perfil.getModoCheckpoint());
+            PlanificadorTareas.programarPeriodica("checkpoint WAL", perfil.getMinutosCheckpoint(),
+                    TimeUnit.MINUTES, instancia);
+            LOG.info("Checkpoint " + perfil.getModoCheckpoint() + " cada "
+                    + perfil.getMinutosCheckpoint() + " min (perfil " + perfil + ")");
+        }
+        return instancia;
+    }
+
+    public static TareaCheckpoint getInstancia() {
+        return instancia;
+    }
+
+    @Override
+    public void run() {
+        long inicio = System.nanoTime();
+
+        try (Connection conn = Conexion.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + modo + ")")) {
+
+            // Columnas: busy (1 si no pudo completarse), páginas en el WAL, páginas volcadas
+            if (rs.next()) {
+                if (rs.getInt(1) != 0) {
+                    ocupados.incrementAndGet();
+                }
+                ultimasPaginasWal = rs.getInt(2);
+                ultimasPaginasVolcadas = rs.getInt(3);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al hacer checkpoint del WAL: " + e.getMessage());
+            return;
+        }
+
+        ultimaDuracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        ultimaEjecucion = LocalDateTime.now();
+        ejecuciones.incrementAndGet();
+
+        LOG.fine("Checkpoint WAL: " + ultimasPaginasVolcadas + "/" + ultimasPaginasWal
+                + " páginas en " + ultimaDuracionMs + " ms");
+    }
+
+    public long getEjecuciones() { return ejecuciones.get(); }
+    public long getOcupados() { return ocupados.get(); }
+    public int getUltimasPaginasWal() { return ultimasPaginasWal; }
+    public int getUltimasPaginasVolcadas() { return ultimasPaginasVolcadas; }
+    public long getUltimaDuracionMs() { return ultimaDuracionMs; }
+    public LocalDateTime getUltimaEjecucion() { return ultimaEjecucion; }
+}
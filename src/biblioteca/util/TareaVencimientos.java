@@ -0,0 +1,72 @@
+package biblioteca.util;
+
+import biblioteca.dao.PrestamoDAO;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Barrido de préstamos vencidos: pasa los 'Activo' con fecha esperada pasada
+ * a 'Vencido'. Se ejecuta al arrancar (para recuperar los días que la
+ * aplicación estuvo cerrada) y cada medianoche.
+ *
+ * Entre barridos las lecturas de PrestamoDAOImpl ya calculan el estado, así
+ * que listar nunca necesita escribir.
+ */
+public class TareaVencimientos implements Runnable {
+
+    private static final Logger LOG = Logger.getLogger(TareaVencimientos.class.getName());
+
+    private static volatile TareaVencimientos instancia;
+
+    private final PrestamoDAO prestamoDAO;
+
+    // ===== Métricas =====
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final AtomicLong totalActualizados = new AtomicLong();
+    private volatile int ultimosActualizados;
+    private volatile long ultimaDuracionMs;
+    private volatile LocalDateTime ultimaEjecucion;
+
+    public TareaVencimientos(PrestamoDAO prestamoDAO) {
+        this.prestamoDAO = prestamoDAO;
+    }
+
+    /**
+     * Lanza el barrido de arranque y programa el de medianoche. Solo la primera
+     * llamada tiene efecto.
+     */
+    public static synchronized TareaVencimientos iniciar(PrestamoDAO prestamoDAO) {
+        if (instancia == null) {
+            instancia = new TareaVencimientos(prestamoDAO);
+            PlanificadorTareas.ejecutarAhora("vencimientos (arranque)", instancia);
+            PlanificadorTareas.programarDiaria("vencimientos", LocalTime.MIDNIGHT, instancia);
+        }
+        return instancia;
+    }
+
+    public static TareaVencimientos getInstancia() {
+        return instancia;
+    }
+
+    @Override
+    public void run() {
+        long inicio = System.nanoTime();
+        int actualizados = prestamoDAO.actualizarPrestamosVencidos();
+
+        ultimaDuracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        ultimosActualizados = actualizados;
+        ultimaEjecucion = LocalDateTime.now();
+        ejecuciones.incrementAndGet();
+        totalActualizados.addAndGet(actualizados);
+
+        LOG.info("Barrido de vencimientos: " + actualizados + " préstamo(s) en " + ultimaDuracionMs + " ms");
+    }
+
+    public long getEjecuciones() { return ejecuciones.get(); }
+    public long getTotalActualizados() { return totalActualizados.get(); }
+    public int getUltimosActualizados() { return ultimosActualizados; }
+    public long getUltimaDuracionMs() { return ultimaDuracionMs; }
+    public LocalDateTime getUltimaEjecucion() { return ultimaEjecucion; }
+}
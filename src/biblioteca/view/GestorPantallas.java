@@ -0,0 +1,174 @@
+package biblioteca.view;
+
+import biblioteca.dao.VersionesDatosDAO;
+import java.awt.CardLayout;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import javax.swing.JPanel;
+
+/**
+ * Ciclo de vida de las pantallas del menú principal.
+ *
+ * Cada pantalla se construye la primera vez que se pide y se queda en el
+ * CardLayout. Al volver a ella se comparan las versiones de Versiones_Datos
+ * (migración V006) con las que había la última vez que se mostró: si no
+ * cambió ninguna de las tablas de las que depende, mostrarla es solo un
+ * cardLayout.show; si cambió alguna, la pantalla recibe cuáles para recargar
+ * únicamente lo afectado. Un cambio de día, o no poder leer las versiones,
+ * cuenta como que cambiaron todas (los vencidos dependen de la fecha).
+ *
+ * Una pantalla que se mantiene al día mientras se ve (eventos de BusEventos o
+ * recarga tras sus propias escrituras) lo declara con
+ * {@link #alDiaMientrasVisible}: al salir de ella esas tablas se dan por vistas
+ * y volver no la recarga por lo que se hizo en ella.
+ */
+final class GestorPantallas {
+
+    private static final Logger LOG = Logger.getLogger(GestorPantallas.class.getName());
+
+    /** Recarga de una pantalla ya construida con las tablas que cambiaron. */
+    @FunctionalInterface
+    interface Refresco<T extends JPanel> {
+        void refrescar(T vista, Set<String> cambiadas);
+    }
+
+    private static final class Pantalla<T extends JPanel> {
+        final Supplier<T> fabrica;
+        final Refresco<T> refresco;
+        final Set<String> tablas;
+        Set<String> alDia = Set.of();
+
+        T vista;
+        Map<String, Long> versionesVistas = Map.of();
+        LocalDate diaVisto;
+
+        Pantalla(Supplier<T> fabrica, Refresco<T> refresco, Set<String> tablas) {
+            this.fabrica = fabrica;
+            this.refresco = refresco;
+            this.tablas = tablas;
+        }
+
+        void refrescar(Set<String> cambiadas) {
+            refresco.refrescar(vista, cambiadas);
+        }
+    }
+
+    private final JPanel contenedor;
+    private final CardLayout cardLayout;
+    private final VersionesDatosDAO versionesDAO;
+    private final Map<String, Pantalla<?>> pantallas = new HashMap<>();
+    private Pantalla<?> visible;
+
+    GestorPantallas(JPanel contenedor, CardLayout cardLayout, VersionesDatosDAO versionesDAO) {
+        this.contenedor = contenedor;
+        this.cardLayout = cardLayout;
+        this.versionesDAO = versionesDAO;
+    }
+
+    /**
+     * @param fabrica construye la vista (solo se llama una vez)
+     * @param refresco recarga la vista cuando cambió alguna de {@code tablas}
+     * @param tablas tablas de Versiones_Datos de las que depende la pantalla
+     */
+    <T extends JPanel> void registrar(String nombre, Supplier<T> fabrica, Refresco<T> refresco, String... tablas) {
+        pantallas.put(nombre, new Pantalla<>(fabrica, refresco, Set.of(tablas)));
+    }
+
+    /**
+     * Tablas que la pantalla mantiene al día por sí misma mientras está en
+     * pantalla; deben estar entre las registradas.
+     */
+    void alDiaMientrasVisible(String nombre, String... tablas) {
+        pantallas.get(nombre).alDia = Set.of(tablas);
+    }
+
+    /**
+     * Muestra la pantalla: la construye si es la primera vez y, si no, la
+     * recarga solo si cambió algo de lo que muestra. Las excepciones de la
+     * fábrica o del refresco llegan al llamador.
+     */
+    JPanel mostrar(String nombre) {
+        Pantalla<?> p = pantallas.get(nombre);
+        if (p == null) {
+            throw new IllegalArgumentException("Pantalla no registrada: " + nombre);
+        }
+        long inicio = System.nanoTime();
+
+        // Las versiones se leen antes de construir o recargar: lo que se
+        // escriba mientras tanto se verá la próxima vez, no se pierde
+        Map<String, Long> versiones = versionesDAO.obtenerVersiones();
+        LocalDate hoy = LocalDate.now();
+        String detalle;
+
+        if (visible != null && visible != p && !versiones.isEmpty()) {
+            Map<String, Long> vistas = new HashMap<>(visible.versionesVistas);
+            for (String tabla : visible.alDia) {
+                vistas.put(tabla, versiones.get(tabla));
+            }
+            visible.versionesVistas = vistas;
+        }
+
+        if (p.vista == null) {
+            construir(nombre, p);
+            detalle = "construida";
+        } else {
+            Set<String> cambiadas = cambiadas(p, versiones, hoy);
+            if (!cambiadas.isEmpty()) {
+                p.refrescar(cambiadas);
+                detalle = "recargada " + cambiadas;
+            } else {
+                detalle = "sin cambios";
+            }
+        }
+        p.versionesVistas = versiones;
+        p.diaVisto = hoy;
+        visible = p;
+
+        cardLayout.show(contenedor, nombre);
+        LOG.fine(() -> "Pantalla " + nombre + " " + detalle + " en "
+                + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+        return p.vista;
+    }
+
+    /** La vista si ya se construyó, o null. */
+    JPanel obtener(String nombre) {
+        Pantalla<?> p = pantallas.get(nombre);
+        return p != null ? p.vista : null;
+    }
+
+    private <T extends JPanel> void construir(String nombre, Pantalla<T> p) {
+        T vista = p.fabrica.get();
+        vista.setName(nombre);
+        contenedor.add(vista, nombre);
+        p.vista = vista;
+    }
+
+    private Set<String> cambiadas(Pantalla<?> p, Map<String, Long> versiones, LocalDate hoy) {
+        if (versiones.isEmpty() || !hoy.equals(p.diaVisto)) {
+            return p.tablas;
+        }
+        Set<String> cambiadas = new LinkedHashSet<>();
+        for (String tabla : p.tablas) {
+            Long antes = p.versionesVistas.get(tabla);
+            if (antes == null || !antes.equals(versiones.get(tabla))) {
+                cambiadas.add(tabla);
+            }
+        }
+        return cambiadas;
+    }
+
+    /** True si cambió alguna de las tablas indicadas. */
+    static boolean cambioAlguna(Set<String> cambiadas, String... tablas) {
+        for (String tabla : tablas) {
+            if (cambiadas.contains(tabla)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,16 +3,20 @@ package biblioteca.view;
 import biblioteca.controller.AutorController;
 import biblioteca.controller.CategoriaController;
 import biblioteca.controller.MaterialController;
+import biblioteca.dao.BusEventos;
 import biblioteca.model.Autor;
 import biblioteca.model.Categoria;
+import biblioteca.model.EventoDominio;
 import biblioteca.model.MaterialBibliografico;
 import biblioteca.util.BotonModerno;
 import biblioteca.util.EstilosAplicacion;
 import biblioteca.util.Iconos;
+import biblioteca.util.ModeloTablaPerezoso;
 import biblioteca.util.PanelBuscador;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.List;
+import java.util.Set;
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import org.jdesktop.swingx.autocomplete.AutoCompleteDecorator;
@@ -40,6 +44,9 @@ public class MaterialView extends JPanel {
     private String filtroTabla = "TODOS";     // Filtro de visualización de la tabla (TODOS, LIBRO, REVISTA, TESIS)
     private boolean ignorarEventoCombo = false; // Flag para ignorar eventos del combo temporalmente
 
+    // Préstamos, devoluciones y ediciones cambian la columna "Disponibles"
+    private BusEventos.Suscripcion suscripcion;
+
     public MaterialView() { 
         this(null, null, null); 
     }
@@ -65,6 +72,19 @@ public class MaterialView extends JPanel {
         cargarDatosIniciales(); 
     }
 
+    /**
+     * Recarga solo los combos y la tabla afectados por las tablas que
+     * cambiaron desde la última vez que se mostró la pantalla.
+     */
+    public void recargar(Set<String> cambiadas) {
+        if (cambiadas.contains("Autores")) cargarAutores();
+        if (cambiadas.contains("Categorias")) cargarCategoriasPorTipo(tipoFormulario);
+        if (controller != null
+                && GestorPantallas.cambioAlguna(cambiadas, "Materiales", "Ejemplares", "Categorias", "Autores")) {
+            cargarTabla();
+        }
+    }
+
     private void initComponents() {
         setLayout(new BorderLayout(8, 8));
         setBackground(EstilosAplicacion.COLOR_FONDO);
@@ -660,7 +680,6 @@ public class MaterialView extends JPanel {
                 "Éxito", 
                 JOptionPane.INFORMATION_MESSAGE);
             limpiarCampos(); 
-            cargarTabla(); 
         }
     }
     
@@ -713,7 +732,10 @@ public class MaterialView extends JPanel {
         if (fila < 0) return;
         
         int filaModelo = tablaMateriales.convertRowIndexToModel(fila);
-        idSeleccionado = (int) tablaMateriales.getModel().getValueAt(filaModelo, 0);
+        // Con el modelo perezoso la fila puede no estar cargada todavía
+        Object idObj = tablaMateriales.getModel().getValueAt(filaModelo, 0);
+        if (idObj == null) return;
+        idSeleccionado = (int) idObj;
 
         // Obtener el material
         MaterialBibliografico material = controller.buscarMaterial(idSeleccionado);
@@ -832,6 +854,37 @@ public class MaterialView extends JPanel {
         txtGradoAcademico.setText(tesis.getGradoAcademico() != null ? tesis.getGradoAcademico() : "");
     }
 
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (suscripcion == null) {
+            suscripcion = BusEventos.suscribir(EventoDominio.class,
+                    evento -> SwingUtilities.invokeLater(() -> aplicarCambio(evento)));
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (suscripcion != null) {
+            suscripcion.cancelar();
+            suscripcion = null;
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * Un material editado o con otra disponibilidad: se vuelve a pedir el
+     * bloque visible del modelo perezoso, sin rehacer tabla ni buscador.
+     */
+    private void aplicarCambio(EventoDominio evento) {
+        if (evento instanceof EventoDominio.CambioDisponibilidad
+                || evento instanceof EventoDominio.MaterialActualizado) {
+            if (tablaMateriales.getModel() instanceof ModeloTablaPerezoso<?> modelo) {
+                modelo.recargar();
+            }
+        }
+    }
+
     // Cargar tabla
     private void cargarTabla() {
         if (controller == null) return;
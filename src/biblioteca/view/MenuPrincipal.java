@@ -9,8 +9,6 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
-import java.util.Map;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
@@ -52,8 +50,14 @@ public class MenuPrincipal extends JFrame {
     private final AutorDAO autorDAO;
     private final EjemplarDAO ejemplarDAO;
 
-    private final Map<String, JPanel> vistasCache = new HashMap<>();
-    private PanelBienvenida panelBienvenida;
+    // Pantallas: se construyen una vez y se recargan solo si cambió lo que muestran
+    private GestorPantallas pantallas;
+
+    private CategoriaController categoriaController;
+    private AutorController autorController;
+    private MaterialController materialController;
+    private UsuarioController usuarioController;
+    private PrestamoController prestamoController;
 
     public MenuPrincipal(String nombreAdmin,
                          MaterialDAO materialDAO,
@@ -76,6 +80,7 @@ public class MenuPrincipal extends JFrame {
 
         inicializarComponentes();
         configurarVentana();
+        registrarPantallas();
         crearYMostrarBienvenida();
     }
 
@@ -404,19 +409,19 @@ public class MenuPrincipal extends JFrame {
                 crearYMostrarBienvenida();
                 break;
             case "CATEGORIAS":
-                abrirVistaCategorias();
+                abrirVista("CATEGORIAS", "categorías");
                 break;
             case "AUTORES":
-                abrirVistaAutores();
+                abrirVista("AUTORES", "autores");
                 break;
             case "LIBROS":
-                abrirVistaLibros();
+                abrirVista("LIBROS", "materiales");
                 break;
             case "USUARIOS":
-                abrirVistaUsuarios();
+                abrirVista("USUARIOS", "usuarios");
                 break;
             case "PRESTAMOS":
-                abrirVistaPrestamos();
+                abrirVista("PRESTAMOS", "préstamos");
                 break;
             case "SALIR":
                 cerrarSesion();
@@ -461,133 +466,131 @@ public class MenuPrincipal extends JFrame {
         });
     }
 
-    private void crearYMostrarBienvenida() {
-        try {
-            if (!vistasCache.containsKey("BIENVENIDA")) {
-                panelBienvenida = new PanelBienvenida(
+    /**
+     * Registra las pantallas con las tablas de las que dependen; se
+     * construyen al pedirlas por primera vez (ver GestorPantallas).
+     */
+    private void registrarPantallas() {
+        pantallas = new GestorPantallas(panelContenido, cardLayout, new VersionesDatosDAOImpl());
+
+        pantallas.registrar("BIENVENIDA",
+                () -> new PanelBienvenida(
                         nombreAdministrador,
                         materialDAO,
                         personaDAO,
                         prestamoDAO,
                         multaDAO,
+                        new EstadisticasDAOImpl(),
+                        new InformeDAOImpl(),
                         this
-                );
-                mostrarVista("BIENVENIDA", panelBienvenida);
-            } else {
-                panelBienvenida = (PanelBienvenida) vistasCache.get("BIENVENIDA");
-                panelBienvenida.recargar();
-                cardLayout.show(panelContenido, "BIENVENIDA");
-            }
+                ),
+                (vista, cambiadas) -> vista.recargar(),
+                "Materiales", "Personas", "Prestamos", "Multas");
+
+        pantallas.registrar("CATEGORIAS",
+                () -> {
+                    CategoriaView vista = new CategoriaView();
+                    vista.setController(getCategoriaController());
+                    return vista;
+                },
+                (vista, cambiadas) -> vista.recargar(),
+                "Categorias");
+
+        pantallas.registrar("AUTORES",
+                () -> {
+                    AutorView vista = new AutorView();
+                    vista.setController(getAutorController());
+                    return vista;
+                },
+                (vista, cambiadas) -> vista.recargar(),
+                "Autores");
+
+        pantallas.registrar("LIBROS",
+                () -> new MaterialView(getMaterialController(), getAutorController(), getCategoriaController()),
+                MaterialView::recargar,
+                "Materiales", "Ejemplares", "Categorias", "Autores");
+
+        pantallas.registrar("USUARIOS",
+                () -> {
+                    UsuarioView vista = new UsuarioView();
+                    vista.setController(getUsuarioController());
+                    return vista;
+                },
+                (vista, cambiadas) -> vista.recargar(),
+                "Personas");
+
+        pantallas.registrar("PRESTAMOS",
+                () -> new PrestamoView(getPrestamoController(), getUsuarioController(), getMaterialController()),
+                PrestamoView::recargar,
+                "Prestamos", "Multas", "Personas", "Materiales", "Ejemplares", "Configuracion");
+
+        // Mientras se ven, estas pantallas ya reflejan lo que escriben: recargan
+        // tras sus altas y bajas, y préstamos y ediciones llegan por BusEventos
+        pantallas.alDiaMientrasVisible("CATEGORIAS", "Categorias");
+        pantallas.alDiaMientrasVisible("AUTORES", "Autores");
+        pantallas.alDiaMientrasVisible("LIBROS", "Materiales", "Ejemplares");
+        pantallas.alDiaMientrasVisible("USUARIOS", "Personas");
+        pantallas.alDiaMientrasVisible("PRESTAMOS", "Prestamos", "Multas", "Ejemplares");
+    }
+
+    private void crearYMostrarBienvenida() {
+        try {
+            pantallas.mostrar("BIENVENIDA");
             vistaActiva = "INICIO";
             actualizarEstadoBotones("INICIO");
         } catch (Exception ex) {
             JPanel errorPanel = new JPanel(new BorderLayout());
             errorPanel.setBackground(Color.ORANGE);
             errorPanel.add(new JLabel("ERROR: No se pudo cargar la página de inicio", JLabel.CENTER));
-            mostrarVista("ERROR", errorPanel);
+            panelContenido.add(errorPanel, "ERROR");
+            cardLayout.show(panelContenido, "ERROR");
         }
     }
 
-    private void mostrarVista(String nombre, JPanel vistaNueva) {
-        JPanel vista = vistasCache.get(nombre);
-        if (vista == null) {
-            vistaNueva.setName(nombre);
-            panelContenido.add(vistaNueva, nombre);
-            vistasCache.put(nombre, vistaNueva);
+    private void abrirVista(String nombre, String modulo) {
+        try {
+            pantallas.mostrar(nombre);
+        } catch (Exception ex) {
+            error(modulo, ex);
         }
-        cardLayout.show(panelContenido, nombre);
-        panelContenido.revalidate();
-        panelContenido.repaint();
     }
 
-    private void abrirVistaCategorias() {
-        try {
-            if (!vistasCache.containsKey("CATEGORIAS")) {
-                CategoriaController ctrl = new CategoriaController(categoriaDAO);
-                CategoriaView vista = new CategoriaView();
-                vista.setController(ctrl);
-                mostrarVista("CATEGORIAS", vista);
-            } else {
-                CategoriaView vista = (CategoriaView) vistasCache.get("CATEGORIAS");
-                vista.recargar();
-                cardLayout.show(panelContenido, "CATEGORIAS");
-            }
-        } catch (Exception ex) {
-            error("categorías", ex);
+    // ===== Controladores compartidos entre pantallas (se crean al primer uso) =====
+
+    private CategoriaController getCategoriaController() {
+        if (categoriaController == null) {
+            categoriaController = new CategoriaController(categoriaDAO);
         }
+        return categoriaController;
     }
 
-    private void abrirVistaAutores() {
-        try {
-            if (!vistasCache.containsKey("AUTORES")) {
-                AutorController ctrl = new AutorController(autorDAO);
-                AutorView vista = new AutorView();
-                vista.setController(ctrl);
-                mostrarVista("AUTORES", vista);
-            } else {
-                AutorView vista = (AutorView) vistasCache.get("AUTORES");
-                vista.recargar();
-                cardLayout.show(panelContenido, "AUTORES");
-            }
-        } catch (Exception ex) {
-            error("autores", ex);
+    private AutorController getAutorController() {
+        if (autorController == null) {
+            autorController = new AutorController(autorDAO);
         }
+        return autorController;
     }
 
-    private void abrirVistaLibros() {
-        try {
-            if (!vistasCache.containsKey("LIBROS")) {
-                MaterialController ctrl = new MaterialController(materialDAO, categoriaDAO, autorDAO, ejemplarDAO);
-                AutorController autorCtrl = new AutorController(autorDAO);
-                CategoriaController catCtrl = new CategoriaController(categoriaDAO);
-
-                MaterialView vista = new MaterialView(ctrl, autorCtrl, catCtrl);
-                mostrarVista("LIBROS", vista);
-            } else {
-                MaterialView vista = (MaterialView) vistasCache.get("LIBROS");
-                vista.recargar();
-                cardLayout.show(panelContenido, "LIBROS");
-            }
-        } catch (Exception ex) {
-            error("materiales", ex);
+    private MaterialController getMaterialController() {
+        if (materialController == null) {
+            materialController = new MaterialController(materialDAO, categoriaDAO, autorDAO, ejemplarDAO);
         }
+        return materialController;
     }
 
-    private void abrirVistaUsuarios() {
-        try {
-            if (!vistasCache.containsKey("USUARIOS")) {
-                UsuarioController ctrl = new UsuarioController(personaDAO);
-                UsuarioView vista = new UsuarioView();
-                vista.setController(ctrl);
-                mostrarVista("USUARIOS", vista);
-            } else {
-                UsuarioView vista = (UsuarioView) vistasCache.get("USUARIOS");
-                vista.recargar();
-                cardLayout.show(panelContenido, "USUARIOS");
-            }
-        } catch (Exception ex) {
-            error("usuarios", ex);
+    private UsuarioController getUsuarioController() {
+        if (usuarioController == null) {
+            usuarioController = new UsuarioController(personaDAO);
         }
+        return usuarioController;
     }
 
-    private void abrirVistaPrestamos() {
-        try {
-            if (!vistasCache.containsKey("PRESTAMOS")) {
-                ConfigDAO configDAO = new ConfigDAOImpl();
-                PrestamoController prestamoCtrl = new PrestamoController(prestamoDAO, personaDAO, materialDAO, multaDAO, configDAO);
-                UsuarioController usuarioCtrl = new UsuarioController(personaDAO);
-                MaterialController materialCtrl = new MaterialController(materialDAO, categoriaDAO, autorDAO, ejemplarDAO);
-
-                PrestamoView vista = new PrestamoView(prestamoCtrl, usuarioCtrl, materialCtrl);
-                mostrarVista("PRESTAMOS", vista);
-            } else {
-                PrestamoView vista = (PrestamoView) vistasCache.get("PRESTAMOS");
-                vista.recargar();
-                cardLayout.show(panelContenido, "PRESTAMOS");
-            }
-        } catch (Exception ex) {
-            error("préstamos", ex);
+    private PrestamoController getPrestamoController() {
+        if (prestamoController == null) {
+            prestamoController = new PrestamoController(prestamoDAO, personaDAO, materialDAO, multaDAO,
+                    configDAO != null ? configDAO : new ConfigDAOImpl());
         }
+        return prestamoController;
     }
 
     private void cerrarSesion() {
@@ -601,13 +604,14 @@ public class MenuPrincipal extends JFrame {
             SwingUtilities.invokeLater(() -> {
                 LoginView v = new LoginView();
 
-                // Crear TODOS los DAOs necesarios
-                CategoriaDAO categoriaDAO = new CategoriaDAOImpl();
-                AutorDAO autorDAO = new AutorDAOImpl();
-                PersonaDAO personaDAO = new PersonaDAOImpl();
-                MaterialDAO materialDAO = new MaterialDAOImpl(categoriaDAO, autorDAO);
-                EjemplarDAO ejemplarDAO = new EjemplarDAOImpl(materialDAO);
-                PrestamoDAO prestamoDAO = new PrestamoDAOImpl(personaDAO, materialDAO, ejemplarDAO);
+                // Los mismos DAOs de la sesión anterior: las cachés siguen calientes
+                FabricaDAO dao = FabricaDAO.getInstancia();
+                CategoriaDAO categoriaDAO = dao.getCategoriaDAO();
+                AutorDAO autorDAO = dao.getAutorDAO();
+                PersonaDAO personaDAO = dao.getPersonaDAO();
+                MaterialDAO materialDAO = dao.getMaterialDAO();
+                EjemplarDAO ejemplarDAO = dao.getEjemplarDAO();
+                PrestamoDAO prestamoDAO = dao.getPrestamoDAO();
 
                 LoginController ctrl = new LoginController(
                         v,
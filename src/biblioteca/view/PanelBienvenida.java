@@ -1,20 +1,19 @@
 package biblioteca.view;
 
+import biblioteca.dao.EstadisticasDAO;
+import biblioteca.dao.InformeDAO;
 import biblioteca.dao.MaterialDAO;
 import biblioteca.dao.MultaDAO;
 import biblioteca.dao.PersonaDAO;
 import biblioteca.dao.PrestamoDAO;
+import biblioteca.model.ResumenEstadisticas;
 import biblioteca.util.Iconos;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.Ellipse2D;
 import java.time.LocalDate;
 import java.time.format.TextStyle;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import javax.swing.*;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -34,8 +33,13 @@ public class PanelBienvenida extends JPanel {
     private PersonaDAO personaDAO;
     private PrestamoDAO prestamoDAO;
     private MultaDAO multaDAO;
+    private EstadisticasDAO estadisticasDAO;
+    private InformeDAO informeDAO;
     private MenuPrincipal menuPrincipal;
 
+    // Se lee una vez por cada carga del panel y la comparten tarjetas y gráficos
+    private ResumenEstadisticas resumen = ResumenEstadisticas.vacio();
+
     // Colores personalizados
     private static final Color COLOR_PRIMARIO = new Color(59, 130, 246);
     private static final Color COLOR_SECUNDARIO = new Color(16, 185, 129);
@@ -60,12 +64,16 @@ public class PanelBienvenida extends JPanel {
                           PersonaDAO personaDAO,
                           PrestamoDAO prestamoDAO,
                           MultaDAO multaDAO,
+                          EstadisticasDAO estadisticasDAO,
+                          InformeDAO informeDAO,
                           MenuPrincipal menuPrincipal) {
         this.nombreAdministrador = nombreAdmin != null ? nombreAdmin : "Administrador";
         this.materialDAO = materialDAO;
         this.personaDAO = personaDAO;
         this.prestamoDAO = prestamoDAO;
         this.multaDAO = multaDAO;
+        this.estadisticasDAO = estadisticasDAO;
+        this.informeDAO = informeDAO;
         this.menuPrincipal = menuPrincipal;
 
         setOpaque(false);
@@ -81,6 +89,8 @@ public class PanelBienvenida extends JPanel {
     }
 
     private void inicializarPanel() {
+        resumen = obtenerEstadisticas();
+
         JPanel contentPanel = new JPanel(new GridBagLayout());
         contentPanel.setOpaque(false);
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
@@ -249,11 +259,11 @@ public class PanelBienvenida extends JPanel {
         JPanel panel = new JPanel(new GridLayout(1, 3, 16, 0));
         panel.setOpaque(false);
 
-        Estadisticas stats = obtenerEstadisticas();
+        ResumenEstadisticas stats = resumen;
 
         panel.add(crearTarjetaEstadistica(
             Iconos.LIBROS,
-            String.format("%,d", stats.totalMateriales),
+            String.format("%,d", stats.totalMateriales()),
             "Materiales totales",
             "Catálogo disponible",
             COLOR_PRIMARIO
@@ -261,7 +271,7 @@ public class PanelBienvenida extends JPanel {
 
         panel.add(crearTarjetaEstadistica(
             Iconos.USUARIOS,
-            String.format("%,d", stats.totalUsuarios),
+            String.format("%,d", stats.totalPersonas()),
             "Usuarios activos",
             "Miembros registrados",
             COLOR_SECUNDARIO
@@ -269,7 +279,7 @@ public class PanelBienvenida extends JPanel {
 
         panel.add(crearTarjetaEstadistica(
             Iconos.PRESTAMOS,
-            String.format("%,d", stats.totalPrestamosActivos),
+            String.format("%,d", stats.prestamosActivos()),
             "Préstamos activos",
             "En circulación",
             COLOR_TERCIARIO
@@ -391,7 +401,7 @@ public class PanelBienvenida extends JPanel {
         gbc.weightx = 0.5;  // Mismo peso horizontal
         gbc.weighty = 0.5;  // Mismo peso vertical
 
-        Estadisticas stats = obtenerEstadisticas();
+        ResumenEstadisticas stats = resumen;
 
         // (0,0) - Gráfico de pastel
         gbc.gridx = 0;
@@ -468,12 +478,12 @@ public class PanelBienvenida extends JPanel {
         return panel;
     }
 
-    private JFreeChart crearGraficoPastel(Estadisticas stats) {
+    private JFreeChart crearGraficoPastel(ResumenEstadisticas stats) {
         DefaultPieDataset dataset = new DefaultPieDataset();
-        dataset.setValue("Activos", stats.totalPrestamosActivos);
-        dataset.setValue("Vencidos", stats.totalPrestamosVencidos);
-        dataset.setValue("Devueltos", stats.totalPrestamosDevueltos);
-        dataset.setValue("Perdidos", stats.totalPrestamosPerdidos);
+        dataset.setValue("Activos", stats.prestamosActivos());
+        dataset.setValue("Vencidos", stats.prestamosVencidos());
+        dataset.setValue("Devueltos", stats.prestamosDevueltos());
+        dataset.setValue("Perdidos", stats.prestamosPerdidos());
 
         JFreeChart chart = ChartFactory.createPieChart("", dataset, false, true, false);
 
@@ -496,24 +506,10 @@ public class PanelBienvenida extends JPanel {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         
         try {
-            if (materialDAO != null) {
-                int libros = 0, tesis = 0, revistas = 0;
-                
-                for (biblioteca.model.MaterialBibliografico material : materialDAO.listarTodos()) {
-                    String tipo = material.getClass().getSimpleName();
-                    
-                    if (tipo.equals("Libro")) {
-                        libros++;
-                    } else if (tipo.equals("Tesis")) {
-                        tesis++;
-                    } else if (tipo.equals("Revista")) {
-                        revistas++;
-                    }
+            if (informeDAO != null) {
+                for (Object[] fila : informeDAO.contarMaterialesPorTipo()) {
+                    dataset.addValue((Integer) fila[1], "Cantidad", (String) fila[0]);
                 }
-                
-                dataset.addValue(libros, "Cantidad", "Libros");
-                dataset.addValue(tesis, "Cantidad", "Tesis");
-                dataset.addValue(revistas, "Cantidad", "Revistas");
             }
         } catch (Exception e) {
             System.err.println("Error al obtener tipos de materiales: " + e.getMessage());
@@ -569,8 +565,8 @@ public class PanelBienvenida extends JPanel {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
         try {
-            if (prestamoDAO != null) {
-                java.util.List<Object[]> topUsuarios = prestamoDAO.obtenerTopUsuariosConMasPrestamos(5);
+            if (informeDAO != null) {
+                java.util.List<Object[]> topUsuarios = informeDAO.obtenerTopUsuarios(5);
 
                 if (topUsuarios != null && !topUsuarios.isEmpty()) {
                     for (Object[] usuario : topUsuarios) {
@@ -722,56 +718,21 @@ public class PanelBienvenida extends JPanel {
         return s.substring(0, 1).toUpperCase() + s.substring(1);
     }
 
-    private Estadisticas obtenerEstadisticas() {
-        int materiales = 0, usuarios = 0;
-        int activos = 0, vencidos = 0, devueltos = 0, perdidos = 0;
-
-        try {
-            if (materialDAO != null) materiales = materialDAO.listarTodos().size();
-        } catch (Exception e) {
-            System.err.println("Error al contar materiales: " + e.getMessage());
-        }
-
-        try {
-            if (personaDAO != null) {
-                usuarios = (int) personaDAO.listarTodos().stream()
-                    .filter(p -> "USUARIO".equals(p.getRol()))
-                    .count();
-            }
-        } catch (Exception e) {
-            System.err.println("Error al contar usuarios: " + e.getMessage());
-        }
-
-        try {
-            if (prestamoDAO != null) {
-                activos = prestamoDAO.contarPrestamosActivos();
-                vencidos = prestamoDAO.contarPrestamosVencidos();
-                devueltos = prestamoDAO.contarPrestamosDevueltos();
-                perdidos = prestamoDAO.contarPrestamosPerdidos();
-            }
-        } catch (Exception e) {
-            System.err.println("Error al contar préstamos: " + e.getMessage());
+    // Una consulta a los resúmenes que mantienen los triggers, sin contar filas
+    private ResumenEstadisticas obtenerEstadisticas() {
+        if (estadisticasDAO == null) {
+            return ResumenEstadisticas.vacio();
         }
-
-        return new Estadisticas(materiales, usuarios, activos, vencidos, devueltos, perdidos);
+        return estadisticasDAO.obtenerResumen();
     }
 
     private DefaultCategoryDataset crearDatasetPrestamosPorMes() {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         String[] meses = {"Ene", "Feb", "Mar", "Abr", "May", "Jun",
                 "Jul", "Ago", "Sep", "Oct", "Nov", "Dic"};
-        try {
-            if (prestamoDAO != null) {
-                int[] prestamos = prestamoDAO.contarPrestamosPorUltimoAnio();
-                for (int i = 0; i < 12 && i < prestamos.length; i++) {
-                    dataset.addValue(prestamos[i], "Préstamos", meses[i]);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error al obtener datos de préstamos por mes: " + e.getMessage());
-            for (int i = 0; i < 12; i++) {
-                dataset.addValue((int) (Math.random() * 20 + 5), "Préstamos", meses[i]);
-            }
+        int[] prestamos = resumen.prestamosPorMes();
+        for (int i = 0; i < 12 && i < prestamos.length; i++) {
+            dataset.addValue(prestamos[i], "Préstamos", meses[i]);
         }
         return dataset;
     }
@@ -1002,55 +963,10 @@ public class PanelBienvenida extends JPanel {
             @Override
             protected Boolean doInBackground() throws Exception {
                 try {
-                    // Obtener datos actuales del dashboard
-                    Estadisticas stats = obtenerEstadisticas();
-
-                    // Obtener categorías
-                    List<Object[]> categorias = new ArrayList<>();
-                    if (materialDAO != null) {
-                        Map<String, Integer> conteo = new HashMap<>();
-                        for (biblioteca.model.MaterialBibliografico m : materialDAO.listarTodos()) {
-                            String cat = m.getCategoria().getNombreCategoria();
-                            if (cat == null || cat.isBlank()) cat = "Sin categoría";
-                            conteo.put(cat, conteo.getOrDefault(cat, 0) + 1);
-                        }
-                        for (Map.Entry<String, Integer> e : conteo.entrySet()) {
-                            categorias.add(new Object[]{e.getKey(), e.getValue()});
-                        }
-                    }
-
-                    // Obtener tipos
-                    List<Object[]> tipos = new ArrayList<>();
-                    if (materialDAO != null) {
-                        int lib = 0, tes = 0, rev = 0;
-                        for (biblioteca.model.MaterialBibliografico m : materialDAO.listarTodos()) {
-                            String t = m.getClass().getSimpleName();
-                            if (t.equals("Libro")) lib++;
-                            else if (t.equals("Tesis")) tes++;
-                            else if (t.equals("Revista")) rev++;
-                        }
-                        tipos.add(new Object[]{"Libros", lib});
-                        tipos.add(new Object[]{"Tesis", tes});
-                        tipos.add(new Object[]{"Revistas", rev});
-                    }
-
-                    // Obtener evolución y top usuarios
-                    int[] evolucion = prestamoDAO != null ? prestamoDAO.contarPrestamosPorUltimoAnio() : new int[12];
-                    List<Object[]> topU = prestamoDAO != null ? prestamoDAO.obtenerTopUsuariosConMasPrestamos(5) : new ArrayList<>();
-
-                    biblioteca.util.InformeEstadisticasPDF.DatosDashboard datos = 
-                        new biblioteca.util.InformeEstadisticasPDF.DatosDashboard(
-                            stats.totalMateriales, 
-                            stats.totalUsuarios,
-                            stats.totalPrestamosActivos, 
-                            stats.totalPrestamosVencidos,
-                            stats.totalPrestamosDevueltos, 
-                            stats.totalPrestamosPerdidos,  
-                            categorias, 
-                            evolucion, 
-                            tipos, 
-                            topU
-                        );
+                    // Datos: el resumen ya cargado y el resto de consultas a la vez
+                    biblioteca.util.InformeEstadisticasPDF.DatosDashboard datos =
+                        biblioteca.util.InformeEstadisticasPDF.recopilarDatos(resumen,
+                            informeDAO != null ? informeDAO : new biblioteca.dao.InformeDAOImpl());
 
                     // Generar PDF
                     biblioteca.util.InformeEstadisticasPDF.generar(rutaDefinitiva, datos);
@@ -1133,22 +1049,4 @@ public class PanelBienvenida extends JPanel {
         }
         return (JFrame) c;
     }
-
-    private static class Estadisticas {
-        int totalMateriales;
-        int totalUsuarios;
-        int totalPrestamosActivos;
-        int totalPrestamosVencidos;
-        int totalPrestamosDevueltos;
-        int totalPrestamosPerdidos;
-
-        Estadisticas(int materiales, int usuarios, int activos, int vencidos, int devueltos, int perdidos) {
-            this.totalMateriales = materiales;
-            this.totalUsuarios = usuarios;
-            this.totalPrestamosActivos = activos;
-            this.totalPrestamosVencidos = vencidos;
-            this.totalPrestamosDevueltos = devueltos;
-            this.totalPrestamosPerdidos = perdidos;
-        }
-    }
-}
\ No newline at end of file
+}
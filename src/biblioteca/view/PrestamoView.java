@@ -3,19 +3,29 @@ package biblioteca.view;
 import biblioteca.controller.MaterialController;
 import biblioteca.controller.PrestamoController;
 import biblioteca.controller.UsuarioController;
+import biblioteca.dao.BusEventos;
+import biblioteca.dao.ResultadoEscaneo;
+import biblioteca.model.EventoDominio;
 import biblioteca.model.MaterialBibliografico;
+import biblioteca.model.Multa;
+import biblioteca.model.Prestamo;
 import biblioteca.model.Usuario;
 import biblioteca.util.BotonModerno;
 import biblioteca.util.BuscadorTablaUtil;
+import biblioteca.util.EjecutorAsincrono;
 import biblioteca.util.EstilosAplicacion;
 import biblioteca.util.Iconos;
+import biblioteca.util.ModeloTablaPerezoso;
 import biblioteca.util.PanelBuscador;
 import com.toedter.calendar.JDateChooser;
 import java.awt.*;
 import java.awt.event.*;
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
 import org.jdesktop.swingx.autocomplete.AutoCompleteDecorator;
 
 public class PrestamoView extends JPanel {
@@ -29,12 +39,16 @@ public class PrestamoView extends JPanel {
     private JComboBox<MaterialBibliografico> cmbMaterial;
     private JComboBox<String> cmbTipoMaterial;
     private JDateChooser dateChooserPrestamo, dateChooserDevolucion;
+    private JTextField txtCodigoBarra;
+    private JLabel lblEscaneo;
     private JTable tablaPrestamos;
     private BotonModerno btnRegistrar, btnDevolver, btnPerdido, btnNuevo;
     private BotonModerno btnVerTodos, btnVerActivos, btnVerVencidos, btnVerPerdidos;
     private PanelBuscador panelBuscadorPrestamos;
     private String filtroActual = "TODOS";
     private int idSeleccionado = 0;
+    // Lectura del combo de materiales; una nueva descarta la que siga en curso
+    private final EjecutorAsincrono.Canal canalMateriales = new EjecutorAsincrono.Canal();
 
     // Multas
     private JTable tablaMultas;
@@ -45,6 +59,13 @@ public class PrestamoView extends JPanel {
     private String filtroMultas = "TODAS";
     private int idMulta = 0;
 
+    // Cambios publicados por los DAO mientras la vista está en pantalla
+    private BusEventos.Suscripcion suscripcion;
+    // Un lote publica un evento por elemento: se agrupan en una sola recarga
+    // de la tabla y una sola lectura por material
+    private boolean refrescoPrestamosPendiente;
+    private final Set<Integer> materialesPendientes = new HashSet<>();
+
     public PrestamoView() { this(null, null, null); }
     
     public PrestamoView(PrestamoController c, UsuarioController uc, MaterialController mc) {
@@ -58,7 +79,185 @@ public class PrestamoView extends JPanel {
     public void recargar() {
         if (controller != null && usuarioController != null && materialController != null) cargarDatosIniciales();
     }
+
+    /**
+     * Recarga solo lo que depende de las tablas que cambiaron desde la última
+     * vez que se mostró la pantalla, conservando los filtros elegidos.
+     */
+    public void recargar(Set<String> cambiadas) {
+        if (controller == null || usuarioController == null || materialController == null) return;
+        if (cambiadas.contains("Personas")) cargarUsuarios();
+        if (GestorPantallas.cambioAlguna(cambiadas, "Materiales", "Ejemplares")) cargarMaterialesPorTipo();
+        if (GestorPantallas.cambioAlguna(cambiadas, "Prestamos", "Personas", "Materiales", "Ejemplares")) recargarP();
+        if (cambiadas.contains("Configuracion")) cargarConfigMulta();
+        if (GestorPantallas.cambioAlguna(cambiadas, "Multas", "Prestamos", "Personas", "Materiales")) recargarM();
+    }
     
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (suscripcion == null) {
+            suscripcion = BusEventos.suscribir(EventoDominio.class,
+                    evento -> SwingUtilities.invokeLater(() -> aplicarCambio(evento)));
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (suscripcion != null) {
+            suscripcion.cancelar();
+            suscripcion = null;
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * Aplica un cambio ya confirmado tocando solo lo afectado: la
+     * disponibilidad de un material en el combo, la tabla de préstamos
+     * (recarga del modelo perezoso, que conserva orden y búsqueda) o la fila
+     * de una multa. Se entrega con invokeLater para que quien escribió
+     * termine antes (p. ej. actualizar un material y después sus ejemplares).
+     */
+    private void aplicarCambio(EventoDominio evento) {
+        if (controller == null || usuarioController == null || materialController == null) return;
+
+        if (evento instanceof EventoDominio.CambioDisponibilidad cambio) {
+            actualizarMaterialEnCombo(cambio.idMaterial());
+        }
+        switch (evento) {
+            case EventoDominio.PrestamoRegistrado p -> refrescarPrestamos();
+            case EventoDominio.PrestamoDevuelto p -> refrescarPrestamos();
+            case EventoDominio.PrestamoPerdido p -> refrescarPrestamos();
+            case EventoDominio.EjemplarCambiado e -> { }
+            case EventoDominio.MaterialActualizado m -> {
+                actualizarMaterialEnCombo(m.idMaterial());
+                refrescarPrestamos();
+            }
+            case EventoDominio.MultaCreada m -> actualizarMulta(m.idMulta());
+            case EventoDominio.MultaPagada m -> actualizarMulta(m.idMulta());
+            case EventoDominio.MultaCondonada m -> actualizarMulta(m.idMulta());
+        }
+    }
+
+    // Perdidos es un listado en memoria que cruza préstamos y multas: se rehace entero.
+    // Se aplaza tras los eventos ya encolados para recargar una vez por lote.
+    private void refrescarPrestamos() {
+        if (refrescoPrestamosPendiente) return;
+        refrescoPrestamosPendiente = true;
+        SwingUtilities.invokeLater(() -> {
+            refrescoPrestamosPendiente = false;
+            if (!"PERDIDOS".equals(filtroActual)
+                    && tablaPrestamos.getModel() instanceof ModeloTablaPerezoso<?> modelo) {
+                modelo.recargar();
+            } else {
+                recargarP();
+            }
+        });
+    }
+
+    /**
+     * Lee solo ese material y lo pone, lo quita o lo sustituye en el combo,
+     * que está ordenado por título como listarTodos.
+     */
+    private void actualizarMaterialEnCombo(int idMaterial) {
+        if (!materialesPendientes.add(idMaterial)) return;
+        SwingUtilities.invokeLater(() -> {
+            materialesPendientes.remove(idMaterial);
+            leerMaterialEnCombo(idMaterial);
+        });
+    }
+
+    private void leerMaterialEnCombo(int idMaterial) {
+        EjecutorAsincrono.ejecutar(() -> materialController.buscarMaterial(idMaterial), material -> {
+            DefaultComboBoxModel<MaterialBibliografico> modelo =
+                    (DefaultComboBoxModel<MaterialBibliografico>) cmbMaterial.getModel();
+            Object seleccionado = modelo.getSelectedItem();
+
+            for (int i = 0; i < modelo.getSize(); i++) {
+                MaterialBibliografico m = modelo.getElementAt(i);
+                if (m != null && m.getId() == idMaterial) {
+                    modelo.removeElementAt(i);
+                    break;
+                }
+            }
+            if (material == null || material.getCantidadDisponible() <= 0 || !coincideTipo(material)) {
+                return;
+            }
+
+            int posicion = modelo.getSize();
+            for (int i = 0; i < modelo.getSize(); i++) {
+                MaterialBibliografico m = modelo.getElementAt(i);
+                if (m != null && m.getTitulo() != null && material.getTitulo() != null
+                        && m.getTitulo().compareTo(material.getTitulo()) > 0) {
+                    posicion = i;
+                    break;
+                }
+            }
+            modelo.insertElementAt(material, posicion);
+            if (seleccionado instanceof MaterialBibliografico anterior && anterior.getId() == idMaterial) {
+                modelo.setSelectedItem(material);
+            }
+        });
+    }
+
+    private boolean coincideTipo(MaterialBibliografico material) {
+        String tipoSeleccionado = (String) cmbTipoMaterial.getSelectedItem();
+        return "Todos".equals(tipoSeleccionado)
+                || convertirTipoANombre(material.getTipoMaterial()).equals(tipoSeleccionado);
+    }
+
+    /**
+     * Lee solo esa multa y actualiza, quita o añade su fila según el filtro
+     * de la pestaña de multas. La tabla va por fecha descendente.
+     */
+    private void actualizarMulta(int idMultaCambiada) {
+        if ("PERDIDOS".equals(filtroActual)) {
+            recargarP();   // la columna "Estado Multa" sale de las multas
+        }
+        EjecutorAsincrono.ejecutar(() -> controller.obtenerMulta(idMultaCambiada), multa -> {
+            if (!(tablaMultas.getModel() instanceof DefaultTableModel modelo)) {
+                recargarM();
+                return;
+            }
+            int fila = -1;
+            for (int i = 0; i < modelo.getRowCount(); i++) {
+                if (Integer.valueOf(idMultaCambiada).equals(modelo.getValueAt(i, 0))) {
+                    fila = i;
+                    break;
+                }
+            }
+
+            boolean entra = multa != null && switch (filtroMultas) {
+                case "PENDIENTES" -> !multa.isPagada();
+                case "PAGADAS" -> multa.isPagada();
+                default -> true;
+            };
+
+            if (fila >= 0 && entra) {
+                Object[] valores = controller.filaMulta(multa);
+                for (int c = 0; c < valores.length && c < modelo.getColumnCount(); c++) {
+                    modelo.setValueAt(valores[c], fila, c);
+                }
+            } else if (fila >= 0) {
+                modelo.removeRow(fila);
+            } else if (entra) {
+                modelo.insertRow(posicionPorFecha(modelo, multa), controller.filaMulta(multa));
+            }
+        });
+    }
+
+    private int posicionPorFecha(DefaultTableModel modelo, Multa multa) {
+        String fecha = multa.getFechaMulta() != null ? multa.getFechaMulta() : "";
+        int columnaFecha = modelo.getColumnCount() - 1;
+        for (int i = 0; i < modelo.getRowCount(); i++) {
+            Object otra = modelo.getValueAt(i, columnaFecha);
+            if (otra == null || otra.toString().compareTo(fecha) < 0) {
+                return i;
+            }
+        }
+        return modelo.getRowCount();
+    }
+
     public void setControllers(PrestamoController c, UsuarioController uc, MaterialController mc) {
         this.controller = c;
         this.usuarioController = uc;
@@ -134,6 +333,17 @@ public class PrestamoView extends JPanel {
         g.gridx=2; form.add(lbl("Fecha Devolución:"), g);
         g.gridx=3; dateChooserDevolucion = date(15); form.add(dateChooserDevolucion, g);
 
+        // Lector de código de barras: presta al usuario seleccionado o devuelve
+        g.gridx=0; g.gridy=3; form.add(lbl("Código de Barras:"), g);
+        g.gridx=1; txtCodigoBarra = EstilosAplicacion.crearCampoTexto(20);
+        txtCodigoBarra.setToolTipText("Escanee un ejemplar: si está prestado se registra la devolución; "
+                + "si no, se presta al usuario seleccionado");
+        form.add(txtCodigoBarra, g);
+        g.gridx=2; g.gridwidth=2; lblEscaneo = new JLabel(" ");
+        lblEscaneo.setFont(EstilosAplicacion.FUENTE_ETIQUETA);
+        form.add(lblEscaneo, g);
+        g.gridwidth=1;
+
         // BOTONES
         JPanel bot = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5));
         bot.setBackground(EstilosAplicacion.COLOR_FONDO);
@@ -352,6 +562,7 @@ public class PrestamoView extends JPanel {
         btnDevolver.addActionListener(e -> registrarDevolucion());
         btnPerdido.addActionListener(e -> marcarPerdido());
         btnNuevo.addActionListener(e -> nuevo());
+        txtCodigoBarra.addActionListener(e -> procesarEscaneo());
 
         btnVerTodos.addActionListener(e -> { 
             filtroActual="TODOS"; 
@@ -486,29 +697,24 @@ public class PrestamoView extends JPanel {
         }
     }
 
+    /**
+     * Los materiales con ejemplares disponibles se leen en segundo plano; el
+     * combo se llena en el EDT con los del tipo elegido.
+     */
     private void cargarMaterialesPorTipo() {
         if (materialController == null) return;
 
         String tipoSeleccionado = (String) cmbTipoMaterial.getSelectedItem();
-        cmbMaterial.removeAllItems();
-        cmbMaterial.addItem(null);
-
-        try {
-            for (MaterialBibliografico m : materialController.obtenerMateriales()) {
-                if (m.getCantidadDisponible() > 0) {
-                    if ("Todos".equals(tipoSeleccionado)) {
-                        cmbMaterial.addItem(m);
-                    } else {
-                        String tipoMaterial = convertirTipoANombre(m.getTipoMaterial());
-                        if (tipoMaterial.equals(tipoSeleccionado)) {
-                            cmbMaterial.addItem(m);
-                        }
-                    }
+        canalMateriales.ejecutar(materialController::obtenerMaterialesDisponibles, materiales -> {
+            cmbMaterial.removeAllItems();
+            cmbMaterial.addItem(null);
+            for (MaterialBibliografico m : materiales) {
+                if ("Todos".equals(tipoSeleccionado)
+                        || convertirTipoANombre(m.getTipoMaterial()).equals(tipoSeleccionado)) {
+                    cmbMaterial.addItem(m);
                 }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     private String convertirTipoANombre(String tipo) {
@@ -525,12 +731,6 @@ public class PrestamoView extends JPanel {
         cargarMaterialesPorTipo();
     }
 
-    // Verificar si usuario tiene préstamos activos
-    private boolean usuarioTienePrestamosActivos(int idUsuario) {
-        if (controller == null) return false;
-        return controller.tienePrestamoActivo(idUsuario);
-    }
-
     private void registrarPrestamo() {
         if (controller == null) return;
 
@@ -591,18 +791,6 @@ public class PrestamoView extends JPanel {
             return;
         }
 
-        // Verificar préstamos activos
-        if (usuarioTienePrestamosActivos(u.getId())) {
-            JOptionPane.showMessageDialog(this,
-                    "El usuario ya tiene un préstamo activo.\n\n" +
-                    "Usuario: " + u.getNombre() + "\n\n" +
-                    "Por favor, primero debe devolver el material prestado\n" +
-                    "antes de poder realizar un nuevo préstamo.",
-                    "Préstamo Activo Existente",
-                    JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
         // CONFIRMACIÓN DE CORREO CORREGIDA
         int enviarCorreo = JOptionPane.showConfirmDialog(this,
                 "¿Desea enviar un correo de confirmación del préstamo?\n\n" +
@@ -614,51 +802,106 @@ public class PrestamoView extends JPanel {
                 JOptionPane.QUESTION_MESSAGE);
 
         // Registrar el préstamo
-        boolean resultado = controller.registrarPrestamo(
+        // El registro (y el correo) va en segundo plano; se evita el doble clic mientras tanto
+        btnRegistrar.setEnabled(false);
+        final Usuario usuario = u;
+        final MaterialBibliografico material = m;
+        controller.registrarPrestamo(
             u.getId(), 
             m.getId(), 
             fp, 
             fd, 
             enviarCorreo == JOptionPane.YES_OPTION
-        );
+        ).whenCompleteAsync((resultado, error) -> {
+            btnRegistrar.setEnabled(true);
+            if (Boolean.TRUE.equals(resultado)) {
+                if (enviarCorreo == JOptionPane.YES_OPTION) {
+                    JOptionPane.showMessageDialog(this, 
+                            "Préstamo registrado exitosamente.\n\n" +
+                            "El comprobante se está enviando a:\n" +
+                            usuario.getEmail() + "\n\n" +
+                            "Detalles del préstamo:\n" +
+                            "• Material: " + material.getTitulo() + "\n" +
+                            "• Fecha de préstamo: " + fp + "\n" +
+                            "• Fecha de devolución: " + fd,
+                            "Éxito",
+                            JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                            "Préstamo registrado exitosamente.\n\n" +
+                            "Detalles del préstamo:\n" +
+                            "• Usuario: " + usuario.getNombre() + "\n" +
+                            "• Material: " + material.getTitulo() + "\n" +
+                            "• Fecha de préstamo: " + fp + "\n" +
+                            "• Fecha de devolución: " + fd,
+                            "Éxito",
+                            JOptionPane.INFORMATION_MESSAGE);
+                }
 
-        if (resultado) {
-            if (enviarCorreo == JOptionPane.YES_OPTION) {
-                JOptionPane.showMessageDialog(this, 
-                        "Préstamo registrado exitosamente.\n\n" +
-                        "Correo de confirmación enviado a:\n" +
-                        u.getEmail() + "\n\n" +
-                        "Detalles del préstamo:\n" +
-                        "• Material: " + m.getTitulo() + "\n" +
-                        "• Fecha de préstamo: " + fp + "\n" +
-                        "• Fecha de devolución: " + fd,
-                        "Éxito",
-                        JOptionPane.INFORMATION_MESSAGE);
+                limpiar();
             } else {
-                JOptionPane.showMessageDialog(this, 
-                        "Préstamo registrado exitosamente.\n\n" +
-                        "Detalles del préstamo:\n" +
-                        "• Usuario: " + u.getNombre() + "\n" +
-                        "• Material: " + m.getTitulo() + "\n" +
-                        "• Fecha de préstamo: " + fp + "\n" +
-                        "• Fecha de devolución: " + fd,
-                        "Éxito",
-                        JOptionPane.INFORMATION_MESSAGE);
+                JOptionPane.showMessageDialog(this,
+                        "Error al registrar el préstamo.\n\n" +
+                        "Por favor, verifique:\n" +
+                        "• Que el material esté disponible\n" +
+                        "• Que los datos sean correctos\n" +
+                        "• La conexión con la base de datos",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
             }
+        }, EjecutorAsincrono.EDT);
+    }
 
-            limpiar();
-            recargarP();
-            cargarMaterialesPorTipo();
-        } else {
-            JOptionPane.showMessageDialog(this,
-                    "Error al registrar el préstamo.\n\n" +
-                    "Por favor, verifique:\n" +
-                    "• Que el material esté disponible\n" +
-                    "• Que los datos sean correctos\n" +
-                    "• La conexión con la base de datos",
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
+    /**
+     * Lector en modo teclado: teclea el código y un Enter. Cada escaneo presta o
+     * devuelve en un paso y deja el campo vacío para el siguiente; el resultado
+     * va a la etiqueta de al lado (con un pitido si falla), sin diálogos.
+     */
+    private void procesarEscaneo() {
+        String codigo = txtCodigoBarra.getText().trim();
+        txtCodigoBarra.setText("");
+        if (codigo.isEmpty() || controller == null) return;
+
+        Usuario u = cmbUsuario.getSelectedItem() instanceof Usuario usuario ? usuario : null;
+        LocalDate fp = LocalDate.now();
+        LocalDate fd = dateChooserDevolucion.getDate() == null ? null
+                : dateChooserDevolucion.getDate().toInstant()
+                        .atZone(java.time.ZoneId.systemDefault()).toLocalDate();
+        if (fd == null || !fd.isAfter(fp)) {
+            fd = fp.plusDays(15);
         }
+
+        long inicio = System.nanoTime();
+        controller.escanear(codigo, u != null ? u.getId() : 0, fp, fd)
+                .whenCompleteAsync((r, error) -> {
+                    long ms = (System.nanoTime() - inicio) / 1_000_000;
+                    if (error != null || r == null || !r.exito()) {
+                        Toolkit.getDefaultToolkit().beep();
+                        String motivo = error != null ? error.getMessage()
+                                : r != null ? r.resultado().mensaje() : "sin respuesta";
+                        mostrarEscaneo(codigo + ": " + motivo, EstilosAplicacion.COLOR_PELIGRO);
+                        return;
+                    }
+                    Prestamo p = r.prestamo();
+                    String titulo = p != null && p.getMaterial() != null ? p.getMaterial().getTitulo() : codigo;
+                    if (r.accion() == ResultadoEscaneo.Accion.DEVOLUCION) {
+                        Multa multa = r.resultado().multa();
+                        mostrarEscaneo("Devuelto: " + titulo
+                                + (multa != null ? String.format(" (multa $%.2f)", multa.getMonto()) : "")
+                                + " · " + ms + " ms",
+                                multa != null ? EstilosAplicacion.COLOR_ADVERTENCIA : EstilosAplicacion.COLOR_EXITO);
+                    } else {
+                        String nombre = p != null && p.getPersona() != null ? p.getPersona().getNombre() : "";
+                        mostrarEscaneo("Prestado: " + titulo + " a " + nombre + " hasta "
+                                + (p != null ? p.getFechaDevolucionEsperada() : "") + " · " + ms + " ms",
+                                EstilosAplicacion.COLOR_EXITO);
+                    }
+                }, EjecutorAsincrono.EDT);
+    }
+
+    private void mostrarEscaneo(String texto, Color color) {
+        lblEscaneo.setText(texto);
+        lblEscaneo.setForeground(color);
     }
 
     // registrarDevolucion
@@ -712,37 +955,36 @@ public class PrestamoView extends JPanel {
                 JOptionPane.QUESTION_MESSAGE);
 
         // Registrar la devolución
-        boolean resultado = controller.registrarDevolucion(
+        btnDevolver.setEnabled(false);
+        controller.registrarDevolucion(
             idSeleccionado, 
             tarifaPorDia, 
             enviarCorreo == JOptionPane.YES_OPTION
-        );
-
-        if (resultado) {
-            String mensajeCorreo = "";
-            if (enviarCorreo == JOptionPane.YES_OPTION) {
-                mensajeCorreo = "\nCorreo de confirmación enviado al usuario.";
-            }
+        ).whenCompleteAsync((resultado, error) -> {
+            btnDevolver.setEnabled(true);
+            if (Boolean.TRUE.equals(resultado)) {
+                String mensajeCorreo = "";
+                if (enviarCorreo == JOptionPane.YES_OPTION) {
+                    mensajeCorreo = "\nEl comprobante se está enviando al usuario.";
+                }
 
-            JOptionPane.showMessageDialog(this,
-                    "Devolución registrada exitosamente." + mensajeCorreo,
-                    "Éxito",
-                    JOptionPane.INFORMATION_MESSAGE);
+                JOptionPane.showMessageDialog(this,
+                        "Devolución registrada exitosamente." + mensajeCorreo,
+                        "Éxito",
+                        JOptionPane.INFORMATION_MESSAGE);
 
-            limpiar();
-            recargarP();
-            cargarMaterialesPorTipo();
-            cargarMultas();
-            btnRegistrar.setEnabled(true);
-            btnDevolver.setEnabled(false);
-            btnPerdido.setEnabled(false);
-        } else {
-            JOptionPane.showMessageDialog(this,
-                    "Error al registrar la devolución.\n\n" +
-                    "Verifique que el préstamo esté en estado 'Activo' o 'Vencido'.",
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+                limpiar();
+                btnRegistrar.setEnabled(true);
+                btnDevolver.setEnabled(false);
+                btnPerdido.setEnabled(false);
+            } else {
+                JOptionPane.showMessageDialog(this,
+                        "Error al registrar la devolución.\n\n" +
+                        "Verifique que el préstamo esté en estado 'Activo' o 'Vencido'.",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        }, EjecutorAsincrono.EDT);
     }
 
     private void marcarPerdido() {
@@ -772,32 +1014,31 @@ public class PrestamoView extends JPanel {
             return;
         }
 
-        boolean resultado = controller.marcarPrestamoComoPerdido(
+        btnPerdido.setEnabled(false);
+        controller.marcarPrestamoComoPerdido(
             idSeleccionado, 
             multaPerdida, 
             false
-        );
-
-        if (resultado) {
-            JOptionPane.showMessageDialog(this,
-                    "Material marcado como PERDIDO\n\n" +
-                    "Detalles de la Multa:\n" +
-                    "• Monto a pagar: $" + String.format("%.2f", multaPerdida) + "\n" +
-                    "• Estado: Pendiente de pago\n" +
-                    "• Concepto: Material perdido\n\n" +
-                    "La multa ha sido registrada en el sistema.\n" +
-                    "Puede consultarla en la pestaña 'Multas'.",
-                    "Multa Registrada",
-                    JOptionPane.INFORMATION_MESSAGE);
+        ).whenCompleteAsync((resultado, error) -> {
+            btnPerdido.setEnabled(true);
+            if (Boolean.TRUE.equals(resultado)) {
+                JOptionPane.showMessageDialog(this,
+                        "Material marcado como PERDIDO\n\n" +
+                        "Detalles de la Multa:\n" +
+                        "• Monto a pagar: $" + String.format("%.2f", multaPerdida) + "\n" +
+                        "• Estado: Pendiente de pago\n" +
+                        "• Concepto: Material perdido\n\n" +
+                        "La multa ha sido registrada en el sistema.\n" +
+                        "Puede consultarla en la pestaña 'Multas'.",
+                        "Multa Registrada",
+                        JOptionPane.INFORMATION_MESSAGE);
 
-            limpiar();
-            recargarP();
-            cargarMaterialesPorTipo();
-            cargarMultas();
-            btnRegistrar.setEnabled(true);
-            btnDevolver.setEnabled(false);
-            btnPerdido.setEnabled(false);
-        }
+                limpiar();
+                btnRegistrar.setEnabled(true);
+                btnDevolver.setEnabled(false);
+                btnPerdido.setEnabled(false);
+            }
+        }, EjecutorAsincrono.EDT);
     }
 
     private void nuevo() {
@@ -911,10 +1152,11 @@ public class PrestamoView extends JPanel {
     
     private void cargarPerdidos() {
         if (controller != null) {
-            controller.cargarTablaPerdidos(tablaPrestamos);
-            EstilosAplicacion.aplicarEstiloHeaderTabla(tablaPrestamos);
-            renderEstado();
-            BuscadorTablaUtil.configurar(tablaPrestamos, panelBuscadorPrestamos, new int[]{1, 2, 3});
+            controller.cargarTablaPerdidos(tablaPrestamos, () -> {
+                EstilosAplicacion.aplicarEstiloHeaderTabla(tablaPrestamos);
+                renderEstado();
+                BuscadorTablaUtil.configurar(tablaPrestamos, panelBuscadorPrestamos, new int[]{1, 2, 3});
+            });
         }
     }
 
@@ -966,11 +1208,13 @@ public class PrestamoView extends JPanel {
 
                         if (!isSelected) {
                             try {
+                                // El estado de las multas viene con la fila: pintar no consulta la base
                                 int modelRow = table.convertRowIndexToModel(row);
-                                int idPrestamo = (int) table.getModel().getValueAt(modelRow, 0);
+                                Prestamo prestamo = table.getModel() instanceof ModeloTablaPerezoso<?> modelo
+                                        && modelo.getElemento(modelRow) instanceof Prestamo p ? p : null;
 
-                                boolean tienePendientes = controller != null && controller.tieneMultasPendientes(idPrestamo);
-                                boolean tienePagadas = controller != null && controller.tieneMultasPagadas(idPrestamo);
+                                boolean tienePendientes = prestamo != null && prestamo.isMultasPendientes();
+                                boolean tienePagadas = prestamo != null && prestamo.isMultasPagadas();
 
                                 if (tienePendientes) {
                                     c.setBackground(new Color(255, 250, 205));
@@ -1078,11 +1322,16 @@ public class PrestamoView extends JPanel {
             return;
         }
 
-        if (controller.marcarMultaPagada(idMulta)) {
-            limpiarMultas();
-            recargarM();
-            recargarP();
-        }
+        btnMarcarPagada.setEnabled(false);
+        btnCondonar.setEnabled(false);
+        controller.marcarMultaPagada(idMulta).whenCompleteAsync((ok, error) -> {
+            if (Boolean.TRUE.equals(ok)) {
+                limpiarMultas();
+            } else {
+                btnMarcarPagada.setEnabled(idMulta != 0);
+                btnCondonar.setEnabled(idMulta != 0);
+            }
+        }, EjecutorAsincrono.EDT);
     }
 
     private void condonar() {
@@ -1094,11 +1343,16 @@ public class PrestamoView extends JPanel {
             return;
         }
 
-        if (controller.condonarMulta(idMulta)) {
-            limpiarMultas();
-            recargarM();
-            recargarP();
-        }
+        btnMarcarPagada.setEnabled(false);
+        btnCondonar.setEnabled(false);
+        controller.condonarMulta(idMulta).whenCompleteAsync((ok, error) -> {
+            if (Boolean.TRUE.equals(ok)) {
+                limpiarMultas();
+            } else {
+                btnMarcarPagada.setEnabled(idMulta != 0);
+                btnCondonar.setEnabled(idMulta != 0);
+            }
+        }, EjecutorAsincrono.EDT);
     }
     
     private String obtenerEstadoMultaSeleccionada() {
@@ -1131,43 +1385,46 @@ public class PrestamoView extends JPanel {
 
     private void cargarMultas() {
         if (controller != null) {
-            controller.cargarTablaMultas(tablaMultas);
-            EstilosAplicacion.aplicarEstiloHeaderTabla(tablaMultas);
-            renderEstadoMultas();
-            
-            BuscadorTablaUtil.configurar(
-                    tablaMultas,
-                    panelBuscadorMultas,
-                    new int[]{1, 2}
-            );
+            controller.cargarTablaMultas(tablaMultas, () -> {
+                EstilosAplicacion.aplicarEstiloHeaderTabla(tablaMultas);
+                renderEstadoMultas();
+                
+                BuscadorTablaUtil.configurar(
+                        tablaMultas,
+                        panelBuscadorMultas,
+                        new int[]{1, 2}
+                );
+            });
         }
     }
 
     private void cargarPendientes() {
         if (controller != null) {
-            controller.cargarTablaMultasPendientes(tablaMultas);
-            EstilosAplicacion.aplicarEstiloHeaderTabla(tablaMultas);
-            renderEstadoMultas();
-            
-            BuscadorTablaUtil.configurar(
-                    tablaMultas,
-                    panelBuscadorMultas,
-                    new int[]{1, 2}
-            );
+            controller.cargarTablaMultasPendientes(tablaMultas, () -> {
+                EstilosAplicacion.aplicarEstiloHeaderTabla(tablaMultas);
+                renderEstadoMultas();
+                
+                BuscadorTablaUtil.configurar(
+                        tablaMultas,
+                        panelBuscadorMultas,
+                        new int[]{1, 2}
+                );
+            });
         }
     }
 
     private void cargarPagadas() {
         if (controller != null) {
-            controller.cargarTablaMultasPagadas(tablaMultas);
-            EstilosAplicacion.aplicarEstiloHeaderTabla(tablaMultas);
-            renderEstadoMultas();
-            
-            BuscadorTablaUtil.configurar(
-                    tablaMultas,
-                    panelBuscadorMultas,
-                    new int[]{1, 2}
-            );
+            controller.cargarTablaMultasPagadas(tablaMultas, () -> {
+                EstilosAplicacion.aplicarEstiloHeaderTabla(tablaMultas);
+                renderEstadoMultas();
+                
+                BuscadorTablaUtil.configurar(
+                        tablaMultas,
+                        panelBuscadorMultas,
+                        new int[]{1, 2}
+                );
+            });
         }
     }
 